@@ -5,7 +5,6 @@ import static edu.unc.lib.boxc.auth.api.services.PrincipalClassifier.getPatronPr
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -13,13 +12,18 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.services.ContentPathFactory;
 import edu.unc.lib.boxc.auth.api.AccessPrincipalConstants;
@@ -45,23 +49,122 @@ public class InheritedAclFactory implements AclFactory {
 
     private ContentPathFactory pathFactory;
 
+    private Cache<PID, EffectiveAcl> effectiveAclCache;
+    // Index from each pid to the cached objects whose effective acls were inherited through it
+    private final Map<PID, Set<PID>> inheritanceIndex = new ConcurrentHashMap<>();
+    private long cacheTimeToLive;
+    private long cacheMaxSize;
+
     private static final int EMBARGO_ROLE_PRECEDENCE = 1;
 
+    /**
+     * Initializes the cache of effective access control details. If not called, then the
+     * details are computed from the full path of the object on every request.
+     */
+    public void init() {
+        effectiveAclCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTimeToLive, TimeUnit.MILLISECONDS)
+                .removalListener((RemovalNotification<PID, EffectiveAcl> notification) -> {
+                    // Replaced entries are reindexed by the caller
+                    if (notification.getCause() != RemovalCause.REPLACED) {
+                        unindexEffectiveAcl(notification.getKey(), notification.getValue());
+                    }
+                })
+                .build();
+    }
+
     @Override
     public Map<String, Set<String>> getPrincipalRoles(PID target) {
+        EffectiveAcl acl = getEffectiveAcl(target);
+        Map<String, Set<String>> princRoles = copyPrincipalRoles(acl.principalRoles);
+
+        // Units cannot be assigned patron roles, but have an assumed non-inheritable everyone permission
+        if (!acl.complete && acl.path.size() == UNIT_PATH_DEPTH + 1) {
+            Set<String> roles = new HashSet<>();
+            roles.add(UserRole.canViewOriginals.getPropertyString());
+            princRoles.put(AccessPrincipalConstants.PUBLIC_PRINC, roles);
+        }
+
+        return princRoles;
+    }
+
+    /**
+     * Retrieves the effective access control details for the target, computing them from the effective
+     * details of its closest cached ancestor plus the details directly assigned to the objects below it.
+     */
+    private EffectiveAcl getEffectiveAcl(PID target) {
+        if (effectiveAclCache != null) {
+            EffectiveAcl cached = effectiveAclCache.getIfPresent(target);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
         // Retrieve the path of objects up to and including the target
         List<PID> path = getPidPath(target);
+        if (path.isEmpty()) {
+            return EffectiveAcl.EMPTY;
+        }
 
-        Map<String, Set<String>> inheritedPrincRoles = new HashMap<>();
-        Set<String> customPatronPrincs = null;
-
-        // Iterate through each step in the path except for the root content node
+        // Find the closest ancestor whose effective acl is already known
+        EffectiveAcl acl = null;
         int depth = 0;
+        if (effectiveAclCache != null) {
+            for (int i = path.size() - 2; i >= 0; i--) {
+                EffectiveAcl cached = effectiveAclCache.getIfPresent(path.get(i));
+                if (cached != null && cached.path.equals(path.subList(0, i + 1))) {
+                    acl = cached;
+                    depth = i + 1;
+                    break;
+                }
+            }
+        }
+
         for (; depth < path.size(); depth++) {
-            PID pathPid = path.get(depth);
+            acl = computeEffectiveAcl(acl, path.subList(0, depth + 1));
+            if (effectiveAclCache != null) {
+                cacheEffectiveAcl(path.get(depth), acl);
+            }
+        }
+        return acl;
+    }
 
-            Map<String, Set<String>> objectPrincipalRoles = objectAclFactory.getPrincipalRoles(pathPid);
+    private void cacheEffectiveAcl(PID pid, EffectiveAcl acl) {
+        effectiveAclCache.put(pid, acl);
+        for (PID pathPid : acl.path) {
+            inheritanceIndex.computeIfAbsent(pathPid, k -> ConcurrentHashMap.newKeySet()).add(pid);
+        }
+    }
+
+    private void unindexEffectiveAcl(PID pid, EffectiveAcl acl) {
+        for (PID pathPid : acl.path) {
+            inheritanceIndex.computeIfPresent(pathPid, (k, inheritors) -> {
+                inheritors.remove(pid);
+                return inheritors.isEmpty() ? null : inheritors;
+            });
+        }
+    }
+
+    /**
+     * Compute the effective acl for the last object in the path, from the effective acl of its parent
+     *
+     * @param parentAcl effective acl of the parent, or null if the object is a unit
+     * @param path path of objects, starting from the unit, up to and including the object
+     * @return the effective acl
+     */
+    private EffectiveAcl computeEffectiveAcl(EffectiveAcl parentAcl, List<PID> path) {
+        int depth = path.size() - 1;
+        PID pid = path.get(depth);
+        boolean complete = parentAcl != null && parentAcl.complete;
+        Map<String, Set<String>> inheritedPrincRoles = parentAcl == null ?
+                new HashMap<>() : copyPrincipalRoles(parentAcl.principalRoles);
+        Set<String> customPatronPrincs = parentAcl == null ? null : parentAcl.customPatronPrincs;
+
+        // Once no patron assignments with permissions are inherited, nothing further may be added
+        if (!complete) {
+            Map<String, Set<String>> objectPrincipalRoles =
+                    copyPrincipalRoles(objectAclFactory.getPrincipalRoles(pid));
 
             // For the first two objects (unit, collection), staff roles should be considered
             if (depth < CONTENT_STARTING_DEPTH) {
@@ -72,28 +175,48 @@ public class InheritedAclFactory implements AclFactory {
                 // No patron assignments with permissions inherited, nothing further may be added
                 Set<String> inheritedPatronPrincipals = getPatronPrincipals(inheritedPrincRoles.keySet());
                 if (!hasActivePatronRole(inheritedPatronPrincipals, inheritedPrincRoles)) {
-                    return removeNoneRoles(inheritedPrincRoles);
-                }
+                    removeNoneRoles(inheritedPrincRoles);
+                    complete = true;
+                } else {
+                    if (depth == COLLECTION_PATH_DEPTH) {
+                        customPatronPrincs = getCustomPatronPrincs(objectPrincipalRoles);
+                    }
 
-                if (depth == COLLECTION_PATH_DEPTH) {
-                    customPatronPrincs = getCustomPatronPrincs(objectPrincipalRoles);
+                    // Apply any further patron restrictions to inherited patron principals
+                    adjustPatronPrincipalRoles(pid, inheritedPrincRoles,
+                            inheritedPatronPrincipals, objectPrincipalRoles, customPatronPrincs);
                 }
-
-                // Apply any further patron restrictions to inherited patron principals
-                adjustPatronPrincipalRoles(pathPid, inheritedPrincRoles,
-                        inheritedPatronPrincipals, objectPrincipalRoles, customPatronPrincs);
             }
         }
 
-        // Units cannot be assigned patron roles, but have an assumed non-inheritable everyone permission
-        // Checking for unit depth + 1 since the counter will be one past the object checked
-        if (depth == UNIT_PATH_DEPTH + 1) {
-            Set<String> roles = new HashSet<>();
-            roles.add(UserRole.canViewOriginals.getPropertyString());
-            inheritedPrincRoles.put(AccessPrincipalConstants.PUBLIC_PRINC, roles);
+        Date embargoUntil = objectAclFactory.getEmbargoUntil(pid);
+        if (parentAcl != null && parentAcl.embargoUntil != null
+                && (embargoUntil == null || parentAcl.embargoUntil.after(embargoUntil))) {
+            embargoUntil = parentAcl.embargoUntil;
+        }
+        boolean markedForDeletion = (parentAcl != null && parentAcl.markedForDeletion)
+                || objectAclFactory.isMarkedForDeletion(pid);
+
+        // Only need to check the first two tiers for staff
+        List<RoleAssignment> staffAssignments = new ArrayList<>();
+        List<RoleAssignment> patronAssignments = new ArrayList<>();
+        if (parentAcl != null) {
+            staffAssignments.addAll(parentAcl.staffAssignments);
+            patronAssignments.addAll(parentAcl.patronAssignments);
+        }
+        if (depth < CONTENT_STARTING_DEPTH) {
+            staffAssignments.addAll(objectAclFactory.getStaffRoleAssignments(pid));
         }
+        patronAssignments.addAll(objectAclFactory.getPatronRoleAssignments(pid));
 
-        return inheritedPrincRoles;
+        return new EffectiveAcl(new ArrayList<>(path), inheritedPrincRoles, customPatronPrincs, complete,
+                embargoUntil, markedForDeletion, staffAssignments, patronAssignments);
+    }
+
+    private Map<String, Set<String>> copyPrincipalRoles(Map<String, Set<String>> princRoles) {
+        Map<String, Set<String>> result = new HashMap<>();
+        princRoles.forEach((principal, roles) -> result.put(principal, new HashSet<>(roles)));
+        return result;
     }
 
     private Set<String> getCustomPatronPrincs(Map<String, Set<String>> objectPrincipalRoles) {
@@ -114,18 +237,8 @@ public class InheritedAclFactory implements AclFactory {
     }
 
     private List<RoleAssignment> getRoleAssignments(PID pid, boolean retrieveStaffRoles) {
-        List<PID> path = getPidPath(pid);
-
-        if (retrieveStaffRoles) {
-            return path.stream()
-                    .limit(2) // Only need to check the first two tiers for staff
-                    .flatMap(pathPid -> objectAclFactory.getStaffRoleAssignments(pathPid).stream())
-                    .collect(Collectors.toList());
-        } else {
-            return path.stream()
-                    .flatMap(pathPid -> objectAclFactory.getPatronRoleAssignments(pathPid).stream())
-                    .collect(Collectors.toList());
-        }
+        EffectiveAcl acl = getEffectiveAcl(pid);
+        return new ArrayList<>(retrieveStaffRoles ? acl.staffAssignments : acl.patronAssignments);
     }
 
     private void mergePrincipalRoles(Map<String, Set<String>> basePrincRoles, Map<String,
@@ -258,17 +371,27 @@ public class InheritedAclFactory implements AclFactory {
 
     @Override
     public Date getEmbargoUntil(PID target) {
-        return getPidPath(target).stream()
-                .map(p -> objectAclFactory.getEmbargoUntil(p))
-                .filter(Objects::nonNull)
-                .max(Comparator.naturalOrder())
-                .orElse(null);
+        return getEffectiveAcl(target).embargoUntil;
     }
 
     @Override
     public boolean isMarkedForDeletion(PID target) {
-        return getPidPath(target).stream()
-                .anyMatch(p -> objectAclFactory.isMarkedForDeletion(p));
+        return getEffectiveAcl(target).markedForDeletion;
+    }
+
+    /**
+     * Invalidates cached effective access control details for the provided pid,
+     * as well as for any objects which inherit from it
+     * @param pid
+     */
+    public void invalidate(PID pid) {
+        if (effectiveAclCache != null) {
+            effectiveAclCache.invalidate(pid);
+            Set<PID> inheritors = inheritanceIndex.remove(pid);
+            if (inheritors != null) {
+                effectiveAclCache.invalidateAll(inheritors);
+            }
+        }
     }
 
     private List<PID> getPidPath(PID pid) {
@@ -291,4 +414,46 @@ public class InheritedAclFactory implements AclFactory {
     public void setPathFactory(ContentPathFactory pathFactory) {
         this.pathFactory = pathFactory;
     }
+
+    public void setCacheTimeToLive(long cacheTimeToLive) {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * Access control details in effect for an object after inheritance from its ancestors
+     *
+     * @author bbpennel
+     */
+    private static class EffectiveAcl {
+        private static final EffectiveAcl EMPTY = new EffectiveAcl(Collections.emptyList(), Collections.emptyMap(),
+                null, false, null, false, Collections.emptyList(), Collections.emptyList());
+
+        // Path from the unit to the object, inclusive
+        private final List<PID> path;
+        private final Map<String, Set<String>> principalRoles;
+        private final Set<String> customPatronPrincs;
+        // Indicates that no further patron roles can be inherited by descendants
+        private final boolean complete;
+        private final Date embargoUntil;
+        private final boolean markedForDeletion;
+        private final List<RoleAssignment> staffAssignments;
+        private final List<RoleAssignment> patronAssignments;
+
+        private EffectiveAcl(List<PID> path, Map<String, Set<String>> principalRoles,
+                Set<String> customPatronPrincs, boolean complete, Date embargoUntil, boolean markedForDeletion,
+                List<RoleAssignment> staffAssignments, List<RoleAssignment> patronAssignments) {
+            this.path = path;
+            this.principalRoles = principalRoles;
+            this.customPatronPrincs = customPatronPrincs;
+            this.complete = complete;
+            this.embargoUntil = embargoUntil;
+            this.markedForDeletion = markedForDeletion;
+            this.staffAssignments = staffAssignments;
+            this.patronAssignments = patronAssignments;
+        }
+    }
 }
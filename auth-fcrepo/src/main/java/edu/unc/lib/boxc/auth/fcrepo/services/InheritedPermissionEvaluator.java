@@ -1,15 +1,12 @@
 package edu.unc.lib.boxc.auth.fcrepo.services;
 
-import static edu.unc.lib.boxc.auth.api.services.EmbargoUtil.isEmbargoActive;
 import static edu.unc.lib.boxc.auth.api.services.PrincipalClassifier.classifyPrincipals;
 import static edu.unc.lib.boxc.auth.api.services.PrincipalClassifier.getPatronPrincipals;
 
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import edu.unc.lib.boxc.model.api.exceptions.OrphanedObjectException;
 import edu.unc.lib.boxc.model.api.ids.PID;
@@ -75,15 +72,13 @@ public class InheritedPermissionEvaluator {
     }
 
     private boolean hasStaffPermission(List<PID> path, Set<String> agentStaffPrincipals, Permission permission) {
-        Set<String> rolesWithPermission = getRolesWithPermission(permission);
-
         for (int depth = UNIT_PATH_DEPTH; depth < path.size(); depth++) {
             PID pathPid = path.get(depth);
 
             // Only consider the first two levels (unit and collection)
             if (depth < CONTENT_STARTING_DEPTH) {
-                Map<String, Set<String>> princRoles = objectAclFactory.getPrincipalRoles(pathPid);
-                if (hasRoleWithPermission(princRoles, agentStaffPrincipals, rolesWithPermission)) {
+                ObjectAcl acl = objectAclFactory.getObjectAcl(pathPid);
+                if (hasRoleWithPermission(acl, agentStaffPrincipals, permission)) {
                     return true;
                 }
             } else {
@@ -113,30 +108,27 @@ public class InheritedPermissionEvaluator {
 
         // Patron permissions don't apply to units, so grant permission unless deleted
         if (path.size() <= UNIT_PATH_DEPTH + 1) {
-            return !objectAclFactory.isMarkedForDeletion(path.get(UNIT_PATH_DEPTH));
+            return !objectAclFactory.getObjectAcl(path.get(UNIT_PATH_DEPTH)).isMarkedForDeletion();
         }
 
-        // Determine which roles would grant the sought after permission
-        Set<String> rolesWithPermission = getRolesWithPermission(permission);
         Set<String> activePatronPrincipals = null;
         Set<String> customPatronGroups = null;
 
         // Ignore embargoes if the agent is requesting metadata
         boolean ignoreEmbargoes = Permission.viewMetadata.equals(permission);
+        long currentTime = System.currentTimeMillis();
 
         for (int depth = COLLECTION_PATH_DEPTH; depth < path.size(); depth++) {
-            PID pathPid = path.get(depth);
+            ObjectAcl acl = objectAclFactory.getObjectAcl(path.get(depth));
 
             // Deny permission if the object is deleted or embargoed
-            if (objectAclFactory.isMarkedForDeletion(pathPid) ||
-                    (!ignoreEmbargoes && isEmbargoActive(objectAclFactory.getEmbargoUntil(pathPid)))) {
+            if (acl.isMarkedForDeletion() || (!ignoreEmbargoes && acl.isEmbargoActive(currentTime))) {
                 return false;
             }
 
-            Map<String, Set<String>> princRoles = objectAclFactory.getPrincipalRoles(pathPid);
             // kickstart active patron principals with collection granted principals that overlap with the agent
             if (depth == COLLECTION_PATH_DEPTH) {
-                activePatronPrincipals = getPatronPrincipals(princRoles.keySet());
+                activePatronPrincipals = getPatronPrincipals(acl.getPrincipals());
                 activePatronPrincipals.retainAll(agentPatronPrincipals);
 
                 // no active patrons, so permission cannot be granted
@@ -148,7 +140,7 @@ public class InheritedPermissionEvaluator {
             }
 
             // Remove any active patron principals that do not grant the permission
-            revokePatronPermissions(princRoles, activePatronPrincipals, rolesWithPermission, customPatronGroups);
+            revokePatronPermissions(acl, activePatronPrincipals, permission, customPatronGroups);
 
             if (activePatronPrincipals.isEmpty()) {
                 return false;
@@ -165,25 +157,27 @@ public class InheritedPermissionEvaluator {
     }
 
     /**
-     * Removes entries from activePrincipals if the principal is defined a role in princRoles
-     * which is not in the set of roles granting the sought permission.
+     * Removes entries from activePrincipals if the principal is assigned a role in the acl
+     * which does not grant the sought permission.
      *
-     * @param princRoles
+     * @param acl
      * @param activePrincipals
-     * @param rolesWithPermission
+     * @param permission
      * @param customPatronPrincs
      */
-    private void revokePatronPermissions(Map<String, Set<String>> princRoles, Set<String> activePrincipals,
-            Set<String> rolesWithPermission, Set<String> customPatronPrincs) {
+    private void revokePatronPermissions(ObjectAcl acl, Set<String> activePrincipals,
+            Permission permission, Set<String> customPatronPrincs) {
 
         // If both regular patron groups explicitly None, deactivate custom groups unless directly added
         if (customPatronPrincs.size() > 0) {
-            boolean publicNone = isAssignedNone(AccessPrincipalConstants.PUBLIC_PRINC, princRoles);
-            boolean authNone = isAssignedNone(AccessPrincipalConstants.AUTHENTICATED_PRINC, princRoles);
+            boolean publicNone = acl.hasRole(AccessPrincipalConstants.PUBLIC_PRINC, UserRole.none);
+            boolean authNone = acl.hasRole(AccessPrincipalConstants.AUTHENTICATED_PRINC, UserRole.none);
             if (publicNone && authNone) {
-                customPatronPrincs.stream()
-                        .filter(princ -> !princRoles.containsKey(princ))
-                        .forEach(activePrincipals::remove);
+                for (String princ : customPatronPrincs) {
+                    if (!acl.hasRoleAssignment(princ)) {
+                        activePrincipals.remove(princ);
+                    }
+                }
             }
         }
 
@@ -191,56 +185,35 @@ public class InheritedPermissionEvaluator {
         while (activeIt.hasNext()) {
             String princ = activeIt.next();
 
-            Set<String> roles = princRoles.get(princ);
             // If no new role assignment for active principal, then it is not revoked.
-            if (roles == null) {
+            if (!acl.hasRoleAssignment(princ)) {
                 continue;
             }
             // None of the roles for this principal have this permission, so it was revoked
-            if (rolesWithPermission.stream().noneMatch(roles::contains)) {
+            if (!acl.hasPermission(princ, permission)) {
                 activeIt.remove();
             }
         }
     }
 
-    private boolean isAssignedNone(String principal, Map<String, Set<String>> principalRoles) {
-        Set<String> roles = principalRoles.get(principal);
-        if (roles == null) {
-            return false;
-        }
-        return roles.contains(UserRole.none.getPropertyString());
-    }
-
     /**
-     * Determines if any principals in agentPrincipals are assigned a role in princRoles which
-     * are known to grant the permission being sought.
+     * Determines if any principals in agentPrincipals are assigned a role in the acl which
+     * is known to grant the permission being sought.
      *
-     * @param princRoles
+     * @param acl
      * @param agentPrincipals
-     * @param rolesWithPermission
+     * @param permission
      * @return
      */
-    private boolean hasRoleWithPermission(Map<String, Set<String>> princRoles, Set<String> agentPrincipals,
-            Set<String> rolesWithPermission) {
+    private boolean hasRoleWithPermission(ObjectAcl acl, Set<String> agentPrincipals, Permission permission) {
         for (String staffPrinc: agentPrincipals) {
-            Set<String> roles = princRoles.get(staffPrinc);
-            if (roles == null) {
-                continue;
-            }
-            if (rolesWithPermission.stream().anyMatch(roles::contains)) {
+            if (acl.hasPermission(staffPrinc, permission)) {
                 return true;
             }
         }
         return false;
     }
 
-    private Set<String> getRolesWithPermission(Permission permission) {
-        return UserRole.getUserRolesWithPermission(permission)
-                .stream()
-                .map(UserRole::getPropertyString)
-                .collect(Collectors.toSet());
-    }
-
     private List<PID> getObjectPath(PID pid) {
         List<PID> path = pathFactory.getAncestorPids(pid);
         PID rootPid = RepositoryPaths.getContentRootPid();
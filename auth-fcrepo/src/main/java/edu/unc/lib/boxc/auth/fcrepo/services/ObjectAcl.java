@@ -0,0 +1,133 @@
+package edu.unc.lib.boxc.auth.fcrepo.services;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import edu.unc.lib.boxc.auth.api.Permission;
+import edu.unc.lib.boxc.auth.api.UserRole;
+
+/**
+ * Immutable, precompiled representation of the access control details directly
+ * assigned to a single object. Does not take into account inheritance.
+ *
+ * @author bbpennel
+ */
+public class ObjectAcl {
+    private static final long NO_EMBARGO = Long.MIN_VALUE;
+
+    private final Map<String, Set<UserRole>> principalRoles;
+    private final Map<String, Set<Permission>> principalPermissions;
+    private final long embargoUntil;
+    private final boolean markedForDeletion;
+
+    /**
+     * @param principalRoles map of principals to the URIs of roles assigned to them
+     * @param embargoUntil end date of the embargo on the object, or null if not embargoed
+     * @param markedForDeletion whether the object is marked for deletion
+     */
+    public ObjectAcl(Map<String, Set<String>> principalRoles, Date embargoUntil, boolean markedForDeletion) {
+        Map<String, Set<UserRole>> roles = new HashMap<>();
+        Map<String, Set<Permission>> permissions = new HashMap<>();
+        principalRoles.forEach((principal, roleUris) -> {
+            Set<UserRole> princRoles = EnumSet.noneOf(UserRole.class);
+            Set<Permission> princPermissions = EnumSet.noneOf(Permission.class);
+            for (String roleUri : roleUris) {
+                UserRole role = UserRole.getRoleByProperty(roleUri);
+                if (role != null) {
+                    princRoles.add(role);
+                    princPermissions.addAll(role.getPermissions());
+                }
+            }
+            roles.put(principal, Collections.unmodifiableSet(princRoles));
+            permissions.put(principal, Collections.unmodifiableSet(princPermissions));
+        });
+        this.principalRoles = Collections.unmodifiableMap(roles);
+        this.principalPermissions = Collections.unmodifiableMap(permissions);
+        this.embargoUntil = embargoUntil == null ? NO_EMBARGO : embargoUntil.getTime();
+        this.markedForDeletion = markedForDeletion;
+    }
+
+    /**
+     * @return set of principals which are assigned roles on this object
+     */
+    public Set<String> getPrincipals() {
+        return principalRoles.keySet();
+    }
+
+    /**
+     * @param principal
+     * @return true if the principal is assigned any role on this object
+     */
+    public boolean hasRoleAssignment(String principal) {
+        return principalRoles.containsKey(principal);
+    }
+
+    /**
+     * @param principal
+     * @param role
+     * @return true if the principal is assigned the given role on this object
+     */
+    public boolean hasRole(String principal, UserRole role) {
+        Set<UserRole> roles = principalRoles.get(principal);
+        return roles != null && roles.contains(role);
+    }
+
+    /**
+     * @param principal
+     * @param permission
+     * @return true if any role assigned to the principal on this object grants the permission
+     */
+    public boolean hasPermission(String principal, Permission permission) {
+        Set<Permission> permissions = principalPermissions.get(principal);
+        return permissions != null && permissions.contains(permission);
+    }
+
+    /**
+     * @return map of principals to the roles assigned to them on this object
+     */
+    public Map<String, Set<UserRole>> getPrincipalRoles() {
+        return principalRoles;
+    }
+
+    /**
+     * @return new mutable map of principals to the URIs of the roles assigned to them
+     */
+    public Map<String, Set<String>> getPrincipalRoleUris() {
+        Map<String, Set<String>> result = new HashMap<>();
+        principalRoles.forEach((principal, roles) -> {
+            Set<String> roleUris = new HashSet<>();
+            for (UserRole role : roles) {
+                roleUris.add(role.getPropertyString());
+            }
+            result.put(principal, roleUris);
+        });
+        return result;
+    }
+
+    /**
+     * @return end date of the embargo, or null if the object has no embargo
+     */
+    public Date getEmbargoUntil() {
+        return embargoUntil == NO_EMBARGO ? null : new Date(embargoUntil);
+    }
+
+    /**
+     * @param currentTime time in milliseconds to evaluate the embargo against
+     * @return true if the object has an embargo which has not ended as of the current time
+     */
+    public boolean isEmbargoActive(long currentTime) {
+        return embargoUntil != NO_EMBARGO && currentTime < embargoUntil;
+    }
+
+    /**
+     * @return true if the object is marked for deletion or is a tombstone
+     */
+    public boolean isMarkedForDeletion() {
+        return markedForDeletion;
+    }
+}
@@ -37,7 +37,8 @@ import edu.unc.lib.boxc.auth.api.services.AclFactory;
 
 /**
  * Factory which provides access control details which are directly represented
- * on objects, but does not take into account inheritance.
+ * on objects, but does not take into account inheritance. The details for each
+ * object are cached in a precompiled form, see {@link ObjectAcl}.
  *
  * @author bbpennel
  *
@@ -49,7 +50,7 @@ public class ObjectAclFactory implements AclFactory {
     private static String DELETED_PROPERTY_URI = CdrAcl.markedForDeletion.getURI();
     private static String TOMBSTONE_URI = Cdr.Tombstone.getURI();
 
-    private LoadingCache<PID, List<Entry<String, String>>> objAclCache;
+    private LoadingCache<PID, ObjectAcl> objAclCache;
     private long cacheTimeToLive;
     private long cacheMaxSize;
 
@@ -76,15 +77,7 @@ public class ObjectAclFactory implements AclFactory {
 
     @Override
     public Map<String, Set<String>> getPrincipalRoles(PID pid) {
-
-        return getObjectAcls(pid).stream()
-                // Filter to only role assignments
-                .filter(p -> roleUris.contains(p.getKey()))
-                // Group up roles by principal
-                .collect(Collectors.groupingBy(
-                        Entry<String, String>::getValue,
-                        Collectors.mapping(Entry<String, String>::getKey, Collectors.toSet())
-                    ));
+        return getObjectAcl(pid).getPrincipalRoleUris();
     }
 
     @Override
@@ -98,12 +91,11 @@ public class ObjectAclFactory implements AclFactory {
     }
 
     private List<RoleAssignment> getRoleAssignments(PID pid, boolean retrieveStaffRoles) {
-        Map<String, Set<String>> princToRoles = getPrincipalRoles(pid);
+        Map<String, Set<UserRole>> princToRoles = getObjectAcl(pid).getPrincipalRoles();
 
         List<RoleAssignment> result = new ArrayList<>();
         princToRoles.forEach((princ, roles) -> {
-            for (String roleString: roles) {
-                UserRole role = UserRole.getRoleByProperty(roleString);
+            for (UserRole role: roles) {
                 // Skip over either staff or patrons roles, depending on what is being requested
                 if (retrieveStaffRoles == role.isStaffRole()) {
                     result.add(new RoleAssignment(princ, role, pid));
@@ -121,32 +113,19 @@ public class ObjectAclFactory implements AclFactory {
 
     @Override
     public Date getEmbargoUntil(PID pid) {
-
-        String embargoPropertyUri = CdrAcl.embargoUntil.getURI();
-        return getObjectAcls(pid).stream()
-                .filter(p -> embargoPropertyUri.equals(p.getKey()))
-                .findFirst()
-                .map(p -> {
-                    try {
-                        return DateTimeUtil.parseUTCToDate(p.getValue());
-                    } catch (IllegalArgumentException e) {
-                        log.warn("Failed to parse embargo {} for {} while retrieving ACLs",
-                                new Object[] {p.getValue(), pid}, e);
-                        return null;
-                    }
-                })
-                .orElse(null);
+        return getObjectAcl(pid).getEmbargoUntil();
     }
 
     @Override
     public boolean isMarkedForDeletion(PID pid) {
-
-        return getObjectAcls(pid).stream()
-                .anyMatch(p -> DELETED_PROPERTY_URI.equals(p.getKey())
-                        || TOMBSTONE_URI.equals(p.getValue()));
+        return getObjectAcl(pid).isMarkedForDeletion();
     }
 
-    private List<Entry<String, String>> getObjectAcls(PID pid) {
+    /**
+     * @param pid
+     * @return the precompiled access control details directly assigned to the object
+     */
+    public ObjectAcl getObjectAcl(PID pid) {
         return objAclCache.getUnchecked(pid);
     }
 
@@ -188,9 +167,9 @@ public class ObjectAclFactory implements AclFactory {
      * @author bbpennel
      *
      */
-    private class ObjectAclCacheLoader extends CacheLoader<PID, List<Entry<String, String>>> {
+    private class ObjectAclCacheLoader extends CacheLoader<PID, ObjectAcl> {
         @Override
-        public List<Entry<String, String>> load(PID pid) {
+        public ObjectAcl load(PID pid) {
             List<Entry<String, String>> valueResults = new ArrayList<>();
 
             RepositoryObject repoObj = repoObjLoader.getRepositoryObject(pid);
@@ -213,7 +192,42 @@ public class ObjectAclFactory implements AclFactory {
                 }
             }
 
-            return valueResults;
+            return new ObjectAcl(extractPrincipalRoles(valueResults), extractEmbargoUntil(pid, valueResults),
+                    extractMarkedForDeletion(valueResults));
+        }
+
+        private Map<String, Set<String>> extractPrincipalRoles(List<Entry<String, String>> valueResults) {
+            return valueResults.stream()
+                    // Filter to only role assignments
+                    .filter(p -> roleUris.contains(p.getKey()))
+                    // Group up roles by principal
+                    .collect(Collectors.groupingBy(
+                            Entry<String, String>::getValue,
+                            Collectors.mapping(Entry<String, String>::getKey, Collectors.toSet())
+                        ));
+        }
+
+        private Date extractEmbargoUntil(PID pid, List<Entry<String, String>> valueResults) {
+            String embargoPropertyUri = CdrAcl.embargoUntil.getURI();
+            return valueResults.stream()
+                    .filter(p -> embargoPropertyUri.equals(p.getKey()))
+                    .findFirst()
+                    .map(p -> {
+                        try {
+                            return DateTimeUtil.parseUTCToDate(p.getValue());
+                        } catch (IllegalArgumentException e) {
+                            log.warn("Failed to parse embargo {} for {} while retrieving ACLs",
+                                    new Object[] {p.getValue(), pid}, e);
+                            return null;
+                        }
+                    })
+                    .orElse(null);
+        }
+
+        private boolean extractMarkedForDeletion(List<Entry<String, String>> valueResults) {
+            return valueResults.stream()
+                    .anyMatch(p -> DELETED_PROPERTY_URI.equals(p.getKey())
+                            || TOMBSTONE_URI.equals(p.getValue()));
         }
     }
 }
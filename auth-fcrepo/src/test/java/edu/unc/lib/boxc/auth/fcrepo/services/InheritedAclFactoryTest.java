@@ -18,6 +18,9 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -887,6 +890,99 @@ public class InheritedAclFactoryTest {
         when(objectAclFactory.getStaffRoleAssignments(pid)).thenReturn(assigned);
     }
 
+    @Test
+    public void cachedEffectiveAclTest() {
+        aclFactory.setCacheMaxSize(100);
+        aclFactory.setCacheTimeToLive(10000);
+        aclFactory.init();
+
+        PID unitPid = addPidToAncestors();
+        PID collPid = addPidToAncestors();
+        PID workPid = addPidToAncestors();
+        PID file1Pid = makePid();
+        PID file2Pid = makePid();
+        when(pathFactory.getAncestorPids(workPid)).thenReturn(ancestorPids.subList(0, 3));
+        when(pathFactory.getAncestorPids(file1Pid)).thenReturn(new ArrayList<>(ancestorPids));
+        when(pathFactory.getAncestorPids(file2Pid)).thenReturn(new ArrayList<>(ancestorPids));
+
+        addPrincipalRoles(unitPid, MANAGE_PRINC, UserRole.canManage);
+        addPrincipalRoles(collPid, PUBLIC_PRINC, UserRole.canViewOriginals);
+        addPrincipalRoles(workPid, PUBLIC_PRINC, UserRole.canViewMetadata);
+        clearInvocations(objectAclFactory);
+
+        Map<String, Set<String>> princRoles1 = aclFactory.getPrincipalRoles(file1Pid);
+        assertPrincipalHasRoles("Patron role must be inherited from the work",
+                princRoles1, PUBLIC_PRINC, canViewMetadata);
+        assertPrincipalHasRoles("Staff role must be inherited from the unit",
+                princRoles1, MANAGE_PRINC, canManage);
+
+        Map<String, Set<String>> princRoles2 = aclFactory.getPrincipalRoles(file2Pid);
+        assertPrincipalHasRoles("Patron role must be inherited from the work",
+                princRoles2, PUBLIC_PRINC, canViewMetadata);
+        aclFactory.getPrincipalRoles(workPid);
+
+        // Ancestor acls were only compiled once
+        verify(objectAclFactory).getPrincipalRoles(collPid);
+        verify(objectAclFactory).getPrincipalRoles(workPid);
+
+        // Changing the work's acls must be reflected in its descendants once invalidated
+        addPrincipalRoles(workPid, PUBLIC_PRINC, UserRole.none);
+        clearInvocations(objectAclFactory);
+        aclFactory.invalidate(workPid);
+
+        Map<String, Set<String>> princRoles3 = aclFactory.getPrincipalRoles(file1Pid);
+        assertFalse(princRoles3.containsKey(PUBLIC_PRINC));
+        verify(objectAclFactory, never()).getPrincipalRoles(collPid);
+        verify(objectAclFactory).getPrincipalRoles(workPid);
+    }
+
+    @Test
+    public void invalidateOnlyInheritingAclsTest() {
+        aclFactory.setCacheMaxSize(100);
+        aclFactory.setCacheTimeToLive(10000);
+        aclFactory.init();
+
+        PID unitPid = addPidToAncestors();
+        PID collPid = addPidToAncestors();
+        PID work1Pid = makePid();
+        PID work2Pid = makePid();
+        PID filePid = makePid();
+        when(pathFactory.getAncestorPids(collPid)).thenReturn(ancestorPids.subList(0, 2));
+        when(pathFactory.getAncestorPids(work1Pid)).thenReturn(new ArrayList<>(ancestorPids));
+        when(pathFactory.getAncestorPids(work2Pid)).thenReturn(new ArrayList<>(ancestorPids));
+        List<PID> fileAncestors = new ArrayList<>(ancestorPids);
+        fileAncestors.add(work1Pid);
+        when(pathFactory.getAncestorPids(filePid)).thenReturn(fileAncestors);
+
+        addPrincipalRoles(unitPid, MANAGE_PRINC, UserRole.canManage);
+        addPrincipalRoles(collPid, PUBLIC_PRINC, UserRole.canViewOriginals);
+        addPrincipalRoles(work1Pid, PUBLIC_PRINC, UserRole.canViewMetadata);
+
+        aclFactory.getPrincipalRoles(filePid);
+        aclFactory.getPrincipalRoles(work2Pid);
+        clearInvocations(objectAclFactory);
+
+        // Only the invalidated work and its descendants are recomputed
+        aclFactory.invalidate(work1Pid);
+        aclFactory.getPrincipalRoles(filePid);
+        aclFactory.getPrincipalRoles(work2Pid);
+        aclFactory.getPrincipalRoles(collPid);
+        verify(objectAclFactory).getPrincipalRoles(work1Pid);
+        verify(objectAclFactory).getPrincipalRoles(filePid);
+        verify(objectAclFactory, never()).getPrincipalRoles(work2Pid);
+        verify(objectAclFactory, never()).getPrincipalRoles(collPid);
+        clearInvocations(objectAclFactory);
+
+        // Invalidating the collection clears everything beneath it
+        aclFactory.invalidate(collPid);
+        aclFactory.getPrincipalRoles(filePid);
+        aclFactory.getPrincipalRoles(work2Pid);
+        verify(objectAclFactory).getPrincipalRoles(collPid);
+        verify(objectAclFactory).getPrincipalRoles(work1Pid);
+        verify(objectAclFactory).getPrincipalRoles(work2Pid);
+        verify(objectAclFactory, never()).getPrincipalRoles(unitPid);
+    }
+
     private void mockObjPatronRoleAssignments(RoleAssignment... assignments) {
         PID pid = PIDs.get(assignments[0].getAssignedTo());
         List<RoleAssignment> assigned = asList(assignments);
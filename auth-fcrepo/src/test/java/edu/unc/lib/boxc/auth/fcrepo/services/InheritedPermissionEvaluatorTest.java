@@ -84,6 +84,12 @@ public class InheritedPermissionEvaluatorTest {
         ancestorPids.add(PIDs.get(CONTENT_ROOT_ID));
 
         when(pathFactory.getAncestorPids(any(PID.class))).thenReturn(ancestorPids);
+        // Compile acls from the individually mocked acl properties
+        when(objectAclFactory.getObjectAcl(any(PID.class))).thenAnswer(invocation -> {
+            PID aclPid = invocation.getArgument(0);
+            return new ObjectAcl(objectAclFactory.getPrincipalRoles(aclPid),
+                    objectAclFactory.getEmbargoUntil(aclPid), objectAclFactory.isMarkedForDeletion(aclPid));
+        });
 
         pid = PIDs.get(UUID.randomUUID().toString());
     }
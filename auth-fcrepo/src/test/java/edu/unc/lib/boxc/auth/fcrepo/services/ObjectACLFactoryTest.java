@@ -35,6 +35,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import edu.unc.lib.boxc.auth.api.Permission;
+import edu.unc.lib.boxc.auth.api.UserRole;
 import edu.unc.lib.boxc.auth.api.models.RoleAssignment;
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.objects.ContentObject;
@@ -160,6 +162,24 @@ public class ObjectACLFactoryTest {
         assertTrue(roles.contains(CdrAcl.canDescribe.toString()));
     }
 
+    @Test
+    public void getObjectAclTest() throws Exception {
+        objResc.addLiteral(CdrAcl.canManage, MANAGE_GRP);
+        objResc.addLiteral(CdrAcl.canViewMetadata, PATRON_GRP);
+        objResc.addLiteral(CdrAcl.embargoUntil, TOMORROW);
+
+        ObjectAcl acl = aclFactory.getObjectAcl(pid);
+
+        assertTrue(acl.hasPermission(MANAGE_GRP, Permission.editDescription));
+        assertTrue(acl.hasPermission(PATRON_GRP, Permission.viewMetadata));
+        assertFalse(acl.hasPermission(PATRON_GRP, Permission.viewOriginal));
+        assertFalse(acl.hasPermission(USER_PRINC, Permission.viewMetadata));
+        assertTrue(acl.hasRole(MANAGE_GRP, UserRole.canManage));
+        assertFalse(acl.hasRoleAssignment(USER_PRINC));
+        assertTrue(acl.isEmbargoActive(System.currentTimeMillis()));
+        assertFalse(acl.isMarkedForDeletion());
+    }
+
     @Test
     public void isMarkedForDeletionTest() throws Exception {
         objResc.addLiteral(CdrAcl.markedForDeletion, true);
@@ -1,6 +1,8 @@
 package edu.unc.lib.boxc.common.xml;
 
 import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.Source;
 import javax.xml.transform.TransformerException;
@@ -46,6 +48,26 @@ public class SecureXMLFactory {
         return builder;
     }
 
+    /**
+     * @return a new namespace aware, non-validating DocumentBuilderFactory with XXE disabled. Used for
+     *    parsing documents into DOM
+     */
+    public static DocumentBuilderFactory createDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setXIncludeAware(false);
+        factory.setExpandEntityReferences(false);
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature(DISALLOW_DOC_TYPE, true);
+            factory.setFeature(EXTERNAL_GENERAL_ENTITIES, false);
+            factory.setFeature(EXTERNAL_PARAM_ENTITIES, false);
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("Unable to configure document builder factory", e);
+        }
+        return factory;
+    }
+
     /**
      * @return a new XMLInputFactory with XXE disabled. Generally used for creating stAX readers
      */
@@ -23,6 +23,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.http.HttpStatus;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
@@ -56,7 +58,7 @@ import edu.unc.lib.boxc.deposit.api.exceptions.DepositException;
 import edu.unc.lib.boxc.deposit.impl.model.ActivityMetricsClient;
 import edu.unc.lib.boxc.deposit.impl.model.DepositModelHelpers;
 import edu.unc.lib.boxc.deposit.validate.VerifyObjectsAreInFedoraService;
-import edu.unc.lib.boxc.deposit.work.AbstractDepositJob;
+import edu.unc.lib.boxc.deposit.work.AbstractConcurrentDepositJob;
 import edu.unc.lib.boxc.deposit.work.DepositGraphUtils;
 import edu.unc.lib.boxc.deposit.work.JobInterruptedException;
 import edu.unc.lib.boxc.fcrepo.exceptions.ChecksumMismatchException;
@@ -96,11 +98,14 @@ import edu.unc.lib.boxc.persist.api.transfer.BinaryTransferSession;
 /**
  * Ingests all content objects in the deposit into the Fedora repository.
  *
+ * When concurrent ingest is enabled, works and their files are ingested by a pool of workers,
+ * while containers above the work level are still created in order by the job thread.
+ *
  * @author bbpennel
  * @author harring
  *
  */
-public class IngestContentObjectsJob extends AbstractDepositJob {
+public class IngestContentObjectsJob extends AbstractConcurrentDepositJob {
     private static final Logger log = LoggerFactory.getLogger(IngestContentObjectsJob.class);
 
     private static final int CHECKSUM_RETRIES = 3;
@@ -147,6 +152,11 @@ public class IngestContentObjectsJob extends AbstractDepositJob {
 
     private boolean overrideTimestamps;
 
+    // If true, works will be submitted to the executor service rather than ingested by the job thread
+    private boolean concurrentIngest;
+    // Number of files from a single work to ingest within the same transaction
+    private int filesPerTransaction = 1;
+
     public IngestContentObjectsJob() {
         super();
     }
@@ -244,6 +254,9 @@ public class IngestContentObjectsJob extends AbstractDepositJob {
         } catch (DepositException | FedoraException | IOException e) {
             failJob(e, "Failed to ingest content for deposit {0}", getDepositPID().getQualifiedId());
         } finally {
+            if (concurrentIngest) {
+                stopOutstandingIngests();
+            }
             logTransferSession.close();
         }
 
@@ -275,10 +288,18 @@ public class IngestContentObjectsJob extends AbstractDepositJob {
             return;
         }
 
+        // Works from this container which have been submitted for concurrent ingest
+        List<Future<?>> workFutures = new ArrayList<>();
+        // Files waiting to be ingested together in the next transaction
+        List<Resource> fileBatch = new ArrayList<>();
         try {
             while (iterator.hasNext()) {
                 // Check that the deposit is still running before starting the next ingest
                 interruptJobIfStopped();
+                if (isInterrupted.get()) {
+                    throw new JobInterruptedException("Ingest of members of " + destObj.getPid()
+                            + " halted due to interruption of deposit " + getDepositUUID());
+                }
 
                 Resource childResc = (Resource) iterator.next();
 
@@ -288,12 +309,20 @@ public class IngestContentObjectsJob extends AbstractDepositJob {
                     // Assume child is a file if no type is provided
                     if (destObj instanceof WorkObject) {
                         // File object is being added to a work, go ahead
-                        ingestFileObject(destObj, parentResc, childResc);
+                        fileBatch.add(childResc);
+                        if (fileBatch.size() >= filesPerTransaction) {
+                            ingestFileObjects((WorkObject) destObj, fileBatch);
+                            fileBatch.clear();
+                        }
                     }
                 } else if (childResc.hasProperty(RDF.type, Cdr.Folder)) {
                     ingestFolder(destObj, parentResc, childResc);
                 } else if (childResc.hasProperty(RDF.type, Cdr.Work)) {
-                    ingestWork(destObj, parentResc, childResc);
+                    if (concurrentIngest) {
+                        workFutures.add(submitWorkIngest(destObj, parentResc.getURI(), childResc.getURI()));
+                    } else {
+                        ingestWork(destObj, parentResc, childResc);
+                    }
                 } else if (childResc.hasProperty(RDF.type, Cdr.Collection)) {
                     ingestCollection(destObj, parentResc, childResc);
                 } else if (childResc.hasProperty(RDF.type, Cdr.AdminUnit)) {
@@ -301,6 +330,13 @@ public class IngestContentObjectsJob extends AbstractDepositJob {
                 }
             }
 
+            if (!fileBatch.isEmpty()) {
+                ingestFileObjects((WorkObject) destObj, fileBatch);
+            }
+
+            // Container is not complete until all of its works have finished ingesting
+            waitForTasks(workFutures);
+
             markObjectCompleted(destObj.getPid());
         } finally {
             iterator.close();
@@ -308,42 +344,35 @@ public class IngestContentObjectsJob extends AbstractDepositJob {
     }
 
     /**
-     * Ingests the object in childResc as a FileObject into an existing
-     * WorkObject.
+     * Ingests a batch of objects as FileObjects into an existing WorkObject,
+     * within a single transaction.
      *
-     * @param parent
-     * @param parentResc
-     * @param childResc
-     * @return
+     * @param work
+     * @param fileRescs
      * @throws DepositException
      * @throws IOException
      */
-    private void ingestFileObject(ContentObject parent, Resource parentResc, Resource childResc)
+    private void ingestFileObjects(WorkObject work, List<Resource> fileRescs)
             throws DepositException, IOException {
-
-        if (skipResumed(childResc)) {
+        List<Resource> toIngest = new ArrayList<>(fileRescs.size());
+        for (Resource childResc : fileRescs) {
+            if (!skipResumed(childResc)) {
+                toIngest.add(childResc);
+            }
+        }
+        if (toIngest.isEmpty()) {
             return;
         }
 
-        WorkObject work = (WorkObject) parent;
-
         FedoraTransaction tx = txManager.startTransaction();
         FedoraTransactionRefresher txRefresher = new FedoraTransactionRefresher(tx);
-        PID pid = null;
+        List<PID> ingestedPids = new ArrayList<>(toIngest.size());
         try {
             txRefresher.start();
 
-            FileObject obj = addFileToWork(work, childResc);
-            pid = obj.getPid();
-
-            // Add ingestion event for file object
-            addIngestionEventForChild(obj);
-            addPremisEvents(obj);
-            // add MODS
-            addDescription(obj, childResc);
-
-            overrideModifiedTimestamp(obj, childResc);
-            log.debug("Finished all updates for file {} in work {}", pid, work.getPid());
+            for (Resource childResc : toIngest) {
+                ingestedPids.add(ingestFileObject(work, childResc));
+            }
 
             txRefresher.stop();
         } catch (Exception e) {
@@ -354,9 +383,39 @@ public class IngestContentObjectsJob extends AbstractDepositJob {
             tx.close();
         }
 
-        addClicks(1);
-        getDepositStatusFactory().incrIngestedObjects(getDepositUUID(), 1);
-        log.info("Created file object {} for deposit {}", pid, getDepositPID());
+        // Only record progress once the transaction containing the files has been committed
+        addClicks(ingestedPids.size());
+        getDepositStatusFactory().incrIngestedObjects(getDepositUUID(), ingestedPids.size());
+        for (PID pid : ingestedPids) {
+            log.info("Created file object {} for deposit {}", pid, getDepositPID());
+        }
+    }
+
+    /**
+     * Ingests the object in childResc as a FileObject into an existing
+     * WorkObject. Must be called within a transaction.
+     *
+     * @param work
+     * @param childResc
+     * @return pid of the new file object
+     * @throws DepositException
+     * @throws IOException
+     */
+    private PID ingestFileObject(WorkObject work, Resource childResc)
+            throws DepositException, IOException {
+        FileObject obj = addFileToWork(work, childResc);
+        PID pid = obj.getPid();
+
+        // Add ingestion event for file object
+        addIngestionEventForChild(obj);
+        addPremisEvents(obj);
+        // add MODS
+        addDescription(obj, childResc);
+
+        overrideModifiedTimestamp(obj, childResc);
+        log.debug("Finished all updates for file {} in work {}", pid, work.getPid());
+
+        return pid;
     }
 
     /**
@@ -736,6 +795,55 @@ public class IngestContentObjectsJob extends AbstractDepositJob {
         }
     }
 
+    /**
+     * Submit the work represented by workUri, along with its files, for ingest by the
+     * executor service. The deposit model is accessed through a separate read
+     * transaction within the worker thread.
+     *
+     * @param parent
+     * @param parentUri
+     * @param workUri
+     * @return future for the submitted ingest
+     */
+    private Future<?> submitWorkIngest(ContentContainerObject parent, String parentUri, String workUri) {
+        waitForQueueCapacity();
+
+        return submitTask(() -> {
+            if (isInterrupted.get()) {
+                return;
+            }
+
+            Model model = getReadOnlyModel();
+            try {
+                ingestWork(parent, model.getResource(parentUri), model.getResource(workUri));
+            } catch (DepositException | IOException e) {
+                failJob(e, "Failed to ingest work {0} for deposit {1}",
+                        workUri, getDepositPID().getQualifiedId());
+            } finally {
+                depositModelManager.end();
+            }
+        });
+    }
+
+    /**
+     * Signal any work ingests still in progress to halt, and wait for them to finish so
+     * that resources shared with them are not closed while in use.
+     */
+    private void stopOutstandingIngests() {
+        isInterrupted.set(true);
+        Future<?> future;
+        while ((future = futuresQueue.poll()) != null) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.debug("Outstanding work ingest failed while stopping deposit {}", getDepositUUID(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
     private void addPrimaryObject(WorkObject obj, Resource childResc) {
         Statement primaryStmt = childResc.getProperty(Cdr.primaryObject);
         if (primaryStmt != null) {
@@ -923,4 +1031,17 @@ public class IngestContentObjectsJob extends AbstractDepositJob {
                     + " during initialization", e);
         }
     }
+
+    @Override
+    protected void registrationAction() {
+        // unused, no results to register
+    }
+
+    public void setConcurrentIngest(boolean concurrentIngest) {
+        this.concurrentIngest = concurrentIngest;
+    }
+
+    public void setFilesPerTransaction(int filesPerTransaction) {
+        this.filesPerTransaction = filesPerTransaction;
+    }
 }
@@ -69,6 +69,8 @@ public class TransferBinariesToStorageJob extends AbstractConcurrentDepositJob {
     private DerivativeService derivativeService;
 
     private Model model;
+    // Whether to hash previously transferred binaries when resuming, rather than trusting their size
+    private boolean verifyResumedTransfers;
 
     /**
      *
@@ -330,7 +332,20 @@ public class TransferBinariesToStorageJob extends AbstractConcurrentDepositJob {
                     log.debug("Binary {} was already transferred, recording and moving on", binPid.getQualifiedId());
                     BinaryDetails details = transferSession.getStoredBinaryDetails(binPid);
                     storageUri = details.getDestinationUri();
-                    digest = details.getDigest();
+                    if (digestStmt != null && !verifyResumedTransfers) {
+                        // Sizes matched, so trust the expected digest rather than reading the stored copy again
+                        digest = digestStmt.getString();
+                    } else {
+                        // Digest is calculated from the stored copy, since the transfer check only compares sizes
+                        digest = details.getDigest();
+                    }
+                    if (digestStmt != null && !digestStmt.getString().equals(digest)) {
+                        log.debug("Stored binary for {} does not match expected digest, retransferring from {}",
+                                binPid.getQualifiedId(), stagingUri);
+                        BinaryTransferOutcome outcome = transferSession.transferReplaceExisting(binPid, stagingUri);
+                        storageUri = outcome.getDestinationUri();
+                        digest = outcome.getSha1();
+                    }
                 } else {
                     // binary was not previously fully transferred, so retry with replacement enabled
                     log.debug("Retransferring file from {} for {} with replacement enabled",
@@ -360,6 +375,15 @@ public class TransferBinariesToStorageJob extends AbstractConcurrentDepositJob {
         }
     }
 
+    /**
+     * @param verifyResumedTransfers if true, binaries which were already transferred before the job resumed
+     *      are hashed and transferred again if they do not match the expected digest. Otherwise, only their
+     *      sizes are compared and the expected digest is trusted.
+     */
+    public void setVerifyResumedTransfers(boolean verifyResumedTransfers) {
+        this.verifyResumedTransfers = verifyResumedTransfers;
+    }
+
     private class TransferBinariesResult {
         private List<Statement> statements = new ArrayList<>();
     }
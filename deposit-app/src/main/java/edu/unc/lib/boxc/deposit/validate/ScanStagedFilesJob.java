@@ -0,0 +1,347 @@
+package edu.unc.lib.boxc.deposit.validate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.CharMatcher;
+
+import edu.unc.lib.boxc.deposit.work.AbstractConcurrentDepositJob;
+import edu.unc.lib.boxc.model.api.SoftwareAgentConstants.SoftwareAgent;
+import edu.unc.lib.boxc.model.api.exceptions.RepositoryException;
+import edu.unc.lib.boxc.model.api.ids.PID;
+import edu.unc.lib.boxc.model.api.rdf.CdrDeposit;
+import edu.unc.lib.boxc.model.api.rdf.Premis;
+import edu.unc.lib.boxc.model.fcrepo.ids.AgentPids;
+import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
+import edu.unc.lib.boxc.operations.api.events.PremisEventBuilder;
+import edu.unc.lib.boxc.operations.api.events.PremisLogger;
+import edu.unc.lib.boxc.persist.api.DigestAlgorithm;
+import edu.unc.lib.boxc.persist.api.exceptions.InvalidChecksumException;
+import edu.unc.lib.boxc.persist.impl.MultiDigestInputStreamWrapper;
+import fi.solita.clamav.ClamAVClient;
+import fi.solita.clamav.ScanResult;
+
+/**
+ * Reads each staged file in the deposit a single time, scanning it for viruses while
+ * calculating its digests and size from the same stream. Results are recorded to the deposit
+ * model and premis logs in the same form as the VirusScanJob and FixityCheckJob, so that this
+ * job may be run in place of both.
+ *
+ * Files larger than the maximum clamd stream size are scanned by path instead, in which case
+ * only the digest calculation reads the file from the job.
+ *
+ * @author bbpennel
+ */
+public class ScanStagedFilesJob extends AbstractConcurrentDepositJob {
+    private static final Logger log = LoggerFactory.getLogger(ScanStagedFilesJob.class);
+
+    private static final int MAX_RETRIES = 5;
+
+    private static final Collection<DigestAlgorithm> REQUIRED_ALGS = Collections.singleton(
+            DigestAlgorithm.DEFAULT_ALGORITHM);
+
+    private ClamAVClient clamClient;
+
+    private long maxStreamSize = 64000000;
+
+    private Map<String, String> failures = new ConcurrentHashMap<>();
+
+    private AtomicInteger scannedObjects = new AtomicInteger();
+
+    public ScanStagedFilesJob() {
+        super();
+        this.rollbackDatasetOnFailure = false;
+    }
+
+    public ScanStagedFilesJob(String uuid, String depositUUID) {
+        super(uuid, depositUUID);
+        this.rollbackDatasetOnFailure = false;
+    }
+
+    @Override
+    public void runJob() {
+        log.debug("Scanning staged files for deposit {}", depositUUID);
+        Model model = getReadOnlyModel();
+
+        List<Entry<PID, String>> hrefs = getPropertyPairList(model, CdrDeposit.stagingLocation);
+        setTotalClicks(hrefs.size());
+
+        startResultRegistrar();
+
+        try {
+            for (Entry<PID, String> href : hrefs) {
+                PID binPid = href.getKey();
+                // Skip already scanned files
+                if (isObjectCompleted(binPid)) {
+                    log.debug("Skipping already scanned file {} for {}", href.getValue(), binPid);
+                    scannedObjects.incrementAndGet();
+                    addClicks(1);
+                    continue;
+                }
+
+                interruptJobIfStopped();
+
+                waitForQueueCapacity();
+
+                Resource binResc = model.getResource(binPid.getRepositoryPath());
+                // Only original files have their digests calculated
+                boolean isOriginal = model.contains(null, CdrDeposit.hasDatastreamOriginal, binResc);
+                Map<DigestAlgorithm, String> existingDigests = isOriginal ?
+                        getDigestsForResource(binResc) : new HashMap<>();
+                Long expectedSize = binResc.hasProperty(CdrDeposit.size) ?
+                        Long.valueOf(binResc.getProperty(CdrDeposit.size).getString()) : null;
+
+                log.debug("Queuing scan of staged file for {}", binPid.getId());
+                submitTask(new ScanStagedFileRunnable(binPid, URI.create(href.getValue()), binResc,
+                        isOriginal, existingDigests, expectedSize));
+            }
+
+            waitForCompletion();
+        } finally {
+            awaitRegistrarShutdown();
+        }
+
+        if (failures.size() > 0) {
+            StringBuilder sb = new StringBuilder("Virus checks failed for some files:\n");
+            for (String uri : failures.keySet()) {
+                sb.append(uri).append(" - ").append(failures.get(uri)).append("\n");
+            }
+            failJob(failures.size() + " virus check(s) failed.", sb.toString());
+        } else {
+            if (scannedObjects.get() != hrefs.size()) {
+                failJob("Staged file scan job did not attempt to scan all files.",
+                        (hrefs.size() - scannedObjects.get()) + " objects were not scanned.");
+            }
+
+            PremisLogger premisDepositLogger = getPremisLogger(getDepositPID());
+            premisDepositLogger.buildEvent(Premis.VirusCheck)
+                    .addSoftwareAgent(AgentPids.forSoftware(SoftwareAgent.clamav))
+                    .addEventDetail(scannedObjects + "files scanned for viruses.")
+                    .write();
+        }
+        log.debug("Completed ScanStagedFilesJob {} in deposit {}", jobUUID, depositUUID);
+    }
+
+    private Map<DigestAlgorithm, String> getDigestsForResource(Resource resc) {
+        Map<DigestAlgorithm, String> digests = new HashMap<>();
+        for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+            if (resc.hasProperty(algorithm.getDepositProperty())) {
+                digests.put(algorithm, resc.getProperty(algorithm.getDepositProperty()).getString());
+            }
+        }
+        return digests;
+    }
+
+    @Override
+    protected void registrationAction() {
+        // Capture the current set of results, in case it grows during registration
+        List<Object> results = new ArrayList<>();
+        resultsQueue.drainTo(results);
+        log.debug("Registering batch of {} staged file scan results", results.size());
+        // Commit newly generated digests and sizes to the deposit model
+        commit(() -> {
+            results.forEach(resultObj -> {
+                StagedFileResult result = (StagedFileResult) resultObj;
+                result.digests.forEach((alg, digest) -> {
+                    if (!result.binResc.hasProperty(alg.getDepositProperty())) {
+                        log.debug("Storing {} digest for {} with value {}",
+                                alg.getName(), result.binResc, digest);
+                        result.binResc.addLiteral(alg.getDepositProperty(), digest);
+                    }
+                    result.details.add(alg.getName().toUpperCase() + " checksum calculated: " + digest);
+                });
+                if (!result.binResc.hasProperty(CdrDeposit.size)) {
+                    result.binResc.addLiteral(CdrDeposit.size, Long.toString(result.size));
+                }
+            });
+        });
+        // Record events and progress state
+        results.forEach(resultObj -> {
+            StagedFileResult result = (StagedFileResult) resultObj;
+            PID parentPid = PIDs.get(result.binPid.getQualifier(), result.binPid.getId());
+            PremisLogger premisLogger = getPremisLogger(parentPid);
+            premisLogger.buildEvent(Premis.VirusCheck)
+                    .addSoftwareAgent(AgentPids.forSoftware(SoftwareAgent.clamav))
+                    .addEventDetail("File passed pre-ingest scan for viruses")
+                    .addOutcome(true)
+                    .write();
+
+            if (!result.details.isEmpty()) {
+                PremisEventBuilder builder = premisLogger.buildEvent(Premis.MessageDigestCalculation)
+                        .addSoftwareAgent(AgentPids.forSoftware(SoftwareAgent.depositService));
+                result.details.forEach(builder::addEventDetail);
+                builder.write();
+            }
+
+            markObjectCompleted(result.binPid);
+            scannedObjects.incrementAndGet();
+            addClicks(1);
+            log.debug("Completed recording of scan results for {}", result.stagedUri);
+        });
+    }
+
+    private class ScanStagedFileRunnable implements Runnable {
+        private PID binPid;
+        private URI stagedUri;
+        private Resource binResc;
+        private boolean isOriginal;
+        private Map<DigestAlgorithm, String> existingDigests;
+        private Long expectedSize;
+
+        public ScanStagedFileRunnable(PID binPid, URI stagedUri, Resource binResc, boolean isOriginal,
+                Map<DigestAlgorithm, String> existingDigests, Long expectedSize) {
+            this.binPid = binPid;
+            this.stagedUri = stagedUri;
+            this.binResc = binResc;
+            this.isOriginal = isOriginal;
+            this.existingDigests = existingDigests;
+            this.expectedSize = expectedSize;
+        }
+
+        @Override
+        public void run() {
+            if (isInterrupted.get()) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            Path file = Paths.get(stagedUri);
+            try (CountingInputStream countingStream = new CountingInputStream(
+                    new BufferedInputStream(Files.newInputStream(file)))) {
+                MultiDigestInputStreamWrapper digestWrapper = new MultiDigestInputStreamWrapper(
+                        countingStream, existingDigests, isOriginal ? REQUIRED_ALGS : null);
+                InputStream scanStream = digestWrapper.getInputStream();
+
+                ScanResult scanResult;
+                if (Files.size(file) <= maxStreamSize) {
+                    // Stream the content to clamd, calculating digests and size as it is read
+                    scanResult = clamClient.scanWithResult(new CloseShieldInputStream(scanStream));
+                } else {
+                    log.debug("File {} exceeds max stream size, scanning separately", file);
+                    scanResult = rescan(file);
+                }
+                // Consume any content which was not read while scanning
+                IOUtils.skip(scanStream, Long.MAX_VALUE);
+
+                if (!scanPassed(scanResult, file)) {
+                    log.debug("Scanning of file {} failed in {}s", stagedUri, (System.nanoTime() - start) / 1e9);
+                    return;
+                }
+
+                digestWrapper.checkFixity();
+
+                long size = countingStream.getByteCount();
+                if (expectedSize != null && expectedSize != size) {
+                    failJob(String.format("Size check failed for %s belonging to %s", stagedUri, binPid),
+                            "Expected file to be " + expectedSize + " bytes, but was " + size + " bytes");
+                }
+
+                receiveResult(new StagedFileResult(binPid, stagedUri, binResc, digestWrapper.getDigests(), size));
+                log.debug("Scanning of file {} passed in {}s", stagedUri, (System.nanoTime() - start) / 1e9);
+            } catch (InvalidChecksumException e) {
+                failJob(String.format("Fixity check failed for %s belonging to %s",
+                        stagedUri, binResc.getURI()), e.getMessage());
+            } catch (IOException e) {
+                failJob(e, "Failed to read file {0} for scanning", stagedUri);
+            }
+        }
+
+        /**
+         * Evaluate the result of scanning the file, rescanning it if clamd reported an unidentified problem
+         *
+         * @return true if the file passed the virus scan
+         * @throws IOException
+         */
+        private boolean scanPassed(ScanResult scanResult, Path file) throws IOException {
+            int retries = MAX_RETRIES;
+            while (true) {
+                switch (scanResult.getStatus()) {
+                case FOUND:
+                    if (StringUtils.isBlank(scanResult.getSignature()) && --retries > 0) {
+                        log.warn("Scan of {} indicated an unidentified problem was found, retrying", stagedUri);
+                        scanResult = rescan(file);
+                        break;
+                    } else {
+                        failures.put(stagedUri.toString(), scanResult.getSignature());
+                        return false;
+                    }
+                case ERROR:
+                    Exception ex = scanResult.getException();
+                    String message = "Virus checks are producing errors for file '" + file
+                            + "': " + scanResult.getResult();
+                    throw new RepositoryException(message, ex);
+                case PASSED:
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Scan the file by path, or by streaming it if clamd will be unable to find it by path
+         */
+        private ScanResult rescan(Path file) throws IOException {
+            // Clamd is unable to find files with unicode characters in their path
+            if (CharMatcher.ascii().matchesAllOf(file.toString())) {
+                return clamClient.scanWithResult(file);
+            } else {
+                try (InputStream fileStream = Files.newInputStream(file)) {
+                    return clamClient.scanWithResult(fileStream);
+                }
+            }
+        }
+    }
+
+    /**
+     * Result from reading a single staged file
+     * @author bbpennel
+     */
+    private class StagedFileResult {
+        private PID binPid;
+        private URI stagedUri;
+        private Resource binResc;
+        private Map<DigestAlgorithm, String> digests;
+        private long size;
+        private List<String> details;
+
+        public StagedFileResult(PID binPid, URI stagedUri, Resource binResc,
+                Map<DigestAlgorithm, String> digests, long size) {
+            this.binPid = binPid;
+            this.stagedUri = stagedUri;
+            this.binResc = binResc;
+            this.digests = digests;
+            this.size = size;
+            details = new ArrayList<>();
+        }
+    }
+
+    public void setClamClient(ClamAVClient clamClient) {
+        this.clamClient = clamClient;
+    }
+
+    public void setMaxStreamSize(long maxStreamSize) {
+        this.maxStreamSize = maxStreamSize;
+    }
+}
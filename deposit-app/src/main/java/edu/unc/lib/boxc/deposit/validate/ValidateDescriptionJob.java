@@ -6,12 +6,15 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import edu.unc.lib.boxc.deposit.work.AbstractDepositJob;
+import edu.unc.lib.boxc.deposit.work.AbstractConcurrentDepositJob;
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.operations.api.exceptions.MetadataValidationException;
@@ -19,13 +22,13 @@ import edu.unc.lib.boxc.operations.impl.validation.MODSValidator;
 
 /**
  * Asserts that all descriptions in the deposit comply with repository schema
- * and vocabulary requirements.
+ * and vocabulary requirements. Descriptions are validated concurrently.
  *
  * @author count0
  * @author bbpennel
  *
  */
-public class ValidateDescriptionJob extends AbstractDepositJob {
+public class ValidateDescriptionJob extends AbstractConcurrentDepositJob {
     private static final Logger log = LoggerFactory.getLogger(ValidateDescriptionJob.class);
 
     private MODSValidator modsValidator;
@@ -40,8 +43,6 @@ public class ValidateDescriptionJob extends AbstractDepositJob {
 
     @Override
     public void runJob() {
-        int invalidCount = 0;
-
         File descriptionDir = getDescriptionDir();
         if (!descriptionDir.exists()) {
             log.debug("MODS directory does not exist");
@@ -60,34 +61,40 @@ public class ValidateDescriptionJob extends AbstractDepositJob {
             failJob(e, "Failed to list description files in {0}", descriptionDir);
         }
 
-        StringBuilder errors = new StringBuilder();
+        // Errors keyed by the position of the file, so that they are reported in listing order
+        Map<Integer, String> errors = new ConcurrentSkipListMap<>();
 
         setTotalClicks(modsFiles.size());
-        for (File f : modsFiles) {
-            PID p = getPIDFromFile(f);
+        startResultRegistrar();
 
-            try {
-                modsValidator.validate(f);
-            } catch (MetadataValidationException e) {
-                errors.append("Description for object ").append(p)
-                    .append(" is invalid:\n")
-                    .append(e.getDetailedMessage());
+        try {
+            for (int i = 0; i < modsFiles.size(); i++) {
+                interruptJobIfStopped();
 
-                invalidCount++;
-                continue;
-            } catch (IOException e) {
-                failJob(e, "Failed to read description for {0} at path {1}", p, f.getAbsolutePath());
+                // Wait for some of the jobs to finish before queuing more to avoid blocking all other deposits
+                waitForQueueCapacity();
+
+                submitTask(new ValidateDescriptionRunnable(modsFiles.get(i), i, errors));
             }
 
-            addClicks(1);
+            waitForCompletion();
+        } finally {
+            awaitRegistrarShutdown();
         }
 
-        if (invalidCount > 0) {
-            failJob("Descriptive metadata (MODS) for " + invalidCount + " object(s) did not meet requirements.",
-                    errors.toString());
+        if (!errors.isEmpty()) {
+            failJob("Descriptive metadata (MODS) for " + errors.size() + " object(s) did not meet requirements.",
+                    String.join("", errors.values()));
         }
     }
 
+    @Override
+    protected void registrationAction() {
+        List<Object> results = new ArrayList<>();
+        resultsQueue.drainTo(results);
+        addClicks(results.size());
+    }
+
     private PID getPIDFromFile(File file) {
         String path = file.getPath();
         String uuid = path.substring(path.lastIndexOf('/') + 1,
@@ -108,4 +115,33 @@ public class ValidateDescriptionJob extends AbstractDepositJob {
     public void setModsValidator(MODSValidator modsValidator) {
         this.modsValidator = modsValidator;
     }
+
+    private class ValidateDescriptionRunnable implements Runnable {
+        private File file;
+        private int index;
+        private Map<Integer, String> errors;
+
+        public ValidateDescriptionRunnable(File file, int index, Map<Integer, String> errors) {
+            this.file = file;
+            this.index = index;
+            this.errors = errors;
+        }
+
+        @Override
+        public void run() {
+            if (isInterrupted.get()) {
+                return;
+            }
+
+            PID p = getPIDFromFile(file);
+            try {
+                modsValidator.validate(file);
+                receiveResult(p);
+            } catch (MetadataValidationException e) {
+                errors.put(index, "Description for object " + p + " is invalid:\n" + e.getDetailedMessage());
+            } catch (IOException e) {
+                failJob(e, "Failed to read description for {0} at path {1}", p, file.getAbsolutePath());
+            }
+        }
+    }
 }
@@ -2,6 +2,7 @@ package edu.unc.lib.boxc.deposit.work;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
@@ -94,10 +95,35 @@ public abstract class AbstractConcurrentDepositJob extends AbstractDepositJob {
     /**
      * Submit a task to the thread pool for execution
      * @param task
+     * @return future for the submitted task
      */
-    protected void submitTask(Runnable task) {
+    protected Future<?> submitTask(Runnable task) {
         Future<?> future = executorService.submit(task);
         futuresQueue.add(future);
+        return future;
+    }
+
+    /**
+     * Wait for a subset of the submitted tasks to complete, rethrowing any failures from them
+     *
+     * @param futures futures of the tasks to wait for
+     */
+    protected void waitForTasks(Collection<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            isInterrupted.set(true);
+            throw new JobInterruptedException("Interrupted while waiting for tasks", e);
+        } catch (ExecutionException e) {
+            isInterrupted.set(true);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new RuntimeException(e.getCause());
+            }
+        }
     }
 
     /**
@@ -21,6 +21,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.PostConstruct;
 
@@ -118,6 +120,9 @@ public abstract class AbstractDepositJob implements Runnable {
 
     private String depositJobId;
 
+    // Objects completed by this job, loaded on first use in each run
+    private volatile Set<String> completedObjects;
+
     protected boolean rollbackDatasetOnFailure = true;
 
     @Autowired
@@ -146,6 +151,7 @@ public abstract class AbstractDepositJob implements Runnable {
 
     @Override
     public final void run() {
+        completedObjects = null;
         try {
             try (Timer.Context context = timer.time()) {
                 interruptJobIfStopped();
@@ -361,11 +367,34 @@ public abstract class AbstractDepositJob implements Runnable {
     }
 
     protected boolean isObjectCompleted(PID objectPid) {
-        return jobStatusFactory.objectIsCompleted(depositJobId, objectPid.getQualifiedId());
+        return getCompletedObjects().contains(objectPid.getQualifiedId());
     }
 
     protected void markObjectCompleted(PID objectPid) {
-        jobStatusFactory.addObjectCompleted(depositJobId, objectPid.getQualifiedId());
+        String objectId = objectPid.getQualifiedId();
+        jobStatusFactory.addObjectCompleted(depositJobId, objectId);
+        Set<String> completed = completedObjects;
+        if (completed != null) {
+            completed.add(objectId);
+        }
+    }
+
+    /**
+     * @return set of objects already completed by this job, loaded from the job status once per run
+     */
+    private Set<String> getCompletedObjects() {
+        Set<String> completed = completedObjects;
+        if (completed == null) {
+            synchronized (this) {
+                completed = completedObjects;
+                if (completed == null) {
+                    completed = ConcurrentHashMap.newKeySet();
+                    completed.addAll(jobStatusFactory.getCompletedObjects(depositJobId));
+                    completedObjects = completed;
+                }
+            }
+        }
+        return completed;
     }
 
     public File getPremisFile(PID pid) {
@@ -422,7 +451,7 @@ public abstract class AbstractDepositJob implements Runnable {
     }
 
     public void commit(Runnable runnable) {
-        depositModelManager.commit(runnable, true);
+        depositModelManager.commit(depositPID, runnable, true);
     }
 
     public void closeModel() {
@@ -0,0 +1,95 @@
+package edu.unc.lib.boxc.deposit.work;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pipeline of jobs to perform for a deposit, declared as a directed acyclic graph of job classes and the
+ * jobs which must complete before they can start.
+ *
+ * Jobs must be added after all of their prerequisites. Prerequisites which have not been added to the graph,
+ * such as jobs which do not apply to a particular deposit, are ignored. The order in which jobs are added is
+ * the order they will be performed when running one job at a time.
+ *
+ * @author bbpennel
+ */
+public class DepositJobGraph {
+    private final Map<String, Set<String>> jobPrerequisites = new LinkedHashMap<>();
+
+    /**
+     * Add a job to the graph
+     *
+     * @param jobClass class of the job
+     * @param prerequisites classes of jobs which must complete before this job can start
+     * @return this graph
+     */
+    public DepositJobGraph add(Class<?> jobClass, Class<?>... prerequisites) {
+        Set<String> prereqNames = new LinkedHashSet<>();
+        for (Class<?> prereq : prerequisites) {
+            if (jobPrerequisites.containsKey(prereq.getName())) {
+                prereqNames.add(prereq.getName());
+            }
+        }
+        jobPrerequisites.put(jobClass.getName(), prereqNames);
+        return this;
+    }
+
+    /**
+     * @return class names of all jobs in the graph, in the order they were added
+     */
+    public List<String> getJobNames() {
+        return new ArrayList<>(jobPrerequisites.keySet());
+    }
+
+    /**
+     * @param jobName class name of a job
+     * @return class names of the jobs which must complete before the given job, or an empty set
+     *      if the job is not in the graph
+     */
+    public Set<String> getPrerequisites(String jobName) {
+        return Collections.unmodifiableSet(jobPrerequisites.getOrDefault(jobName, Collections.emptySet()));
+    }
+
+    /**
+     * @param completedJobs class names of jobs which have completed
+     * @return class name of the first job, in the order added, which has not completed. Null if all jobs have
+     *      completed.
+     */
+    public String getNextJob(Collection<String> completedJobs) {
+        for (String jobName : jobPrerequisites.keySet()) {
+            if (!completedJobs.contains(jobName)) {
+                return jobName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param completedJobs class names of jobs which have completed
+     * @return class names of all jobs which have not completed but whose prerequisites have all completed,
+     *      in the order added
+     */
+    public List<String> getReadyJobs(Collection<String> completedJobs) {
+        List<String> ready = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> entry : jobPrerequisites.entrySet()) {
+            if (!completedJobs.contains(entry.getKey()) && completedJobs.containsAll(entry.getValue())) {
+                ready.add(entry.getKey());
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * @param completedJobs class names of jobs which have completed
+     * @return true if every job in the graph has completed
+     */
+    public boolean isComplete(Collection<String> completedJobs) {
+        return completedJobs.containsAll(jobPrerequisites.keySet());
+    }
+}
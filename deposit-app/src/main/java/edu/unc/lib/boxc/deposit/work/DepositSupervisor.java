@@ -6,6 +6,7 @@ import java.io.File;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -56,6 +57,7 @@ import edu.unc.lib.boxc.deposit.transfer.TransferBinariesToStorageJob;
 import edu.unc.lib.boxc.deposit.validate.ExtractTechnicalMetadataJob;
 import edu.unc.lib.boxc.deposit.validate.FixityCheckJob;
 import edu.unc.lib.boxc.deposit.validate.PackageIntegrityCheckJob;
+import edu.unc.lib.boxc.deposit.validate.ScanStagedFilesJob;
 import edu.unc.lib.boxc.deposit.validate.ValidateContentModelJob;
 import edu.unc.lib.boxc.deposit.validate.ValidateDescriptionJob;
 import edu.unc.lib.boxc.deposit.validate.ValidateDestinationJob;
@@ -68,9 +70,12 @@ import edu.unc.lib.boxc.persist.api.PackagingType;
 import io.dropwizard.metrics5.Counter;
 import io.dropwizard.metrics5.Histogram;
 import net.greghaines.jesque.Job;
+import net.greghaines.jesque.WorkerStatus;
 import net.greghaines.jesque.client.Client;
 import net.greghaines.jesque.meta.QueueInfo;
+import net.greghaines.jesque.meta.WorkerInfo;
 import net.greghaines.jesque.meta.dao.QueueInfoDAO;
+import net.greghaines.jesque.meta.dao.WorkerInfoDAO;
 import net.greghaines.jesque.worker.Worker;
 import net.greghaines.jesque.worker.WorkerEvent;
 import net.greghaines.jesque.worker.WorkerListener;
@@ -110,6 +115,9 @@ public class DepositSupervisor implements WorkerListener {
     @Autowired
     private QueueInfoDAO queueDAO;
 
+    @Autowired
+    private WorkerInfoDAO workerInfoDAO;
+
     @Autowired
     private DepositEmailHandler depositEmailHandler;
 
@@ -150,6 +158,12 @@ public class DepositSupervisor implements WorkerListener {
 
     private boolean isQuieted;
 
+    // If true, virus scanning and fixity checks are performed in a single read of each staged file
+    private boolean singlePassFileScan;
+
+    // If true, all jobs whose prerequisites have completed are queued at once rather than one job at a time
+    private boolean parallelJobs;
+
     // Visible for testing
     protected ActionMonitoringTask actionMonitoringTask;
 
@@ -169,6 +183,22 @@ public class DepositSupervisor implements WorkerListener {
         this.unavailableDelaySeconds = unavailableDelaySeconds;
     }
 
+    public boolean isSinglePassFileScan() {
+        return singlePassFileScan;
+    }
+
+    public void setSinglePassFileScan(boolean singlePassFileScan) {
+        this.singlePassFileScan = singlePassFileScan;
+    }
+
+    public boolean isParallelJobs() {
+        return parallelJobs;
+    }
+
+    public void setParallelJobs(boolean parallelJobs) {
+        this.parallelJobs = parallelJobs;
+    }
+
     public DepositSupervisor() {
         id = UUID.randomUUID().toString();
         actionMonitoringTask = new ActionMonitoringTask();
@@ -444,6 +474,25 @@ public class DepositSupervisor implements WorkerListener {
         }
     }
 
+    /**
+     * @param depositUUID
+     * @return class names of jobs from the deposit which workers are currently performing, keyed by job uuid
+     */
+    private Map<String, String> getRunningJobs(String depositUUID) {
+        Map<String, String> runningJobs = new HashMap<>();
+        for (WorkerInfo workerInfo : workerInfoDAO.getActiveWorkers()) {
+            WorkerStatus workerStatus = workerInfo.getStatus();
+            Job job = workerStatus == null ? null : workerStatus.getPayload();
+            if (job == null || job.getArgs() == null || job.getArgs().length < 2) {
+                continue;
+            }
+            if (depositUUID.equals(job.getArgs()[1])) {
+                runningJobs.put((String) job.getArgs()[0], job.getClassName());
+            }
+        }
+        return runningJobs;
+    }
+
     /**
      * Add jobs previously running or queued back to the queue
      */
@@ -467,6 +516,12 @@ public class DepositSupervisor implements WorkerListener {
                     // If the job is queued but the job it is waiting on is a cleanup, then it is finished
                     if (depositSet.get(uuid).contains(CleanupDepositJob.class.getName())) {
                         depositStatusFactory.setState(uuid, DepositState.finished);
+                    } else if (parallelJobs) {
+                        // Sibling jobs may have been interrupted while others remained queued, so the scheduled
+                        // jobs must be rebuilt from the queue for the interrupted jobs to be queued again
+                        LOG.info("Resuming deposit {} to requeue any interrupted jobs alongside queued jobs {}",
+                                uuid, depositSet.get(uuid));
+                        depositStatusFactory.requestAction(uuid, DepositAction.resume);
                     } else {
                         LOG.info("Skipping resumption of deposit {} because it already is in the queue", uuid);
                     }
@@ -487,6 +542,10 @@ public class DepositSupervisor implements WorkerListener {
                 if (depositSet.containsKey(uuid)) {
                     if (depositSet.get(uuid).contains(CleanupDepositJob.class.getName())) {
                         depositStatusFactory.setState(uuid, DepositState.finished);
+                    } else if (parallelJobs) {
+                        LOG.info("Resuming queued deposit {} to requeue any interrupted jobs alongside queued jobs {}",
+                                uuid, depositSet.get(uuid));
+                        depositStatusFactory.requestAction(uuid, DepositAction.resume);
                     } else {
                         LOG.debug("Skipping resumption of queued deposit {} because it already is in the queue", uuid);
                     }
@@ -562,8 +621,12 @@ public class DepositSupervisor implements WorkerListener {
 
     public Job makeJob(@SuppressWarnings("rawtypes") Class jobClass,
             String depositUUID) {
+        return makeJob(jobClass.getName(), depositUUID);
+    }
+
+    public Job makeJob(String jobClassName, String depositUUID) {
         String uuid = UUID.randomUUID().toString();
-        return new Job(jobClass.getName(), uuid, depositUUID);
+        return new Job(jobClassName, uuid, depositUUID);
     }
 
     /*
@@ -681,6 +744,12 @@ public class DepositSupervisor implements WorkerListener {
             return;
         }
 
+        // Another job running concurrently in the deposit may have failed
+        if (DepositState.failed.name().equals(status.get(DepositField.state.name()))) {
+            LOG.debug("Deposit {} has failed, no further jobs will be queued", depositUUID);
+            return;
+        }
+
         if (CleanupDepositJob.class.getName().equals(job.getClassName())) {
             LOG.debug("Job {} is cleanup job, deposit state will expire", depositUUID);
             return;
@@ -715,7 +784,7 @@ public class DepositSupervisor implements WorkerListener {
             Simple2N3BagJob.class, BagIt2N3BagJob.class,
             DirectoryToBagJob.class, NormalizeFileObjectsJob.class, VocabularyEnforcementJob.class,
             ValidateDestinationJob.class, ValidateContentModelJob.class, ValidateDescriptionJob.class,
-            ValidateFileAvailabilityJob.class, VirusScanJob.class, FixityCheckJob.class,
+            ValidateFileAvailabilityJob.class, VirusScanJob.class, FixityCheckJob.class, ScanStagedFilesJob.class,
             ExtractTechnicalMetadataJob.class, AssignStorageLocationsJob.class, TransferBinariesToStorageJob.class,
             StaffOnlyPermissionJob.class, IngestDepositRecordJob.class, IngestContentObjectsJob.class,
             CleanupDepositJob.class)
@@ -723,18 +792,49 @@ public class DepositSupervisor implements WorkerListener {
 
     protected Job getNextJob(String depositUUID, Map<String, String> status, List<String> successfulJobs)
             throws DepositFailedException {
+        DepositJobGraph jobGraph = getJobGraph(depositUUID, status, successfulJobs);
+        String nextJob = jobGraph.getNextJob(successfulJobs);
+        return nextJob == null ? null : makeJob(nextJob, depositUUID);
+    }
+
+    /**
+     * Get the jobs which are ready to be queued for the deposit. If parallel jobs are enabled, this is every
+     * job whose prerequisites have all completed, otherwise it is the next job in the pipeline.
+     *
+     * @param jobGraph
+     * @param successfulJobs
+     * @return class names of the jobs that are ready to be queued
+     */
+    protected List<String> getReadyJobs(DepositJobGraph jobGraph, List<String> successfulJobs) {
+        if (parallelJobs) {
+            return jobGraph.getReadyJobs(successfulJobs);
+        }
+        String nextJob = jobGraph.getNextJob(successfulJobs);
+        return nextJob == null ? Collections.emptyList() : Collections.singletonList(nextJob);
+    }
+
+    /**
+     * Build the graph of jobs that must be performed for the deposit, and the dependencies between them
+     *
+     * @param depositUUID
+     * @param status
+     * @param successfulJobs
+     * @return the job graph
+     * @throws DepositFailedException
+     */
+    protected DepositJobGraph getJobGraph(String depositUUID, Map<String, String> status,
+            List<String> successfulJobs) throws DepositFailedException {
         LOG.debug("Got completed job names: {}", successfulJobs);
         if (!VALID_DEPOSIT_JOBS.containsAll(successfulJobs)) {
             throw new DepositFailedException("Deposit " + depositUUID + " lists invalid 'successful jobs',"
                     + " it may be out of date and require updating: " + successfulJobs);
         }
 
+        DepositJobGraph graph = new DepositJobGraph();
+
         // Package integrity check
         if (status.get(DepositField.depositMd5.name()) != null) {
-            if (!successfulJobs.contains(PackageIntegrityCheckJob.class
-                    .getName())) {
-                return makeJob(PackageIntegrityCheckJob.class, depositUUID);
-            }
+            graph.add(PackageIntegrityCheckJob.class);
         }
 
         // Package may be unpacked
@@ -742,9 +842,7 @@ public class DepositSupervisor implements WorkerListener {
         String packagingType = status.get(DepositField.packagingType.name());
         if (filename != null && filename.toLowerCase().endsWith(".zip") &&
                 !PackagingType.SIMPLE_OBJECT.getUri().equals(packagingType)) {
-            if (!successfulJobs.contains(UnpackDepositJob.class.getName())) {
-                return makeJob(UnpackDepositJob.class, depositUUID);
-            }
+            graph.add(UnpackDepositJob.class, PackageIntegrityCheckJob.class);
         }
 
         Class<?> conversionClass = null;
@@ -763,89 +861,77 @@ public class DepositSupervisor implements WorkerListener {
             String msg = MessageFormat.format("Cannot convert deposit package to N3 BagIt."
                             + " No converter for this packaging type(s): {0}", packagingType);
             throw new DepositFailedException(msg);
-        } else if (!successfulJobs.contains(conversionClass.getName())) {
-            return makeJob(conversionClass, depositUUID);
         }
+        graph.add(conversionClass, PackageIntegrityCheckJob.class, UnpackDepositJob.class);
 
         // Normalize all fileObjects into Works. Only applying to METS packaging, other types should already be valid
-        if (!successfulJobs.contains(NormalizeFileObjectsJob.class.getName())
-                && packagingType.equals(PackagingType.METS_CDR.getUri())) {
-            return makeJob(NormalizeFileObjectsJob.class, depositUUID);
+        if (packagingType.equals(PackagingType.METS_CDR.getUri())) {
+            graph.add(NormalizeFileObjectsJob.class, conversionClass);
         }
 
         // Verify that the destination can receive the deposit
-        if (!successfulJobs.contains(ValidateDestinationJob.class.getName())) {
-            return makeJob(ValidateDestinationJob.class, depositUUID);
-        }
+        graph.add(ValidateDestinationJob.class, conversionClass, NormalizeFileObjectsJob.class);
 
         // Validate object structure and properties
-        if (!successfulJobs.contains(ValidateContentModelJob.class.getName())) {
-            return makeJob(ValidateContentModelJob.class, depositUUID);
-        }
+        graph.add(ValidateContentModelJob.class, ValidateDestinationJob.class);
 
         // Perform vocabulary enforcement for package types that include metadata
-//        if (packagingType.equals(PackagingType.METS_CDR.getUri())
-//                && !successfulJobs.contains(VocabularyEnforcementJob.class.getName())) {
-//            return makeJob(VocabularyEnforcementJob.class, depositUUID);
+//        if (packagingType.equals(PackagingType.METS_CDR.getUri())) {
+//            graph.add(VocabularyEnforcementJob.class, ValidateContentModelJob.class);
 //        }
 
+        // The following validation and scanning jobs only read the staged files and deposit model,
+        // so they may be performed concurrently once the content model is valid
+
         // MODS validation
         File bagPath = new File(depositsDirectory, depositUUID);
         File descrFolder = new File(bagPath, DepositConstants.DESCRIPTION_DIR);
         if (descrFolder.exists()) {
-            if (!successfulJobs.contains(ValidateDescriptionJob.class.getName())) {
-                return makeJob(ValidateDescriptionJob.class, depositUUID);
-            }
+            graph.add(ValidateDescriptionJob.class, ValidateContentModelJob.class);
         }
 
         // Validate file availability
-        if (!successfulJobs.contains(ValidateFileAvailabilityJob.class.getName())) {
-            return makeJob(ValidateFileAvailabilityJob.class, depositUUID);
-        }
+        graph.add(ValidateFileAvailabilityJob.class, ValidateContentModelJob.class);
 
-        // Virus Scan
-        if (!successfulJobs.contains(VirusScanJob.class.getName())) {
-            return makeJob(VirusScanJob.class, depositUUID);
-        }
+        if (singlePassFileScan) {
+            // Virus scan, verify/calculate checksums and check sizes in one read of each file
+            graph.add(ScanStagedFilesJob.class, ValidateFileAvailabilityJob.class);
+        } else {
+            // Virus Scan
+            graph.add(VirusScanJob.class, ValidateFileAvailabilityJob.class);
 
-        // Verify/calculate checksums
-        if (!successfulJobs.contains(FixityCheckJob.class.getName())) {
-            return makeJob(FixityCheckJob.class, depositUUID);
+            // Verify/calculate checksums
+            graph.add(FixityCheckJob.class, ValidateFileAvailabilityJob.class);
         }
 
         // Extract technical metadata
-        if (!successfulJobs.contains(ExtractTechnicalMetadataJob.class.getName())) {
-            return makeJob(ExtractTechnicalMetadataJob.class, depositUUID);
-        }
+        graph.add(ExtractTechnicalMetadataJob.class, ValidateFileAvailabilityJob.class);
 
-        // Assign storage locations
-        if (!successfulJobs.contains(AssignStorageLocationsJob.class.getName())) {
-            return makeJob(AssignStorageLocationsJob.class, depositUUID);
-        }
+        // Assign storage locations once all validation has completed
+        graph.add(AssignStorageLocationsJob.class, ValidateDescriptionJob.class, ScanStagedFilesJob.class,
+                VirusScanJob.class, FixityCheckJob.class, ExtractTechnicalMetadataJob.class);
 
         // Transfer binaries to storage locations
-        if (!successfulJobs.contains(TransferBinariesToStorageJob.class.getName())) {
-            return makeJob(TransferBinariesToStorageJob.class, depositUUID);
-        }
+        graph.add(TransferBinariesToStorageJob.class, AssignStorageLocationsJob.class);
 
         // Mark objects staff only if flag is set
         boolean runStaffOnlyJob = Boolean.parseBoolean(status.get(DepositField.staffOnly.name()));
-        if (runStaffOnlyJob && !successfulJobs.contains(StaffOnlyPermissionJob.class.getName())) {
-            return makeJob(StaffOnlyPermissionJob.class, depositUUID);
+        if (runStaffOnlyJob) {
+            graph.add(StaffOnlyPermissionJob.class, TransferBinariesToStorageJob.class);
         }
 
         boolean excludeDepositRecord = Boolean.parseBoolean(status.get(DepositField.excludeDepositRecord.name()));
         // Ingest the deposit record
-        if (!excludeDepositRecord && !successfulJobs.contains(IngestDepositRecordJob.class.getName())) {
-            return makeJob(IngestDepositRecordJob.class, depositUUID);
+        if (!excludeDepositRecord) {
+            graph.add(IngestDepositRecordJob.class, TransferBinariesToStorageJob.class,
+                    StaffOnlyPermissionJob.class);
         }
 
         // Ingest all content objects to repository
-        if (!successfulJobs.contains(IngestContentObjectsJob.class.getName())) {
-            return makeJob(IngestContentObjectsJob.class, depositUUID);
-        }
+        graph.add(IngestContentObjectsJob.class, TransferBinariesToStorageJob.class,
+                StaffOnlyPermissionJob.class, IngestDepositRecordJob.class);
 
-        return null;
+        return graph;
     }
 
     private boolean isJobPaused(Map<String, String> status) {
@@ -860,12 +946,23 @@ public class DepositSupervisor implements WorkerListener {
     private void queueNextJob(Job job, String depositUUID, Map<String, String> status, List<String> successfulJobs,
             long delay)
             throws DepositFailedException {
-        Job nextJob = getNextJob(depositUUID, status, successfulJobs);
-        if (nextJob != null) {
-            LOG.info("Queuing next job {} for deposit {}", nextJob.getClassName(), depositUUID);
+        DepositJobGraph jobGraph = getJobGraph(depositUUID, status, successfulJobs);
+        if (!jobGraph.isComplete(successfulJobs)) {
+            for (String nextJob : getReadyJobs(jobGraph, successfulJobs)) {
+                // Claim the job before queuing it, so it is only queued once when prerequisites finish concurrently
+                if (!depositStatusFactory.addScheduledJob(depositUUID, nextJob)) {
+                    LOG.debug("Job {} for deposit {} is already scheduled", nextJob, depositUUID);
+                    continue;
+                }
+                LOG.info("Queuing next job {} for deposit {}", nextJob, depositUUID);
 
-            enqueueJob(nextJob, status, delay);
+                enqueueJob(makeJob(nextJob, depositUUID), status, delay);
+            }
         } else {
+            if (!depositStatusFactory.addScheduledJob(depositUUID, CleanupDepositJob.class.getName())) {
+                LOG.debug("Deposit {} has already been finished", depositUUID);
+                return;
+            }
             depositStatusFactory.setState(depositUUID, DepositState.finished);
 
             final Counter finished = CounterFactory.createCounter(job.getClass(), "finished-deposits");
@@ -918,6 +1015,7 @@ public class DepositSupervisor implements WorkerListener {
 
         depositStatusFactory.setState(uuid, DepositState.queued);
         depositStatusFactory.clearActionRequest(uuid);
+        depositStatusFactory.setScheduledJobs(uuid, Collections.singleton(job.getClassName()));
 
         enqueueJob(job, fields, 0);
     }
@@ -930,24 +1028,27 @@ public class DepositSupervisor implements WorkerListener {
         try {
             depositStatusFactory.clearActionRequest(uuid);
 
+            // Jobs from the deposit which are still being performed by a worker, such as siblings of a failed job
+            Map<String, String> runningJobs = getRunningJobs(uuid);
+
             // Clear out the previous failed job if there was one
-            jobStatusFactory.clearStale(uuid);
+            jobStatusFactory.clearStale(uuid, runningJobs.keySet());
             depositStatusFactory.deleteField(uuid, DepositField.errorMessage);
 
-            // since we already checked for queued jobs at startup, only check when resuming from a paused state
-            boolean enqueueNext = true;
-            if (DepositState.paused.name().equals(status.get(DepositField.state.name()))) {
-                Map<String, Set<String>> depositSet = getQueuedDepositsWithJobs();
-                enqueueNext = !depositSet.containsKey(uuid);
+            // Jobs still waiting in the queue or being performed will continue after resuming, any other scheduled
+            // jobs were interrupted or failed and must be queued again. Jobs which are already queued or running
+            // will not be queued a second time, and completed jobs are never queued again.
+            Set<String> scheduledJobs = new HashSet<>(
+                    getQueuedDepositsWithJobs().getOrDefault(uuid, Collections.emptySet()));
+            scheduledJobs.addAll(runningJobs.values());
+            if (!scheduledJobs.isEmpty()) {
+                LOG.info("Resuming {}, jobs {} are already queued or running and will not be queued again",
+                        uuid, scheduledJobs);
             }
+            depositStatusFactory.setScheduledJobs(uuid, scheduledJobs);
 
-            if (enqueueNext) {
-                List<String> successfulJobs = jobStatusFactory.getSuccessfulJobNames(uuid);
-                queueNextJob(null, uuid, status, successfulJobs, delay);
-            } else {
-                LOG.info("Resuming {} from paused state."
-                        + " A job is already queued so no new jobs will be enqueued", uuid);
-            }
+            List<String> successfulJobs = jobStatusFactory.getSuccessfulJobNames(uuid);
+            queueNextJob(null, uuid, status, successfulJobs, delay);
 
             depositStatusFactory.setState(uuid, DepositState.queued);
         } catch (DepositFailedException e) {
@@ -139,9 +139,8 @@ public class AbstractDepositJobTest {
             completedIds.add(objId);
             return null;
         }).when(jobStatusFactory).addObjectCompleted(anyString(), anyString());
-        when(jobStatusFactory.objectIsCompleted(anyString(), anyString())).thenAnswer(invocation -> {
-            String objId = invocation.getArgument(1);
-            return completedIds.contains(objId);
+        when(jobStatusFactory.getCompletedObjects(anyString())).thenAnswer(invocation -> {
+            return new HashSet<>(completedIds);
         });
     }
 
@@ -30,6 +30,8 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.http.HttpStatus;
@@ -785,6 +787,86 @@ public class IngestContentObjectsJobTest extends AbstractDepositJobTest {
         assertTrue(workAipResc.hasProperty(Cdr.memberOrder), "Work object did not contain member order");
     }
 
+    @Test
+    public void ingestWorksConcurrentlyTest() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        job.setExecutorService(executor);
+        job.setConcurrentIngest(true);
+
+        PID work1Pid = makePid(RepositoryPathConstants.CONTENT_BASE);
+        WorkObject work1 = mock(WorkObject.class);
+        Bag work1Bag = setupWork(work1Pid, work1);
+        PID file1Pid = addFileObject(work1Bag, "pdf.pdf", "application/pdf");
+        FileObject fileObj1 = mock(FileObject.class);
+        when(fileObj1.getPid()).thenReturn(file1Pid);
+        when(fileObj1.getOriginalFile()).thenReturn(mockBinaryObj);
+
+        PID work2Pid = makePid(RepositoryPathConstants.CONTENT_BASE);
+        WorkObject work2 = mock(WorkObject.class);
+        Bag work2Bag = setupWork(work2Pid, work2);
+        PID file2Pid = addFileObject(work2Bag, "text.txt", "text/plain");
+        FileObject fileObj2 = mock(FileObject.class);
+        when(fileObj2.getPid()).thenReturn(file2Pid);
+        when(fileObj2.getOriginalFile()).thenReturn(mockBinaryObj);
+
+        job.closeModel();
+
+        when(repoObjFactory.createWorkObject(eq(work1Pid), any(Model.class))).thenReturn(work1);
+        when(repoObjFactory.createWorkObject(eq(work2Pid), any(Model.class))).thenReturn(work2);
+        when(repoObjLoader.getWorkObject(eq(work1Pid))).thenReturn(work1);
+        when(repoObjLoader.getWorkObject(eq(work2Pid))).thenReturn(work2);
+        when(work1.addDataFile(eq(file1Pid), any(URI.class), anyString(), anyString(),
+                isNull(), isNull(), any(Model.class))).thenReturn(fileObj1);
+        when(work2.addDataFile(eq(file2Pid), any(URI.class), anyString(), anyString(),
+                isNull(), isNull(), any(Model.class))).thenReturn(fileObj2);
+
+        try {
+            job.run();
+        } finally {
+            executor.shutdown();
+        }
+
+        verify(destinationObj).addMember(eq(work1));
+        verify(destinationObj).addMember(eq(work2));
+        verify(work1).addDataFile(eq(file1Pid), any(URI.class), eq("pdf.pdf"),
+                eq("application/pdf"), isNull(), isNull(), any(Model.class));
+        verify(work2).addDataFile(eq(file2Pid), any(URI.class), eq("text.txt"),
+                eq("text/plain"), isNull(), isNull(), any(Model.class));
+
+        // Two works and two files
+        verify(jobStatusFactory, times(4)).incrCompletion(eq(jobUUID), eq(1));
+    }
+
+    @Test
+    public void ingestWorkFilesInSingleTransactionTest() throws Exception {
+        job.setFilesPerTransaction(5);
+
+        PID workPid = makePid(RepositoryPathConstants.CONTENT_BASE);
+        WorkObject work = mock(WorkObject.class);
+        Bag workBag = setupWork(workPid, work);
+
+        PID mainPid = addFileObject(workBag, "pdf.pdf", "application/pdf");
+        PID supPid = addFileObject(workBag, "text.txt", "text/plain");
+
+        job.closeModel();
+
+        when(work.addDataFile(any(PID.class), any(URI.class),
+                anyString(), anyString(), isNull(), isNull(), any(Model.class)))
+                .thenReturn(mockFileObj);
+        when(mockFileObj.getPid()).thenReturn(mainPid).thenReturn(supPid);
+        when(repoObjLoader.getWorkObject(eq(workPid))).thenReturn(work);
+
+        job.run();
+
+        verify(work, times(2)).addDataFile(any(PID.class), any(URI.class), anyString(),
+                anyString(), isNull(), isNull(), any(Model.class));
+        // One transaction for the work, and another for both of its files
+        verify(txManager, times(2)).startTransaction();
+        // Work click, followed by both files together
+        verify(jobStatusFactory).incrCompletion(eq(jobUUID), eq(1));
+        verify(jobStatusFactory).incrCompletion(eq(jobUUID), eq(2));
+    }
+
     private PID addFileObject(Bag parent, String stagingLocation, String mimetype) throws Exception {
         PID filePid = makePid(RepositoryPathConstants.CONTENT_BASE);
 
@@ -37,6 +37,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -603,6 +604,61 @@ public class TransferBinariesToStorageJobTest extends AbstractNormalizationJobTe
         assertOriginalFileTransferred(postFileResc, FILE_CONTENT1);
     }
 
+    @Test
+    public void fileAlreadyTransferredWithDifferentContent() throws Exception {
+        job.setVerifyResumedTransfers(true);
+        Bag workBag = addContainerObject(depBag, Cdr.Work);
+        Resource fileResc = addFileObject(workBag, FILE_CONTENT1, true);
+        workBag.addProperty(Cdr.primaryObject, fileResc);
+        Resource originalResc = DepositModelHelpers.getDatastream(fileResc);
+        originalResc.addLiteral(CdrDeposit.sha1sum, DigestUtils.sha1Hex(FILE_CONTENT1));
+
+        // Put a file of the same size but with different content into the storage location beforehand
+        String otherContent = StringUtils.reverse(FILE_CONTENT1);
+        try (BinaryTransferSession session = transferService.getSession(storageLoc)) {
+            PID originalPid = getOriginalFilePid(PIDs.get(fileResc.getURI()));
+            session.transfer(originalPid, IOUtils.toInputStream(otherContent, UTF_8));
+        }
+
+        job.closeModel();
+
+        job.run();
+
+        Model model = job.getReadOnlyModel();
+        Resource postFileResc = model.getResource(fileResc.getURI());
+
+        // Expect the stored copy to have been replaced with the staged file
+        assertOriginalFileTransferred(postFileResc, FILE_CONTENT1);
+    }
+
+    @Test
+    public void fileAlreadyTransferredSizeOnly() throws Exception {
+        Bag workBag = addContainerObject(depBag, Cdr.Work);
+        Resource fileResc = addFileObject(workBag, FILE_CONTENT1, true);
+        workBag.addProperty(Cdr.primaryObject, fileResc);
+        Resource originalResc = DepositModelHelpers.getDatastream(fileResc);
+        String expectedSha1 = DigestUtils.sha1Hex(FILE_CONTENT1);
+        originalResc.addLiteral(CdrDeposit.sha1sum, expectedSha1);
+
+        // Stored copy has the same size, so it is not read again when only sizes are compared
+        String otherContent = StringUtils.reverse(FILE_CONTENT1);
+        try (BinaryTransferSession session = transferService.getSession(storageLoc)) {
+            PID originalPid = getOriginalFilePid(PIDs.get(fileResc.getURI()));
+            session.transfer(originalPid, IOUtils.toInputStream(otherContent, UTF_8));
+        }
+
+        job.closeModel();
+
+        job.run();
+
+        Model model = job.getReadOnlyModel();
+        Resource postFileResc = model.getResource(fileResc.getURI());
+
+        assertOriginalFileTransferred(postFileResc, otherContent);
+        Resource postOriginalResc = DepositModelHelpers.getDatastream(postFileResc);
+        assertEquals(expectedSha1, postOriginalResc.getProperty(CdrDeposit.sha1sum).getString());
+    }
+
     @Test
     public void filePartiallyTransferred() throws Exception {
         Bag workBag = addContainerObject(depBag, Cdr.Work);
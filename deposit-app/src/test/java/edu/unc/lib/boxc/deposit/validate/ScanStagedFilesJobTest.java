@@ -0,0 +1,270 @@
+package edu.unc.lib.boxc.deposit.validate;
+
+import static edu.unc.lib.boxc.common.test.TestHelpers.setField;
+import static edu.unc.lib.boxc.deposit.impl.model.DepositModelHelpers.addDatastream;
+import static edu.unc.lib.boxc.deposit.impl.model.DepositModelHelpers.getDatastream;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.jena.rdf.model.Bag;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import edu.unc.lib.boxc.deposit.fcrepo4.AbstractDepositJobTest;
+import edu.unc.lib.boxc.deposit.work.JobFailedException;
+import edu.unc.lib.boxc.model.api.ids.PID;
+import edu.unc.lib.boxc.model.api.rdf.Cdr;
+import edu.unc.lib.boxc.model.api.rdf.CdrDeposit;
+import edu.unc.lib.boxc.model.api.rdf.Premis;
+import edu.unc.lib.boxc.model.fcrepo.ids.RepositoryPIDMinter;
+import edu.unc.lib.boxc.operations.impl.events.PremisLoggerFactoryImpl;
+import edu.unc.lib.boxc.persist.api.DigestAlgorithm;
+import fi.solita.clamav.ClamAVClient;
+import fi.solita.clamav.ScanResult;
+import fi.solita.clamav.ScanResult.Status;
+
+/**
+ * @author bbpennel
+ */
+public class ScanStagedFilesJobTest extends AbstractDepositJobTest {
+
+    private final static int FLUSH_RATE = 100;
+
+    private static final String CONTENT1 = "Something to digest";
+    private static final String CONTENT1_MD5 = "7afbf05666feeebe7fbbf1c9071584e6";
+    private static final String CONTENT1_SHA1 = "23d51c61a578a8cb00c5eec6b29c12b7da15c8de";
+
+    private ScanStagedFilesJob job;
+
+    private File stagingDir;
+
+    @Mock
+    private ClamAVClient clamClient;
+    @Mock
+    private ScanResult scanResult;
+
+    private final static ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+    @BeforeEach
+    public void setup() throws Exception {
+        premisLoggerFactory = new PremisLoggerFactoryImpl();
+        premisLoggerFactory.setPidMinter(new RepositoryPIDMinter());
+
+        job = new ScanStagedFilesJob(jobUUID, depositUUID);
+        job.setDepositStatusFactory(depositStatusFactory);
+        setField(job, "depositModelManager", depositModelManager);
+        setField(job, "premisLoggerFactory", premisLoggerFactory);
+        setField(job, "depositsDirectory", depositsDirectory);
+        setField(job, "jobStatusFactory", jobStatusFactory);
+        job.setClamClient(clamClient);
+        job.setExecutorService(executorService);
+        job.setFlushRate(FLUSH_RATE);
+        job.setMaxQueuedJobs(2);
+        job.init();
+
+        depositJobId = depositUUID + ":" + job.getClass().getName();
+
+        stagingDir = tmpFolder.resolve("staged").toFile();
+
+        // Only read part of the stream, as clamd may stop reading once it has found a problem
+        when(clamClient.scanWithResult(any(InputStream.class))).thenAnswer(invocation -> {
+            InputStream stream = invocation.getArgument(0);
+            stream.read(new byte[4]);
+            return scanResult;
+        });
+        when(clamClient.scanWithResult(any(Path.class))).thenReturn(scanResult);
+        when(scanResult.getStatus()).thenReturn(Status.PASSED);
+    }
+
+    @AfterAll
+    public static void afterTestClass() {
+        executorService.shutdown();
+    }
+
+    @Test
+    public void scanFileWithValidMd5() throws Exception {
+        Model model = job.getWritableModel();
+        Bag depBag = model.createBag(depositPid.getRepositoryPath());
+
+        String stagingPath = stageFile(CONTENT1);
+        PID filePid = addFileObject(depBag, stagingPath);
+        Resource origResc = getDatastream(model.getResource(filePid.getRepositoryPath()));
+        origResc.addLiteral(CdrDeposit.md5sum, CONTENT1_MD5);
+        job.closeModel();
+
+        job.run();
+
+        Model resultModel = job.getReadOnlyModel();
+        Resource resultResc = getDatastream(resultModel.getResource(filePid.getRepositoryPath()));
+        assertTrue(resultResc.hasProperty(CdrDeposit.sha1sum, CONTENT1_SHA1));
+        assertTrue(resultResc.hasProperty(CdrDeposit.md5sum, CONTENT1_MD5));
+        assertEquals(CONTENT1.length(), resultResc.getProperty(CdrDeposit.size).getLong());
+
+        assertEventRecorded(filePid, Premis.VirusCheck);
+        assertEventRecorded(filePid, Premis.MessageDigestCalculation);
+
+        verify(clamClient).scanWithResult(any(InputStream.class));
+        verify(clamClient, never()).scanWithResult(any(Path.class));
+        verify(jobStatusFactory).setTotalCompletion(eq(jobUUID), eq(1));
+        verify(jobStatusFactory).incrCompletion(eq(jobUUID), eq(1));
+    }
+
+    @Test
+    public void scanFileLargerThanMaxStreamSize() throws Exception {
+        job.setMaxStreamSize(4);
+
+        Model model = job.getWritableModel();
+        Bag depBag = model.createBag(depositPid.getRepositoryPath());
+
+        String stagingPath = stageFile(CONTENT1);
+        PID filePid = addFileObject(depBag, stagingPath);
+        job.closeModel();
+
+        job.run();
+
+        Model resultModel = job.getReadOnlyModel();
+        Resource resultResc = getDatastream(resultModel.getResource(filePid.getRepositoryPath()));
+        assertTrue(resultResc.hasProperty(CdrDeposit.sha1sum, CONTENT1_SHA1));
+
+        verify(clamClient).scanWithResult(any(Path.class));
+        verify(clamClient, never()).scanWithResult(any(InputStream.class));
+    }
+
+    @Test
+    public void scanUnicodeFileLargerThanMaxStreamSize() throws Exception {
+        job.setMaxStreamSize(4);
+
+        Model model = job.getWritableModel();
+        Bag depBag = model.createBag(depositPid.getRepositoryPath());
+
+        String stagingPath = stageFile("alienfile\uD83D\uDC7D.txt", CONTENT1);
+        PID filePid = addFileObject(depBag, stagingPath);
+        job.closeModel();
+
+        job.run();
+
+        Model resultModel = job.getReadOnlyModel();
+        Resource resultResc = getDatastream(resultModel.getResource(filePid.getRepositoryPath()));
+        assertTrue(resultResc.hasProperty(CdrDeposit.sha1sum, CONTENT1_SHA1));
+
+        // Clamd cannot find files with unicode characters in their path, so the file is streamed instead
+        verify(clamClient).scanWithResult(any(InputStream.class));
+        verify(clamClient, never()).scanWithResult(any(Path.class));
+    }
+
+    @Test
+    public void scanFileWithInvalidMd5() throws Exception {
+        Model model = job.getWritableModel();
+        Bag depBag = model.createBag(depositPid.getRepositoryPath());
+
+        String stagingPath = stageFile(CONTENT1);
+        PID filePid = addFileObject(depBag, stagingPath);
+        Resource origResc = getDatastream(model.getResource(filePid.getRepositoryPath()));
+        origResc.addLiteral(CdrDeposit.md5sum, "mdwhat");
+        job.closeModel();
+
+        try {
+            job.run();
+            fail("Expected job to fail");
+        } catch (JobFailedException e) {
+            assertTrue(e.getMessage().contains("Fixity check failed for " + stagingPath));
+            assertTrue(e.getDetails().contains("Checksum mismatch, computed MD5"));
+        }
+    }
+
+    @Test
+    public void scanFileWithIncorrectSize() throws Exception {
+        Model model = job.getWritableModel();
+        Bag depBag = model.createBag(depositPid.getRepositoryPath());
+
+        String stagingPath = stageFile(CONTENT1);
+        PID filePid = addFileObject(depBag, stagingPath);
+        Resource origResc = getDatastream(model.getResource(filePid.getRepositoryPath()));
+        origResc.addLiteral(CdrDeposit.size, "1000");
+        job.closeModel();
+
+        try {
+            job.run();
+            fail("Expected job to fail");
+        } catch (JobFailedException e) {
+            assertTrue(e.getMessage().contains("Size check failed for " + stagingPath));
+        }
+    }
+
+    @Test
+    public void scanFileVirusFound() throws Exception {
+        when(scanResult.getStatus()).thenReturn(Status.FOUND);
+        when(scanResult.getSignature()).thenReturn("Eicar-Test-Signature");
+
+        Model model = job.getWritableModel();
+        Bag depBag = model.createBag(depositPid.getRepositoryPath());
+
+        String stagingPath = stageFile(CONTENT1);
+        PID filePid = addFileObject(depBag, stagingPath);
+        job.closeModel();
+
+        try {
+            job.run();
+            fail("Expected job to fail");
+        } catch (JobFailedException e) {
+            assertTrue(e.getDetails().contains(stagingPath + " - Eicar-Test-Signature"));
+        }
+
+        Model resultModel = job.getReadOnlyModel();
+        Resource resultResc = getDatastream(resultModel.getResource(filePid.getRepositoryPath()));
+        assertTrue(!resultResc.hasProperty(CdrDeposit.sha1sum));
+    }
+
+    private String stageFile(String content) throws IOException {
+        return stageFile(UUID.randomUUID().toString(), content);
+    }
+
+    private String stageFile(String filename, String content) throws IOException {
+        File stagedFile = new File(stagingDir, filename);
+        FileUtils.write(stagedFile, content, UTF_8);
+        return stagedFile.toPath().toUri().toString();
+    }
+
+    private PID addFileObject(Bag parent, String stagingLocation) {
+        PID filePid = makePid();
+
+        Model model = parent.getModel();
+        Resource fileResc = model.createResource(filePid.getRepositoryPath());
+        fileResc.addProperty(RDF.type, Cdr.FileObject);
+
+        Resource origResc = addDatastream(fileResc);
+        origResc.addLiteral(CdrDeposit.stagingLocation, stagingLocation);
+
+        parent.add(fileResc);
+
+        return filePid;
+    }
+
+    private void assertEventRecorded(PID pid, Resource eventType) {
+        Model eventsModel = job.getPremisLogger(pid).getEventsModel();
+        List<Resource> events = eventsModel.listResourcesWithProperty(RDF.type, eventType).toList();
+        assertTrue(1 <= events.size(), "Expected at least one " + eventType + " premis event");
+    }
+}
@@ -12,7 +12,10 @@ import static org.mockito.Mockito.doThrow;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +39,8 @@ public class ValidateDescriptionJobTest extends AbstractDepositJobTest {
 
     private ValidateDescriptionJob job;
 
+    private ExecutorService executorService;
+
     @BeforeEach
     public void init() {
         job = new ValidateDescriptionJob();
@@ -48,9 +53,17 @@ public class ValidateDescriptionJobTest extends AbstractDepositJobTest {
         setField(job, "depositStatusFactory", depositStatusFactory);
         setField(job, "jobStatusFactory", jobStatusFactory);
         job.setModsValidator(modsValidator);
+        executorService = Executors.newFixedThreadPool(2);
+        job.setExecutorService(executorService);
+        job.setFlushRate(100);
         job.init();
     }
 
+    @AfterEach
+    public void shutdownExecutor() {
+        executorService.shutdownNow();
+    }
+
     @Test
     public void testNoDescriptions() {
         job.run();
@@ -98,6 +111,7 @@ public class ValidateDescriptionJobTest extends AbstractDepositJobTest {
             } catch (JobFailedException e) {
                 assertTrue(e.getDetails().contains(pid1.toString()));
                 assertTrue(e.getDetails().contains(pid2.toString()));
+                assertTrue(e.getMessage().contains("2 object(s)"));
                 throw e;
             }
         });
@@ -17,6 +17,8 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 
@@ -169,7 +171,8 @@ public class VirusScanJobTest extends AbstractDepositJobTest {
 
         job.closeModel();
 
-        when(jobStatusFactory.objectIsCompleted(depositJobId, orig1Pid.getQualifiedId())).thenReturn(true);
+        when(jobStatusFactory.getCompletedObjects(depositJobId))
+                .thenReturn(new HashSet<>(Collections.singletonList(orig1Pid.getQualifiedId())));
         job.run();
 
         verify(jobStatusFactory).setTotalCompletion(eq(jobUUID), eq(2));
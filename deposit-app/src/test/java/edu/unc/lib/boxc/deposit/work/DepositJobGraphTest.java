@@ -0,0 +1,81 @@
+package edu.unc.lib.boxc.deposit.work;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author bbpennel
+ */
+public class DepositJobGraphTest {
+
+    private static class JobA {
+    }
+    private static class JobB {
+    }
+    private static class JobC {
+    }
+    private static class JobD {
+    }
+    private static class Absent {
+    }
+
+    private DepositJobGraph makeGraph() {
+        return new DepositJobGraph()
+                .add(JobA.class)
+                .add(JobB.class, JobA.class)
+                .add(JobC.class, JobA.class, Absent.class)
+                .add(JobD.class, JobB.class, JobC.class);
+    }
+
+    @Test
+    public void readyJobsTest() {
+        DepositJobGraph graph = makeGraph();
+        List<String> completed = new ArrayList<>();
+
+        assertEquals(Arrays.asList(JobA.class.getName()), graph.getReadyJobs(completed));
+
+        completed.add(JobA.class.getName());
+        assertEquals(Arrays.asList(JobB.class.getName(), JobC.class.getName()), graph.getReadyJobs(completed));
+
+        completed.add(JobC.class.getName());
+        assertEquals(Arrays.asList(JobB.class.getName()), graph.getReadyJobs(completed));
+        assertFalse(graph.isComplete(completed));
+
+        completed.add(JobB.class.getName());
+        assertEquals(Arrays.asList(JobD.class.getName()), graph.getReadyJobs(completed));
+
+        completed.add(JobD.class.getName());
+        assertTrue(graph.getReadyJobs(completed).isEmpty());
+        assertTrue(graph.isComplete(completed));
+    }
+
+    @Test
+    public void nextJobTest() {
+        DepositJobGraph graph = makeGraph();
+
+        assertEquals(JobA.class.getName(), graph.getNextJob(Collections.emptyList()));
+        assertEquals(JobB.class.getName(), graph.getNextJob(Arrays.asList(JobA.class.getName())));
+        assertEquals(JobC.class.getName(), graph.getNextJob(
+                Arrays.asList(JobA.class.getName(), JobB.class.getName())));
+        assertNull(graph.getNextJob(graph.getJobNames()));
+    }
+
+    @Test
+    public void absentPrerequisitesIgnoredTest() {
+        DepositJobGraph graph = makeGraph();
+
+        assertEquals(Set.of(JobA.class.getName()), graph.getPrerequisites(JobC.class.getName()));
+        assertTrue(graph.getPrerequisites(Absent.class.getName()).isEmpty());
+        assertFalse(graph.getJobNames().contains(Absent.class.getName()));
+    }
+}
@@ -1,18 +1,26 @@
 package edu.unc.lib.boxc.deposit.work;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.test.util.ReflectionTestUtils.invokeMethod;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.AfterAll;
@@ -38,6 +46,8 @@ import edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.DepositField;
 import edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.DepositPipelineAction;
 import edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.DepositPipelineState;
 import edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.DepositState;
+import edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.JobField;
+import edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.JobStatus;
 import edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.Priority;
 import edu.unc.lib.boxc.deposit.api.exceptions.DepositException;
 import edu.unc.lib.boxc.deposit.api.submit.DepositData;
@@ -45,16 +55,32 @@ import edu.unc.lib.boxc.deposit.impl.model.DepositPipelineStatusFactory;
 import edu.unc.lib.boxc.deposit.impl.model.DepositStatusFactory;
 import edu.unc.lib.boxc.deposit.impl.model.JobStatusFactory;
 import edu.unc.lib.boxc.deposit.impl.submit.AbstractDepositHandler;
+import edu.unc.lib.boxc.deposit.fcrepo4.IngestContentObjectsJob;
+import edu.unc.lib.boxc.deposit.normalize.AssignStorageLocationsJob;
 import edu.unc.lib.boxc.deposit.normalize.BagIt2N3BagJob;
+import edu.unc.lib.boxc.deposit.normalize.DirectoryToBagJob;
+import edu.unc.lib.boxc.deposit.transfer.TransferBinariesToStorageJob;
 import edu.unc.lib.boxc.deposit.utils.SpringJobFactory;
+import edu.unc.lib.boxc.deposit.validate.ExtractTechnicalMetadataJob;
+import edu.unc.lib.boxc.deposit.validate.FixityCheckJob;
 import edu.unc.lib.boxc.deposit.validate.PackageIntegrityCheckJob;
+import edu.unc.lib.boxc.deposit.validate.ScanStagedFilesJob;
+import edu.unc.lib.boxc.deposit.validate.ValidateContentModelJob;
+import edu.unc.lib.boxc.deposit.validate.ValidateDestinationJob;
+import edu.unc.lib.boxc.deposit.validate.ValidateFileAvailabilityJob;
+import edu.unc.lib.boxc.deposit.validate.VirusScanJob;
 import edu.unc.lib.boxc.deposit.work.DepositSupervisor.ActionMonitoringTask;
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.ids.PIDMinter;
 import edu.unc.lib.boxc.persist.api.PackagingType;
 import net.greghaines.jesque.Config;
 import net.greghaines.jesque.Job;
+import net.greghaines.jesque.WorkerStatus;
+import net.greghaines.jesque.client.Client;
+import net.greghaines.jesque.client.ClientImpl;
+import net.greghaines.jesque.meta.WorkerInfo;
 import net.greghaines.jesque.meta.dao.QueueInfoDAO;
+import net.greghaines.jesque.meta.dao.WorkerInfoDAO;
 import net.greghaines.jesque.worker.WorkerPool;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
@@ -96,6 +122,9 @@ public class DepositSupervisorTest {
     @Autowired
     private QueueInfoDAO queueDAO;
 
+    @Autowired
+    private WorkerInfoDAO workerInfoDAO;
+
     private DepositSupervisor supervisor;
 
     @Autowired
@@ -153,6 +182,7 @@ public class DepositSupervisorTest {
         setField(supervisor, "pipelineStatusFactory", pipelineStatusFactory);
         setField(supervisor, "depositWorkerPools", depositWorkerPools);
         setField(supervisor, "queueDAO", queueDAO);
+        setField(supervisor, "workerInfoDAO", workerInfoDAO);
         supervisor.setUnavailableDelaySeconds(60);
         supervisor.setCleanupDelaySeconds(60);
         // Turn up monitoring speed so tests are shorter
@@ -224,6 +254,78 @@ public class DepositSupervisorTest {
         assertDepositStatus(DepositState.queued, depositPid);
     }
 
+    @Test
+    public void resumeDepositWithRunningJob() throws Exception {
+        supervisor.setParallelJobs(true);
+        PID depositPid = queueDeposit(true, DepositState.failed);
+        String depositId = depositPid.getId();
+        for (Class<?> jobClass : Arrays.asList(DirectoryToBagJob.class, ValidateDestinationJob.class,
+                ValidateContentModelJob.class, ValidateFileAvailabilityJob.class)) {
+            String jobUUID = UUID.randomUUID().toString();
+            jobStatusFactory.started(jobUUID, depositId, jobClass);
+            jobStatusFactory.completed(jobUUID);
+        }
+        // Virus scanning is still being performed after a sibling job failed the deposit
+        String runningUUID = UUID.randomUUID().toString();
+        jobStatusFactory.started(runningUUID, depositId, VirusScanJob.class);
+        WorkerStatus workerStatus = new WorkerStatus();
+        workerStatus.setPayload(new Job(VirusScanJob.class.getName(), runningUUID, depositId));
+        WorkerInfo workerInfo = new WorkerInfo();
+        workerInfo.setStatus(workerStatus);
+        WorkerInfoDAO mockWorkerInfoDAO = mock(WorkerInfoDAO.class);
+        when(mockWorkerInfoDAO.getActiveWorkers()).thenReturn(Arrays.asList(workerInfo));
+        setField(supervisor, "workerInfoDAO", mockWorkerInfoDAO);
+
+        requestDepositAction(depositPid, DepositAction.resume);
+        actionMonitor.run();
+
+        assertDepositStatus(DepositState.queued, depositPid);
+        // The running job is treated as scheduled so it is not queued again, and its status is retained
+        assertEquals(new HashSet<>(Arrays.asList(VirusScanJob.class.getName(), FixityCheckJob.class.getName(),
+                ExtractTechnicalMetadataJob.class.getName())), depositStatusFactory.getScheduledJobs(depositId));
+        assertEquals(JobStatus.working.name(), jobStatusFactory.get(runningUUID).get(JobField.status.name()));
+    }
+
+    @Test
+    public void restartWithInterruptedParallelJob() throws Exception {
+        supervisor.setParallelJobs(true);
+        PID depositPid = queueDeposit(true, DepositState.running);
+        String depositId = depositPid.getId();
+        for (Class<?> jobClass : Arrays.asList(DirectoryToBagJob.class, ValidateDestinationJob.class,
+                ValidateContentModelJob.class, ValidateFileAvailabilityJob.class, ExtractTechnicalMetadataJob.class)) {
+            String jobUUID = UUID.randomUUID().toString();
+            jobStatusFactory.started(jobUUID, depositId, jobClass);
+            jobStatusFactory.completed(jobUUID);
+        }
+        // Virus scan is still waiting in the queue, while fixity was interrupted during shutdown
+        Client client = new ClientImpl(jesqueConfig);
+        try {
+            client.enqueue("PREPARE", new Job(VirusScanJob.class.getName(), UUID.randomUUID().toString(), depositId));
+        } finally {
+            client.end();
+        }
+        String interruptedUUID = UUID.randomUUID().toString();
+        jobStatusFactory.started(interruptedUUID, depositId, FixityCheckJob.class);
+        jobStatusFactory.interrupted(interruptedUUID);
+        depositStatusFactory.setScheduledJobs(depositId, new HashSet<>(Arrays.asList(
+                VirusScanJob.class.getName(), FixityCheckJob.class.getName())));
+
+        invokeMethod(supervisor, "requeueAll");
+
+        assertDepositAction(DepositAction.resume, depositPid);
+
+        actionMonitor.run();
+
+        assertDepositStatus(DepositState.queued, depositPid);
+        // The interrupted job is queued again, without queuing the job which was already waiting a second time
+        List<String> queuedJobs = queueDAO.getQueueInfo("PREPARE", 0, 0).getJobs().stream()
+                .map(Job::getClassName)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(VirusScanJob.class.getName(), FixityCheckJob.class.getName()), queuedJobs);
+        assertEquals(new HashSet<>(Arrays.asList(VirusScanJob.class.getName(), FixityCheckJob.class.getName())),
+                depositStatusFactory.getScheduledJobs(depositId));
+    }
+
     @Test
     public void quietPipelineInInvalidState() throws Exception {
         pipelineStatusFactory.setPipelineState(DepositPipelineState.shutdown);
@@ -481,6 +583,75 @@ public class DepositSupervisorTest {
         assertEquals(BagIt2N3BagJob.class.getName(), job.getClassName());
     }
 
+    @Test
+    public void nextJobSinglePassFileScanTest() throws Exception {
+        supervisor.setSinglePassFileScan(true);
+        Map<String, String> status = new HashMap<>();
+        status.put(DepositField.packagingType.name(), PackagingType.BAGIT.getUri());
+        List<String> successfulJobs = Arrays.asList(PackageIntegrityCheckJob.class.getName(),
+                BagIt2N3BagJob.class.getName(), ValidateDestinationJob.class.getName(),
+                ValidateContentModelJob.class.getName(), ValidateFileAvailabilityJob.class.getName());
+        Job job = supervisor.getNextJob("12345", status, successfulJobs);
+        assertEquals(ScanStagedFilesJob.class.getName(), job.getClassName());
+
+        successfulJobs = new ArrayList<>(successfulJobs);
+        successfulJobs.add(ScanStagedFilesJob.class.getName());
+        job = supervisor.getNextJob("12345", status, successfulJobs);
+        assertEquals(ExtractTechnicalMetadataJob.class.getName(), job.getClassName());
+    }
+
+    @Test
+    public void readyJobsParallelTest() throws Exception {
+        supervisor.setParallelJobs(true);
+        Map<String, String> status = new HashMap<>();
+        status.put(DepositField.packagingType.name(), PackagingType.BAGIT.getUri());
+        List<String> successfulJobs = new ArrayList<>(Arrays.asList(BagIt2N3BagJob.class.getName(),
+                ValidateDestinationJob.class.getName(), ValidateContentModelJob.class.getName()));
+        DepositJobGraph graph = supervisor.getJobGraph("12345", status, successfulJobs);
+        assertEquals(Arrays.asList(ValidateFileAvailabilityJob.class.getName()),
+                supervisor.getReadyJobs(graph, successfulJobs));
+
+        successfulJobs.add(ValidateFileAvailabilityJob.class.getName());
+        assertEquals(Arrays.asList(VirusScanJob.class.getName(), FixityCheckJob.class.getName(),
+                ExtractTechnicalMetadataJob.class.getName()), supervisor.getReadyJobs(graph, successfulJobs));
+
+        // Storage locations must wait for all of the scanning jobs
+        successfulJobs.add(VirusScanJob.class.getName());
+        successfulJobs.add(ExtractTechnicalMetadataJob.class.getName());
+        assertEquals(Arrays.asList(FixityCheckJob.class.getName()), supervisor.getReadyJobs(graph, successfulJobs));
+
+        successfulJobs.add(FixityCheckJob.class.getName());
+        assertEquals(Arrays.asList(AssignStorageLocationsJob.class.getName()),
+                supervisor.getReadyJobs(graph, successfulJobs));
+    }
+
+    @Test
+    public void readyJobsSequentialTest() throws Exception {
+        Map<String, String> status = new HashMap<>();
+        status.put(DepositField.packagingType.name(), PackagingType.BAGIT.getUri());
+        List<String> successfulJobs = Arrays.asList(BagIt2N3BagJob.class.getName(),
+                ValidateDestinationJob.class.getName(), ValidateContentModelJob.class.getName(),
+                ValidateFileAvailabilityJob.class.getName());
+        DepositJobGraph graph = supervisor.getJobGraph("12345", status, successfulJobs);
+        assertEquals(Arrays.asList(VirusScanJob.class.getName()), supervisor.getReadyJobs(graph, successfulJobs));
+    }
+
+    @Test
+    public void jobGraphCompleteTest() throws Exception {
+        Map<String, String> status = new HashMap<>();
+        status.put(DepositField.packagingType.name(), PackagingType.DIRECTORY.getUri());
+        status.put(DepositField.excludeDepositRecord.name(), "true");
+        List<String> successfulJobs = Arrays.asList(DirectoryToBagJob.class.getName(),
+                ValidateDestinationJob.class.getName(), ValidateContentModelJob.class.getName(),
+                ValidateFileAvailabilityJob.class.getName(), VirusScanJob.class.getName(),
+                FixityCheckJob.class.getName(), ExtractTechnicalMetadataJob.class.getName(),
+                AssignStorageLocationsJob.class.getName(), TransferBinariesToStorageJob.class.getName(),
+                IngestContentObjectsJob.class.getName());
+        DepositJobGraph graph = supervisor.getJobGraph("12345", status, successfulJobs);
+        assertTrue(graph.isComplete(successfulJobs));
+        assertNull(supervisor.getNextJob("12345", status, successfulJobs));
+    }
+
     @Test
     public void nextJobInvalidSuccessfulJobsTest() throws Exception {
         Assertions.assertThrows(DepositFailedException.class, () -> {
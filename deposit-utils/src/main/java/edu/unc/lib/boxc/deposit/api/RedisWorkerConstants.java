@@ -5,6 +5,7 @@ public class RedisWorkerConstants {
     public static final String DEPOSIT_METRICS_PREFIX = "deposit-metrics:";
     public static final String DEPOSIT_MANIFEST_PREFIX = "deposit-manifest:";
     public static final String DEPOSIT_TO_JOBS_PREFIX = "deposit-to-jobs:";
+    public static final String DEPOSIT_SCHEDULED_JOBS_PREFIX = "deposit-scheduled-jobs:";
     public static final String DEPOSIT_PIPELINE_STATE = "deposit-pipeline-state";
     public static final String DEPOSIT_PIPELINE_ACTION = "deposit-pipeline-action";
     public static final String JOB_STATUS_PREFIX = "job-status:";
@@ -2,16 +2,21 @@ package edu.unc.lib.boxc.deposit.impl.model;
 
 import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.io.Writer;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
@@ -28,6 +33,7 @@ import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.tdb.transaction.TDBTransactionException;
 import org.apache.jena.tdb2.TDB2Factory;
+import org.apache.jena.tdb2.sys.TDBInternal;
 import org.apache.jena.update.UpdateAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,8 +43,13 @@ import edu.unc.lib.boxc.model.api.exceptions.RepositoryException;
 import edu.unc.lib.boxc.model.api.ids.PID;
 
 /**
- * Manager which provides access to a common deposit dataset used for
- * deposit models.
+ * Manager which provides access to the datasets used for deposit models.
+ *
+ * By default, the models for all deposits are stored in a single common dataset. If dataset per deposit is
+ * enabled, each deposit is instead stored in its own dataset, so that writes to different deposits do not wait
+ * on each other. Up to a maximum number of these datasets are held open, with the least recently used idle
+ * datasets closed when the limit is exceeded. Deposits which were started before enabling dataset per deposit
+ * must be completed before enabling it, since their models will not be found in the per deposit datasets.
  *
  * @author bbpennel
  */
@@ -46,10 +57,24 @@ public class DepositModelManager implements Closeable {
 
     private static final Logger log = LoggerFactory.getLogger(DepositModelManager.class);
 
+    private static final String DEPOSIT_DATASETS_DIR = "deposits";
+
     private Path tdbBasePath;
 
     private Dataset dataset;
 
+    private DepositDataset sharedDataset;
+
+    private boolean datasetPerDeposit;
+
+    private int maxOpenDatasets = 32;
+
+    // Open deposit datasets, in order of least to most recently used
+    private final Map<String, DepositDataset> openDatasets = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Dataset in which the current thread has an active transaction
+    private final ThreadLocal<DepositDataset> activeDataset = new ThreadLocal<>();
+
     /**
      * Construct a deposit model manager
      * @param tdbBaseDir path to the tdb directory
@@ -70,6 +95,7 @@ public class DepositModelManager implements Closeable {
 
     private DepositModelManager() {
         dataset = TDB2Factory.createDataset();
+        sharedDataset = new DepositDataset(null, null, dataset);
     }
 
     /**
@@ -81,23 +107,24 @@ public class DepositModelManager implements Closeable {
 
     public void loadDataset() {
         long start = System.currentTimeMillis();
-        if (Files.notExists(tdbBasePath)) {
-            try {
-                Files.createDirectories(tdbBasePath);
-            } catch (IOException e) {
-                throw new RepositoryException("Failed to create dataset directory for deposit", e);
-            }
-        }
+        createDirectories(tdbBasePath);
         dataset = TDB2Factory.connectDataset(tdbBasePath.toString());
+        sharedDataset = new DepositDataset(null, tdbBasePath, dataset);
         log.debug("Loaded dataset at {} in {}ms",
                 tdbBasePath, (System.currentTimeMillis() - start));
     }
 
     /**
-     * Close the managed dataset
+     * Close the managed datasets
      */
     @Override
     public void close() {
+        synchronized (openDatasets) {
+            for (DepositDataset depositDataset : openDatasets.values()) {
+                closeDataset(depositDataset);
+            }
+            openDatasets.clear();
+        }
         dataset.close();
     }
 
@@ -112,11 +139,11 @@ public class DepositModelManager implements Closeable {
 
         long start = System.currentTimeMillis();
         try {
-            dataset.begin(ReadWrite.WRITE);
-            if (!dataset.containsNamedModel(depositUri)) {
-                dataset.addNamedModel(depositUri, createDefaultModel());
+            Dataset depositDataset = beginTransaction(depositPid, ReadWrite.WRITE);
+            if (!depositDataset.containsNamedModel(depositUri)) {
+                depositDataset.addNamedModel(depositUri, createDefaultModel());
             }
-            Model model = dataset.getNamedModel(depositUri);
+            Model model = depositDataset.getNamedModel(depositUri);
             log.debug("Created write model for {} in {}ms", depositUri, (System.currentTimeMillis() - start));
             return model;
         } catch (TDBTransactionException e) {
@@ -139,8 +166,8 @@ public class DepositModelManager implements Closeable {
         String depositUri = depositPid.getURI();
 
         try {
-            dataset.begin(ReadWrite.READ);
-            Model model = dataset.getNamedModel(depositUri);
+            Dataset depositDataset = beginTransaction(depositPid, ReadWrite.READ);
+            Model model = depositDataset.getNamedModel(depositUri);
             log.debug("Created write model for {} in {}ms", depositUri, (System.currentTimeMillis() - start));
             return model;
         } catch (TDBTransactionException e) {
@@ -153,23 +180,56 @@ public class DepositModelManager implements Closeable {
     }
 
     /**
-     * Removes and closes the model
+     * Removes and closes the model. If using a dataset per deposit, the deposit's dataset is deleted.
      * @param depositPid
      */
-    public synchronized void removeModel(PID depositPid) {
-        String uri = depositPid.getURI();
-        // Start a write transaction if one isn't already active
-        ReadWrite txType = dataset.transactionMode();
-        if (!ReadWrite.WRITE.equals(txType)) {
-            // End a read transaction if active
-            if (txType != null) {
-                dataset.end();
+    public void removeModel(PID depositPid) {
+        if (datasetPerDeposit) {
+            removeDepositDataset(depositPid);
+            return;
+        }
+        synchronized (sharedDataset) {
+            String uri = depositPid.getURI();
+            // Start a write transaction if one isn't already active
+            ReadWrite txType = dataset.transactionMode();
+            if (!ReadWrite.WRITE.equals(txType)) {
+                // End a read transaction if active
+                if (txType != null) {
+                    end();
+                }
+                beginTransaction(depositPid, ReadWrite.WRITE);
+            }
+            log.info("Removing deposit model for {}", uri);
+            dataset.removeNamedModel(uri);
+            dataset.commit();
+            endTransaction(sharedDataset);
+        }
+    }
+
+    private void removeDepositDataset(PID depositPid) {
+        // End any transaction this thread has on the dataset before closing it
+        end();
+        DepositDataset depositDataset;
+        synchronized (openDatasets) {
+            depositDataset = openDatasets.get(depositPid.getId());
+            if (depositDataset != null) {
+                if (depositDataset.users > 0) {
+                    throw new RepositoryException("Cannot remove dataset for deposit " + depositPid.getId()
+                            + ", it is in use");
+                }
+                openDatasets.remove(depositPid.getId());
+                closeDataset(depositDataset);
+            }
+        }
+        log.info("Removing deposit dataset for {}", depositPid.getId());
+        Path datasetPath = getDepositDatasetPath(depositPid.getId());
+        if (datasetPath != null && Files.exists(datasetPath)) {
+            try (Stream<Path> paths = Files.walk(datasetPath)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            } catch (IOException e) {
+                throw new RepositoryException("Failed to delete dataset for deposit " + depositPid.getId(), e);
             }
-            dataset.begin(ReadWrite.WRITE);
         }
-        log.info("Removing deposit model for {}", uri);
-        dataset.removeNamedModel(uri);
-        dataset.commit();
     }
 
     /**
@@ -178,7 +238,7 @@ public class DepositModelManager implements Closeable {
      * @param depositPid pid of the deposit
      * @param model
      */
-    public synchronized void addTriples(PID depositPid, Model model) {
+    public void addTriples(PID depositPid, Model model) {
         addTriples(depositPid, model, null, null);
     }
 
@@ -191,22 +251,29 @@ public class DepositModelManager implements Closeable {
      * @param newPid
      * @param parentPid
      */
-    public synchronized void addTriples(PID depositPid, Model model, PID newPid, PID parentPid) {
-        Model depositModel = getWriteModel(depositPid);
+    public void addTriples(PID depositPid, Model model, PID newPid, PID parentPid) {
+        DepositDataset depositDataset = acquire(depositPid);
         try {
-            // Insert reference from parent to new resource
-            if (newPid != null && parentPid != null) {
-                Resource newResc = model.getResource(newPid.getRepositoryPath());
-                Bag parentBag = depositModel.getBag(parentPid.getRepositoryPath());
-
-                parentBag.add(newResc);
+            synchronized (depositDataset) {
+                Model depositModel = getWriteModel(depositPid);
+                try {
+                    // Insert reference from parent to new resource
+                    if (newPid != null && parentPid != null) {
+                        Resource newResc = model.getResource(newPid.getRepositoryPath());
+                        Bag parentBag = depositModel.getBag(parentPid.getRepositoryPath());
+
+                        parentBag.add(newResc);
+                    }
+
+                    log.debug("Adding triples to deposit model: {}", model);
+                    depositModel.add(model);
+                    depositDataset.dataset.commit();
+                } finally {
+                    endTransaction(depositDataset);
+                }
             }
-
-            log.debug("Adding triples to deposit model: {}", model);
-            depositModel.add(model);
-            dataset.commit();
         } finally {
-            dataset.end();
+            release(depositDataset);
         }
     }
 
@@ -216,13 +283,20 @@ public class DepositModelManager implements Closeable {
      * @param depositPid pid of the deposit
      * @param query sparql update query
      */
-    public synchronized void performUpdate(PID depositPid, String query) {
-        Model depositModel = getWriteModel(depositPid);
+    public void performUpdate(PID depositPid, String query) {
+        DepositDataset depositDataset = acquire(depositPid);
         try {
-            UpdateAction.parseExecute(query, depositModel);
-            dataset.commit();
+            synchronized (depositDataset) {
+                Model depositModel = getWriteModel(depositPid);
+                try {
+                    UpdateAction.parseExecute(query, depositModel);
+                    depositDataset.dataset.commit();
+                } finally {
+                    endTransaction(depositDataset);
+                }
+            }
         } finally {
-            dataset.end();
+            release(depositDataset);
         }
     }
 
@@ -234,37 +308,81 @@ public class DepositModelManager implements Closeable {
      * @return results of the query, serialized as csv in an output stream
      * @throws IOException
      */
-    public synchronized String performQuery(PID depositPid, String queryString) throws IOException {
-        Model depositModel = getReadModel(depositPid);
-
-        Query query = QueryFactory.create(queryString);
+    public String performQuery(PID depositPid, String queryString) throws IOException {
+        StringWriter writer = new StringWriter();
+        performQuery(depositPid, queryString, writer);
+        return writer.toString();
+    }
 
-        ByteArrayOutputStream outStream = new ByteArrayOutputStream();
+    /**
+     * Perform a sparql query against the deposit model, writing the results as csv to the provided
+     * destination as they are retrieved
+     *
+     * @param depositPid pid of the deposit
+     * @param queryString sparql query
+     * @param out destination for the csv results
+     * @throws IOException
+     */
+    public void performQuery(PID depositPid, String queryString, Appendable out) throws IOException {
+        // Not closed, so that the destination remains open for the caller
+        CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT);
+        try {
+            executeQuery(depositPid, queryString, results -> {
+                List<String> varNames = results.getResultVars();
+                try {
+                    while (results.hasNext()) {
+                        QuerySolution soln = results.nextSolution();
+
+                        for (String varName : varNames) {
+                            printer.print(soln.get(varName));
+                        }
+                        printer.println();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        printer.flush();
+    }
 
-        try (
-                QueryExecution qexec = QueryExecutionFactory.create(query, depositModel);
-                Writer writer = new PrintWriter(outStream);
-                CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
-                ) {
-            ResultSet results = qexec.execSelect();
-            List<String> varNames = results.getResultVars();
+    /**
+     * Perform a sparql query against the deposit model, passing each result to the provided handler
+     * as it is retrieved. The handler is called within a read transaction on the deposit model, so
+     * any resources in the results are only valid until the handler returns.
+     *
+     * @param depositPid pid of the deposit
+     * @param queryString sparql query
+     * @param solutionHandler handler called with each result of the query
+     */
+    public void performQuery(PID depositPid, String queryString, Consumer<QuerySolution> solutionHandler) {
+        executeQuery(depositPid, queryString, results -> {
+            results.forEachRemaining(solutionHandler);
+        });
+    }
 
-            while (results.hasNext()) {
-                QuerySolution soln = results.nextSolution();
+    private void executeQuery(PID depositPid, String queryString, Consumer<ResultSet> resultsHandler) {
+        Query query = QueryFactory.create(queryString);
 
-                for (String varName : varNames) {
-                    printer.print(soln.get(varName));
+        DepositDataset depositDataset = acquire(depositPid);
+        try {
+            synchronized (depositDataset) {
+                Model depositModel = getReadModel(depositPid);
+                try (QueryExecution qexec = QueryExecutionFactory.create(query, depositModel)) {
+                    resultsHandler.accept(qexec.execSelect());
+                } finally {
+                    endTransaction(depositDataset);
                 }
-                printer.println();
             }
+        } finally {
+            release(depositDataset);
         }
-
-        return outStream.toString("UTF-8");
     }
 
     /**
      * Perform the provided actions and commits the changes to the dataset
-     * @param dataset
      * @param actions Runnable which performs actions on the dataset to commit
      */
     public void commit(Runnable actions) {
@@ -272,20 +390,48 @@ public class DepositModelManager implements Closeable {
     }
 
     /**
-     * Perform the provided actions and commits the changes to the dataset
+     * Perform the provided actions and commits the changes to the dataset in which the
+     * current thread has a transaction
      * @param actions Runnable which performs actions on the dataset to commit
      * @param inTx if true, the dataset will be assumed to already be in a read transaction
      */
     public void commit(Runnable actions, boolean inTx) {
+        DepositDataset depositDataset = activeDataset.get();
+        if (depositDataset == null) {
+            if (datasetPerDeposit) {
+                throw new IllegalStateException("No deposit dataset is active for the current thread");
+            }
+            depositDataset = sharedDataset;
+        }
+        commit(depositDataset, actions, inTx);
+    }
+
+    /**
+     * Perform the provided actions and commits the changes to the dataset for the deposit
+     * @param depositPid pid of the deposit
+     * @param actions Runnable which performs actions on the dataset to commit
+     * @param inTx if true, the dataset will be assumed to already be in a read transaction
+     */
+    public void commit(PID depositPid, Runnable actions, boolean inTx) {
+        DepositDataset depositDataset = acquire(depositPid);
         try {
-            if (inTx && dataset.isInTransaction()) {
-                dataset.end();
+            commit(depositDataset, actions, inTx);
+        } finally {
+            release(depositDataset);
+        }
+    }
+
+    private void commit(DepositDataset depositDataset, Runnable actions, boolean inTx) {
+        try {
+            if (inTx && depositDataset.dataset.isInTransaction()) {
+                endTransaction(depositDataset);
             }
-            dataset.begin(ReadWrite.WRITE);
+            beginTransaction(depositDataset, ReadWrite.WRITE);
             actions.run();
-            dataset.commit();
+            depositDataset.dataset.commit();
+            endTransaction(depositDataset);
             if (inTx) {
-                dataset.begin(ReadWrite.READ);
+                beginTransaction(depositDataset, ReadWrite.READ);
             }
         } catch (Exception e) {
             throw new RepositoryException("Failed to commit to deposit model", e);
@@ -296,9 +442,10 @@ public class DepositModelManager implements Closeable {
      * Commit the current transaction
      */
     public void commit() {
-        if (dataset.isInTransaction()) {
-            dataset.commit();
-            dataset.end();
+        DepositDataset depositDataset = getActiveDataset();
+        if (depositDataset != null && depositDataset.dataset.isInTransaction()) {
+            depositDataset.dataset.commit();
+            endTransaction(depositDataset);
         }
     }
 
@@ -307,13 +454,14 @@ public class DepositModelManager implements Closeable {
      * @param abort if true, the commit will be aborted
      */
     public void commitOrAbort(boolean abort) {
-        if (dataset.isInTransaction()) {
+        DepositDataset depositDataset = getActiveDataset();
+        if (depositDataset != null && depositDataset.dataset.isInTransaction()) {
             if (abort) {
-                dataset.abort();
+                depositDataset.dataset.abort();
             } else {
-                dataset.commit();
+                depositDataset.dataset.commit();
             }
-            dataset.end();
+            endTransaction(depositDataset);
         }
     }
 
@@ -321,12 +469,180 @@ public class DepositModelManager implements Closeable {
      * End a transaction on the dataset
      */
     public void end() {
-        if (dataset.isInTransaction()) {
-            dataset.end();
+        DepositDataset depositDataset = getActiveDataset();
+        if (depositDataset != null && depositDataset.dataset.isInTransaction()) {
+            endTransaction(depositDataset);
         }
     }
 
     public void setDepositsPath(Path depositsPath) {
         this.tdbBasePath = depositsPath;
     }
+
+    /**
+     * @param datasetPerDeposit if true, each deposit will be stored in a separate dataset
+     */
+    public void setDatasetPerDeposit(boolean datasetPerDeposit) {
+        this.datasetPerDeposit = datasetPerDeposit;
+    }
+
+    /**
+     * @param maxOpenDatasets maximum number of idle deposit datasets to keep open when using
+     *      a dataset per deposit
+     */
+    public void setMaxOpenDatasets(int maxOpenDatasets) {
+        this.maxOpenDatasets = maxOpenDatasets;
+    }
+
+    /**
+     * @return the dataset the current thread has a transaction in, or the shared dataset if there is none
+     */
+    private DepositDataset getActiveDataset() {
+        DepositDataset depositDataset = activeDataset.get();
+        return depositDataset == null ? sharedDataset : depositDataset;
+    }
+
+    private Dataset beginTransaction(PID depositPid, ReadWrite mode) {
+        DepositDataset depositDataset = acquire(depositPid);
+        try {
+            beginTransaction(depositDataset, mode);
+            return depositDataset.dataset;
+        } finally {
+            release(depositDataset);
+        }
+    }
+
+    private void beginTransaction(DepositDataset depositDataset, ReadWrite mode) {
+        DepositDataset previous = activeDataset.get();
+        if (previous != null && previous != depositDataset) {
+            log.warn("Ending transaction left open in another deposit dataset");
+            endTransaction(previous);
+        }
+        acquire(depositDataset);
+        try {
+            depositDataset.dataset.begin(mode);
+        } catch (RuntimeException e) {
+            release(depositDataset);
+            throw e;
+        }
+        if (previous == depositDataset) {
+            // Already counted as a user of this dataset by a previous transaction on this thread
+            release(depositDataset);
+        }
+        activeDataset.set(depositDataset);
+    }
+
+    private void endTransaction(DepositDataset depositDataset) {
+        try {
+            if (depositDataset.dataset.isInTransaction()) {
+                depositDataset.dataset.end();
+            }
+        } finally {
+            if (activeDataset.get() == depositDataset) {
+                activeDataset.remove();
+                release(depositDataset);
+            }
+        }
+    }
+
+    /**
+     * Get the dataset for a deposit, opening it if necessary, and mark it as in use
+     */
+    private DepositDataset acquire(PID depositPid) {
+        if (!datasetPerDeposit) {
+            return sharedDataset;
+        }
+        synchronized (openDatasets) {
+            DepositDataset depositDataset = openDatasets.computeIfAbsent(depositPid.getId(),
+                    this::openDepositDataset);
+            depositDataset.users++;
+            return depositDataset;
+        }
+    }
+
+    private void acquire(DepositDataset depositDataset) {
+        if (depositDataset == sharedDataset) {
+            return;
+        }
+        synchronized (openDatasets) {
+            depositDataset.users++;
+        }
+    }
+
+    /**
+     * Indicate that a dataset is no longer in use by the caller, closing idle datasets if there are too many open
+     */
+    private void release(DepositDataset depositDataset) {
+        if (depositDataset == sharedDataset) {
+            return;
+        }
+        synchronized (openDatasets) {
+            depositDataset.users--;
+            Iterator<DepositDataset> it = openDatasets.values().iterator();
+            while (openDatasets.size() > maxOpenDatasets && it.hasNext()) {
+                DepositDataset eldest = it.next();
+                if (eldest.users <= 0) {
+                    it.remove();
+                    closeDataset(eldest);
+                }
+            }
+        }
+    }
+
+    private DepositDataset openDepositDataset(String depositId) {
+        long start = System.currentTimeMillis();
+        Path datasetPath = getDepositDatasetPath(depositId);
+        Dataset depositDataset;
+        if (datasetPath == null) {
+            depositDataset = TDB2Factory.createDataset();
+        } else {
+            createDirectories(datasetPath);
+            depositDataset = TDB2Factory.connectDataset(datasetPath.toString());
+        }
+        log.debug("Opened dataset for deposit {} in {}ms", depositId, (System.currentTimeMillis() - start));
+        return new DepositDataset(depositId, datasetPath, depositDataset);
+    }
+
+    private void closeDataset(DepositDataset depositDataset) {
+        log.debug("Closing dataset for deposit {}", depositDataset.depositId);
+        if (depositDataset.path == null) {
+            depositDataset.dataset.close();
+        } else {
+            // Release the database files, rather than only closing the dataset view of them
+            TDBInternal.expel(depositDataset.dataset.asDatasetGraph());
+        }
+    }
+
+    private Path getDepositDatasetPath(String depositId) {
+        if (tdbBasePath == null) {
+            return null;
+        }
+        return tdbBasePath.resolve(DEPOSIT_DATASETS_DIR).resolve(depositId);
+    }
+
+    private static void createDirectories(Path path) {
+        if (Files.notExists(path)) {
+            try {
+                Files.createDirectories(path);
+            } catch (IOException e) {
+                throw new RepositoryException("Failed to create dataset directory for deposit", e);
+            }
+        }
+    }
+
+    /**
+     * A dataset containing one or more deposit models, and the number of threads using it
+     */
+    private static class DepositDataset {
+        private final String depositId;
+        private final Path path;
+        private final Dataset dataset;
+        private int users;
+
+        private DepositDataset(String depositId, Path path, Dataset dataset) {
+            this.depositId = depositId;
+            this.path = path;
+            this.dataset = dataset;
+        }
+    }
 }
@@ -1,8 +1,10 @@
 package edu.unc.lib.boxc.deposit.impl.model;
 
 import static edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.DEPOSIT_MANIFEST_PREFIX;
+import static edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.DEPOSIT_SCHEDULED_JOBS_PREFIX;
 import static edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.DEPOSIT_STATUS_PREFIX;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -106,6 +108,50 @@ public class DepositStatusFactory extends AbstractJedisFactory {
         });
     }
 
+    /**
+     * Record that a job has been scheduled for the deposit. Only one caller will succeed in scheduling
+     * a particular job, so this can be used to prevent the same job from being queued more than once.
+     *
+     * @param depositUUID
+     * @param jobName class name of the job
+     * @return true if the job was not previously scheduled
+     */
+    public boolean addScheduledJob(String depositUUID, String jobName) {
+        final AtomicBoolean added = new AtomicBoolean(false);
+        connectWithRetries((jedis) -> {
+            Long result = jedis.sadd(DEPOSIT_SCHEDULED_JOBS_PREFIX + depositUUID, jobName);
+            added.set(result == 1);
+        });
+        return added.get();
+    }
+
+    /**
+     * @param depositUUID
+     * @return class names of the jobs which have been scheduled for the deposit
+     */
+    public Set<String> getScheduledJobs(String depositUUID) {
+        AtomicReference<Set<String>> result = new AtomicReference<>();
+        connectWithRetries((jedis) -> {
+            result.set(jedis.smembers(DEPOSIT_SCHEDULED_JOBS_PREFIX + depositUUID));
+        });
+        return result.get();
+    }
+
+    /**
+     * Replace the jobs recorded as scheduled for the deposit
+     *
+     * @param depositUUID
+     * @param jobNames class names of the jobs
+     */
+    public void setScheduledJobs(String depositUUID, Collection<String> jobNames) {
+        connectWithRetries((jedis) -> {
+            jedis.del(DEPOSIT_SCHEDULED_JOBS_PREFIX + depositUUID);
+            if (!jobNames.isEmpty()) {
+                jedis.sadd(DEPOSIT_SCHEDULED_JOBS_PREFIX + depositUUID, jobNames.toArray(new String[0]));
+            }
+        });
+    }
+
     public DepositState getState(String depositUUID) {
         final AtomicReference<DepositState> result = new AtomicReference<>();
         connectWithRetries((jedis) -> {
@@ -209,6 +255,7 @@ public class DepositStatusFactory extends AbstractJedisFactory {
         connectWithRetries((jedis) -> {
             jedis.expire(DEPOSIT_STATUS_PREFIX + depositUUID, seconds);
             jedis.expire(DEPOSIT_MANIFEST_PREFIX + depositUUID, seconds);
+            jedis.expire(DEPOSIT_SCHEDULED_JOBS_PREFIX + depositUUID, seconds);
         });
     }
 }
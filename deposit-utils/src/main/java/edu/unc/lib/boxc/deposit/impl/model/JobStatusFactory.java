@@ -5,22 +5,44 @@ import static edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.JOB_COMPLETED_OB
 import static edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.JOB_STATUS_PREFIX;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.JobField;
 import edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.JobStatus;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
 /**
- * Work with job statuses
+ * Work with job statuses.
+ *
+ * If a flush threshold is set, then completed objects and completion increments are buffered and
+ * written to redis together in a pipeline once the threshold or the flush interval is reached, or
+ * when the status of a job changes.
+ *
  * @author bbpennel
  *
  */
 public class JobStatusFactory extends AbstractJedisFactory {
+    private static final int SCAN_COUNT = 1000;
+
+    private int flushThreshold = 0;
+    private long flushInterval = 1000;
+
+    private final Object bufferLock = new Object();
+    private Map<String, Set<String>> pendingCompleted = new HashMap<>();
+    private Map<String, Integer> pendingCompletion = new HashMap<>();
+    private int pendingCount;
+    private long lastFlush = System.currentTimeMillis();
 
     public void started(String jobUUID, String depositUUID, Class<?> jobClass) {
         Map<String, String> status = new HashMap<String, String>();
@@ -38,6 +60,7 @@ public class JobStatusFactory extends AbstractJedisFactory {
     }
 
     public void interrupted(String jobUUID) {
+        flush();
         connectWithRetries((jedis) -> {
             jedis.hset(JOB_STATUS_PREFIX + jobUUID, JobField.status.name(), JobStatus.queued.name());
             jedis.hset(JOB_STATUS_PREFIX + jobUUID,
@@ -46,6 +69,7 @@ public class JobStatusFactory extends AbstractJedisFactory {
     }
 
     public void failed(String jobUUID, String message) {
+        flush();
         connectWithRetries((jedis) -> {
             jedis.hset(JOB_STATUS_PREFIX + jobUUID, JobField.status.name(), JobStatus.failed.name());
             jedis.hset(JOB_STATUS_PREFIX + jobUUID,
@@ -66,6 +90,18 @@ public class JobStatusFactory extends AbstractJedisFactory {
      * @param depositUUID
      */
     public void clearStale(String depositUUID) {
+        clearStale(depositUUID, Collections.emptySet());
+    }
+
+    /**
+     * Removes the all leftover partially completed jobs from the deposit, except for jobs which are still
+     * being performed
+     *
+     * @param depositUUID
+     * @param activeJobUUIDs uuids of jobs from the deposit which are still being performed
+     */
+    public void clearStale(String depositUUID, Collection<String> activeJobUUIDs) {
+        flush();
 
         List<String> failed = getJobsByStatus(depositUUID, JobStatus.failed);
         List<String> queued = getJobsByStatus(depositUUID, JobStatus.queued);
@@ -74,6 +110,7 @@ public class JobStatusFactory extends AbstractJedisFactory {
         List<String> uuids = new ArrayList<String>(failed);
         uuids.addAll(queued);
         uuids.addAll(working);
+        uuids.removeAll(activeJobUUIDs);
 
         connectWithRetries((jedis) -> {
             for (String uuid : uuids) {
@@ -85,6 +122,7 @@ public class JobStatusFactory extends AbstractJedisFactory {
     }
 
     public void completed(String jobUUID) {
+        flush();
         connectWithRetries((jedis) -> {
             jedis.hset(JOB_STATUS_PREFIX + jobUUID,
                     JobField.status.name(), JobStatus.completed.name());
@@ -95,6 +133,7 @@ public class JobStatusFactory extends AbstractJedisFactory {
     }
 
     public void killed(String jobUUID) {
+        flush();
         connectWithRetries((jedis) -> {
             jedis.hset(JOB_STATUS_PREFIX + jobUUID,
                     JobField.status.name(), JobStatus.killed.name());
@@ -105,6 +144,14 @@ public class JobStatusFactory extends AbstractJedisFactory {
     }
 
     public void incrCompletion(String jobUUID, int amount) {
+        if (isBuffered()) {
+            synchronized (bufferLock) {
+                pendingCompletion.merge(jobUUID, amount, Integer::sum);
+                pendingCount++;
+            }
+            flushIfNeeded();
+            return;
+        }
         connectWithRetries((jedis) -> {
             jedis.hincrBy(JOB_STATUS_PREFIX + jobUUID,
                     JobField.num.name(), amount);
@@ -112,6 +159,7 @@ public class JobStatusFactory extends AbstractJedisFactory {
     }
 
     public void setCompletion(String jobUUID, int amount) {
+        flush();
         connectWithRetries((jedis) -> {
             jedis.hset(JOB_STATUS_PREFIX + jobUUID,
                 JobField.num.name(), Integer.toString(amount));
@@ -135,6 +183,7 @@ public class JobStatusFactory extends AbstractJedisFactory {
     }
 
     public Map<String, String> get(String jobUUID) {
+        flush();
         AtomicReference<Map<String, String>> result = new AtomicReference<>();
         connectWithRetries((jedis) -> {
             result.set(jedis.hgetAll(JOB_STATUS_PREFIX + jobUUID));
@@ -150,6 +199,14 @@ public class JobStatusFactory extends AbstractJedisFactory {
      * @return boolean
      */
     public boolean objectIsCompleted(String depositId, String objectId) {
+        if (isBuffered()) {
+            synchronized (bufferLock) {
+                Set<String> pending = pendingCompleted.get(depositId);
+                if (pending != null && pending.contains(objectId)) {
+                    return true;
+                }
+            }
+        }
         final AtomicBoolean result = new AtomicBoolean(false);
         connectWithRetries((jedis) -> {
             result.set(jedis.sismember(JOB_COMPLETED_OBJECTS + depositId, objectId));
@@ -164,11 +221,92 @@ public class JobStatusFactory extends AbstractJedisFactory {
      * @param objectId Id of the completed object
      */
     public void addObjectCompleted(String depositId, String objectId) {
+        if (isBuffered()) {
+            synchronized (bufferLock) {
+                pendingCompleted.computeIfAbsent(depositId, k -> new HashSet<>()).add(objectId);
+                pendingCount++;
+            }
+            flushIfNeeded();
+            return;
+        }
         connectWithRetries((jedis) -> {
             jedis.sadd(JOB_COMPLETED_OBJECTS + depositId, objectId);
         });
     }
 
+    /**
+     * Retrieves all of the objects completed so far for the current deposit, scanning the
+     * set in batches rather than checking each object individually
+     *
+     * @param depositId Id of the current deposit
+     * @return set of ids of completed objects
+     */
+    public Set<String> getCompletedObjects(String depositId) {
+        Set<String> result = new HashSet<>();
+        connectWithRetries((jedis) -> {
+            result.clear();
+            ScanParams params = new ScanParams().count(SCAN_COUNT);
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do {
+                ScanResult<String> scanResult = jedis.sscan(JOB_COMPLETED_OBJECTS + depositId, cursor, params);
+                result.addAll(scanResult.getResult());
+                cursor = scanResult.getStringCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        });
+        synchronized (bufferLock) {
+            Set<String> pending = pendingCompleted.get(depositId);
+            if (pending != null) {
+                result.addAll(pending);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write any buffered completed objects and completion increments to redis in a single pipeline
+     */
+    public void flush() {
+        Map<String, Set<String>> completed;
+        Map<String, Integer> completion;
+        synchronized (bufferLock) {
+            lastFlush = System.currentTimeMillis();
+            if (pendingCount == 0) {
+                return;
+            }
+            completed = pendingCompleted;
+            completion = pendingCompletion;
+            pendingCompleted = new HashMap<>();
+            pendingCompletion = new HashMap<>();
+            pendingCount = 0;
+        }
+
+        connectWithRetries((jedis) -> {
+            Pipeline pipeline = jedis.pipelined();
+            completed.forEach((depositId, objectIds) -> {
+                pipeline.sadd(JOB_COMPLETED_OBJECTS + depositId, objectIds.toArray(new String[0]));
+            });
+            completion.forEach((jobUUID, amount) -> {
+                pipeline.hincrBy(JOB_STATUS_PREFIX + jobUUID, JobField.num.name(), amount);
+            });
+            pipeline.sync();
+        });
+    }
+
+    private void flushIfNeeded() {
+        boolean needsFlush;
+        synchronized (bufferLock) {
+            needsFlush = pendingCount >= flushThreshold
+                    || System.currentTimeMillis() - lastFlush >= flushInterval;
+        }
+        if (needsFlush) {
+            flush();
+        }
+    }
+
+    private boolean isBuffered() {
+        return flushThreshold > 0;
+    }
+
     /**
      * Retrieves the names of the jobs that have already succeeded for the
      * deposit.
@@ -200,6 +338,7 @@ public class JobStatusFactory extends AbstractJedisFactory {
      * @param depositUUID
      */
     public void deleteAll(String depositUUID) {
+        flush();
         connectWithRetries((jedis) -> {
             List<String> jobUUIDs = jedis.lrange(DEPOSIT_TO_JOBS_PREFIX + depositUUID, 0, -1);
 
@@ -258,6 +397,7 @@ public class JobStatusFactory extends AbstractJedisFactory {
      *            time until expire
      */
     public void expireKeys(String depositUUID, int seconds) {
+        flush();
         connectWithRetries((jedis) -> {
             List<String> jobUUIDs = jedis.lrange(DEPOSIT_TO_JOBS_PREFIX + depositUUID, 0, -1);
 
@@ -285,4 +425,19 @@ public class JobStatusFactory extends AbstractJedisFactory {
 
         return results;
     }
+
+    /**
+     * @param flushThreshold number of buffered updates after which they will be written to redis.
+     *      If 0 or less, updates are written immediately.
+     */
+    public void setFlushThreshold(int flushThreshold) {
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * @param flushInterval maximum time in milliseconds updates will be buffered before being written
+     */
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
 }
@@ -0,0 +1,181 @@
+package edu.unc.lib.boxc.deposit.impl.model;
+
+import static edu.unc.lib.boxc.model.api.ids.RepositoryPathConstants.DEPOSIT_RECORD_BASE;
+import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.DC;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.unc.lib.boxc.model.api.ids.PID;
+import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
+
+/**
+ * @author bbpennel
+ */
+public class DepositModelManagerTest {
+
+    @TempDir
+    public Path tmpFolder;
+
+    private DepositModelManager manager;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        manager = new DepositModelManager(tmpFolder);
+        manager.setDatasetPerDeposit(true);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        manager.close();
+    }
+
+    @Test
+    public void separateDatasetPerDepositTest() {
+        PID depositPid1 = makeDepositPid();
+        PID depositPid2 = makeDepositPid();
+
+        manager.addTriples(depositPid1, makeModel(depositPid1, "title1"));
+        manager.addTriples(depositPid2, makeModel(depositPid2, "title2"));
+
+        assertTitle(depositPid1, "title1", true);
+        assertTitle(depositPid1, "title2", false);
+        assertTitle(depositPid2, "title2", true);
+
+        assertTrue(Files.exists(getDatasetPath(depositPid1)));
+        assertTrue(Files.exists(getDatasetPath(depositPid2)));
+    }
+
+    @Test
+    public void writesToDifferentDepositsDoNotBlockTest() throws Exception {
+        PID depositPid1 = makeDepositPid();
+        PID depositPid2 = makeDepositPid();
+
+        // Hold a write transaction open on the first deposit
+        manager.getWriteModel(depositPid1);
+        try {
+            Future<?> future = executor.submit(
+                    () -> manager.addTriples(depositPid2, makeModel(depositPid2, "title2")));
+            future.get(10, TimeUnit.SECONDS);
+        } finally {
+            manager.commit();
+        }
+
+        assertTitle(depositPid2, "title2", true);
+    }
+
+    @Test
+    public void evictedDatasetReopenedTest() {
+        manager.setMaxOpenDatasets(1);
+        PID depositPid1 = makeDepositPid();
+        PID depositPid2 = makeDepositPid();
+
+        manager.addTriples(depositPid1, makeModel(depositPid1, "title1"));
+        manager.addTriples(depositPid2, makeModel(depositPid2, "title2"));
+        // Update the first deposit after its dataset was closed to make room for the second
+        Model model = manager.getReadModel(depositPid1);
+        manager.commit(depositPid1, () -> {
+            model.add(makeModel(depositPid1, "title3"));
+        }, true);
+        manager.end();
+
+        assertTitle(depositPid1, "title1", true);
+        assertTitle(depositPid1, "title3", true);
+        assertTitle(depositPid2, "title2", true);
+    }
+
+    @Test
+    public void removeModelDeletesDatasetTest() {
+        PID depositPid = makeDepositPid();
+        manager.addTriples(depositPid, makeModel(depositPid, "title1"));
+
+        // Removal while the deposit is being read, as in cleanup
+        manager.getReadModel(depositPid);
+        manager.removeModel(depositPid);
+
+        assertFalse(Files.exists(getDatasetPath(depositPid)));
+        assertTitle(depositPid, "title1", false);
+    }
+
+    @Test
+    public void performQueryTest() throws Exception {
+        PID depositPid = makeDepositPid();
+        manager.addTriples(depositPid, makeModel(depositPid, "title1"));
+
+        String result = manager.performQuery(depositPid, "select ?title where { ?s <" + DC.title + "> ?title }");
+        assertEquals("title1\r\n", result);
+    }
+
+    @Test
+    public void performQueryStreamingTest() throws Exception {
+        PID depositPid = makeDepositPid();
+        Model model = createDefaultModel();
+        for (int i = 0; i < 5; i++) {
+            model.getResource(depositPid.getRepositoryPath() + "/" + i).addProperty(DC.title, "title" + i);
+        }
+        manager.addTriples(depositPid, model);
+
+        List<String> titles = new ArrayList<>();
+        manager.performQuery(depositPid, "select ?title where { ?s <" + DC.title + "> ?title }",
+                soln -> titles.add(soln.getLiteral("title").getString()));
+
+        Collections.sort(titles);
+        assertEquals(Arrays.asList("title0", "title1", "title2", "title3", "title4"), titles);
+        // Read transaction must be ended after streaming
+        manager.addTriples(depositPid, makeModel(depositPid, "title5"));
+    }
+
+    @Test
+    public void commitWithoutActiveDatasetTest() {
+        assertThrows(IllegalStateException.class, () -> manager.commit(() -> {}));
+    }
+
+    private void assertTitle(PID depositPid, String title, boolean expected) {
+        Model model = manager.getReadModel(depositPid);
+        try {
+            Resource resc = model.getResource(depositPid.getRepositoryPath());
+            assertTrue(expected == resc.hasProperty(DC.title, title));
+        } finally {
+            manager.end();
+        }
+    }
+
+    private Model makeModel(PID depositPid, String title) {
+        Model model = createDefaultModel();
+        model.getResource(depositPid.getRepositoryPath()).addProperty(DC.title, title);
+        return model;
+    }
+
+    private PID makeDepositPid() {
+        return PIDs.get(DEPOSIT_RECORD_BASE, UUID.randomUUID().toString());
+    }
+
+    private Path getDatasetPath(PID depositPid) {
+        return tmpFolder.resolve("deposits").resolve(depositPid.getId());
+    }
+}
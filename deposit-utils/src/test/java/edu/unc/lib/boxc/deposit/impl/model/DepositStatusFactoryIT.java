@@ -61,6 +61,24 @@ public class DepositStatusFactoryIT {
         assertTrue(factory.addSupervisorLock(uuid, owner2));
     }
 
+    @Test
+    public void testAddSetScheduledJobs() {
+        final String uuid = UUID.randomUUID().toString();
+        assertTrue(factory.addScheduledJob(uuid, "job1"));
+        assertFalse(factory.addScheduledJob(uuid, "job1"));
+        assertTrue(factory.addScheduledJob(uuid, "job2"));
+        assertEquals(Set.of("job1", "job2"), factory.getScheduledJobs(uuid));
+
+        factory.setScheduledJobs(uuid, Set.of("job2"));
+        assertEquals(Set.of("job2"), factory.getScheduledJobs(uuid));
+        assertTrue(factory.addScheduledJob(uuid, "job1"));
+
+        factory.setScheduledJobs(uuid, Set.of());
+        assertTrue(factory.getScheduledJobs(uuid).isEmpty());
+        // Scheduled jobs must not be mistaken for a deposit status
+        assertTrue(factory.getAll().isEmpty());
+    }
+
     @Test
     public void testSetStateGetState() {
         final String uuid = UUID.randomUUID().toString();
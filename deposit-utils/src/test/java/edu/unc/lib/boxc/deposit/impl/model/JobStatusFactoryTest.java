@@ -9,14 +9,27 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 
 import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
+import static edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.JOB_COMPLETED_OBJECTS;
 import static edu.unc.lib.boxc.deposit.api.RedisWorkerConstants.JOB_STATUS_PREFIX;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -97,4 +110,57 @@ public class JobStatusFactoryTest {
         });
 
     }
+
+    @Test
+    public void bufferedUpdatesFlushedAtThreshold() {
+        Pipeline pipeline = mock(Pipeline.class);
+        when(jedis.pipelined()).thenReturn(pipeline);
+        statusFactory.setFlushThreshold(3);
+        statusFactory.setFlushInterval(60000);
+        String depositJobId = UUID.randomUUID().toString();
+
+        statusFactory.addObjectCompleted(depositJobId, "obj1");
+        statusFactory.incrCompletion(jobUUID, 1);
+
+        verify(jedis, never()).sadd(anyString(), anyString());
+        verify(jedis, never()).hincrBy(anyString(), anyString(), anyLong());
+        assertTrue(statusFactory.objectIsCompleted(depositJobId, "obj1"));
+
+        statusFactory.incrCompletion(jobUUID, 1);
+
+        verify(pipeline).sadd(JOB_COMPLETED_OBJECTS + depositJobId, "obj1");
+        verify(pipeline).hincrBy(JOB_STATUS_PREFIX + jobUUID, JobField.num.name(), 2);
+        verify(pipeline).sync();
+    }
+
+    @Test
+    public void bufferedUpdatesFlushedOnCompletion() {
+        Pipeline pipeline = mock(Pipeline.class);
+        when(jedis.pipelined()).thenReturn(pipeline);
+        statusFactory.setFlushThreshold(100);
+        statusFactory.setFlushInterval(60000);
+
+        statusFactory.incrCompletion(jobUUID, 1);
+        verify(pipeline, never()).sync();
+
+        statusFactory.completed(jobUUID);
+
+        verify(pipeline).hincrBy(JOB_STATUS_PREFIX + jobUUID, JobField.num.name(), 1);
+        verify(pipeline).sync();
+    }
+
+    @Test
+    public void getCompletedObjectsScansSet() {
+        String depositJobId = UUID.randomUUID().toString();
+        String key = JOB_COMPLETED_OBJECTS + depositJobId;
+        when(jedis.sscan(eq(key), eq(ScanParams.SCAN_POINTER_START), any(ScanParams.class)))
+                .thenReturn(new ScanResult<>("5", Arrays.asList("obj1", "obj2")));
+        when(jedis.sscan(eq(key), eq("5"), any(ScanParams.class)))
+                .thenReturn(new ScanResult<>(ScanParams.SCAN_POINTER_START, Arrays.asList("obj3")));
+
+        Set<String> completed = statusFactory.getCompletedObjects(depositJobId);
+
+        assertEquals(new HashSet<>(Arrays.asList("obj1", "obj2", "obj3")), completed);
+        verify(jedis, never()).sismember(anyString(), anyString());
+    }
 }
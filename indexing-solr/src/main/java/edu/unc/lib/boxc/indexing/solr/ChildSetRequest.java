@@ -15,6 +15,8 @@ import edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType;
 public class ChildSetRequest extends SolrUpdateRequest {
     private static final long serialVersionUID = 1L;
     private List<PID> children;
+    private List<PID> indexedChildren;
+    private List<PID> failedChildren;
 
     public ChildSetRequest(String newParent, List<String> children, IndexingActionType action, String userID) {
         super(newParent, action, null, userID);
@@ -31,4 +33,28 @@ public class ChildSetRequest extends SolrUpdateRequest {
     public void setChlidren(List<PID> children) {
         this.children = children;
     }
+
+    /**
+     * @return children which were successfully indexed by the action performed for this request, or null if
+     *      the action does not index children individually
+     */
+    public List<PID> getIndexedChildren() {
+        return indexedChildren;
+    }
+
+    public void setIndexedChildren(List<PID> indexedChildren) {
+        this.indexedChildren = indexedChildren;
+    }
+
+    /**
+     * @return children which failed to index but may succeed if retried, or null if the action does not
+     *      index children individually
+     */
+    public List<PID> getFailedChildren() {
+        return failedChildren;
+    }
+
+    public void setFailedChildren(List<PID> failedChildren) {
+        this.failedChildren = failedChildren;
+    }
 }
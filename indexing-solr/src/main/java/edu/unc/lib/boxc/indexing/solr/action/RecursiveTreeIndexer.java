@@ -1,8 +1,11 @@
 package edu.unc.lib.boxc.indexing.solr.action;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -27,7 +30,10 @@ import edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType;
 import edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageSender;
 
 /**
- * Performs depth first indexing of a tree of repository objects, starting at the PID of the provided update request.
+ * Performs indexing of a tree of repository objects, starting at the PID of the provided update request.
+ * The tree is walked one depth level at a time, retrieving the members of many containers per query. Descendants
+ * are queued for indexing in messages containing up to messageBatchSize children, which must be handled by an
+ * action capable of indexing each child in a ChildSetRequest.
  *
  * @author bbpennel
  *
@@ -39,6 +45,11 @@ public class RecursiveTreeIndexer {
 
     private SparqlQueryService queryService;
 
+    // Number of containers whose members are retrieved in a single query
+    private int memberQueryPageSize = 200;
+    // Maximum number of descendants included in a single indexing message
+    private int messageBatchSize = 1;
+
     private Set<String> CONTAINER_TYPES = new HashSet<>(Arrays.asList(Cdr.AdminUnit.getURI(),
             Cdr.Collection.getURI(),
             Cdr.ContentRoot.getURI(),
@@ -63,11 +74,6 @@ public class RecursiveTreeIndexer {
                 .map(Resource::getURI)
                 .collect(Collectors.toSet());
 
-        index(pid, types, actionType, userid);
-    }
-
-    private void index(PID pid, Set<String> types, IndexingActionType actionType, String userid)
-            throws IndexingException {
         if (types.contains(Cdr.Tombstone.getURI())) {
             log.debug("Skipping indexing tombstone object {}", pid.getQualifiedId());
             return;
@@ -76,14 +82,14 @@ public class RecursiveTreeIndexer {
         log.debug("Queueing indexing of {} {}", pid, actionType);
         messageSender.sendIndexingOperation(userid, pid, actionType);
 
-        if (types.stream().anyMatch(CONTAINER_TYPES::contains)) {
+        if (isContainer(types)) {
             // Start indexing the children
             indexChildren(pid, actionType, userid);
         }
     }
 
     /**
-     * Index all the children of the provided parentPid
+     * Index all the descendants of the provided parentPid
      * @param parentPid
      * @param actionType Type of indexing action to perform
      * @param userid
@@ -91,30 +97,76 @@ public class RecursiveTreeIndexer {
      */
     public void indexChildren(PID parentPid, IndexingActionType actionType, String userid)
             throws IndexingException {
-        Map<String, Set<String>> childToTypes = getMembers(parentPid);
+        List<PID> pending = new ArrayList<>();
+        List<PID> levelPids = Collections.singletonList(parentPid);
+        int total = 0;
+
+        while (!levelPids.isEmpty()) {
+            List<PID> nextLevelPids = new ArrayList<>();
+            for (int i = 0; i < levelPids.size(); i += memberQueryPageSize) {
+                List<PID> parentPage = levelPids.subList(i, Math.min(i + memberQueryPageSize, levelPids.size()));
+
+                for (Map.Entry<String, Set<String>> entry : getMembers(parentPage).entrySet()) {
+                    PID childPid = PIDs.get(entry.getKey());
+                    Set<String> types = entry.getValue();
+                    if (types.contains(Cdr.Tombstone.getURI())) {
+                        log.debug("Skipping indexing tombstone object {}", childPid.getQualifiedId());
+                        continue;
+                    }
+                    if (isContainer(types)) {
+                        nextLevelPids.add(childPid);
+                    }
+                    pending.add(childPid);
+                    total++;
+                    if (pending.size() >= messageBatchSize) {
+                        sendBatch(parentPid, pending, actionType, userid);
+                    }
+                }
+            }
+            levelPids = nextLevelPids;
+        }
+        sendBatch(parentPid, pending, actionType, userid);
+
+        log.debug("Queued {} descendants of {} for indexing", total, parentPid);
+    }
 
-        if (childToTypes.size() == 0) {
+    private void sendBatch(PID rootPid, List<PID> pending, IndexingActionType actionType, String userid) {
+        if (pending.isEmpty()) {
             return;
         }
-        log.debug("Queuing {} children of {} for indexing", childToTypes.size(), parentPid);
-        childToTypes.forEach((childPid, types) -> {
-            index(PIDs.get(childPid), types, actionType, userid);
-        });
+        if (messageBatchSize <= 1) {
+            for (PID pid : pending) {
+                log.debug("Queueing indexing of {} {}", pid, actionType);
+                messageSender.sendIndexingOperation(userid, pid, actionType);
+            }
+        } else {
+            log.debug("Queueing indexing of {} descendants of {} {}", pending.size(), rootPid, actionType);
+            messageSender.sendIndexingOperation(userid, rootPid, new ArrayList<>(pending), actionType);
+        }
+        pending.clear();
+    }
+
+    private boolean isContainer(Set<String> types) {
+        return types.stream().anyMatch(CONTAINER_TYPES::contains);
     }
 
     private final static String CHILDREN_QUERY =
             "select ?pid ?rdfType"
             + " where {"
-                + " ?pid <%1$s> <%2$s> ."
+                + " values ?parent { %2$s }"
+                + " ?pid <%1$s> ?parent ."
                 + " ?pid <%3$s> ?rdfType . }";
 
-    private Map<String, Set<String>> getMembers(PID parentPid) {
+    private Map<String, Set<String>> getMembers(List<PID> parentPids) {
+        String values = parentPids.stream()
+                .map(pid -> "<" + pid.getURI() + ">")
+                .collect(Collectors.joining(" "));
         String queryString = String.format(CHILDREN_QUERY,
-                PcdmModels.memberOf, parentPid.getURI(), RDF.type, Cdr.NS);
+                PcdmModels.memberOf, values, RDF.type);
 
-        log.debug("Performing member query:\n{}", queryString);
+        log.debug("Performing member query for {} containers", parentPids.size());
 
-        Map<String, Set<String>> childToTypes = new HashMap<>();
+        Map<String, Set<String>> childToTypes = new LinkedHashMap<>();
 
         try (QueryExecution qexec = queryService.executeQuery(queryString)) {
             ResultSet results = qexec.execSelect();
@@ -128,14 +180,7 @@ public class RecursiveTreeIndexer {
                     continue;
                 }
 
-                String pid = pidResc.getURI();
-
-                Set<String> types = childToTypes.get(pid);
-                if (types == null) {
-                    types = new HashSet<>();
-                    childToTypes.put(pid, types);
-                }
-                types.add(type.getURI());
+                childToTypes.computeIfAbsent(pidResc.getURI(), k -> new HashSet<>()).add(type.getURI());
             }
         }
 
@@ -152,4 +197,19 @@ public class RecursiveTreeIndexer {
     public void setSparqlQueryService(SparqlQueryService queryService) {
         this.queryService = queryService;
     }
+
+    /**
+     * @param memberQueryPageSize number of containers whose members are retrieved per query
+     */
+    public void setMemberQueryPageSize(int memberQueryPageSize) {
+        this.memberQueryPageSize = memberQueryPageSize;
+    }
+
+    /**
+     * @param messageBatchSize maximum number of descendants to include per indexing message. If 1 or less,
+     *      a separate message is sent for each descendant.
+     */
+    public void setMessageBatchSize(int messageBatchSize) {
+        this.messageBatchSize = messageBatchSize;
+    }
 }
\ No newline at end of file
@@ -1,14 +1,22 @@
 package edu.unc.lib.boxc.indexing.solr.action;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.unc.lib.boxc.indexing.solr.ChildSetRequest;
 import edu.unc.lib.boxc.indexing.solr.SolrUpdateRequest;
 import edu.unc.lib.boxc.indexing.solr.exception.IndexingException;
+import edu.unc.lib.boxc.indexing.solr.exception.RecoverableIndexingException;
 import edu.unc.lib.boxc.indexing.solr.indexing.DocumentIndexingPackage;
+import edu.unc.lib.boxc.model.api.ids.PID;
+import edu.unc.lib.boxc.search.solr.models.IndexDocumentBean;
 
 /**
- * Updates or adds the metadata for a single object
+ * Updates or adds the metadata for a single object. If the request is a ChildSetRequest containing children,
+ * then each of the children is updated instead of the object identified by the request.
  *
  * @author bbpennel
  *
@@ -18,6 +26,15 @@ public class UpdateObjectAction extends AbstractIndexingAction {
 
     @Override
     public void performAction(SolrUpdateRequest updateRequest) throws IndexingException {
+        if (updateRequest instanceof ChildSetRequest) {
+            ChildSetRequest childSetRequest = (ChildSetRequest) updateRequest;
+            List<PID> children = childSetRequest.getChildren();
+            if (children != null && !children.isEmpty()) {
+                indexChildren(childSetRequest);
+                return;
+            }
+        }
+
         log.debug("Indexing object {}", updateRequest.getPid());
         // Retrieve object metadata from Fedora and add to update document list
         DocumentIndexingPackage dip = updateRequest.getDocumentIndexingPackage();
@@ -34,4 +51,59 @@ public class UpdateObjectAction extends AbstractIndexingAction {
         }
 
     }
+
+    private void indexChildren(ChildSetRequest childSetRequest) throws IndexingException {
+        List<PID> children = childSetRequest.getChildren();
+        log.debug("Indexing set of {} objects", children.size());
+        List<IndexDocumentBean> docs = new ArrayList<>(children.size());
+        List<PID> indexed = new ArrayList<>(children.size());
+        List<PID> failed = new ArrayList<>();
+        RecoverableIndexingException firstRecoverable = null;
+        Exception firstSkipped = null;
+        for (PID child : children) {
+            try {
+                DocumentIndexingPackage dip = factory.createDip(child);
+                pipeline.process(dip);
+                if (this.addDocumentMode) {
+                    // Full documents are submitted together once the whole set has been processed
+                    docs.add(dip.getDocument());
+                } else {
+                    solrUpdateDriver.updateDocument(dip.getDocument());
+                }
+                indexed.add(child);
+            } catch (RecoverableIndexingException e) {
+                log.warn("Failed to index {} as part of set, will retry: {}", child.getId(), e.getMessage());
+                failed.add(child);
+                if (firstRecoverable == null) {
+                    firstRecoverable = e;
+                }
+            } catch (Exception e) {
+                // Skip objects which cannot be indexed, such as children deleted since the set was created,
+                // so that they do not block their siblings
+                log.error("Failed to index {} as part of set, skipping it", child.getId(), e);
+                if (firstSkipped == null) {
+                    firstSkipped = e;
+                }
+            }
+        }
+        if (!docs.isEmpty()) {
+            solrUpdateDriver.addDocuments(docs);
+        }
+        childSetRequest.setIndexedChildren(indexed);
+        childSetRequest.setFailedChildren(failed);
+        if (firstRecoverable != null) {
+            throw new RecoverableIndexingException("Failed to index " + failed.size() + " of " + children.size()
+                    + " objects in set: " + failed, firstRecoverable);
+        }
+        // If nothing in the set could be indexed, the problem is unlikely to be with individual children,
+        // so allow the error handling for the original failure to apply
+        if (indexed.isEmpty() && firstSkipped != null) {
+            if (firstSkipped instanceof IndexingException) {
+                throw (IndexingException) firstSkipped;
+            } else if (firstSkipped instanceof RuntimeException) {
+                throw (RuntimeException) firstSkipped;
+            }
+            throw new IndexingException("Failed to index set of " + children.size() + " objects", firstSkipped);
+        }
+    }
 }
@@ -3,26 +3,42 @@ package edu.unc.lib.boxc.indexing.solr.filter;
 import static edu.unc.lib.boxc.model.api.DatastreamType.FULLTEXT_EXTRACTION;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
 
-import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import edu.unc.lib.boxc.common.metrics.HistogramFactory;
 import edu.unc.lib.boxc.indexing.solr.exception.IndexingException;
 import edu.unc.lib.boxc.indexing.solr.indexing.DocumentIndexingPackage;
 import edu.unc.lib.boxc.model.api.objects.ContentObject;
 import edu.unc.lib.boxc.model.api.objects.FileObject;
 import edu.unc.lib.boxc.model.fcrepo.services.DerivativeService;
 import edu.unc.lib.boxc.model.fcrepo.services.DerivativeService.Derivative;
+import io.dropwizard.metrics5.Histogram;
 
 /**
- * Retrieves full text data for object being indexed and stores it to the indexing document
+ * Retrieves full text data for object being indexed and stores it to the indexing document.
+ * The text is decoded incrementally from the derivative file and truncated once it
+ * exceeds the configured maximum number of characters.
+ *
  * @author bbpennel
  * @author harring
  *
  */
 public class SetFullTextFilter implements IndexDocumentFilter {
+    private static final Logger log = LoggerFactory.getLogger(SetFullTextFilter.class);
+
+    private static final Histogram fullTextSizeHistogram = HistogramFactory
+            .createHistogram("indexingFullTextSize");
+    private static final int BUFFER_SIZE = 8192;
 
     private DerivativeService derivativeService;
+    private int maxFullTextChars = Integer.MAX_VALUE;
 
     @Override
     public void filter(DocumentIndexingPackage dip) throws IndexingException {
@@ -36,13 +52,40 @@ public class SetFullTextFilter implements IndexDocumentFilter {
             return;
         }
         try {
-            String fullText = FileUtils.readFileToString(textDeriv.getFile(), UTF_8);
+            String fullText = readFullText(textDeriv.getFile(), dip);
             dip.getDocument().setFullText(fullText);
         } catch (IOException e) {
             throw new IndexingException("Failed to retrieve full text datastream for {}" + dip.getPid(), e);
         }
     }
 
+    /**
+     * Decode the full text file in fixed size chunks, so that neither the raw bytes of the whole
+     * file nor any characters past the limit are held in memory.
+     */
+    private String readFullText(File textFile, DocumentIndexingPackage dip) throws IOException {
+        long fileSize = textFile.length();
+        fullTextSizeHistogram.update(fileSize);
+
+        int limit = maxFullTextChars <= 0 ? Integer.MAX_VALUE : maxFullTextChars;
+        StringBuilder fullText = new StringBuilder((int) Math.min(fileSize, Math.min(limit, BUFFER_SIZE * 16)));
+        char[] buffer = new char[BUFFER_SIZE];
+        try (Reader reader = new InputStreamReader(Files.newInputStream(textFile.toPath()), UTF_8)) {
+            int read;
+            while ((read = reader.read(buffer, 0, Math.min(buffer.length, limit - fullText.length()))) > 0) {
+                fullText.append(buffer, 0, read);
+                if (fullText.length() >= limit) {
+                    if (reader.read() != -1) {
+                        log.warn("Full text for {} exceeds {} characters ({} bytes on disk), truncating",
+                                dip.getPid(), limit, fileSize);
+                    }
+                    break;
+                }
+            }
+        }
+        return fullText.toString();
+    }
+
     private FileObject getFileObject(DocumentIndexingPackage dip) throws IndexingException {
         ContentObject contentObj = dip.getContentObject();
         // object being indexed must be a file object
@@ -59,4 +102,12 @@ public class SetFullTextFilter implements IndexDocumentFilter {
     public void setDerivativeService(DerivativeService derivativeService) {
         this.derivativeService = derivativeService;
     }
+
+    /**
+     * @param maxFullTextChars maximum number of characters of full text to index per object.
+     *      Text beyond this limit is truncated. A value of 0 or less disables the limit.
+     */
+    public void setMaxFullTextChars(int maxFullTextChars) {
+        this.maxFullTextChars = maxFullTextChars;
+    }
 }
@@ -13,6 +13,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -52,14 +53,7 @@ public class SolrUpdateDriver {
     }
 
     public void addDocument(IndexDocumentBean idb) throws IndexingException {
-        Map<String, Object> fields = idb.getFields();
-
-        for (String field : solrSettings.getRequiredFields()) {
-            if (!fields.containsKey(field)) {
-                throw new RecoverableIndexingException("Required indexing field {" + field + "} was not present for "
-                        + idb.getId());
-            }
-        }
+        assertRequiredFieldsPresent(idb);
 
         try {
             log.info("Queuing {} for full indexing", idb.getId());
@@ -71,6 +65,41 @@ public class SolrUpdateDriver {
         }
     }
 
+    /**
+     * Add a batch of documents to the index in a single update request
+     *
+     * @param idbs documents to add
+     * @throws IndexingException
+     */
+    public void addDocuments(Collection<IndexDocumentBean> idbs) throws IndexingException {
+        if (idbs.isEmpty()) {
+            return;
+        }
+        for (IndexDocumentBean idb : idbs) {
+            assertRequiredFieldsPresent(idb);
+            // Providing a version value, indicating that it doesn't matter if record exists
+            idb.set_version_(0l);
+        }
+
+        try {
+            log.info("Queuing batch of {} documents for full indexing", idbs.size());
+            solrClient.addBeans(idbs);
+        } catch (IOException | SolrServerException e) {
+            throw new IndexingException("Failed to add documents to solr", e);
+        }
+    }
+
+    private void assertRequiredFieldsPresent(IndexDocumentBean idb) throws RecoverableIndexingException {
+        Map<String, Object> fields = idb.getFields();
+
+        for (String field : solrSettings.getRequiredFields()) {
+            if (!fields.containsKey(field)) {
+                throw new RecoverableIndexingException("Required indexing field {" + field + "} was not present for "
+                        + idb.getId());
+            }
+        }
+    }
+
     /**
      * Perform a partial document update from a IndexDocumentBean. Null fields are considered to be unspecified and will
      * not be changed, except for the update timestamp field which is always set.
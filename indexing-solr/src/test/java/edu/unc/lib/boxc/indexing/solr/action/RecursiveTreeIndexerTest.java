@@ -7,12 +7,19 @@ import static edu.unc.lib.boxc.indexing.solr.test.MockRepositoryObjectHelpers.ma
 import static edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType.ADD;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.openMocks;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
@@ -54,6 +61,8 @@ public class RecursiveTreeIndexerTest {
 
     @Captor
     protected ArgumentCaptor<PID> pidCaptor;
+    @Captor
+    protected ArgumentCaptor<Collection<PID>> childrenCaptor;
 
     protected Model sparqlModel;
     protected RecursiveTreeIndexer treeIndexer;
@@ -128,6 +137,69 @@ public class RecursiveTreeIndexerTest {
         assertTrue(pids.contains(child2Obj.getPid()));
     }
 
+    @Test
+    public void testHierarchyBatched() throws Exception {
+        ContentContainerObject containerObj = makeContainer(makePid(), repositoryObjectLoader);
+        ContentContainerObject child1Obj = makeContainer(makePid(), repositoryObjectLoader);
+        ContentContainerObject child2Obj = makeContainer(makePid(), repositoryObjectLoader);
+        FileObject file1Obj = makeFileObject(makePid(), repositoryObjectLoader);
+        FileObject file2Obj = makeFileObject(makePid(), repositoryObjectLoader);
+        FileObject file3Obj = makeFileObject(makePid(), repositoryObjectLoader);
+
+        addMembers(containerObj, child1Obj, child2Obj);
+        addMembers(child1Obj, file1Obj, file2Obj);
+        addMembers(child2Obj, file3Obj);
+
+        indexTriples(containerObj, child1Obj, child2Obj, file1Obj, file2Obj, file3Obj);
+
+        sparqlQueryService = spy(sparqlQueryService);
+        indexer.setSparqlQueryService(sparqlQueryService);
+        indexer.setMessageBatchSize(3);
+
+        indexer.index(containerObj, ADD, USER);
+
+        verify(messageSender).sendIndexingOperation(USER, containerObj.getPid(), ADD);
+        verify(messageSender, times(2)).sendIndexingOperation(eq(USER), eq(containerObj.getPid()),
+                childrenCaptor.capture(), eq(ADD));
+
+        List<Collection<PID>> batches = childrenCaptor.getAllValues();
+        assertEquals(3, batches.get(0).size());
+        assertEquals(2, batches.get(1).size());
+        Set<PID> indexed = batches.stream().flatMap(Collection::stream).collect(Collectors.toSet());
+        assertEquals(new HashSet<>(Arrays.asList(child1Obj.getPid(), child2Obj.getPid(), file1Obj.getPid(),
+                file2Obj.getPid(), file3Obj.getPid())), indexed);
+        // One member query per level containing containers, rather than one per container
+        verify(sparqlQueryService, times(2)).executeQuery(anyString());
+    }
+
+    @Test
+    public void testIndexChildrenPagedQueries() throws Exception {
+        ContentContainerObject containerObj = makeContainer(makePid(), repositoryObjectLoader);
+        ContentContainerObject child1Obj = makeContainer(makePid(), repositoryObjectLoader);
+        ContentContainerObject child2Obj = makeContainer(makePid(), repositoryObjectLoader);
+        ContentContainerObject child3Obj = makeContainer(makePid(), repositoryObjectLoader);
+        FileObject fileObj = makeFileObject(makePid(), repositoryObjectLoader);
+
+        addMembers(containerObj, child1Obj, child2Obj, child3Obj);
+        addMembers(child3Obj, fileObj);
+
+        indexTriples(containerObj, child1Obj, child2Obj, child3Obj, fileObj);
+
+        sparqlQueryService = spy(sparqlQueryService);
+        indexer.setSparqlQueryService(sparqlQueryService);
+        indexer.setMemberQueryPageSize(2);
+        indexer.setMessageBatchSize(10);
+
+        indexer.indexChildren(containerObj.getPid(), ADD, USER);
+
+        verify(messageSender).sendIndexingOperation(eq(USER), eq(containerObj.getPid()),
+                childrenCaptor.capture(), eq(ADD));
+        assertEquals(new HashSet<>(Arrays.asList(child1Obj.getPid(), child2Obj.getPid(), child3Obj.getPid(),
+                fileObj.getPid())), new HashSet<>(childrenCaptor.getValue()));
+        // Root level, then two pages for the three child containers
+        verify(sparqlQueryService, times(3)).executeQuery(anyString());
+    }
+
     private void indexTriples(ContentObject... objs) {
         for (ContentObject obj : objs) {
             sparqlModel.add(obj.getResource().getModel());
@@ -0,0 +1,139 @@
+package edu.unc.lib.boxc.indexing.solr.action;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+
+import edu.unc.lib.boxc.indexing.solr.ChildSetRequest;
+import edu.unc.lib.boxc.indexing.solr.exception.IndexingException;
+import edu.unc.lib.boxc.indexing.solr.exception.RecoverableIndexingException;
+import edu.unc.lib.boxc.indexing.solr.indexing.DocumentIndexingPackage;
+import edu.unc.lib.boxc.indexing.solr.indexing.DocumentIndexingPackageFactory;
+import edu.unc.lib.boxc.indexing.solr.indexing.DocumentIndexingPipeline;
+import edu.unc.lib.boxc.indexing.solr.indexing.SolrUpdateDriver;
+import edu.unc.lib.boxc.model.api.exceptions.NotFoundException;
+import edu.unc.lib.boxc.model.api.ids.PID;
+import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
+import edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType;
+import edu.unc.lib.boxc.search.solr.models.IndexDocumentBean;
+
+/**
+ * @author bbpennel
+ */
+public class UpdateObjectActionTest {
+    private AutoCloseable closeable;
+
+    @Mock
+    private DocumentIndexingPackageFactory factory;
+    @Mock
+    private DocumentIndexingPipeline pipeline;
+    @Mock
+    private SolrUpdateDriver solrUpdateDriver;
+    @Captor
+    private ArgumentCaptor<Collection<IndexDocumentBean>> docsCaptor;
+
+    private UpdateObjectAction action;
+
+    @BeforeEach
+    public void setup() {
+        closeable = openMocks(this);
+
+        action = new UpdateObjectAction();
+        action.setFactory(factory);
+        action.setPipeline(pipeline);
+        action.setSolrUpdateDriver(solrUpdateDriver);
+    }
+
+    @AfterEach
+    void closeService() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void indexChildSetSkipsFailedChildTest() throws Exception {
+        List<PID> children = makePids(3);
+        mockDips(children);
+        when(factory.createDip(children.get(1))).thenThrow(new NotFoundException("Deleted"));
+
+        ChildSetRequest request = makeRequest(children);
+        action.performAction(request);
+
+        verify(solrUpdateDriver).addDocuments(docsCaptor.capture());
+        assertEquals(2, docsCaptor.getValue().size());
+        assertEquals(Arrays.asList(children.get(0), children.get(2)), request.getIndexedChildren());
+    }
+
+    @Test
+    public void indexChildSetRecoverableFailureTest() throws Exception {
+        List<PID> children = makePids(2);
+        List<DocumentIndexingPackage> dips = mockDips(children);
+        doThrow(new RecoverableIndexingException("Try again")).when(pipeline).process(dips.get(0));
+
+        ChildSetRequest request = makeRequest(children);
+        assertThrows(RecoverableIndexingException.class, () -> action.performAction(request));
+
+        // Successfully built documents are still submitted
+        verify(solrUpdateDriver).addDocuments(docsCaptor.capture());
+        assertEquals(1, docsCaptor.getValue().size());
+        assertEquals(Arrays.asList(children.get(1)), request.getIndexedChildren());
+        assertEquals(Arrays.asList(children.get(0)), request.getFailedChildren());
+    }
+
+    @Test
+    public void indexChildSetAllFailedTest() throws Exception {
+        List<PID> children = makePids(2);
+        List<DocumentIndexingPackage> dips = mockDips(children);
+        doThrow(new IndexingException("Broken")).when(pipeline).process(dips.get(0));
+        doThrow(new IndexingException("Broken")).when(pipeline).process(dips.get(1));
+
+        assertThrows(IndexingException.class, () -> action.performAction(makeRequest(children)));
+
+        verify(solrUpdateDriver, never()).addDocuments(anyCollectionOf(IndexDocumentBean.class));
+    }
+
+    private ChildSetRequest makeRequest(List<PID> children) {
+        List<String> childIds = children.stream().map(PID::getId).collect(Collectors.toList());
+        return new ChildSetRequest(makePid().getId(), childIds, IndexingActionType.ADD, "user");
+    }
+
+    private List<DocumentIndexingPackage> mockDips(List<PID> pids) {
+        return pids.stream().map(pid -> {
+            DocumentIndexingPackage dip = mock(DocumentIndexingPackage.class);
+            when(dip.getDocument()).thenReturn(new IndexDocumentBean());
+            when(factory.createDip(pid)).thenReturn(dip);
+            return dip;
+        }).collect(Collectors.toList());
+    }
+
+    private List<PID> makePids(int count) {
+        List<PID> pids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pids.add(makePid());
+        }
+        return pids;
+    }
+
+    private PID makePid() {
+        return PIDs.get(UUID.randomUUID().toString());
+    }
+}
@@ -113,6 +113,32 @@ public class SetFullTextFilterTest {
         assertEquals(EXAMPLE_TEXT, dip.getDocument().getFullText());
     }
 
+    @Test
+    public void testFullTextTruncated() throws Exception {
+        filter.setMaxFullTextChars(4);
+        dip = factory.createDip(filePid);
+        createFullTextDerivative(filePid, EXAMPLE_TEXT);
+
+        when(loader.getContentObject(dip)).thenReturn(fileObj);
+
+        filter.filter(dip);
+
+        assertEquals("some", dip.getDocument().getFullText());
+    }
+
+    @Test
+    public void testFullTextAtLimit() throws Exception {
+        filter.setMaxFullTextChars(EXAMPLE_TEXT.length());
+        dip = factory.createDip(filePid);
+        createFullTextDerivative(filePid, EXAMPLE_TEXT);
+
+        when(loader.getContentObject(dip)).thenReturn(fileObj);
+
+        filter.filter(dip);
+
+        assertEquals(EXAMPLE_TEXT, dip.getDocument().getFullText());
+    }
+
     @Test
     public void testNoFullText() throws Exception {
         dip = factory.createDip(filePid);
@@ -45,6 +45,7 @@ import edu.unc.lib.boxc.model.api.SoftwareAgentConstants.SoftwareAgent;
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.objects.BinaryObject;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObject;
+import edu.unc.lib.boxc.model.api.rdf.Cdr;
 import edu.unc.lib.boxc.model.api.rdf.Premis;
 import edu.unc.lib.boxc.model.api.rdf.Prov;
 import edu.unc.lib.boxc.model.fcrepo.ids.AgentPids;
@@ -71,7 +72,7 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
 
     private PidLockManager lockManager;
 
-    private Map<PID, String> previousDigestMap;
+    private Map<PID, String> previousLogStateMap;
 
     private AutoCloseable closeable;
 
@@ -97,20 +98,31 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
                 .thenAnswer(new Answer<BinaryTransferOutcome>()  {
                     @Override
                     public BinaryTransferOutcome answer(InvocationOnMock invocation) throws Throwable {
-                        InputStream contentStream = invocation.getArgument(1);
-                        DigestInputStream digestStream = new DigestInputStream(
-                                contentStream, MessageDigest.getInstance(DigestAlgorithm.DEFAULT_ALGORITHM.getName()));
-                        Path tempFilePath = createTempFile("temp_content", null);
-                        copyInputStreamToFile(digestStream, tempFilePath.toFile());
-                        Files.move(tempFilePath, path, StandardCopyOption.REPLACE_EXISTING);
-                        BinaryTransferOutcome outcome = mock(BinaryTransferOutcome.class);
-                        when(outcome.getDestinationUri()).thenReturn(path.toUri());
-                        when(outcome.getSha1()).thenReturn(encodeHexString(digestStream.getMessageDigest().digest()));
-                        return outcome;
+                        return writeContent(invocation.getArgument(1), path);
+                    }
+                });
+        // Segments appended to a log are each written to a new file
+        when(mockSession.transfer(any(PID.class), any(InputStream.class)))
+                .thenAnswer(new Answer<BinaryTransferOutcome>()  {
+                    @Override
+                    public BinaryTransferOutcome answer(InvocationOnMock invocation) throws Throwable {
+                        return writeContent(invocation.getArgument(1), createTempFile("segment", null));
                     }
                 });
 
-        previousDigestMap = new HashMap<>();
+        previousLogStateMap = new HashMap<>();
+    }
+
+    private BinaryTransferOutcome writeContent(InputStream contentStream, Path destination) throws Exception {
+        DigestInputStream digestStream = new DigestInputStream(
+                contentStream, MessageDigest.getInstance(DigestAlgorithm.DEFAULT_ALGORITHM.getName()));
+        Path tempFilePath = createTempFile("temp_content", null);
+        copyInputStreamToFile(digestStream, tempFilePath.toFile());
+        Files.move(tempFilePath, destination, StandardCopyOption.REPLACE_EXISTING);
+        BinaryTransferOutcome outcome = mock(BinaryTransferOutcome.class);
+        when(outcome.getDestinationUri()).thenReturn(destination.toUri());
+        when(outcome.getSha1()).thenReturn(encodeHexString(digestStream.getMessageDigest().digest()));
+        return outcome;
     }
 
     @AfterEach
@@ -143,7 +155,7 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
         Resource objResc = logModel.getResource(parentObject.getPid().getRepositoryPath());
         assertTrue(objResc.hasProperty(RDF.type, Premis.Representation));
 
-        assertEventLogDigestChanged(parentObject);
+        assertEventLogChanged(parentObject);
     }
 
     @Test
@@ -155,7 +167,7 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
                 .addSoftwareAgent(AgentPids.forSoftware(SoftwareAgent.clamav))
                 .write();
 
-        assertEventLogDigestChanged(parentObject);
+        assertEventLogChanged(parentObject);
 
         // Add two of the events together
         Date ingestDate = Date.from(Instant.parse("2010-01-02T12:00:00Z"));
@@ -168,7 +180,7 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
 
         logger.writeEvents(event2Resc, event3Resc);
 
-        assertEventLogDigestChanged(parentObject);
+        assertEventLogChanged(parentObject);
 
         // Make a new logger to make sure everything is clean
         PremisLogger retrieveLogger = new RepositoryPremisLogger(parentObject, mockSession,
@@ -194,6 +206,52 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
         retrieveLogger.close();
     }
 
+    @Test
+    public void compactSegmentsPastThreshold() throws Exception {
+        parentObject = repoObjFactory.createDepositRecord(null);
+        initPremisLogger(parentObject);
+        logger.setCompactionThreshold(2);
+
+        List<String> eventUris = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Resource eventResc = logger.buildEvent(Premis.note)
+                    .addEventDetail("premis event " + i)
+                    .write();
+            eventUris.add(eventResc.getURI());
+        }
+
+        // Two segments have been appended, which does not pass the threshold
+        PID eventsPid = DatastreamPids.getMdEventsPid(parentObject.getPid());
+        assertEquals(2, countSegments(eventsPid));
+
+        Resource lastEventResc = logger.buildEvent(Premis.note)
+                .addEventDetail("premis event 3")
+                .write();
+        eventUris.add(lastEventResc.getURI());
+
+        // Third segment passes the threshold, so all segments are folded into the log
+        assertEquals(0, countSegments(eventsPid));
+
+        PremisLogger retrieveLogger = new RepositoryPremisLogger(parentObject, mockSession,
+                pidMinter, repoObjLoader, repoObjFactory);
+        Model logModel = retrieveLogger.getEventsModel();
+        int i = 0;
+        for (String uri : eventUris) {
+            Resource logEventResc = logModel.getResource(uri);
+            assertEquals("premis event " + i, logEventResc.getProperty(Premis.note).getString());
+            i++;
+        }
+        Resource objResc = logModel.getResource(parentObject.getPid().getRepositoryPath());
+        assertTrue(objResc.hasProperty(RDF.type, Premis.Representation));
+
+        retrieveLogger.close();
+    }
+
+    private int countSegments(PID eventsPid) {
+        BinaryObject eventsBin = repoObjLoader.getBinaryObject(eventsPid);
+        return eventsBin.getResource(true).listProperties(Cdr.hasEventsSegment).toList().size();
+    }
+
     @Test
     public void getEventsModelForObjectWithoutLog() throws Exception {
         parentObject = repoObjFactory.createCollectionObject(null);
@@ -267,7 +325,7 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
             i++;
         }
 
-        assertEventLogDigestChanged(parentObject);
+        assertEventLogChanged(parentObject);
 
         retrieveLogger.close();
     }
@@ -310,7 +368,7 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
         // release read lock
         logLock.unlock();
 
-        assertEventLogDigestChanged(parentObject);
+        assertEventLogChanged(parentObject);
 
         retrieveLogger.close();
     }
@@ -388,7 +446,7 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
         readThread.join();
         assertEquals("first premis event", premisNotes.get(0));
 
-        assertEventLogDigestChanged(parentObject);
+        assertEventLogChanged(parentObject);
 
         retrieveLogger.close();
     }
@@ -434,20 +492,23 @@ public class RepositoryPremisLoggerIT extends AbstractFedoraIT {
         Resource logEvent1Resc = logModel.getResource(event.getURI());
         assertTrue(logEvent1Resc.hasProperty(RDF.type, Premis.VirusCheck));
 
-        assertEventLogDigestChanged(parentObject);
+        assertEventLogChanged(parentObject);
 
         retrieveLogger.close();
     }
 
-    private void assertEventLogDigestChanged(RepositoryObject contentObj) {
+    private void assertEventLogChanged(RepositoryObject contentObj) {
         PID eventsPid = DatastreamPids.getMdEventsPid(contentObj.getPid());
         BinaryObject eventsBin = repoObjLoader.getBinaryObject(eventsPid);
         String newDigest = eventsBin.getSha1Checksum();
         assertNotNull("No sha1 set for events log", newDigest);
-        String previousDigest = previousDigestMap.get(eventsPid);
-        if (previousDigest != null) {
-            assertNotEquals(previousDigest, newDigest, "Digest did not change from previous version");
+        // Events written after the log is created are appended as segments rather than changing the log binary
+        int segmentCount = eventsBin.getResource(true).listProperties(Cdr.hasEventsSegment).toList().size();
+        String logState = newDigest + "_" + segmentCount;
+        String previousState = previousLogStateMap.get(eventsPid);
+        if (previousState != null) {
+            assertNotEquals(previousState, logState, "Event log did not change from previous version");
         }
-        previousDigestMap.put(eventsPid, newDigest);
+        previousLogStateMap.put(eventsPid, logState);
     }
 }
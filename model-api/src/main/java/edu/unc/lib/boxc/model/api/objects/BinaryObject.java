@@ -20,6 +20,16 @@ public interface BinaryObject extends RepositoryObject {
      */
     InputStream getBinaryStream() throws FedoraException;
 
+    /**
+     * Get an inputstream of a range of the binary content
+     *
+     * @param start offset of the first byte to retrieve
+     * @param end offset of the last byte to retrieve, inclusive
+     * @return
+     * @throws FedoraException
+     */
+    InputStream getBinaryStream(long start, long end) throws FedoraException;
+
     /**
      * @return the URI where the content for this binary is located
      */
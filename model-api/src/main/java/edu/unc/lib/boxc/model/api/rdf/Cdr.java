@@ -65,6 +65,10 @@ public class Cdr {
    /** Relationship indicating the resource containing the event log for this object */
    public static final Property hasEvents = createProperty("http://cdr.unc.edu/definitions/model#hasEvents");
 
+   /** Relationship from an event log to a segment containing additional events appended to that log */
+   public static final Property hasEventsSegment = createProperty(
+           "http://cdr.unc.edu/definitions/model#hasEventsSegment");
+
    /** The size (e.g., in bytes) of this binary object */
    public static final Property hasSize = createProperty(
            "http://cdr.unc.edu/definitions/model#hasSize" );
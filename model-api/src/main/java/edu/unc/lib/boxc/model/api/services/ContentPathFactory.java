@@ -1,5 +1,6 @@
 package edu.unc.lib.boxc.model.api.services;
 
+import java.util.Collection;
 import java.util.List;
 
 import edu.unc.lib.boxc.model.api.ids.PID;
@@ -19,6 +20,14 @@ public interface ContentPathFactory {
      */
     List<PID> getAncestorPids(PID pid);
 
+    /**
+     * Retrieves and caches the ancestors of all of the provided pids, so that subsequent
+     * calls to getAncestorPids for those pids or their ancestors can be served from cache.
+     *
+     * @param pids
+     */
+    void preloadAncestors(Collection<PID> pids);
+
     /**
      * Invalidates cached data for the provided pid
      * @param pid
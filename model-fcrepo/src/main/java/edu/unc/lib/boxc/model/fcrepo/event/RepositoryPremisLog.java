@@ -4,6 +4,7 @@ import java.util.concurrent.locks.Lock;
 
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.StmtIterator;
 
 import edu.unc.lib.boxc.model.api.event.PremisLog;
 import edu.unc.lib.boxc.model.api.exceptions.NotFoundException;
@@ -11,12 +12,15 @@ import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.objects.BinaryObject;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObject;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObjectLoader;
+import edu.unc.lib.boxc.model.api.rdf.Cdr;
 import edu.unc.lib.boxc.model.api.rdf.RDFModelUtil;
 import edu.unc.lib.boxc.model.fcrepo.ids.DatastreamPids;
+import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.model.fcrepo.ids.PidLockManager;
 
 /**
- * A PREMIS log for a repository object
+ * A PREMIS log for a repository object. The log is made up of the event log binary
+ * along with any segments of events appended to it.
  * @author bbpennel
  */
 public class RepositoryPremisLog implements PremisLog {
@@ -35,11 +39,30 @@ public class RepositoryPremisLog implements PremisLog {
         Lock logLock = lockManager.awaitReadLock(logPid);
         try {
             BinaryObject eventsObj = repoObjLoader.getBinaryObject(logPid);
-            return RDFModelUtil.createModel(eventsObj.getBinaryStream(), "N-TRIPLE");
+            return loadEventsModel(eventsObj);
         } catch (NotFoundException e) {
             return ModelFactory.createDefaultModel();
         } finally {
             logLock.unlock();
         }
     }
+
+    /**
+     * Load the events from the given event log binary combined with those from all of its segments.
+     * The caller is responsible for holding a lock on the log.
+     *
+     * @param eventsObj the event log binary
+     * @return model containing all events in the log
+     */
+    protected Model loadEventsModel(BinaryObject eventsObj) {
+        Model model = RDFModelUtil.createModel(eventsObj.getBinaryStream(), "N-TRIPLE");
+        // Add in events which were appended to the log as separate segments
+        StmtIterator segmentIt = eventsObj.getResource(true).listProperties(Cdr.hasEventsSegment);
+        while (segmentIt.hasNext()) {
+            PID segmentPid = PIDs.get(segmentIt.next().getResource().getURI());
+            BinaryObject segmentObj = repoObjLoader.getBinaryObject(segmentPid);
+            model.add(RDFModelUtil.createModel(segmentObj.getBinaryStream(), "N-TRIPLE"));
+        }
+        return model;
+    }
 }
@@ -21,6 +21,7 @@ import edu.unc.lib.boxc.model.api.ids.PID;
 public class DatastreamPids {
 
     public static final String HISTORY_SUFFIX = "_history";
+    public static final String SEGMENT_SUFFIX = "_segment_";
 
     private DatastreamPids() {
     }
@@ -96,4 +97,16 @@ public class DatastreamPids {
         String path = datastreamPid.getRepositoryPath() + HISTORY_SUFFIX;
         return PIDs.get(path);
     }
+
+    /**
+     * Get the PID for a segment of the given datastream, which stores content appended to it.
+     *
+     * @param datastreamPid pid of the datastream binary
+     * @param segmentId identifier of the segment
+     * @return segment object pid
+     */
+    public static PID getDatastreamSegmentPid(PID datastreamPid, String segmentId) {
+        String path = datastreamPid.getRepositoryPath() + SEGMENT_SUFFIX + segmentId;
+        return PIDs.get(path);
+    }
 }
@@ -99,6 +99,11 @@ public class BinaryObjectImpl extends AbstractRepositoryObject implements Binary
         return driver.getBinaryStream(this);
     }
 
+    @Override
+    public InputStream getBinaryStream(long start, long end) throws FedoraException {
+        return driver.getBinaryStream(this, start, end);
+    }
+
     /**
      * @return the URI where the content for this binary is located
      */
@@ -60,25 +60,20 @@ public class RepositoryObjectCacheLoader extends CacheLoader<PID, RepositoryObje
     }
 
     public RepositoryObject loadObject(PID pid) {
-        String etag;
+        // Objects without a component path are expected to be RDF resources, so they can be retrieved
+        // with a single request. Components, such as datastreams, are usually binaries, so check their
+        // type before requesting a body that may be the full content of the binary.
+        if (pid.getComponentPath() == null) {
+            return loadRdfObject(pid);
+        }
+
         try (FcrepoResponse response = client.head(pid.getRepositoryUri())
                 .perform()) {
 
-            boolean isBinary = response.hasType(BINARY_TYPE_URI);
-            etag = response.getHeaderValue("ETag");
-            if (etag != null) {
-                etag = new EntityTag(etag).getValue();
-            }
-
             // For binaries, pull out location of content and immediately instantiate binary obj
-            if (isBinary) {
+            if (response.hasType(BINARY_TYPE_URI)) {
                 log.debug("Loading object for binary {}", pid);
-                String contentLoc = response.getHeaderValue("Content-Location");
-                URI contentUri = null;
-                if (contentLoc != null) {
-                    contentUri = URI.create(contentLoc);
-                }
-                return instantiateBinaryObject(pid, contentUri, etag);
+                return instantiateBinaryObject(pid, getContentLocation(response), getEtag(response));
             }
         } catch (IOException e) {
             throw new FedoraException("Failed to read model for " + pid, e);
@@ -86,24 +81,44 @@ public class RepositoryObjectCacheLoader extends CacheLoader<PID, RepositoryObje
             throw ClientFaultResolver.resolve(e);
         }
 
-        log.debug("Loading object for RDF resource {}", pid);
-        // For non-binaries, retrieve the metadata body before instantiation
-        URI metadataUri = pid.getRepositoryUri();
+        return loadRdfObject(pid);
+    }
 
-        Model model;
-        try (FcrepoResponse modelResp = client.get(metadataUri)
+    private RepositoryObject loadRdfObject(PID pid) {
+        log.debug("Loading object for RDF resource {}", pid);
+        try (FcrepoResponse response = client.get(pid.getRepositoryUri())
                 .accept(TURTLE_MIMETYPE)
                 .perform()) {
 
-            model = ModelFactory.createDefaultModel();
-            model.read(modelResp.getBody(), null, "TURTLE");
+            String etag = getEtag(response);
+            // Fallback in case the resource turned out to be a binary
+            if (response.hasType(BINARY_TYPE_URI)) {
+                log.debug("Loading object for binary {}", pid);
+                return instantiateBinaryObject(pid, getContentLocation(response), etag);
+            }
+
+            Model model = ModelFactory.createDefaultModel();
+            model.read(response.getBody(), null, "TURTLE");
+
+            return instantiateRepositoryObject(pid, model, etag);
         } catch (IOException e) {
             throw new FedoraException("Failed to read model for " + pid, e);
         } catch (FcrepoOperationFailedException e) {
             throw ClientFaultResolver.resolve(e);
         }
+    }
+
+    private String getEtag(FcrepoResponse response) {
+        String etag = response.getHeaderValue("ETag");
+        if (etag != null) {
+            etag = new EntityTag(etag).getValue();
+        }
+        return etag;
+    }
 
-        return instantiateRepositoryObject(pid, model, etag);
+    private URI getContentLocation(FcrepoResponse response) {
+        String contentLoc = response.getHeaderValue("Content-Location");
+        return contentLoc == null ? null : URI.create(contentLoc);
     }
 
     /**
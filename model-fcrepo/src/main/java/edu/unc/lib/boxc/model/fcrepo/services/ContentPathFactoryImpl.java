@@ -3,11 +3,22 @@ package edu.unc.lib.boxc.model.fcrepo.services;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
@@ -16,9 +27,12 @@ import org.fcrepo.client.FcrepoOperationFailedException;
 import org.fcrepo.client.FcrepoResponse;
 import org.slf4j.Logger;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
 import edu.unc.lib.boxc.fcrepo.utils.ClientFaultResolver;
@@ -29,11 +43,18 @@ import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.rdf.PcdmModels;
 import edu.unc.lib.boxc.model.api.rdf.RDFModelUtil;
 import edu.unc.lib.boxc.model.api.services.ContentPathFactory;
+import edu.unc.lib.boxc.model.api.sparql.SparqlQueryService;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.model.fcrepo.ids.RepositoryPaths;
 
 /**
- * Factory for retrieving path information for content objects
+ * Factory for retrieving path information for content objects.
+ *
+ * Child to parent relations are cached individually, while the full path of each container is cached so that
+ * siblings share the same ancestor list. The direct parent of an object is always retrieved from fedora. If a
+ * sparql query service is provided, the chain of ancestors above that parent is then prefetched from the
+ * triplestore in a single query rather than one request to fedora per ancestor. Since the triplestore is
+ * updated asynchronously, relations for recently invalidated objects are never taken from it.
  *
  * @author bbpennel
  *
@@ -44,16 +65,38 @@ public class ContentPathFactoryImpl implements ContentPathFactory {
     private static int MAX_NESTING = 256;
 
     private LoadingCache<PID, PID> childToParentCache;
+    // Full path of containers, from the content root to and including the container itself
+    private Cache<PID, List<PID>> containerPathCache;
+    // Index from each pid to the cached container paths which include it
+    private Map<PID, Set<PID>> containerPathIndex = new ConcurrentHashMap<>();
+    // Objects invalidated recently enough that the triplestore may not reflect their changes yet
+    private Cache<PID, Boolean> recentlyInvalidated;
     private long cacheTimeToLive;
     private long cacheMaxSize;
+    private long invalidationWindow = 60000;
 
     private FcrepoClient fcrepoClient;
+    private SparqlQueryService sparqlQueryService;
 
     public void init() {
         childToParentCache = CacheBuilder.newBuilder()
                 .maximumSize(cacheMaxSize)
                 .expireAfterWrite(cacheTimeToLive, TimeUnit.MILLISECONDS)
                 .build(new ChildToParentCacheLoader());
+        containerPathCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTimeToLive, TimeUnit.MILLISECONDS)
+                .removalListener((RemovalNotification<PID, List<PID>> notification) -> {
+                    // Replaced paths are reindexed by the caller
+                    if (notification.getCause() != RemovalCause.REPLACED) {
+                        unindexContainerPath(notification.getKey(), notification.getValue());
+                    }
+                })
+                .build();
+        recentlyInvalidated = CacheBuilder.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(invalidationWindow, TimeUnit.MILLISECONDS)
+                .build();
     }
 
     /**
@@ -83,25 +126,152 @@ public class ContentPathFactoryImpl implements ContentPathFactory {
     @Override
     public void invalidate(PID pid) {
         childToParentCache.invalidate(pid);
+        if (sparqlQueryService != null) {
+            recentlyInvalidated.put(pid, Boolean.TRUE);
+        }
+        // Clear the cached paths of the object and any containers beneath it, in case it was moved
+        containerPathCache.invalidate(pid);
+        Set<PID> affectedPaths = containerPathIndex.remove(pid);
+        if (affectedPaths != null) {
+            containerPathCache.invalidateAll(affectedPaths);
+        }
+    }
+
+    @Override
+    public void preloadAncestors(Collection<PID> pids) {
+        if (sparqlQueryService == null || pids.isEmpty()) {
+            return;
+        }
+        Map<PID, PID> relations = retrieveAncestorRelations(pids);
+        // Direct parents of the requested objects are left to be verified against fedora
+        relations.keySet().removeAll(pids);
+        int added = cacheAncestorRelations(relations);
+        log.debug("Preloaded {} child to parent relations for {} objects", added, pids.size());
+    }
+
+    /**
+     * Cache relations retrieved from the triplestore, without replacing any already cached relations or
+     * including relations for objects which were recently invalidated
+     * @param childToParent
+     * @return number of relations added
+     */
+    private int cacheAncestorRelations(Map<PID, PID> childToParent) {
+        Map<PID, PID> cached = childToParentCache.asMap();
+        int added = 0;
+        for (Map.Entry<PID, PID> entry : childToParent.entrySet()) {
+            if (recentlyInvalidated.getIfPresent(entry.getKey()) != null) {
+                continue;
+            }
+            if (cached.putIfAbsent(entry.getKey(), entry.getValue()) == null) {
+                added++;
+            }
+        }
+        return added;
     }
 
     private List<PID> buildPath(PID pid) {
-        PID currentPid = pid;
-        List<PID> result = new ArrayList<>();
+        if (RepositoryPaths.getContentRootPid().equals(pid)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(getContainerPath(getParent(pid), pid));
+    }
 
-        int depth = 0;
-        while (!RepositoryPaths.getContentRootPid().equals(currentPid) && ++depth < MAX_NESTING) {
-            currentPid = childToParentCache.getUnchecked(currentPid);
-            result.add(currentPid);
+    /**
+     * @param containerPid
+     * @param startPid pid the path is being built for, used for reporting errors
+     * @return list of pids from the content root to the container, including the container
+     */
+    private List<PID> getContainerPath(PID containerPid, PID startPid) {
+        Deque<PID> uncached = new ArrayDeque<>();
+        PID currentPid = containerPid;
+        List<PID> path = containerPathCache.getIfPresent(currentPid);
+        while (path == null) {
+            if (RepositoryPaths.getContentRootPid().equals(currentPid)) {
+                path = Collections.emptyList();
+                break;
+            }
+            uncached.push(currentPid);
+            if (uncached.size() >= MAX_NESTING) {
+                throw new ObjectHierarchyException("Encountered at least " + uncached.size() + " ancestors for "
+                        + startPid + ", it is either nested too deeply or in a circular hierarchy.");
+            }
+            currentPid = getParent(currentPid);
+            path = containerPathCache.getIfPresent(currentPid);
         }
 
-        if (depth >= MAX_NESTING) {
-            throw new ObjectHierarchyException("Encountered at least " + depth + " ancestors for " + pid
-                    + ", it is either nested too deeply or in a circular hierarchy.");
+        // Build and cache the paths of each container which was not already cached, starting from the top
+        if (path.isEmpty()) {
+            path = Collections.singletonList(currentPid);
+            cacheContainerPath(currentPid, path);
+        }
+        while (!uncached.isEmpty()) {
+            PID pathPid = uncached.pop();
+            List<PID> childPath = new ArrayList<>(path.size() + 1);
+            childPath.addAll(path);
+            childPath.add(pathPid);
+            path = Collections.unmodifiableList(childPath);
+            cacheContainerPath(pathPid, path);
         }
+        return path;
+    }
 
-        Collections.reverse(result);
-        return result;
+    private void cacheContainerPath(PID containerPid, List<PID> path) {
+        containerPathCache.put(containerPid, path);
+        for (PID pathPid : path) {
+            containerPathIndex.computeIfAbsent(pathPid, k -> ConcurrentHashMap.newKeySet()).add(containerPid);
+        }
+    }
+
+    private void unindexContainerPath(PID containerPid, List<PID> path) {
+        for (PID pathPid : path) {
+            containerPathIndex.computeIfPresent(pathPid, (k, containers) -> {
+                containers.remove(containerPid);
+                return containers.isEmpty() ? null : containers;
+            });
+        }
+    }
+
+    private PID getParent(PID pid) {
+        PID parentPid = childToParentCache.getIfPresent(pid);
+        if (parentPid != null) {
+            return parentPid;
+        }
+        // The direct parent is verified against fedora, since the triplestore may not reflect recent moves
+        parentPid = childToParentCache.getUnchecked(pid);
+        if (sparqlQueryService != null && !RepositoryPaths.getContentRootPid().equals(parentPid)
+                && containerPathCache.getIfPresent(parentPid) == null
+                && childToParentCache.getIfPresent(parentPid) == null) {
+            cacheAncestorRelations(retrieveAncestorRelations(Collections.singletonList(parentPid)));
+        }
+        return parentPid;
+    }
+
+    /**
+     * Retrieve the full chain of pcdm:memberOf relations above each of the provided objects
+     * @param pids
+     * @return map of child to parent relations
+     */
+    private Map<PID, PID> retrieveAncestorRelations(Collection<PID> pids) {
+        String values = pids.stream()
+                .map(pid -> "<" + pid.getRepositoryPath() + ">")
+                .collect(Collectors.joining(" "));
+        String queryString = String.format("select ?child ?parent where {"
+                + " values ?start { %1$s } ?start <%2$s>* ?child . ?child <%2$s> ?parent }",
+                values, PcdmModels.memberOf.getURI());
+
+        Map<PID, PID> childToParent = new HashMap<>();
+        try (QueryExecution qexec = sparqlQueryService.executeQuery(queryString)) {
+            ResultSet results = qexec.execSelect();
+            while (results.hasNext()) {
+                QuerySolution soln = results.nextSolution();
+                Resource child = soln.getResource("child");
+                Resource parent = soln.getResource("parent");
+                if (child != null && parent != null) {
+                    childToParent.put(PIDs.get(child.getURI()), PIDs.get(parent.getURI()));
+                }
+            }
+        }
+        return childToParent;
     }
 
     public void setCacheTimeToLive(long cacheTimeToLive) {
@@ -112,10 +282,25 @@ public class ContentPathFactoryImpl implements ContentPathFactory {
         this.cacheMaxSize = cacheMaxSize;
     }
 
+    /**
+     * @param invalidationWindow milliseconds after an object is invalidated during which its relations will
+     *      only be retrieved from fedora
+     */
+    public void setInvalidationWindow(long invalidationWindow) {
+        this.invalidationWindow = invalidationWindow;
+    }
+
     public void setFcrepoClient(FcrepoClient fcrepoClient) {
         this.fcrepoClient = fcrepoClient;
     }
 
+    /**
+     * @param sparqlQueryService optional query service used for retrieving ancestors in bulk
+     */
+    public void setSparqlQueryService(SparqlQueryService sparqlQueryService) {
+        this.sparqlQueryService = sparqlQueryService;
+    }
+
     private class ChildToParentCacheLoader extends CacheLoader<PID, PID> {
         @Override
         public PID load(PID pid) {
@@ -178,6 +178,28 @@ public class RepositoryObjectDriver {
         }
     }
 
+    /**
+     * Retrieve a range of the binary content for the given BinaryObject as an inputstream
+     *
+     * @param obj
+     * @param start offset of the first byte to retrieve
+     * @param end offset of the last byte to retrieve, inclusive
+     * @return
+     * @throws FedoraException
+     */
+    public InputStream getBinaryStream(BinaryObject obj, long start, long end) throws FedoraException {
+        PID pid = obj.getPid();
+
+        try {
+            FcrepoResponse response = getClient().get(pid.getRepositoryUri())
+                    .range(start, end)
+                    .perform();
+            return response.getBody();
+        } catch (FcrepoOperationFailedException e) {
+            throw ClientFaultResolver.resolve(e);
+        }
+    }
+
     /**
      * Retrieves the parent container of the provided object following a parent to child relationship
      *
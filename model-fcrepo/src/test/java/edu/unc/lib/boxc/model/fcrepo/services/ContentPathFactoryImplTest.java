@@ -0,0 +1,213 @@
+package edu.unc.lib.boxc.model.fcrepo.services;
+
+import edu.unc.lib.boxc.common.test.SelfReturningAnswer;
+import edu.unc.lib.boxc.model.api.exceptions.ObjectHierarchyException;
+import edu.unc.lib.boxc.model.api.ids.PID;
+import edu.unc.lib.boxc.model.api.rdf.PcdmModels;
+import edu.unc.lib.boxc.model.fcrepo.ids.DatastreamPids;
+import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
+import edu.unc.lib.boxc.model.fcrepo.ids.RepositoryPaths;
+import edu.unc.lib.boxc.model.fcrepo.sparql.JenaSparqlQueryServiceImpl;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.fcrepo.client.FcrepoClient;
+import org.fcrepo.client.FcrepoResponse;
+import org.fcrepo.client.GetBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static edu.unc.lib.boxc.model.api.rdf.RDFModelUtil.streamModel;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author bbpennel
+ */
+public class ContentPathFactoryImplTest {
+    private FcrepoClient fcrepoClient;
+    // Current state of the repository, as returned by fedora
+    private Model fedoraModel;
+    // State of the triplestore, which may lag behind fedora
+    private Model model;
+    private JenaSparqlQueryServiceImpl sparqlQueryService;
+    private ContentPathFactoryImpl pathFactory;
+
+    private PID rootPid;
+    private PID unitPid;
+    private PID collPid;
+    private PID folderPid;
+
+    @BeforeEach
+    public void setup() {
+        fcrepoClient = mock(FcrepoClient.class, invocation -> mockGetRequest((URI) invocation.getArgument(0)));
+        fedoraModel = ModelFactory.createDefaultModel();
+        model = ModelFactory.createDefaultModel();
+        sparqlQueryService = spy(new JenaSparqlQueryServiceImpl(model));
+
+        pathFactory = new ContentPathFactoryImpl();
+        pathFactory.setCacheMaxSize(100);
+        pathFactory.setCacheTimeToLive(10000);
+        pathFactory.setFcrepoClient(fcrepoClient);
+        pathFactory.setSparqlQueryService(sparqlQueryService);
+        pathFactory.init();
+
+        rootPid = RepositoryPaths.getContentRootPid();
+        unitPid = addMember(rootPid);
+        collPid = addMember(unitPid);
+        folderPid = addMember(collPid);
+    }
+
+    @Test
+    public void getAncestorPidsTest() {
+        PID workPid = addMember(folderPid);
+
+        List<PID> ancestors = pathFactory.getAncestorPids(workPid);
+
+        assertEquals(Arrays.asList(rootPid, unitPid, collPid, folderPid), ancestors);
+        // Direct parent is verified in fedora, the rest of the ancestors are prefetched in one query
+        verify(fcrepoClient).get(workPid.getRepositoryUri());
+        verify(fcrepoClient, times(1)).get(any(URI.class));
+        verify(sparqlQueryService).executeQuery(anyString());
+    }
+
+    @Test
+    public void getAncestorPidsSiblingsTest() {
+        PID work1Pid = addMember(folderPid);
+        PID work2Pid = addMember(folderPid);
+
+        assertEquals(Arrays.asList(rootPid, unitPid, collPid, folderPid), pathFactory.getAncestorPids(work1Pid));
+        assertEquals(Arrays.asList(rootPid, unitPid, collPid, folderPid), pathFactory.getAncestorPids(work2Pid));
+        assertEquals(Arrays.asList(rootPid, unitPid, collPid), pathFactory.getAncestorPids(folderPid));
+
+        // Only the parent of the second work needed to be retrieved, and its ancestors were already cached
+        verify(fcrepoClient, times(2)).get(any(URI.class));
+        verify(sparqlQueryService).executeQuery(anyString());
+    }
+
+    @Test
+    public void getAncestorPidsForComponentTest() {
+        PID filePid = addMember(folderPid);
+        PID originalPid = DatastreamPids.getOriginalFilePid(filePid);
+
+        List<PID> ancestors = pathFactory.getAncestorPids(originalPid);
+
+        assertEquals(Arrays.asList(rootPid, unitPid, collPid, folderPid, filePid), ancestors);
+    }
+
+    @Test
+    public void getAncestorPidsForContentRootTest() {
+        assertEquals(0, pathFactory.getAncestorPids(rootPid).size());
+    }
+
+    @Test
+    public void preloadAncestorsTest() {
+        PID work1Pid = addMember(folderPid);
+        PID work2Pid = addMember(collPid);
+
+        pathFactory.preloadAncestors(Arrays.asList(work1Pid, work2Pid));
+
+        assertEquals(Arrays.asList(rootPid, unitPid, collPid, folderPid), pathFactory.getAncestorPids(work1Pid));
+        assertEquals(Arrays.asList(rootPid, unitPid, collPid), pathFactory.getAncestorPids(work2Pid));
+        verify(sparqlQueryService).executeQuery(anyString());
+        // Only the direct parents are retrieved from fedora
+        verify(fcrepoClient).get(work1Pid.getRepositoryUri());
+        verify(fcrepoClient).get(work2Pid.getRepositoryUri());
+        verify(fcrepoClient, times(2)).get(any(URI.class));
+    }
+
+    @Test
+    public void preloadAncestorsStaleTriplestoreTest() {
+        PID workPid = addMember(folderPid);
+
+        // Move the work into another folder, before the triplestore has been updated
+        PID folder2Pid = addMember(collPid);
+        Resource workResc = fedoraModel.getResource(workPid.getRepositoryPath());
+        workResc.removeAll(PcdmModels.memberOf);
+        workResc.addProperty(PcdmModels.memberOf, fedoraModel.getResource(folder2Pid.getRepositoryPath()));
+
+        pathFactory.preloadAncestors(Arrays.asList(workPid));
+
+        assertEquals(Arrays.asList(rootPid, unitPid, collPid, folder2Pid), pathFactory.getAncestorPids(workPid));
+    }
+
+    @Test
+    public void invalidateMovedContainerTest() {
+        PID workPid = addMember(folderPid);
+        assertEquals(Arrays.asList(rootPid, unitPid, collPid, folderPid), pathFactory.getAncestorPids(workPid));
+
+        // Move the folder into another collection, before the triplestore has been updated
+        PID coll2Pid = addMember(unitPid);
+        Resource folderResc = fedoraModel.getResource(folderPid.getRepositoryPath());
+        folderResc.removeAll(PcdmModels.memberOf);
+        folderResc.addProperty(PcdmModels.memberOf, fedoraModel.getResource(coll2Pid.getRepositoryPath()));
+        pathFactory.invalidate(folderPid);
+
+        assertEquals(Arrays.asList(rootPid, unitPid, coll2Pid, folderPid), pathFactory.getAncestorPids(workPid));
+        assertEquals(Arrays.asList(rootPid, unitPid, coll2Pid), pathFactory.getAncestorPids(folderPid));
+    }
+
+    @Test
+    public void preloadAncestorsIgnoresInvalidatedTest() {
+        // Move the folder into another collection, before the triplestore has been updated
+        PID coll2Pid = addMember(unitPid);
+        Resource folderResc = fedoraModel.getResource(folderPid.getRepositoryPath());
+        folderResc.removeAll(PcdmModels.memberOf);
+        folderResc.addProperty(PcdmModels.memberOf, fedoraModel.getResource(coll2Pid.getRepositoryPath()));
+        pathFactory.invalidate(folderPid);
+
+        pathFactory.preloadAncestors(Arrays.asList(folderPid));
+
+        assertEquals(Arrays.asList(rootPid, unitPid, coll2Pid), pathFactory.getAncestorPids(folderPid));
+        verify(fcrepoClient).get(folderPid.getRepositoryUri());
+    }
+
+    @Test
+    public void circularHierarchyTest() {
+        PID loop1Pid = makePid();
+        PID loop2Pid = makePid();
+        addRelation(loop1Pid, loop2Pid);
+        addRelation(loop2Pid, loop1Pid);
+
+        assertThrows(ObjectHierarchyException.class, () -> pathFactory.getAncestorPids(loop1Pid));
+    }
+
+    private PID addMember(PID parentPid) {
+        PID pid = makePid();
+        addRelation(pid, parentPid);
+        return pid;
+    }
+
+    private void addRelation(PID childPid, PID parentPid) {
+        for (Model m : Arrays.asList(fedoraModel, model)) {
+            m.getResource(childPid.getRepositoryPath())
+                    .addProperty(PcdmModels.memberOf, m.getResource(parentPid.getRepositoryPath()));
+        }
+    }
+
+    private GetBuilder mockGetRequest(URI uri) throws Exception {
+        Model objModel = ModelFactory.createDefaultModel();
+        objModel.add(fedoraModel.getResource(uri.toString()).listProperties());
+        FcrepoResponse response = mock(FcrepoResponse.class);
+        when(response.getBody()).thenReturn(streamModel(objModel));
+        GetBuilder builder = mock(GetBuilder.class, new SelfReturningAnswer());
+        when(builder.perform()).thenReturn(response);
+        return builder;
+    }
+
+    private PID makePid() {
+        return PIDs.get(UUID.randomUUID().toString());
+    }
+}
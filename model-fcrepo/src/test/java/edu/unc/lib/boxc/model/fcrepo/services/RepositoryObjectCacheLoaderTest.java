@@ -4,12 +4,16 @@ import static edu.unc.lib.boxc.model.api.rdf.RDFModelUtil.streamModel;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.UUID;
 
 import org.apache.jena.rdf.model.Model;
@@ -43,6 +47,7 @@ import edu.unc.lib.boxc.model.api.objects.WorkObject;
 import edu.unc.lib.boxc.model.api.rdf.Cdr;
 import edu.unc.lib.boxc.model.api.rdf.Fcrepo4Repository;
 import edu.unc.lib.boxc.model.api.rdf.Ldp;
+import edu.unc.lib.boxc.model.fcrepo.ids.DatastreamPids;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.model.fcrepo.objects.RepositoryObjectCacheLoader;
 
@@ -115,6 +120,7 @@ public class RepositoryObjectCacheLoaderTest {
         assertEquals(pid, obj.getPid());
         assertEquals(ETAG, obj.getEtag());
         assertTrue(obj.getResource().hasProperty(RDF.type, Cdr.Work));
+        verify(client, never()).head(any(URI.class));
     }
 
     @Test
@@ -195,6 +201,21 @@ public class RepositoryObjectCacheLoaderTest {
         assertTrue(obj.getResource().hasProperty(RDF.type, Ldp.NonRdfSource));
     }
 
+    @Test
+    public void loadDatastreamBinaryTest() throws Exception {
+        PID binPid = DatastreamPids.getOriginalFilePid(pid);
+        when(response.hasType(any(URI.class))).thenReturn(true);
+        when(response.getHeaderValue(eq("Content-Location"))).thenReturn("file:///path/to/file.txt");
+
+        RepositoryObject obj = objectCacheLoader.load(binPid);
+
+        assertTrue(obj instanceof BinaryObject);
+        assertEquals(binPid, obj.getPid());
+        assertEquals(ETAG, obj.getEtag());
+        assertEquals(URI.create("file:///path/to/file.txt"), ((BinaryObject) obj).getContentUri());
+        verify(client, never()).get(any(URI.class));
+    }
+
     @Test
     public void loadUnsupportedTypeTest() throws Exception {
         Assertions.assertThrows(ObjectTypeMismatchException.class, () -> {
@@ -1,5 +1,7 @@
 package edu.unc.lib.boxc.operations.jms;
 
+import javax.jms.TextMessage;
+
 import org.jdom2.Document;
 import org.jdom2.output.XMLOutputter;
 import org.springframework.jms.core.JmsTemplate;
@@ -13,6 +15,11 @@ import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.ATOM_NS;
  *
  */
 public class MessageSender {
+    /**
+     * Message property identifying the format of the message body, when it is not Atom XML
+     */
+    public static final String MESSAGE_FORMAT_PROPERTY = "CdrMessageFormat";
+
     protected JmsTemplate jmsTemplate;
 
     public void sendMessage(Document msg) {
@@ -22,12 +29,26 @@ public class MessageSender {
     }
 
     public void sendMessage(String msgStr) {
+        sendMessage(msgStr, null);
+    }
+
+    /**
+     * Send a message with the given body
+     *
+     * @param msgStr body of the message
+     * @param format format of the body, recorded in the message format property. If null, no format is recorded.
+     */
+    public void sendMessage(String msgStr, String format) {
         jmsTemplate.send(session -> {
             // Committing the session to flush changes in long running threads
             if (session.getTransacted()) {
                 session.commit();
             }
-            return session.createTextMessage(msgStr);
+            TextMessage msg = session.createTextMessage(msgStr);
+            if (format != null) {
+                msg.setStringProperty(MESSAGE_FORMAT_PROPERTY, format);
+            }
+            return msg;
         });
     }
 
@@ -0,0 +1,88 @@
+package edu.unc.lib.boxc.operations.jms.indexing;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * Contents of a request to index one or more objects, independent of the format used to transmit it
+ *
+ * @author bbpennel
+ */
+@JsonInclude(Include.NON_EMPTY)
+public class IndexingMessage {
+    private String userid;
+    private String pid;
+    private IndexingActionType actionType;
+    private List<String> children;
+    private Map<String, String> params;
+    private IndexingPriority priority;
+
+    /**
+     * @return id of the user who triggered the operation
+     */
+    public String getUserid() {
+        return userid;
+    }
+
+    public void setUserid(String userid) {
+        this.userid = userid;
+    }
+
+    /**
+     * @return identifier of the object to index
+     */
+    public String getPid() {
+        return pid;
+    }
+
+    public void setPid(String pid) {
+        this.pid = pid;
+    }
+
+    /**
+     * @return type of indexing action to perform
+     */
+    public IndexingActionType getActionType() {
+        return actionType;
+    }
+
+    public void setActionType(IndexingActionType actionType) {
+        this.actionType = actionType;
+    }
+
+    /**
+     * @return identifiers of other objects to index, or null if none were specified
+     */
+    public List<String> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<String> children) {
+        this.children = children;
+    }
+
+    /**
+     * @return additional parameters for the action, or null if none were specified
+     */
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public void setParams(Map<String, String> params) {
+        this.params = params;
+    }
+
+    /**
+     * @return priority of the operation, or null if not specified
+     */
+    public IndexingPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(IndexingPriority priority) {
+        this.priority = priority;
+    }
+}
@@ -3,15 +3,21 @@ package edu.unc.lib.boxc.operations.jms.indexing;
 import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.ATOM_NS;
 import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.CDR_MESSAGE_NS;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.stream.Collectors;
 
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
 import edu.unc.lib.boxc.model.api.ids.PID;
 
 /**
@@ -24,9 +30,97 @@ import edu.unc.lib.boxc.model.api.ids.PID;
 public class IndexingMessageHelper {
     private static final Logger log = LoggerFactory.getLogger(IndexingMessageHelper.class);
 
+    /**
+     * Value of the message format property identifying version 1 of the JSON indexing message format.
+     * Messages without a format property are Atom XML.
+     */
+    public static final String JSON_FORMAT_V1 = "indexing-json-1";
+
+    private static final ObjectWriter MESSAGE_WRITER;
+    private static final ObjectReader MESSAGE_READER;
+    static {
+        ObjectMapper mapper = new ObjectMapper();
+        MESSAGE_WRITER = mapper.writerFor(IndexingMessage.class);
+        MESSAGE_READER = mapper.readerFor(IndexingMessage.class);
+    }
+
     private IndexingMessageHelper() {
     }
 
+    public static IndexingMessage makeIndexingMessage(String userid, PID targetPid, Collection<PID> children,
+            IndexingActionType actionType, Map<String, String> params, IndexingPriority priority) {
+        IndexingMessage msg = new IndexingMessage();
+        msg.setUserid(userid);
+        msg.setPid(targetPid.getQualifiedId());
+        msg.setActionType(actionType);
+        if (children != null && children.size() > 0) {
+            msg.setChildren(children.stream().map(PID::getQualifiedId).collect(Collectors.toList()));
+        }
+        msg.setParams(params);
+        msg.setPriority(priority);
+        return msg;
+    }
+
+    /**
+     * Transform an indexing message into a JSON string
+     * @param msg
+     * @return
+     * @throws IOException
+     */
+    public static String toJson(IndexingMessage msg) throws IOException {
+        return MESSAGE_WRITER.writeValueAsString(msg);
+    }
+
+    /**
+     * Transform a JSON string into an indexing message
+     * @param json
+     * @return
+     * @throws IOException
+     */
+    public static IndexingMessage fromJson(String json) throws IOException {
+        return MESSAGE_READER.readValue(json);
+    }
+
+    /**
+     * Transform an Atom XML indexing message body into an indexing message
+     * @param doc
+     * @return
+     */
+    public static IndexingMessage fromDocument(Document doc) {
+        Element body = doc.getRootElement();
+        IndexingMessage msg = new IndexingMessage();
+
+        Element authorEl = body.getChild("author", ATOM_NS);
+        if (authorEl != null) {
+            msg.setUserid(authorEl.getChildText("name", ATOM_NS));
+        }
+        msg.setPid(body.getChildTextTrim("pid", ATOM_NS));
+        msg.setActionType(IndexingActionType.getAction(body.getChildTextTrim("actionType", ATOM_NS)));
+
+        Element childrenEl = body.getChild("children", CDR_MESSAGE_NS);
+        if (childrenEl != null) {
+            msg.setChildren(childrenEl.getChildren("pid", CDR_MESSAGE_NS).stream()
+                    .map(Element::getTextTrim)
+                    .collect(Collectors.toList()));
+        }
+
+        Element paramsEl = body.getChild("params", CDR_MESSAGE_NS);
+        if (paramsEl != null) {
+            msg.setParams(paramsEl.getChildren("param", CDR_MESSAGE_NS).stream()
+                    .collect(Collectors.toMap(p -> p.getAttributeValue("name"), Element::getTextTrim)));
+        }
+
+        String priority = body.getChildTextTrim("category", ATOM_NS);
+        if (priority != null) {
+            try {
+                msg.setPriority(IndexingPriority.valueOf(priority));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unknown indexing priority {} for {}", priority, msg.getPid());
+            }
+        }
+        return msg;
+    }
+
     public static Document makeIndexingOperationBody(String userid, PID targetPid, Collection<PID> children,
             IndexingActionType actionType) {
         return makeIndexingOperationBody(userid, targetPid, children, actionType, null, null);
@@ -1,7 +1,12 @@
 package edu.unc.lib.boxc.operations.jms.indexing;
 
+import static edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper.JSON_FORMAT_V1;
+import static edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper.makeIndexingMessage;
 import static edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper.makeIndexingOperationBody;
+import static edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper.toJson;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
 import java.util.Map;
 
@@ -21,6 +26,8 @@ public class IndexingMessageSender extends MessageSender {
 
     private static final Logger LOG = LoggerFactory.getLogger(IndexingMessageSender.class);
 
+    private boolean jsonFormat = false;
+
     /**
      * Adds message to JMS queue for object(s) to be reindexed.
      *
@@ -57,10 +64,26 @@ public class IndexingMessageSender extends MessageSender {
      */
     public void sendIndexingOperation(String userid, PID targetPid, Collection<PID> children,
             IndexingActionType actionType, Map<String, String> parameters, IndexingPriority priority) {
-        Document msg = makeIndexingOperationBody(userid, targetPid, children, actionType, parameters, priority);
-
         LOG.debug("sending solr update message for {} of type {}", targetPid, actionType.toString());
-        sendMessage(msg);
+        if (jsonFormat) {
+            IndexingMessage msg = makeIndexingMessage(userid, targetPid, children, actionType, parameters, priority);
+            try {
+                sendMessage(toJson(msg), JSON_FORMAT_V1);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to serialize indexing message for " + targetPid, e);
+            }
+        } else {
+            Document msg = makeIndexingOperationBody(userid, targetPid, children, actionType, parameters, priority);
+            sendMessage(msg);
+        }
         LOG.debug("sent indexing operation JMS message using JMS template: {}", this.getJmsTemplate());
     }
+
+    /**
+     * @param jsonFormat if true, messages are sent in the compact JSON format rather than Atom XML. Consumers
+     *      must support the JSON format before enabling.
+     */
+    public void setJsonFormat(boolean jsonFormat) {
+        this.jsonFormat = jsonFormat;
+    }
 }
@@ -0,0 +1,121 @@
+package edu.unc.lib.boxc.operations.jms.indexing;
+
+import static edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper.fromDocument;
+import static edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper.fromJson;
+import static edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper.makeIndexingMessage;
+import static edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper.makeIndexingOperationBody;
+import static edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper.toJson;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.jdom2.Document;
+import org.jdom2.output.XMLOutputter;
+import org.junit.jupiter.api.Test;
+
+import edu.unc.lib.boxc.model.api.ids.PID;
+import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
+
+/**
+ * @author bbpennel
+ */
+public class IndexingMessageHelperTest {
+    private static final String USER = "someuser";
+
+    @Test
+    public void jsonRoundTripTest() throws Exception {
+        PID targetPid = makePid();
+        List<PID> children = makePids(3);
+        Map<String, String> params = Map.of("timestamp", "2021-01-01T00:00:00Z");
+
+        IndexingMessage msg = makeIndexingMessage(USER, targetPid, children, IndexingActionType.ADD,
+                params, IndexingPriority.low);
+        IndexingMessage result = fromJson(toJson(msg));
+
+        assertEquals(USER, result.getUserid());
+        assertEquals(targetPid, PIDs.get(result.getPid()));
+        assertEquals(IndexingActionType.ADD, result.getActionType());
+        assertEquals(children, toPids(result.getChildren()));
+        assertEquals(params, result.getParams());
+        assertEquals(IndexingPriority.low, result.getPriority());
+    }
+
+    @Test
+    public void jsonOmitsEmptyFieldsTest() throws Exception {
+        PID targetPid = makePid();
+
+        IndexingMessage msg = makeIndexingMessage(USER, targetPid, new ArrayList<>(),
+                IndexingActionType.UPDATE_ACCESS, null, null);
+        String json = toJson(msg);
+        IndexingMessage result = fromJson(json);
+
+        assertTrue(!json.contains("children") && !json.contains("params") && !json.contains("priority"));
+        assertEquals(IndexingActionType.UPDATE_ACCESS, result.getActionType());
+        assertNull(result.getChildren());
+        assertNull(result.getParams());
+        assertNull(result.getPriority());
+    }
+
+    @Test
+    public void fromDocumentTest() throws Exception {
+        PID targetPid = makePid();
+        List<PID> children = makePids(2);
+        Map<String, String> params = Map.of("param1", "value1");
+
+        Document doc = makeIndexingOperationBody(USER, targetPid, children, IndexingActionType.MOVE,
+                params, IndexingPriority.high);
+        IndexingMessage result = fromDocument(doc);
+
+        assertEquals(USER, result.getUserid());
+        assertEquals(targetPid, PIDs.get(result.getPid()));
+        assertEquals(IndexingActionType.MOVE, result.getActionType());
+        assertEquals(children, toPids(result.getChildren()));
+        assertEquals(params, result.getParams());
+        assertEquals(IndexingPriority.high, result.getPriority());
+    }
+
+    @Test
+    public void fromDocumentNoChildrenTest() throws Exception {
+        Document doc = makeIndexingOperationBody(USER, makePid(), null, IndexingActionType.ADD);
+        IndexingMessage result = fromDocument(doc);
+
+        assertNull(result.getChildren());
+        assertNull(result.getParams());
+        assertNull(result.getPriority());
+    }
+
+    @Test
+    public void jsonSmallerThanXmlTest() throws Exception {
+        PID targetPid = makePid();
+        List<PID> children = makePids(500);
+
+        String xml = new XMLOutputter().outputString(
+                makeIndexingOperationBody(USER, targetPid, children, IndexingActionType.ADD));
+        String json = toJson(makeIndexingMessage(USER, targetPid, children, IndexingActionType.ADD, null, null));
+
+        assertTrue(json.length() < xml.length() / 2,
+                "Expected JSON length " + json.length() + " to be under half the XML length " + xml.length());
+    }
+
+    private PID makePid() {
+        return PIDs.get(UUID.randomUUID().toString());
+    }
+
+    private List<PID> makePids(int count) {
+        List<PID> pids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pids.add(makePid());
+        }
+        return pids;
+    }
+
+    private List<PID> toPids(List<String> ids) {
+        return ids.stream().map(PIDs::get).collect(Collectors.toList());
+    }
+}
@@ -2,19 +2,28 @@ package edu.unc.lib.boxc.operations.impl.events;
 
 import static edu.unc.lib.boxc.model.fcrepo.ids.DatastreamPids.getMdEventsPid;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 
 import org.apache.commons.lang3.NotImplementedException;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
 import org.apache.jena.vocabulary.RDF;
 
 import edu.unc.lib.boxc.model.api.exceptions.ObjectPersistenceException;
@@ -71,7 +80,8 @@ public class FilePremisLogger implements PremisLogger {
     }
 
     /**
-     * Adds an event to the log file
+     * Appends events to the log file. Only the triples of the new events are written,
+     * along with the representation statement when the log is first created.
      *
      * @param eventResources
      * @return
@@ -80,25 +90,36 @@ public class FilePremisLogger implements PremisLogger {
     public PremisLogger writeEvents(Resource... eventResources) {
         Lock logLock = lockManager.awaitWriteLock(logPid);
         try {
-            Model logModel = getModel();
-            // For new logs, add in representation statement
-            if (!premisFile.exists()) {
-                Resource repoObjResc = logModel.getResource(objectPid.getRepositoryPath());
-                repoObjResc.addProperty(RDF.type, Premis.Representation);
-            }
-
-            // Add the events to the model for this event log
+            boolean newLog = !premisFile.exists() || premisFile.length() == 0;
+            Set<Model> eventModels = Collections.newSetFromMap(new IdentityHashMap<>());
             for (Resource eventResc: eventResources) {
-                logModel.add(eventResc.getModel());
+                eventModels.add(eventResc.getModel());
             }
 
-            // Persist the log to file
-            try (FileOutputStream rdfFile = new FileOutputStream(premisFile)) {
-                RDFDataMgr.write(rdfFile, logModel, RDFFormat.NTRIPLES);
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(premisFile, true))) {
+                StreamRDF stream = StreamRDFWriter.getWriterStream(out, RDFFormat.NTRIPLES);
+                stream.start();
+                // For new logs, add in representation statement
+                if (newLog) {
+                    stream.triple(Triple.create(NodeFactory.createURI(objectPid.getRepositoryPath()),
+                            RDF.type.asNode(), Premis.Representation.asNode()));
+                }
+                for (Model eventModel : eventModels) {
+                    eventModel.getGraph().find().forEachRemaining(stream::triple);
+                }
+                stream.finish();
             } catch (IOException e) {
                 throw new ObjectPersistenceException("Failed to stream PREMIS log to file for " + objectPid, e);
             }
 
+            // Keep the log model in sync if it has already been loaded
+            if (model != null) {
+                if (newLog) {
+                    model.getResource(objectPid.getRepositoryPath()).addProperty(RDF.type, Premis.Representation);
+                }
+                eventModels.forEach(model::add);
+            }
+
             return this;
         } finally {
             logLock.unlock();
@@ -111,7 +132,8 @@ public class FilePremisLogger implements PremisLogger {
     }
 
     /**
-     * Returns the Model containing events from this logger
+     * Returns the Model containing events from this logger, loading it from the log file
+     * the first time it is requested
      *
      * @return
      */
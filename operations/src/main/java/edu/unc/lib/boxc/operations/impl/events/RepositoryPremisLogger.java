@@ -1,16 +1,14 @@
 package edu.unc.lib.boxc.operations.impl.events;
 
 import static edu.unc.lib.boxc.model.api.DatastreamType.MD_EVENTS;
+import static edu.unc.lib.boxc.model.fcrepo.ids.DatastreamPids.getDatastreamSegmentPid;
 import static edu.unc.lib.boxc.model.fcrepo.ids.DatastreamPids.getMdEventsPid;
-import static java.lang.System.lineSeparator;
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.slf4j.LoggerFactory.getLogger;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.SequenceInputStream;
 import java.util.Date;
+import java.util.UUID;
 import java.util.concurrent.locks.Lock;
 
 import org.apache.jena.rdf.model.Model;
@@ -22,7 +20,6 @@ import org.apache.jena.vocabulary.RDF;
 import org.slf4j.Logger;
 
 import edu.unc.lib.boxc.model.api.exceptions.ObjectPersistenceException;
-import edu.unc.lib.boxc.model.api.exceptions.RepositoryException;
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.ids.PIDMinter;
 import edu.unc.lib.boxc.model.api.objects.BinaryObject;
@@ -40,7 +37,9 @@ import edu.unc.lib.boxc.persist.api.transfer.BinaryTransferSession;
 
 /**
  * Logs PREMIS events for a repository object, which are persisted as PREMIS
- * event objects in the repository.
+ * event objects in the repository. Events written after the log is created are
+ * stored as new segments of the log, so that the existing log is not rewritten on every write.
+ * Once the number of segments passes a threshold, they are compacted back into the log.
  *
  * @author bbpennel
  *
@@ -49,11 +48,15 @@ public class RepositoryPremisLogger extends RepositoryPremisLog implements Premi
 
     private static final Logger log = getLogger(RepositoryPremisLogger.class);
 
+    // Number of segments a log may have before they are folded back into the log binary
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 20;
+
     private PIDMinter pidMinter;
     private RepositoryObjectFactory repoObjFactory;
     private BinaryTransferSession transferSession;
 
     private boolean closed = false;
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
 
     public RepositoryPremisLogger(RepositoryObject repoObject, BinaryTransferSession transferSession,
             PIDMinter pidMinter, RepositoryObjectLoader repoObjLoader,
@@ -117,22 +120,20 @@ public class RepositoryPremisLogger extends RepositoryPremisLog implements Premi
             if (isNewLog) {
                 createLog(modelStream);
             } else {
-                log.debug("Adding events to PREMIS log for {}", objPid);
-                // Event log exists, append new events to it
+                log.debug("Appending events segment to PREMIS log for {}", objPid);
+                // Event log exists, store the new events as a segment of it rather than rewriting the log
                 BinaryObject logObj = repoObjLoader.getBinaryObject(logPid);
+                PID segmentPid = getDatastreamSegmentPid(logPid, UUID.randomUUID().toString());
+                BinaryTransferOutcome outcome = transferSession.transfer(segmentPid, modelStream);
+                BinaryObject segmentObj = repoObjFactory.createOrUpdateBinary(segmentPid,
+                        outcome.getDestinationUri(), MD_EVENTS.getDefaultFilename(), MD_EVENTS.getMimetype(),
+                        outcome.getSha1(), null, null);
 
-                InputStream newContentStream = new SequenceInputStream(
-                        new ByteArrayInputStream(lineSeparator().getBytes(UTF_8)),
-                        modelStream);
-
-                try (InputStream existingLogStream = logObj.getBinaryStream()) {
-                    InputStream mergedStream = new SequenceInputStream(
-                            existingLogStream,
-                            newContentStream);
+                repoObjFactory.createRelationship(logObj, Cdr.hasEventsSegment, segmentObj.getResource());
 
-                    updateOrCreateLog(mergedStream);
-                } catch (IOException e) {
-                    throw new RepositoryException("Failed to close log existing stream", e);
+                int segmentCount = logObj.getResource(true).listProperties(Cdr.hasEventsSegment).toList().size();
+                if (segmentCount > compactionThreshold) {
+                    compactLog(logObj, segmentCount);
                 }
             }
         } finally {
@@ -142,6 +143,30 @@ public class RepositoryPremisLogger extends RepositoryPremisLog implements Premi
         return this;
     }
 
+    /**
+     * Fold the events from all segments of the log back into the log binary and unlink the segments,
+     * so that reading the log does not require retrieving every segment. Must be called while holding
+     * the write lock for the log.
+     *
+     * @param logObj the event log binary
+     * @param segmentCount number of segments currently linked to the log
+     */
+    private void compactLog(BinaryObject logObj, int segmentCount) {
+        PID objPid = repoObject.getPid();
+        log.debug("Compacting {} segments into PREMIS log for {}", segmentCount, objPid);
+        Model fullModel = loadEventsModel(logObj);
+
+        InputStream modelStream;
+        try {
+            modelStream = RDFModelUtil.streamModel(fullModel, RDFFormat.NTRIPLES);
+        } catch (IOException e) {
+            throw new ObjectPersistenceException("Failed to serialize event log to RDF for " + objPid, e);
+        }
+        // Replace the log before unlinking segments, so an interrupted compaction only leaves duplicate events
+        updateOrCreateLog(modelStream);
+        repoObjFactory.deleteProperty(logObj, Cdr.hasEventsSegment);
+    }
+
     @Override
     public PremisLogger createLog(InputStream contentStream) {
         BinaryObject eventsObj = updateOrCreateLog(contentStream);
@@ -170,4 +195,11 @@ public class RepositoryPremisLogger extends RepositoryPremisLog implements Premi
     public boolean isClosed() {
         return closed;
     }
+
+    /**
+     * @param compactionThreshold number of segments a log may have before they are compacted into the log
+     */
+    public void setCompactionThreshold(int compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
 }
@@ -1,22 +1,27 @@
 package edu.unc.lib.boxc.operations.impl.validation;
 
-import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.SCHEMATRON_VALIDATION_REPORT_NS;
+import static edu.unc.lib.boxc.common.xml.SecureXMLFactory.createDocumentBuilderFactory;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
-import java.util.stream.Collectors;
+import java.util.List;
 
-import javax.xml.transform.stream.StreamSource;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.dom.DOMSource;
 import javax.xml.validation.Schema;
 
-import org.jdom2.Document;
-import org.jdom2.IllegalAddException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import edu.unc.lib.boxc.operations.api.exceptions.MetadataValidationException;
 
@@ -24,6 +29,10 @@ import edu.unc.lib.boxc.operations.api.exceptions.MetadataValidationException;
  * Asserts that MODS complies with the XSD and controlled vocabularies,
  * as per the configured schematron validator.
  *
+ * Each document is parsed once, and the resulting DOM is used for both the XSD and
+ * schematron validation. The compiled Schema and schematron Templates are thread safe,
+ * so a single instance of this validator may be used concurrently.
+ *
  * @author bbpennel
  * @author harring
  *
@@ -31,8 +40,19 @@ import edu.unc.lib.boxc.operations.api.exceptions.MetadataValidationException;
 public class MODSValidator {
     private static final Logger log = LoggerFactory.getLogger(MODSValidator.class);
 
+    // Fail on fatal errors without the default handler's output to stderr
+    private static final ErrorHandler FATAL_ERROR_HANDLER = new DefaultHandler() {
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            throw e;
+        }
+    };
+
     private SchematronValidator schematronValidator;
     private Schema modsSchema;
+    private final DocumentBuilderFactory builderFactory = createDocumentBuilderFactory();
+    // DocumentBuilders are not thread safe, so each thread parses with its own
+    private final ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal.withInitial(this::newDocumentBuilder);
 
     public SchematronValidator getSchematronValidator() {
         return schematronValidator;
@@ -59,53 +79,42 @@ public class MODSValidator {
      * @throws IOException if the File cannot be read.
      */
     public void validate(File file) throws MetadataValidationException, IOException {
-        validate(new ByteArrayInputStream(Files.readAllBytes(file.toPath())));
+        try (InputStream fileStream = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            validate(parseDocument(fileStream));
+        }
     }
 
     /**
      * Validates a MODS description.
      *
-     * NB: this method only supports InputStream types that can be reset for
-     * multiple reads. For other types, an IllegalArgumentException will be
-     * thrown.
-     *
      * @param docStream
      * @throws MetadataValidationException thrown if the document being streamed
      *             does not meet validation requirements.
-     * @throws IllegalArgumentException thrown if the provided InputStream does
-     *             not support mark and reset.
      */
-    public void validate(InputStream docStream) throws MetadataValidationException, IllegalArgumentException {
-        if (!docStream.markSupported()) {
-            throw new IllegalAddException("Input stream must be mark supported for validation");
-        }
-        StreamSource streamSrc = new StreamSource(docStream);
+    public void validate(InputStream docStream) throws MetadataValidationException {
         try {
-            getModsSchema().newValidator().validate(streamSrc);
+            validate(parseDocument(docStream));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read document stream", e);
+        }
+    }
 
-            // Reset the inputstream for second read
-            docStream.reset();
+    private void validate(Document doc) throws MetadataValidationException {
+        DOMSource domSrc = new DOMSource(doc);
+        try {
+            getModsSchema().newValidator().validate(domSrc);
         } catch (SAXException e) {
             throw new MetadataValidationException("MODS is not valid with respect to the schema (XSD)",
                     e.getMessage(), e);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to read document stream", e);
+            throw new RuntimeException("Failed to read document", e);
         }
         log.debug("Document passed MODS schema validation");
 
-        Document svrl = this.getSchematronValidator().validate(
-                streamSrc, "vocabularies-mods");
-
-        try {
-            docStream.reset();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to reset document stream", e);
-        }
-        if (this.getSchematronValidator().hasFailedAssertions(svrl)) {
-            String failedAssertionMessage = svrl.getRootElement()
-                    .getChildren("failed-assert", SCHEMATRON_VALIDATION_REPORT_NS).stream()
-                    .map(assertion -> assertion.getChildText("text", SCHEMATRON_VALIDATION_REPORT_NS))
-                    .collect(Collectors.joining("\n"));
+        List<String> failedAssertions = this.getSchematronValidator().validateReportErrors(
+                domSrc, "vocabularies-mods");
+        if (!failedAssertions.isEmpty()) {
+            String failedAssertionMessage = String.join("\n", failedAssertions);
 
             throw new MetadataValidationException("MODS is not valid with respect to local conventions"
                     + " (Schematron rules)" + failedAssertionMessage, failedAssertionMessage);
@@ -113,5 +122,27 @@ public class MODSValidator {
 
         log.debug("Document passed vocabulary schematron validation");
     }
-}
 
+    private Document parseDocument(InputStream docStream) throws MetadataValidationException, IOException {
+        DocumentBuilder builder = documentBuilder.get();
+        // reset restores the default error handler, so it must be set before every parse
+        builder.setErrorHandler(FATAL_ERROR_HANDLER);
+        try {
+            return builder.parse(docStream);
+        } catch (SAXException e) {
+            // Documents which are not well formed fail schema validation
+            throw new MetadataValidationException("MODS is not valid with respect to the schema (XSD)",
+                    e.getMessage(), e);
+        } finally {
+            builder.reset();
+        }
+    }
+
+    private DocumentBuilder newDocumentBuilder() {
+        try {
+            return builderFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("Unable to create document builder", e);
+        }
+    }
+}
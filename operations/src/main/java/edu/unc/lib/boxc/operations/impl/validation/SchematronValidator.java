@@ -9,6 +9,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
@@ -16,6 +17,7 @@ import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
+import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.apache.commons.logging.Log;
@@ -28,6 +30,8 @@ import org.jdom2.transform.JDOMResult;
 import org.jdom2.transform.JDOMSource;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
 
 import edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil;
 
@@ -217,6 +221,29 @@ public class SchematronValidator {
      * @return schematron output document
      */
     public Document validate(Source source, String schema) {
+        // call the transform
+        JDOMResult svrlRes = new JDOMResult();
+        transform(source, schema, svrlRes);
+        return svrlRes.getDocument();
+    }
+
+    /**
+     * Validates the source against the named schema, returning the text of each failed
+     * assertion. The SVRL report is read as it is produced rather than built into a document.
+     *
+     * @param source
+     *            XML Source to validate
+     * @param schema
+     *            name of the schema to use
+     * @return list of failed assertion messages, empty if the source is valid
+     */
+    public List<String> validateReportErrors(Source source, String schema) {
+        FailedAssertionHandler handler = new FailedAssertionHandler();
+        transform(source, schema, new SAXResult(handler));
+        return handler.failedAssertions;
+    }
+
+    private void transform(Source source, String schema, Result result) {
         // lookup templates object
         Templates template = templates.get(schema);
         if (template == null) {
@@ -232,20 +259,12 @@ public class SchematronValidator {
                     e);
         }
 
-        // call the transform
-        JDOMResult svrlRes = new JDOMResult();
         try {
-            t.transform(source, svrlRes);
+            t.transform(source, result);
         } catch (TransformerException e) {
             throw new Error(
                     "There was a problem running Schematron validation XSL.", e);
         }
-        return svrlRes.getDocument();
-    }
-
-    public List<String> validateReportErrors(Source source, String schema) {
-        Document svrl = this.validate(source, schema);
-        return parseSVRLErrors(svrl);
     }
 
     public static List<String> parseSVRLErrors(Document svrl) {
@@ -262,4 +281,52 @@ public class SchematronValidator {
         return result;
     }
 
+    /**
+     * Collects the text of failed assertions from a stream of SVRL events, matching the
+     * results of {@link #parseSVRLErrors(Document)}
+     */
+    private static class FailedAssertionHandler extends DefaultHandler {
+        private static final String SVRL_URI = JDOMNamespaceUtil.SCHEMATRON_VALIDATION_REPORT_NS.getURI();
+
+        private final List<String> failedAssertions = new ArrayList<>();
+        private int depth;
+        // Depth of the failed-assert currently being read, or -1 if not within one
+        private int assertDepth = -1;
+        private StringBuilder assertText;
+        private boolean inText;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            depth++;
+            if (assertDepth == -1) {
+                if ("failed-assert".equals(localName)) {
+                    assertDepth = depth;
+                    assertText = null;
+                }
+            } else if (depth == assertDepth + 1 && assertText == null
+                    && "text".equals(localName) && SVRL_URI.equals(uri)) {
+                assertText = new StringBuilder();
+                inText = true;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            // Only direct text content of the text element is included
+            if (inText && depth == assertDepth + 1) {
+                assertText.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (inText && depth == assertDepth + 1) {
+                inText = false;
+            } else if (depth == assertDepth) {
+                failedAssertions.add(assertText == null ? null : assertText.toString());
+                assertDepth = -1;
+            }
+            depth--;
+        }
+    }
 }
@@ -8,8 +8,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Date;
+import java.util.List;
 import java.util.UUID;
 
 import org.apache.jena.rdf.model.Model;
@@ -186,4 +188,35 @@ public class FilePremisLoggerTest extends AbstractFedoraObjectTest {
         assertTrue(logEvent1Resc.hasProperty(Prov.used, objResc));
         assertTrue(logEvent2Resc.hasProperty(Prov.used, objResc));
     }
+
+    @Test
+    public void testEventsAppendedToExistingLog() throws Exception {
+        Resource event1 = premis.buildEvent(null, Premis.Normalization, date)
+                .addEventDetail("Event 1")
+                .write();
+
+        // Load the log model prior to the second write to ensure it is kept up to date
+        Model logModel = premis.getEventsModel();
+        PremisLogger premis2 = new FilePremisLogger(pid, premisFile, pidMinter);
+        Resource event2 = premis2.buildEvent(null, Premis.VirusCheck, date)
+                .addEventDetail("Event 2")
+                .write();
+        Resource event3 = premis.buildEvent(null, Premis.MessageDigestCalculation, date)
+                .addEventDetail("Event 3")
+                .write();
+
+        List<String> lines = Files.readAllLines(premisFile.toPath());
+        long representationCount = lines.stream()
+                .filter(line -> line.contains(Premis.Representation.getURI()))
+                .count();
+        assertEquals(1, representationCount, "Representation statement must only be written once");
+
+        Model model = ModelFactory.createDefaultModel().read(new FileInputStream(premisFile), null, "N-TRIPLES");
+        assertTrue(model.getResource(event1.getURI()).hasProperty(RDF.type, Premis.Normalization));
+        assertTrue(model.getResource(event2.getURI()).hasProperty(RDF.type, Premis.VirusCheck));
+        assertTrue(model.getResource(event3.getURI()).hasProperty(RDF.type, Premis.MessageDigestCalculation));
+
+        assertTrue(logModel.getResource(event3.getURI()).hasProperty(RDF.type, Premis.MessageDigestCalculation));
+        assertTrue(logModel.getResource(pid.getRepositoryPath()).hasProperty(RDF.type, Premis.Representation));
+    }
 }
@@ -2,6 +2,7 @@ package edu.unc.lib.boxc.operations.impl.validation;
 
 import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.MODS_V3_NS;
 import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -9,6 +10,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
@@ -156,6 +158,58 @@ public class MODSValidatorTest {
         assertTrue(expected.getMessage().contains("local conventions"));
     }
 
+    @Test
+    public void testMultipleFailedAssertions() throws Exception {
+        MetadataValidationException expected = Assertions.assertThrows(MetadataValidationException.class, () -> {
+            doc.addContent(new Element("mods", MODS_V3_NS)
+                    .addContent(new Element("language", MODS_V3_NS)
+                            .addContent(new Element("languageTerm", MODS_V3_NS)
+                                    .setText("java")
+                                    .setAttribute("authority", "iso639-2b")
+                                    .setAttribute("type", "code")))
+                    .addContent(new Element("language", MODS_V3_NS)
+                            .addContent(new Element("languageTerm", MODS_V3_NS)
+                                    .setText("eng")
+                                    .setAttribute("authority", "rfc3066")
+                                    .setAttribute("type", "code"))));
+
+            validator.validate(convertDocumentToStream(doc));
+        });
+
+        assertTrue(expected.getMessage().contains("local conventions"));
+        assertTrue(expected.getDetailedMessage().contains("The language code \"java\""));
+        assertTrue(expected.getDetailedMessage().contains("Language authority must be specified"));
+    }
+
+    @Test
+    public void testMalformedDocument() throws Exception {
+        Exception expected = Assertions.assertThrows(MetadataValidationException.class, () -> {
+            validator.validate(new ByteArrayInputStream("<mods xmlns=\"http://www.loc.gov/mods/v3\">".getBytes()));
+        });
+
+        assertTrue(expected.getMessage().contains("schema"));
+    }
+
+    @Test
+    public void testMalformedDocumentReusesErrorHandler() throws Exception {
+        PrintStream originalErr = System.err;
+        ByteArrayOutputStream errStream = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(errStream));
+        try {
+            // Second parse reuses the same builder, after it has been reset by the first
+            for (int i = 0; i < 2; i++) {
+                Assertions.assertThrows(MetadataValidationException.class, () -> {
+                    validator.validate(new ByteArrayInputStream(
+                            "<mods xmlns=\"http://www.loc.gov/mods/v3\">".getBytes()));
+                });
+            }
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        assertEquals(0, errStream.size(), "Parse errors should not be written to stderr");
+    }
+
     @Test
     public void testValidLanguage() throws Exception {
         doc.addContent(new Element("mods", MODS_V3_NS)
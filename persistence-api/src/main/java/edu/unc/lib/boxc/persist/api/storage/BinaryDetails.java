@@ -26,7 +26,8 @@ public interface BinaryDetails {
     long getSize();
 
     /**
-     * @return the digest for the binary
+     * @return the digest for the binary. Implementations may defer calculating the
+     *      digest until this method is first called.
      */
     String getDigest();
 }
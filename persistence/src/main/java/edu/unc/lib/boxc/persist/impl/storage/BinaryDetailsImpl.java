@@ -2,11 +2,13 @@ package edu.unc.lib.boxc.persist.impl.storage;
 
 import java.net.URI;
 import java.util.Date;
+import java.util.function.Supplier;
 
 import edu.unc.lib.boxc.persist.api.storage.BinaryDetails;
 
 /**
- * Implementation of generic details of a binary file
+ * Implementation of generic details of a binary file. The digest may either be provided
+ * up front, or computed from a supplier the first time it is requested.
  *
  * @author bbpennel
  */
@@ -15,7 +17,8 @@ public class BinaryDetailsImpl implements BinaryDetails {
     private URI uri;
     private Date lastModified;
     private long size;
-    private String digest;
+    private volatile String digest;
+    private Supplier<String> digestSupplier;
 
     /**
      * @param lastModified
@@ -28,6 +31,21 @@ public class BinaryDetailsImpl implements BinaryDetails {
         this.digest = digest;
     }
 
+    /**
+     * Construct details where the digest will not be computed until it is requested
+     *
+     * @param uri
+     * @param lastModified
+     * @param size
+     * @param digestSupplier supplier which computes the digest of the binary
+     */
+    public BinaryDetailsImpl(URI uri, Date lastModified, long size, Supplier<String> digestSupplier) {
+        this.uri = uri;
+        this.lastModified = lastModified;
+        this.size = size;
+        this.digestSupplier = digestSupplier;
+    }
+
     @Override
     public Date getLastModified() {
         return lastModified;
@@ -45,6 +63,13 @@ public class BinaryDetailsImpl implements BinaryDetails {
 
     @Override
     public String getDigest() {
+        if (digest == null && digestSupplier != null) {
+            synchronized (this) {
+                if (digest == null) {
+                    digest = digestSupplier.get();
+                }
+            }
+        }
         return digest;
     }
 
@@ -55,7 +55,8 @@ public class FileSystemTransferHelpers {
     }
 
     /**
-     * Get binary details for the provided file uri
+     * Get binary details for the provided file uri. Only the file attributes are read
+     * up front, the digest of the file is not calculated until it is requested.
      *
      * @param binUri URI of the file
      * @return details of the binary, or null if not found
@@ -70,12 +71,25 @@ public class FileSystemTransferHelpers {
 
             long size = Files.size(path);
             Date lastModified = Date.from(Files.getLastModifiedTime(path).toInstant());
-            String digest = encodeHexString(DigestUtils.digest(MessageDigest.getInstance(
-                    DigestAlgorithm.DEFAULT_ALGORITHM.getName()), path.toFile()));
 
-            return new BinaryDetailsImpl(binUri, lastModified, size, digest);
+            return new BinaryDetailsImpl(binUri, lastModified, size, () -> calculateDigest(path));
         } catch (IOException e) {
             throw new BinaryTransferException("Failed to retrieve binary details for " + binUri, e);
+        }
+    }
+
+    /**
+     * Calculate the digest of a file using the default algorithm
+     *
+     * @param path path of the file
+     * @return hex encoded digest
+     */
+    public static String calculateDigest(Path path) {
+        try {
+            return encodeHexString(DigestUtils.digest(MessageDigest.getInstance(
+                    DigestAlgorithm.DEFAULT_ALGORITHM.getName()), path.toFile()));
+        } catch (IOException e) {
+            throw new BinaryTransferException("Failed to calculate digest for " + path, e);
         } catch (NoSuchAlgorithmException e) {
             throw new RepositoryException(e);
         }
@@ -290,6 +290,7 @@ public class FSToFSTransferClientTest {
         assertNotNull(details);
         assertNotNull(details.getLastModified());
         assertEquals(12, details.getSize());
+        assertEquals(FILE_CONTENT_SHA1, details.getDigest());
     }
 
     @Test
@@ -27,6 +27,8 @@ public class HierarchicalBrowseResultResponse extends SearchResultResponse {
     private Set<String> matchingContainerPids = null;
     private Long rootCount;
     private ResultNode rootNode;
+    // Indicates that some tiers of the structure could not be retrieved in time
+    private boolean partial;
 
     public HierarchicalBrowseResultResponse() {
         super();
@@ -153,6 +155,14 @@ public class HierarchicalBrowseResultResponse extends SearchResultResponse {
 
     }
 
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
     public Long getRootCount() {
         return rootCount;
     }
@@ -10,6 +10,8 @@ import static edu.unc.lib.boxc.search.api.SearchFieldKey.RESOURCE_TYPE;
 import static java.util.Arrays.asList;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
@@ -47,6 +49,12 @@ public class ChildrenCountService extends AbstractQueryService {
      */
     public long getChildrenCount(ContentObjectRecord container, AccessGroupSet principals) {
         SolrQuery solrQuery = createBaseQuery(principals, container, null);
+        solrQuery.setStart(0);
+        solrQuery.setRows(0);
+
+        StringBuilder filterQuery = new StringBuilder();
+        addFilter(filterQuery, ANCESTOR_PATH, container.getPath().getSearchValue());
+        solrQuery.addFilterQuery(filterQuery.toString());
 
         try {
             QueryResponse queryResponse = executeQuery(solrQuery);
@@ -71,7 +79,8 @@ public class ChildrenCountService extends AbstractQueryService {
 
     /**
      * Adds a count of the number of children contained by each object in result
-     * list.
+     * list. The counts for all of the containers are retrieved together, using a
+     * facet query per container.
      *
      * The count will be calculated based on any restrictions from baseQuery if
      * it is provided. The count will be stored in each container's count map
@@ -94,10 +103,8 @@ public class ChildrenCountService extends AbstractQueryService {
         log.debug("Adding child counts of type {} to result list", countKey);
 
         // Prepare a common base query for each container
-        SolrQuery commonQuery = null;
-        if (baseQuery != null) {
-            // Starting from a base query
-            commonQuery = baseQuery.getCopy();
+        final SolrQuery commonQuery = baseQuery == null ? null : baseQuery.getCopy();
+        if (commonQuery != null) {
             // Remove all facet fields so we are only getting ancestor path
             String[] facetFields = commonQuery.getFacetFields();
             if (facetFields != null) {
@@ -107,23 +114,45 @@ public class ChildrenCountService extends AbstractQueryService {
             }
         }
 
-        // Calculate the child count for each provided container one at a time
-        for (ContentObjectRecord container : containers) {
-            // Skip counts for any file objects
-            if (ResourceType.File.name().equals(container.getResourceType())) {
-                continue;
+        // Group the containers by which types of children they count, unless a base query is provided
+        Map<Boolean, List<ContentObjectRecord>> groupedContainers = containers.stream()
+                // Skip counts for any file objects
+                .filter(container -> !ResourceType.File.name().equals(container.getResourceType()))
+                .collect(Collectors.groupingBy(
+                        container -> commonQuery == null && Work.equals(container.getResourceType())));
+
+        // Calculate the child counts for each group of containers in a single request
+        for (List<ContentObjectRecord> group : groupedContainers.values()) {
+            SolrQuery solrQuery = createBaseQuery(principals, group.get(0), commonQuery);
+            solrQuery.setStart(0);
+            solrQuery.setRows(0);
+            solrQuery.setFacet(true);
+            for (ContentObjectRecord container : group) {
+                solrQuery.addFacetQuery(makeCountFacetQuery(container));
             }
-            SolrQuery solrQuery = createBaseQuery(principals, container, commonQuery);
 
             try {
                 QueryResponse queryResponse = executeQuery(solrQuery);
-                container.getCountMap().put(countKey, queryResponse.getResults().getNumFound());
+                Map<String, Integer> facetQueries = queryResponse.getFacetQuery();
+                for (ContentObjectRecord container : group) {
+                    Integer count = facetQueries.get(container.getId());
+                    container.getCountMap().put(countKey, count == null ? 0L : count.longValue());
+                }
             } catch (SolrServerException e) {
                 throw new SolrRuntimeException(e);
             }
         }
     }
 
+    /*
+     * Creates a facet query counting the descendants of the container, keyed by the id of the container
+     */
+    private String makeCountFacetQuery(ContentObjectRecord container) {
+        StringBuilder facetQuery = new StringBuilder("{!key=").append(container.getId()).append('}');
+        addFilter(facetQuery, ANCESTOR_PATH, container.getPath().getSearchValue());
+        return facetQuery.toString();
+    }
+
     private SolrQuery createBaseQuery(AccessGroupSet principals, ContentObjectRecord container, SolrQuery baseQuery) {
         SolrQuery solrQuery;
         if (baseQuery == null) {
@@ -144,14 +173,6 @@ public class ChildrenCountService extends AbstractQueryService {
             solrQuery = baseQuery.getCopy();
         }
 
-        solrQuery.setStart(0);
-        solrQuery.setRows(0);
-        solrQuery.setFacet(true);
-
-        StringBuilder filterQuery = new StringBuilder();
-        addFilter(filterQuery, ANCESTOR_PATH, container.getPath().getSearchValue());
-        solrQuery.addFilterQuery(filterQuery.toString());
-
         return solrQuery;
     }
 }
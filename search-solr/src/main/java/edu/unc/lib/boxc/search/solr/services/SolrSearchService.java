@@ -4,10 +4,14 @@ import static edu.unc.lib.boxc.search.api.SearchFieldKey.RESOURCE_TYPE;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import edu.unc.lib.boxc.search.api.filters.QueryFilter;
@@ -23,6 +27,7 @@ import org.apache.solr.client.solrj.response.Group;
 import org.apache.solr.client.solrj.response.GroupCommand;
 import org.apache.solr.client.solrj.response.GroupResponse;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.GroupParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +40,7 @@ import edu.unc.lib.boxc.auth.api.models.AccessGroupSet;
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.search.api.SearchFieldKey;
+import edu.unc.lib.boxc.search.api.exceptions.SolrRuntimeException;
 import edu.unc.lib.boxc.search.api.facets.CutoffFacet;
 import edu.unc.lib.boxc.search.api.facets.SearchFacet;
 import edu.unc.lib.boxc.search.api.models.ContentObjectRecord;
@@ -164,6 +170,27 @@ public class SolrSearchService extends AbstractQueryService {
         return (List<ContentObjectRecord>) results;
     }
 
+    /**
+     * Retrieves all results matching the search request a page at a time, using a solr cursor sorted by id.
+     * Unlike paging by start row, the cost of retrieving each page does not increase with its depth in the
+     * result set. The size of each page is determined by the rows per page of the search state. Any sort type
+     * and start row in the search state are ignored, and rollup is not supported.
+     *
+     * @param searchRequest
+     * @return iterator over pages of results
+     */
+    public Iterator<List<ContentObjectRecord>> getSearchResultPages(SearchRequest searchRequest) {
+        SolrQuery solrQuery = generateSearch(searchRequest);
+        if (solrQuery == null) {
+            return Collections.emptyIterator();
+        }
+        solrQuery.setFacet(false);
+        solrQuery.setStart(null);
+        solrQuery.clearSorts();
+        solrQuery.addSort(SearchFieldKey.ID.getSolrField(), SolrQuery.ORDER.asc);
+        return new CursorResultPageIterator(solrQuery);
+    }
+
     /**
      * Retrieves search results as a SearchResultResponse. Will not return the solr query use for the request.
      *
@@ -199,17 +226,7 @@ public class SolrSearchService extends AbstractQueryService {
             // Add in the correct rollup representatives when they are missing, if we are rolling up on the rollup id
             if (searchRequest.getSearchState().getRollup() != null && searchRequest.getSearchState().getRollup()
                     && searchRequest.getSearchState().getRollupField() == null) {
-                for (ContentObjectRecord item : resultResponse.getResultList()) {
-                    if (item.getId() != null && item.getRollup() != null && !item.getId().equals(item.getRollup())) {
-                        ContentObjectRecord representative = this.getObjectById(new SimpleIdRequest(
-                                PIDs.get(item.getRollup()), searchRequest.getAccessGroups()));
-                        if (representative != null) {
-                            GroupedContentObjectSolrRecord grouped = (GroupedContentObjectSolrRecord) item;
-                            grouped.getItems().add(representative);
-                            grouped.setRepresentative(representative);
-                        }
-                    }
-                }
+                addRollupRepresentatives(resultResponse.getResultList(), searchRequest.getAccessGroups());
             }
 
             return resultResponse;
@@ -219,6 +236,52 @@ public class SolrSearchService extends AbstractQueryService {
         return null;
     }
 
+    /**
+     * Retrieves the representatives of all rolled up results whose representative was not the matching item,
+     * using a single query, and adds them to their groups in result order.
+     *
+     * @param resultList rolled up search results
+     * @param accessGroups access groups used to restrict which representatives are retrieved
+     */
+    private void addRollupRepresentatives(List<ContentObjectRecord> resultList, AccessGroupSet accessGroups) {
+        Set<String> rollupIds = new LinkedHashSet<>();
+        for (ContentObjectRecord item : resultList) {
+            if (isMissingRollupRepresentative(item)) {
+                rollupIds.add(PIDs.get(item.getRollup()).getId());
+            }
+        }
+        if (rollupIds.isEmpty()) {
+            return;
+        }
+
+        List<ContentObjectRecord> results = getObjectsById(
+                new IdListRequest(new ArrayList<>(rollupIds), null, accessGroups));
+        if (results == null) {
+            return;
+        }
+
+        Map<String, ContentObjectRecord> representatives = new HashMap<>();
+        for (ContentObjectRecord representative : results) {
+            representatives.put(representative.getId(), representative);
+        }
+
+        for (ContentObjectRecord item : resultList) {
+            if (!isMissingRollupRepresentative(item)) {
+                continue;
+            }
+            ContentObjectRecord representative = representatives.get(PIDs.get(item.getRollup()).getId());
+            if (representative != null) {
+                GroupedContentObjectSolrRecord grouped = (GroupedContentObjectSolrRecord) item;
+                grouped.getItems().add(representative);
+                grouped.setRepresentative(representative);
+            }
+        }
+    }
+
+    private boolean isMissingRollupRepresentative(ContentObjectRecord item) {
+        return item.getId() != null && item.getRollup() != null && !item.getId().equals(item.getRollup());
+    }
+
     /**
      * Adds access restrictions to the provided query string buffer. If there
      * are no access groups in the provided group set, then an
@@ -710,4 +773,57 @@ public class SolrSearchService extends AbstractQueryService {
     public void setFacetFieldUtil(FacetFieldUtil facetFieldUtil) {
         this.facetFieldUtil = facetFieldUtil;
     }
+
+    /**
+     * Iterator which retrieves pages of search results using a solr cursor mark
+     */
+    private class CursorResultPageIterator implements Iterator<List<ContentObjectRecord>> {
+        private final SolrQuery solrQuery;
+        private String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        private List<ContentObjectRecord> nextPage;
+        private boolean finished;
+
+        public CursorResultPageIterator(SolrQuery solrQuery) {
+            this.solrQuery = solrQuery;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextPage == null && !finished) {
+                retrievePage();
+            }
+            return nextPage != null;
+        }
+
+        @Override
+        public List<ContentObjectRecord> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<ContentObjectRecord> page = nextPage;
+            nextPage = null;
+            return page;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void retrievePage() {
+            solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+            QueryResponse queryResponse;
+            try {
+                queryResponse = executeQuery(solrQuery);
+            } catch (SolrServerException e) {
+                throw new SolrRuntimeException("Failed to retrieve page of results for query " + solrQuery, e);
+            }
+            List<?> results = queryResponse.getBeans(ContentObjectSolrRecord.class);
+            String nextCursorMark = queryResponse.getNextCursorMark();
+            // The cursor does not advance once all results have been returned
+            if (results.isEmpty() || cursorMark.equals(nextCursorMark)) {
+                finished = true;
+            }
+            cursorMark = nextCursorMark;
+            if (!results.isEmpty()) {
+                nextPage = (List<ContentObjectRecord>) results;
+            }
+        }
+    }
 }
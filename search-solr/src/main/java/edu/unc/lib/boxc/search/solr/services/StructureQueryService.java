@@ -10,9 +10,16 @@ import static edu.unc.lib.boxc.search.api.SearchFieldKey.RESOURCE_TYPE;
 import static edu.unc.lib.boxc.search.solr.services.ChildrenCountService.CHILD_COUNT;
 import static java.util.Arrays.asList;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
@@ -54,11 +61,19 @@ public class StructureQueryService extends AbstractQueryService {
 
     private SearchStateFactory searchStateFactory;
 
+    private ExecutorService tierExecutor;
+    private long tierTimeout;
+
     /**
      * Retrieves the structure tree from the root of the repository to the root
      * of the browse request. Each level of the tree retrieved will be expanded
      * with its immediate children.
      *
+     * If a tier executor is configured, the tiers are retrieved concurrently. If
+     * retrieving the tiers exceeds the tier timeout, then the response will only
+     * include the tiers leading up to the first one which did not complete, and
+     * will be marked as partial.
+     *
      * @param browseRequest
      * @return
      */
@@ -83,18 +98,28 @@ public class StructureQueryService extends AbstractQueryService {
         // Path facet used to find immediate children of ancestor containers, built up one tier at a time
         CutoffFacetImpl stepPath = new CutoffFacetImpl(ANCESTOR_PATH.name(), asList(), 0);
         // Retrieve immediate children of all objects in the hierarchy leading up to the target container
+        List<Callable<List<ContentObjectRecord>>> tierTasks = new ArrayList<>(pathFacetNodes.size());
         for (HierarchicalFacetNode stepFacetNode : pathFacetNodes) {
             // Add the next tier's identifier to the search facet
             stepPath.addNode(stepFacetNode);
+            CutoffFacetImpl tierPath = new CutoffFacetImpl(stepPath);
 
             SearchState stepState = new SearchState(browseRequest.getSearchState());
             // Get the list of objects for the current tier
             HierarchicalBrowseRequest stepRequest = new HierarchicalBrowseRequest(stepState, 1,
                     principals);
-            HierarchicalBrowseResultResponse tierResponse = retrieveTier(stepRequest, stepPath);
+            tierTasks.add(() -> retrieveTier(stepRequest, tierPath).getResultList());
+        }
 
-            // Add results for this tier to the combined result list
-            browseResponse.populateItemResults(tierResponse.getResultList());
+        // Add results for each tier to the combined result list, in order from the top of the hierarchy
+        List<List<ContentObjectRecord>> tiers = retrieveTiers(tierTasks);
+        for (List<ContentObjectRecord> tierResults : tiers) {
+            browseResponse.populateItemResults(tierResults);
+        }
+        if (tiers.size() < tierTasks.size()) {
+            log.warn("Returning partial structure for {}, retrieved {} of {} tiers",
+                    browseRequest.getRootPid(), tiers.size(), tierTasks.size());
+            browseResponse.setPartial(true);
         }
 
         assignCounts(browseRequest.getSearchState(), principals, browseResponse.getResultList());
@@ -216,6 +241,50 @@ public class StructureQueryService extends AbstractQueryService {
         return browseResults;
     }
 
+    /*
+     * Executes the tier retrieval tasks, concurrently if an executor is available. Returns the results
+     * of each task in order, stopping at the first tier which did not complete within the timeout.
+     */
+    private List<List<ContentObjectRecord>> retrieveTiers(List<Callable<List<ContentObjectRecord>>> tierTasks) {
+        List<List<ContentObjectRecord>> results = new ArrayList<>(tierTasks.size());
+        try {
+            if (tierExecutor == null) {
+                for (Callable<List<ContentObjectRecord>> tierTask : tierTasks) {
+                    results.add(tierTask.call());
+                }
+                return results;
+            }
+
+            List<Future<List<ContentObjectRecord>>> futures;
+            if (tierTimeout > 0) {
+                futures = tierExecutor.invokeAll(tierTasks, tierTimeout, TimeUnit.MILLISECONDS);
+            } else {
+                futures = tierExecutor.invokeAll(tierTasks);
+            }
+            for (Future<List<ContentObjectRecord>> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (CancellationException e) {
+                    log.debug("Timed out retrieving structure tier {} of {}", results.size() + 1, tierTasks.size());
+                    break;
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolrRuntimeException("Interrupted while retrieving structure tiers", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SolrRuntimeException("Failed to retrieve structure tiers", e.getCause());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SolrRuntimeException("Failed to retrieve structure tiers", e);
+        }
+    }
+
     /*
      * Retrieves facet results for the browse request if requested.
      */
@@ -338,4 +407,22 @@ public class StructureQueryService extends AbstractQueryService {
     public void setSearchStateFactory(SearchStateFactory searchStateFactory) {
         this.searchStateFactory = searchStateFactory;
     }
+
+    /**
+     * @param tierExecutor executor used to retrieve tiers of the structure path concurrently.
+     *      If not set, tiers are retrieved serially. The executor is shared by all requests, so it should
+     *      have a bounded queue which runs tasks in the calling thread once full, rather than letting
+     *      tiers wait until they time out.
+     */
+    public void setTierExecutor(ExecutorService tierExecutor) {
+        this.tierExecutor = tierExecutor;
+    }
+
+    /**
+     * @param tierTimeout maximum time in milliseconds to wait for all tiers to be retrieved.
+     *      A value of 0 or less waits indefinitely.
+     */
+    public void setTierTimeout(long tierTimeout) {
+        this.tierTimeout = tierTimeout;
+    }
 }
@@ -126,6 +126,19 @@ public class ChildrenCountServiceIT extends BaseEmbeddedSolrTest {
         assertCountEquals(3, coll2, CHILD_COUNT);
     }
 
+    @Test
+    public void testAddChildrenCountsMixedTypes() throws Exception {
+        ContentObjectRecord folder1 = getObject(testCorpus.folder1Pid);
+        ContentObjectRecord coll2 = getObject(testCorpus.coll2Pid);
+        ContentObjectRecord work1 = getObject(testCorpus.work1Pid);
+
+        countService.addChildrenCounts(asList(folder1, work1, coll2), principals);
+
+        assertCountEquals(2, folder1, CHILD_COUNT);
+        assertCountEquals(2, work1, CHILD_COUNT);
+        assertCountEquals(3, coll2, CHILD_COUNT);
+    }
+
     @Test
     public void testAddChildrenCountsWithAccessRestriction() throws Exception {
         restrictionUtil.setDisablePermissionFiltering(false);
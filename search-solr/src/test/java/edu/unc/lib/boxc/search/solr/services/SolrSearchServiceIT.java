@@ -0,0 +1,145 @@
+package edu.unc.lib.boxc.search.solr.services;
+
+import static edu.unc.lib.boxc.auth.api.AccessPrincipalConstants.PUBLIC_PRINC;
+import static edu.unc.lib.boxc.common.test.TestHelpers.setField;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import edu.unc.lib.boxc.auth.api.models.AccessGroupSet;
+import edu.unc.lib.boxc.auth.api.services.GlobalPermissionEvaluator;
+import edu.unc.lib.boxc.auth.fcrepo.models.AccessGroupSetImpl;
+import edu.unc.lib.boxc.search.api.models.ContentObjectRecord;
+import edu.unc.lib.boxc.search.api.requests.SearchRequest;
+import edu.unc.lib.boxc.search.api.requests.SearchState;
+import edu.unc.lib.boxc.search.solr.config.SearchSettings;
+import edu.unc.lib.boxc.search.solr.responses.SearchResultResponse;
+import edu.unc.lib.boxc.search.solr.test.BaseEmbeddedSolrTest;
+import edu.unc.lib.boxc.search.solr.test.TestCorpus;
+import edu.unc.lib.boxc.search.solr.utils.AccessRestrictionUtil;
+
+/**
+ * @author bbpennel
+ */
+public class SolrSearchServiceIT extends BaseEmbeddedSolrTest {
+    private AutoCloseable closeable;
+
+    @Mock
+    private GlobalPermissionEvaluator globalPermissionEvaluator;
+    @Mock
+    private SearchSettings searchSettings;
+
+    private AccessGroupSet principals;
+    private TestCorpus testCorpus;
+    private Set<String> indexedIds;
+
+    private SolrSearchService solrSearchService;
+
+    public SolrSearchServiceIT() {
+        testCorpus = new TestCorpus();
+    }
+
+    @BeforeEach
+    public void init() throws Exception {
+        closeable = openMocks(this);
+
+        List<SolrInputDocument> docs = testCorpus.populate();
+        indexedIds = docs.stream().map(doc -> (String) doc.getFieldValue("id")).collect(Collectors.toSet());
+        index(docs);
+
+        AccessRestrictionUtil restrictionUtil = new AccessRestrictionUtil();
+        restrictionUtil.setDisablePermissionFiltering(true);
+        restrictionUtil.setGlobalPermissionEvaluator(globalPermissionEvaluator);
+        restrictionUtil.setSearchSettings(searchSettings);
+
+        when(globalPermissionEvaluator.hasGlobalPrincipal(anySetOf(String.class))).thenReturn(false);
+        when(searchSettings.getAllowPatronAccess()).thenReturn(true);
+
+        solrSearchService = new SolrSearchService();
+        solrSearchService.setSolrSettings(solrSettings);
+        solrSearchService.setAccessRestrictionUtil(restrictionUtil);
+        setField(solrSearchService, "solrClient", server);
+
+        principals = new AccessGroupSetImpl(PUBLIC_PRINC);
+    }
+
+    @AfterEach
+    void closeService() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void getSearchResultPagesTest() throws Exception {
+        SearchState searchState = new SearchState();
+        searchState.setRowsPerPage(4);
+        SearchRequest searchRequest = new SearchRequest(searchState, principals);
+
+        Iterator<List<ContentObjectRecord>> pageIt = solrSearchService.getSearchResultPages(searchRequest);
+
+        Set<String> resultIds = new HashSet<>();
+        int resultCount = 0;
+        int pageCount = 0;
+        while (pageIt.hasNext()) {
+            List<ContentObjectRecord> page = pageIt.next();
+            assertTrue(page.size() <= 4, "Page exceeded requested size");
+            for (ContentObjectRecord record : page) {
+                resultIds.add(record.getId());
+            }
+            resultCount += page.size();
+            pageCount++;
+        }
+
+        assertEquals(indexedIds, resultIds);
+        // No object should be returned more than once across pages
+        assertEquals(indexedIds.size(), resultCount);
+        assertEquals((int) Math.ceil(indexedIds.size() / 4.0), pageCount);
+        assertFalse(pageIt.hasNext());
+    }
+
+    @Test
+    public void getSearchResultPagesNoResultsTest() throws Exception {
+        SearchState searchState = new SearchState();
+        searchState.setRowsPerPage(4);
+        searchState.setResourceTypes(List.of("NotAType"));
+        SearchRequest searchRequest = new SearchRequest(searchState, principals);
+
+        Iterator<List<ContentObjectRecord>> pageIt = solrSearchService.getSearchResultPages(searchRequest);
+
+        assertFalse(pageIt.hasNext());
+    }
+
+    @Test
+    public void getSearchResultsRollupRepresentativesTest() throws Exception {
+        SearchState searchState = new SearchState();
+        searchState.setRollup(true);
+        searchState.setResourceTypes(List.of("File"));
+        SearchRequest searchRequest = new SearchRequest(searchState, principals);
+
+        SearchResultResponse resultResponse = solrSearchService.getSearchResults(searchRequest);
+
+        // Each group of files should be represented by the work which they roll up to
+        List<ContentObjectRecord> results = resultResponse.getResultList();
+        Set<String> resultIds = results.stream().map(ContentObjectRecord::getId).collect(Collectors.toSet());
+        assertEquals(Set.of(testCorpus.work1Pid.getId(), testCorpus.work2Pid.getId(),
+                testCorpus.work3Pid.getId()), resultIds);
+        for (ContentObjectRecord result : results) {
+            assertEquals(result.getRollup(), result.getId());
+            assertEquals("Work", result.getResourceType());
+        }
+    }
+}
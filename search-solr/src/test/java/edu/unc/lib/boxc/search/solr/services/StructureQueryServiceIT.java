@@ -9,6 +9,7 @@ import static edu.unc.lib.boxc.search.api.SearchFieldKey.SUBJECT;
 import static edu.unc.lib.boxc.search.solr.services.ChildrenCountService.CHILD_COUNT;
 import static edu.unc.lib.boxc.search.solr.services.StructureQueryService.CONTAINERS_COUNT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Matchers.anySetOf;
@@ -17,6 +18,12 @@ import static org.mockito.MockitoAnnotations.openMocks;
 
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.solr.common.SolrInputDocument;
 import org.junit.jupiter.api.AfterEach;
@@ -175,6 +182,58 @@ public class StructureQueryServiceIT extends BaseEmbeddedSolrTest {
         System.out.println(resp.getResultList());
     }
 
+    @Test
+    public void testExpandedStructurePathConcurrentTiers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            structureService.setTierExecutor(executor);
+            structureService.setTierTimeout(10000);
+            HierarchicalBrowseRequest browseRequest = makeRequest(testCorpus.coll1Pid);
+
+            HierarchicalBrowseResultResponse resp = structureService.getExpandedStructurePath(browseRequest);
+
+            ResultNode rootNode = resp.getRootNode();
+            assertEquals(rootId, rootNode.getMetadata().getId(), "Root object must be the Collections object");
+
+            ResultNode unitNode = rootNode.getChildren().get(0);
+            assertEquals(testCorpus.unitPid.getId(), unitNode.getMetadata().getId(), "Root must contain Unit object");
+            assertEquals(2, unitNode.getChildren().size(), "Incorrect number of immediate children of unit");
+
+            ResultNode coll1Node = getChildByPid(unitNode, testCorpus.coll1Pid);
+            assertEquals(1, coll1Node.getChildren().size(), "One immediate child expected");
+            assertFalse(resp.isPartial());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExpandedStructurePathTiersTimeout() throws Exception {
+        ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10), new ThreadPoolExecutor.CallerRunsPolicy());
+        CountDownLatch busyLatch = new CountDownLatch(1);
+        try {
+            // Occupy the only worker so that the tiers wait in the queue until they time out
+            executor.submit(() -> {
+                busyLatch.await();
+                return null;
+            });
+            structureService.setTierExecutor(executor);
+            structureService.setTierTimeout(100);
+            HierarchicalBrowseRequest browseRequest = makeRequest(testCorpus.coll1Pid);
+
+            HierarchicalBrowseResultResponse resp = structureService.getExpandedStructurePath(browseRequest);
+
+            assertTrue(resp.isPartial(), "Response must indicate that tiers are missing");
+            ResultNode rootNode = resp.getRootNode();
+            assertEquals(rootId, rootNode.getMetadata().getId(), "Root object must be the Collections object");
+            assertEquals(0, rootNode.getChildren().size(), "No tiers should have been retrieved");
+        } finally {
+            busyLatch.countDown();
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void getEmptyStructureTest() throws Exception {
         PID emptyPid = PIDs.get(UUID.randomUUID().toString());
@@ -90,13 +90,13 @@ public class EnhancementRouter extends RouteBuilder {
             .choice()
             .when(simple("${headers[" + CdrBinaryPath + "]} == null"))
                 .log(INFO, log, "Indexing queued resource without binary path ${headers[CamelFcrepoUri]}")
-                .to("direct:solrIndexing")
+                .to("{{cdr.enhancement.solr.indexing.camel:direct:solrIndexing}}")
             .otherwise()
                 .log(INFO, log, "Processing queued enhancements ${headers[CdrEnhancementSet]}" +
                     "for ${headers[CamelFcrepoUri]}")
                 .multicast()
                 // trigger enhancements sequentially followed by indexing
-                .to("direct:process.enhancements", "direct:solrIndexing")
+                .to("direct:process.enhancements", "{{cdr.enhancement.solr.indexing.camel:direct:solrIndexing}}")
             .end();
 
         // Expands enhancement requests into individual services
@@ -11,6 +11,7 @@ import edu.unc.lib.boxc.model.api.objects.BinaryObject;
 import edu.unc.lib.boxc.model.api.objects.ContentObject;
 import edu.unc.lib.boxc.model.api.objects.FileObject;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObjectLoader;
+import edu.unc.lib.boxc.model.api.rdf.Cdr;
 import edu.unc.lib.boxc.model.fcrepo.ids.DatastreamPids;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.operations.impl.utils.EmailHandler;
@@ -23,7 +24,6 @@ import edu.unc.lib.boxc.search.api.models.Datastream;
 import edu.unc.lib.boxc.search.api.requests.SearchRequest;
 import edu.unc.lib.boxc.search.api.requests.SearchState;
 import edu.unc.lib.boxc.search.solr.filters.QueryFilterFactory;
-import edu.unc.lib.boxc.search.solr.responses.SearchResultResponse;
 import edu.unc.lib.boxc.search.solr.services.SearchStateFactory;
 import edu.unc.lib.boxc.search.solr.services.SolrSearchService;
 import io.dropwizard.metrics5.Timer;
@@ -32,6 +32,9 @@ import org.apache.camel.Message;
 import org.apache.camel.Processor;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
@@ -42,6 +45,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -51,6 +55,7 @@ import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.zip.ZipEntry;
@@ -80,6 +85,7 @@ public class ExportXMLProcessor implements Processor {
     private int objectsPerExport = 100;
 
     private static final int BUFFER_SIZE = 2048;
+    private static final int CHILDREN_PAGE_SIZE = 5000;
     private static final String SEPERATOR = System.getProperty("line.separator");
     private static final byte[] SEPERATOR_BYTES = SEPERATOR.getBytes();
     private static final byte[] exportHeaderBytes = ("<?xml version=\"1.0\" encoding=\"utf-8\"?>" + SEPERATOR
@@ -188,9 +194,8 @@ public class ExportXMLProcessor implements Processor {
                 continue;
             }
 
-            // Expand list of requested IDs to include children objects
-            searchState.setSortType("export");
-            searchState.setRowsPerPage(Integer.MAX_VALUE);
+            // Expand list of requested IDs to include children objects, retrieved in pages via a cursor
+            searchState.setRowsPerPage(CHILDREN_PAGE_SIZE);
             searchState.setIgnoreMaxRows(true);
             searchState.setResultFields(resultFieldsChildren);
             searchRequest.setApplyCutoffs(false);
@@ -199,13 +204,11 @@ public class ExportXMLProcessor implements Processor {
                         QueryFilterFactory.createFilter(SearchFieldKey.DATASTREAM, request.getDatastreams()));
             }
 
-            SearchResultResponse resultResponse = searchService.getSearchResults(searchRequest);
-            if (resultResponse == null) {
-                throw new ServiceException("An error occurred while retrieving children of " + pid + " for export.");
-            }
-            List<ContentObjectRecord> objects = resultResponse.getResultList();
-            for (ContentObjectRecord object : objects) {
-                pids.add(object.getPid().getId());
+            Iterator<List<ContentObjectRecord>> pageIt = searchService.getSearchResultPages(searchRequest);
+            while (pageIt.hasNext()) {
+                for (ContentObjectRecord object : pageIt.next()) {
+                    pids.add(object.getPid().getId());
+                }
             }
         }
         // update the list of pids in the request with all of the child pids found
@@ -257,6 +260,9 @@ public class ExportXMLProcessor implements Processor {
                         Document dsDoc = createSAXBuilder().build(modsStream);
                         datastreamEl.addContent(dsDoc.detachRootElement());
                     }
+                } else if (dsObj.getResource().hasProperty(Cdr.hasEventsSegment)) {
+                    // Events were appended to the log in separate segments, so export the combined log
+                    datastreamEl.addContent(serializeEventLog(obj));
                 } else {
                     datastreamEl.addContent(IOUtils.toString(dsObj.getBinaryStream(), StandardCharsets.UTF_8));
                 }
@@ -275,6 +281,14 @@ public class ExportXMLProcessor implements Processor {
         xfop.write(SEPERATOR_BYTES);
     }
 
+    private String serializeEventLog(ContentObject obj) throws IOException {
+        Model eventsModel = obj.getPremisLog().getEventsModel();
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            RDFDataMgr.write(bos, eventsModel, RDFFormat.NTRIPLES);
+            return bos.toString(UTF_8);
+        }
+    }
+
     private void initializedIncludedDatastreams(ExportXMLRequest request) {
         Set<DatastreamType> dses = request.getDatastreams();
         if (dses == null) {
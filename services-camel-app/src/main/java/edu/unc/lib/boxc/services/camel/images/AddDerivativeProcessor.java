@@ -10,11 +10,17 @@ import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,6 +45,9 @@ public class AddDerivativeProcessor implements Processor {
     private final String fileExtension;
     private final String derivativeBasePath;
 
+    // Exchange property containing the paths of derivatives generated while processing the exchange
+    public static final String GENERATED_DERIVATIVES = "CdrGeneratedDerivatives";
+
     private final static Pattern ERROR_PATTERN = Pattern.compile("^(.+ @ error/.+)$", Pattern.MULTILINE);
     private final static String IGNORE_ERROR = "; tag ignored.";
 
@@ -82,6 +91,12 @@ public class AddDerivativeProcessor implements Processor {
 
             moveFile(derivativeTmpPath, derivativeFinalPath);
             log.info("Added derivative for {} from {}", binaryUri, derivativeFinalPath);
+
+            @SuppressWarnings("unchecked")
+            Set<String> generated = exchange.getProperty(GENERATED_DERIVATIVES, Set.class);
+            if (generated != null) {
+                generated.add(derivativeFinalPath.toString());
+            }
         } catch (IOException e) {
             log.error("Failed to generate derivative to {} for {}: {}", derivativeBasePath, binaryId, stderr);
             throw e;
@@ -140,6 +155,70 @@ public class AddDerivativeProcessor implements Processor {
         }
     }
 
+    /**
+     * Start tracking which derivatives are generated while processing the exchange, so that later steps can
+     * tell if a derivative is from the current run. Must be called before the exchange is copied to each route
+     * generating derivatives.
+     *
+     * @param exchange Camel message exchange
+     */
+    public void trackGeneratedDerivatives(Exchange exchange) {
+        exchange.setProperty(GENERATED_DERIVATIVES, ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Replaces the CdrImagePath header with the path to this processor's derivative, so that smaller derivatives
+     * can be scaled from it rather than from the full size original. The derivative is only used if it was
+     * generated while processing this exchange and it is at least as large as the requested size, otherwise
+     * the original is left as the source.
+     *
+     * @param exchange Camel message exchange
+     * @param minSize minimum number of pixels the longest side of the derivative must have
+     */
+    public void useDerivativeAsImageSource(Exchange exchange, int minSize) {
+        Message in = exchange.getIn();
+
+        String binaryUri = (String) in.getHeader(FCREPO_URI);
+        String binaryId = PIDs.get(binaryUri).getId();
+        Path derivativePath = setDerivativeFinalPath(binaryId);
+
+        Set<?> generated = exchange.getProperty(GENERATED_DERIVATIVES, Set.class);
+        if (generated == null || !generated.contains(derivativePath.toString())) {
+            log.debug("Derivative {} was not generated in this run, using original for {}", derivativePath, binaryId);
+            return;
+        }
+        int longestSide = getLongestSide(derivativePath);
+        if (longestSide < minSize) {
+            log.debug("Derivative {} is smaller than {}px, using original for {}", derivativePath, minSize, binaryId);
+            return;
+        }
+        log.debug("Using derivative {} as image source for {}", derivativePath, binaryId);
+        in.setHeader(CdrFcrepoHeaders.CdrImagePath, derivativePath.toAbsolutePath().toString());
+    }
+
+    /**
+     * @return the length in pixels of the longest side of the image, read from its header,
+     *      or -1 if it could not be determined
+     */
+    private int getLongestSide(Path imagePath) {
+        try (ImageInputStream imageStream = ImageIO.createImageInputStream(imagePath.toFile())) {
+            Iterator<ImageReader> readers = imageStream == null ? null : ImageIO.getImageReaders(imageStream);
+            if (readers == null || !readers.hasNext()) {
+                return -1;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageStream, true, true);
+                return Math.max(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read dimensions of derivative {}: {}", imagePath, e.getMessage());
+            return -1;
+        }
+    }
+
     /**
      * Deletes a temp file listed in the CdrTempPath header if it is present
      *
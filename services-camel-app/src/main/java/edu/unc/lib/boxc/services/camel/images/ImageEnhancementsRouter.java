@@ -57,9 +57,11 @@ public class ImageEnhancementsRouter extends RouteBuilder {
                 .bean(imageDerivProcessor)
                 // Generate an random identifier to avoid derivative collisions
                 .bean(uuidGenerator)
+                .bean(addLargeThumbProcessor, "trackGeneratedDerivatives")
+                // Large thumbnail must be produced first, since smaller sizes are scaled down from it
                 .multicast()
                 .shareUnitOfWork()
-                .to("direct:small.thumbnail", "direct:large.thumbnail");
+                .to("direct:large.thumbnail", "direct:small.thumbnail");
 
         from("direct:small.thumbnail")
             .routeId("SmallThumbnail")
@@ -67,9 +69,13 @@ public class ImageEnhancementsRouter extends RouteBuilder {
             .log(LoggingLevel.INFO, log, "Creating/Updating Small Thumbnail for ${headers[CdrImagePath]}")
             .filter().method(addSmallThumbnailProcessor, "needsRun")
                 .setHeader(CdrFcrepoHeaders.CdrTempPath, simple("${properties:services.tempDirectory}/${body}-small"))
+                // Avoid decoding the full size original again when the large thumbnail was just generated
+                .bean(addLargeThumbProcessor, "useDerivativeAsImageSource(*, "
+                        + "${properties:cdr.enhancement.thumbnail.small.size:64})")
                 .doTry()
                     .recipientList(simple("exec:/bin/sh?args=${properties:cdr.enhancement.bin}/convertScaleStage.sh "
-                            + "${headers[CdrImagePath]} png 64 64 ${headers[CdrTempPath]}"))
+                            + "${headers[CdrImagePath]} png ${properties:cdr.enhancement.thumbnail.small.size:64} "
+                            + "${properties:cdr.enhancement.thumbnail.small.size:64} ${headers[CdrTempPath]}"))
                     .bean(addSmallThumbnailProcessor)
                 .endDoTry()
                 .doFinally()
@@ -86,7 +92,8 @@ public class ImageEnhancementsRouter extends RouteBuilder {
                 .setHeader(CdrFcrepoHeaders.CdrTempPath, simple("${properties:services.tempDirectory}/${body}-large"))
                 .doTry()
                     .recipientList(simple("exec:/bin/sh?args=${properties:cdr.enhancement.bin}/convertScaleStage.sh "
-                            + "${headers[CdrImagePath]} png 128 128 ${headers[CdrTempPath]}"))
+                            + "${headers[CdrImagePath]} png ${properties:cdr.enhancement.thumbnail.large.size:128} "
+                            + "${properties:cdr.enhancement.thumbnail.large.size:128} ${headers[CdrTempPath]}"))
                     .bean(addLargeThumbProcessor)
                 .endDoTry()
                 .doFinally()
@@ -37,6 +37,7 @@ import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.ids.RepositoryPathConstants;
 import edu.unc.lib.boxc.model.api.objects.BinaryObject;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObjectLoader;
+import edu.unc.lib.boxc.model.fcrepo.ids.DatastreamPids;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.persist.impl.transfer.FileSystemTransferHelpers;
 import io.dropwizard.metrics5.Histogram;
@@ -277,6 +278,9 @@ public class RegisterToLongleafProcessor extends AbstractLongleafProcessor {
 
         if (REGISTERABLE_IDS.contains(dsId)) {
             return true;
+        } else if (dsId.startsWith(DatastreamType.MD_EVENTS.getId() + DatastreamPids.SEGMENT_SUFFIX)) {
+            // Segments of events appended to an event log
+            return true;
         } else {
             // Also registerable if the datastream is a deposit manifest
             PID dsPid = PIDs.get(fcrepoUri);
@@ -5,7 +5,16 @@ import static edu.unc.lib.boxc.fcrepo.FcrepoJmsConstants.RESOURCE_TYPE;
 import static org.fcrepo.camel.FcrepoHeaders.FCREPO_URI;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import edu.unc.lib.boxc.operations.jms.MessageSender;
 import org.apache.camel.Exchange;
@@ -14,7 +23,8 @@ import org.apache.camel.Processor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import edu.unc.lib.boxc.indexing.solr.SolrUpdateRequest;
+import edu.unc.lib.boxc.common.metrics.HistogramFactory;
+import edu.unc.lib.boxc.indexing.solr.exception.IndexingException;
 import edu.unc.lib.boxc.indexing.solr.indexing.DocumentIndexingPackage;
 import edu.unc.lib.boxc.indexing.solr.indexing.DocumentIndexingPackageFactory;
 import edu.unc.lib.boxc.indexing.solr.indexing.DocumentIndexingPipeline;
@@ -23,10 +33,12 @@ import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObject;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObjectLoader;
 import edu.unc.lib.boxc.model.api.rdf.Fcrepo4Repository;
+import edu.unc.lib.boxc.model.api.services.ContentPathFactory;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
-import edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType;
 import edu.unc.lib.boxc.model.api.objects.FileObject;
 import edu.unc.lib.boxc.model.api.objects.WorkObject;
+import edu.unc.lib.boxc.search.solr.models.IndexDocumentBean;
+import io.dropwizard.metrics5.Histogram;
 import io.dropwizard.metrics5.Timer;
 
 /**
@@ -38,12 +50,17 @@ import io.dropwizard.metrics5.Timer;
 public class SolrIngestProcessor implements Processor {
     private static final Logger log = LoggerFactory.getLogger(SolrIngestProcessor.class);
     private static final Timer timer = createTimerForClass(SolrIngestProcessor.class);
+    private static final Timer batchTimer = createTimerForClass(SolrIngestProcessor.class, "batch");
+    private static final Histogram batchSizeHistogram = HistogramFactory
+            .createHistogram("solrIngestBatchSize");
 
     private DocumentIndexingPackageFactory factory;
     private DocumentIndexingPipeline pipeline;
     private SolrUpdateDriver solrUpdateDriver;
     private RepositoryObjectLoader repoObjLoader;
     private MessageSender updateWorkSender;
+    private ContentPathFactory contentPathFactory;
+    private ExecutorService executorService;
 
     public SolrIngestProcessor(DocumentIndexingPackageFactory factory,
             DocumentIndexingPipeline pipeline, SolrUpdateDriver solrUpdateDriver,
@@ -58,48 +75,169 @@ public class SolrIngestProcessor implements Processor {
     public void process(Exchange exchange) throws Exception {
         try (Timer.Context context = timer.time()) {
             final Message in = exchange.getIn();
-            String fcrepoUri = (String) in.getHeader(FCREPO_URI);
-
-            log.debug("Processing solr request for {}", fcrepoUri);
-
-            List<PID> targetPids = new ArrayList<>();
-            PID targetPid = PIDs.get(fcrepoUri);
-            String resourceTypes = (String) in.getHeader(RESOURCE_TYPE);
-
-            PID grandParentWorkPid = null;
-            // for binaries, need to index the file and work objects which contain it
-            if (resourceTypes != null && resourceTypes.contains(Fcrepo4Repository.Binary.getURI())) {
-                targetPid = PIDs.get(targetPid.getId());
-                FileObject parentFile = repoObjLoader.getFileObject(targetPid);
-                RepositoryObject grandParent = parentFile.getParent();
-                // Trigger indexing of the work containing this file object
-                if (grandParent instanceof WorkObject) {
-                    grandParentWorkPid = grandParent.getPid();
+            PID targetPid = getTargetPid(in);
+            PID parentWorkPid = getParentWorkPid(in, targetPid);
+
+            log.debug("Indexing object {}", targetPid);
+            DocumentIndexingPackage dip = createIndexedDip(targetPid);
+            solrUpdateDriver.addDocument(dip.getDocument());
+
+            requestWorkIndexing(parentWorkPid, targetPid);
+        }
+    }
+
+    /**
+     * Prepares a message for batch indexing, replacing its body with the id of the object to index.
+     * Indexing of the work containing a binary is requested at this point, since the resource
+     * type of the message is not retained once messages are aggregated.
+     *
+     * @param exchange
+     */
+    public void prepareForBatch(Exchange exchange) {
+        final Message in = exchange.getIn();
+        PID targetPid = getTargetPid(in);
+        requestWorkIndexing(getParentWorkPid(in, targetPid), targetPid);
+        in.setBody(targetPid.getId());
+    }
+
+    /**
+     * Index a batch of objects, where the body of the exchange is either a single object id or a
+     * collection of them. Ancestors of the batch are loaded together, documents are built in parallel
+     * if an executor is provided, and then all are submitted to solr in a single request. Each object is
+     * only indexed once per batch, so as long as batches are processed in order by a single consumer, the
+     * most recent state of each object is what ends up in the index.
+     *
+     * If any objects in the batch fail, the rest of the batch is still indexed, and then the body of the
+     * exchange is replaced with the ids of the failed objects before rethrowing the first failure, so that
+     * redeliveries only retry the objects which failed.
+     *
+     * @param exchange
+     * @throws Exception
+     */
+    public void processBatch(Exchange exchange) throws Exception {
+        try (Timer.Context context = batchTimer.time()) {
+            Object body = exchange.getIn().getBody();
+            Collection<?> ids = body instanceof Collection ? (Collection<?>) body : Collections.singletonList(body);
+            Set<PID> pids = new LinkedHashSet<>();
+            for (Object id : ids) {
+                pids.add(PIDs.get(id.toString()));
+            }
+            if (pids.isEmpty()) {
+                return;
+            }
+            log.debug("Indexing batch of {} objects", pids.size());
+            batchSizeHistogram.update(pids.size());
+
+            if (contentPathFactory != null) {
+                try {
+                    contentPathFactory.preloadAncestors(pids);
+                } catch (Exception e) {
+                    log.warn("Failed to preload ancestors for batch, they will be retrieved individually", e);
                 }
             }
 
-            targetPids.add(targetPid);
-
-            log.debug("Indexing objects {}", targetPids);
-            for (PID pid: targetPids) {
-                SolrUpdateRequest updateRequest = new SolrUpdateRequest(
-                        pid.getRepositoryPath(), IndexingActionType.ADD);
+            List<IndexDocumentBean> docs = new ArrayList<>(pids.size());
+            List<String> failedIds = new ArrayList<>();
+            Exception firstFailure = null;
+            Map<PID, Future<DocumentIndexingPackage>> futures = new LinkedHashMap<>();
+            if (executorService != null) {
+                for (PID pid : pids) {
+                    futures.put(pid, executorService.submit(() -> createIndexedDip(pid)));
+                }
+            }
+            for (PID pid : pids) {
+                try {
+                    DocumentIndexingPackage dip = executorService == null ?
+                            createIndexedDip(pid) : getResult(futures.get(pid));
+                    docs.add(dip.getDocument());
+                } catch (Exception e) {
+                    log.warn("Failed to index {} as part of batch: {}", pid.getId(), e.getMessage());
+                    failedIds.add(pid.getId());
+                    if (firstFailure == null) {
+                        firstFailure = e;
+                    }
+                }
+            }
 
-                DocumentIndexingPackage dip = factory.createDip(pid);
-                updateRequest.setDocumentIndexingPackage(dip);
+            if (!docs.isEmpty()) {
+                solrUpdateDriver.addDocuments(docs);
+            }
 
-                pipeline.process(dip);
-                solrUpdateDriver.addDocument(dip.getDocument());
+            if (firstFailure != null) {
+                log.warn("Failed to index {} of {} objects in batch", failedIds.size(), pids.size());
+                exchange.getIn().setBody(failedIds);
+                throw firstFailure;
             }
+        }
+    }
 
-            if (grandParentWorkPid != null) {
-                log.debug("Requesting indexing of work {} containing file {}", grandParentWorkPid.getId(), targetPid);
-                updateWorkSender.sendMessage(grandParentWorkPid.getQualifiedId());
+    private DocumentIndexingPackage getResult(Future<DocumentIndexingPackage> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
             }
+            throw e;
         }
     }
 
+    private PID getTargetPid(Message in) {
+        String fcrepoUri = (String) in.getHeader(FCREPO_URI);
+
+        log.debug("Processing solr request for {}", fcrepoUri);
+
+        PID targetPid = PIDs.get(fcrepoUri);
+        // for binaries, need to index the file object which contains it
+        if (isBinary(in)) {
+            targetPid = PIDs.get(targetPid.getId());
+        }
+        return targetPid;
+    }
+
+    /**
+     * @return pid of the work containing the file object, if the message is for a binary in a work
+     */
+    private PID getParentWorkPid(Message in, PID filePid) {
+        if (!isBinary(in)) {
+            return null;
+        }
+        FileObject parentFile = repoObjLoader.getFileObject(filePid);
+        RepositoryObject grandParent = parentFile.getParent();
+        if (grandParent instanceof WorkObject) {
+            return grandParent.getPid();
+        }
+        return null;
+    }
+
+    private boolean isBinary(Message in) {
+        String resourceTypes = (String) in.getHeader(RESOURCE_TYPE);
+        return resourceTypes != null && resourceTypes.contains(Fcrepo4Repository.Binary.getURI());
+    }
+
+    private void requestWorkIndexing(PID workPid, PID filePid) {
+        if (workPid != null) {
+            log.debug("Requesting indexing of work {} containing file {}", workPid.getId(), filePid);
+            updateWorkSender.sendMessage(workPid.getQualifiedId());
+        }
+    }
+
+    private DocumentIndexingPackage createIndexedDip(PID pid) throws IndexingException {
+        DocumentIndexingPackage dip = factory.createDip(pid);
+        pipeline.process(dip);
+        return dip;
+    }
+
     public void setUpdateWorkSender(MessageSender updateWorkSender) {
         this.updateWorkSender = updateWorkSender;
     }
-}
\ No newline at end of file
+
+    public void setContentPathFactory(ContentPathFactory contentPathFactory) {
+        this.contentPathFactory = contentPathFactory;
+    }
+
+    public void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+}
@@ -48,5 +48,36 @@ public class SolrRouter extends RouteBuilder {
             .end()
             .log(LoggingLevel.DEBUG, log, "Calling solr indexing route for ${headers[org.fcrepo.jms.identifier]}")
             .bean(solrIngestProcessor);
+
+        // Queues objects for indexing in batches, used when cdr.enhancement.solr.indexing.camel points here
+        from("direct:solrIndexing.queue")
+            .routeId("CdrServiceSolrBatchQueuing")
+            .startupOrder(39)
+            .bean(solrIngestProcessor, "prepareForBatch")
+            .log(LoggingLevel.DEBUG, log, "Queuing ${body} for batch solr indexing")
+            .to("{{cdr.enhancement.solr.batch.dest:direct:solrIndexing.batch}}");
+
+        // Batches should be consumed by a single consumer in order to retain the ordering of updates to each object
+        from("{{cdr.enhancement.solr.batch.consumer:direct:solrIndexing.batch}}")
+            .routeId("CdrServiceSolrBatch")
+            .startupOrder(38)
+            .onException(NotFoundException.class)
+                .redeliveryDelay("{{cdr.enhancement.solr.notFound.retryDelay:500}}")
+                .maximumRedeliveries("{{cdr.enhancement.solr.notFound.maxRedeliveries:10}}")
+                .backOffMultiplier("{{cdr.enhancement.solr.notFound.backOffMultiplier:2}}")
+                .retryAttemptedLogLevel(LoggingLevel.DEBUG)
+            .end()
+            .onException(RecoverableIndexingException.class, FcrepoOperationFailedException.class,
+                    ConnectException.class, HttpException.class)
+                .redeliveryDelay("{{cdr.enhancement.solr.error.retryDelay:500}}")
+                .maximumRedeliveries("{{cdr.enhancement.solr.error.maxRedeliveries:10}}")
+                .backOffMultiplier("{{cdr.enhancement.solr.error.backOffMultiplier:2}}")
+                .retryAttemptedLogLevel(LoggingLevel.WARN)
+            .end()
+            .onException(Exception.class)
+                .retriesExhaustedLogLevel(LoggingLevel.ERROR)
+            .end()
+            .log(LoggingLevel.DEBUG, log, "Processing batch of solr indexing requests")
+            .bean(solrIngestProcessor, "processBatch");
     }
 }
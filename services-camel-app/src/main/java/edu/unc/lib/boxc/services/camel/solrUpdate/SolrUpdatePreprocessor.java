@@ -3,6 +3,7 @@ package edu.unc.lib.boxc.services.camel.solrUpdate;
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType;
+import edu.unc.lib.boxc.operations.jms.indexing.IndexingMessage;
 import edu.unc.lib.boxc.services.camel.util.CdrFcrepoHeaders;
 import edu.unc.lib.boxc.services.camel.util.IndexingActionUtil;
 import edu.unc.lib.boxc.services.camel.util.MessageUtil;
@@ -13,14 +14,11 @@ import org.apache.camel.Message;
 import org.apache.camel.Processor;
 import org.fcrepo.camel.FcrepoHeaders;
 import org.jdom2.Document;
-import org.jdom2.Element;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.ATOM_NS;
-
 /**
  * Processor which prepares update messages for further processing
  *
@@ -34,21 +32,16 @@ public class SolrUpdatePreprocessor implements Processor {
         log.debug("Preprocessing solr update");
         final Message in = exchange.getIn();
 
-        Document msgBody = MessageUtil.getDocumentBody(in);
-        Element body = msgBody.getRootElement();
-
-        String action = body.getChild("actionType", ATOM_NS).getTextTrim();
-        IndexingActionType actionType = IndexingActionType.getAction(action);
+        IndexingMessage msg = MessageUtil.getIndexingMessage(in);
+        IndexingActionType actionType = msg.getActionType();
 
         // Store the action type as a header
         in.setHeader(CdrFcrepoHeaders.CdrSolrUpdateAction, actionType);
-        String pidString = body.getChild("pid", ATOM_NS).getTextTrim();
-        PID pid = PIDs.get(pidString);
+        PID pid = PIDs.get(msg.getPid());
         in.setHeader(FcrepoHeaders.FCREPO_URI, pid.getRepositoryPath());
 
-        String priority = body.getChildTextTrim("category", ATOM_NS);
-        if (priority != null) {
-            in.setHeader(CdrFcrepoHeaders.CdrSolrIndexingPriority, priority);
+        if (msg.getPriority() != null) {
+            in.setHeader(CdrFcrepoHeaders.CdrSolrIndexingPriority, msg.getPriority().name());
         }
     }
 
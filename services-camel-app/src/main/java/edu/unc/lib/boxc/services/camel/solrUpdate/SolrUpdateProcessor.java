@@ -3,6 +3,9 @@ package edu.unc.lib.boxc.services.camel.solrUpdate;
 import edu.unc.lib.boxc.indexing.solr.ChildSetRequest;
 import edu.unc.lib.boxc.indexing.solr.SolrUpdateRequest;
 import edu.unc.lib.boxc.indexing.solr.action.IndexingAction;
+import edu.unc.lib.boxc.indexing.solr.exception.RecoverableIndexingException;
+import edu.unc.lib.boxc.model.api.exceptions.NotFoundException;
+import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.objects.AdminUnit;
 import edu.unc.lib.boxc.model.api.objects.CollectionObject;
 import edu.unc.lib.boxc.model.api.objects.FileObject;
@@ -12,6 +15,7 @@ import edu.unc.lib.boxc.model.api.objects.WorkObject;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.operations.jms.MessageSender;
 import edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType;
+import edu.unc.lib.boxc.operations.jms.indexing.IndexingMessage;
 import edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageSender;
 import edu.unc.lib.boxc.search.solr.config.SolrSettings;
 import edu.unc.lib.boxc.search.solr.services.TitleRetrievalService;
@@ -22,13 +26,12 @@ import org.apache.camel.Message;
 import org.apache.camel.Processor;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrServerException;
-import org.jdom2.Document;
-import org.jdom2.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -36,9 +39,6 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import static edu.unc.lib.boxc.common.metrics.TimerFactory.createTimerForClass;
-import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.ATOM_NS;
-import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.CDR_MESSAGE_NS;
-import static java.util.stream.Collectors.toMap;
 
 /**
  * Processes solr update messages, triggering the requested solr update action.
@@ -71,22 +71,13 @@ public class SolrUpdateProcessor implements Processor {
         try (Timer.Context context = timer.time()) {
             final Message in = exchange.getIn();
 
-            Document msgBody = MessageUtil.getDocumentBody(in);
-            Element body = msgBody.getRootElement();
+            IndexingMessage msg = MessageUtil.getIndexingMessage(in);
 
-            String pid = body.getChild("pid", ATOM_NS).getTextTrim();
-            String action = body.getChild("actionType", ATOM_NS).getTextTrim();
-            IndexingActionType actionType = IndexingActionType.getAction(action);
-
-            List<String> children = extractChildren(body);
-
-            Map<String, String> params = extractParams(body);
-
-            Element authorEl = body.getChild("author", ATOM_NS);
-            String author = null;
-            if (authorEl != null) {
-                author = authorEl.getChildText("name", ATOM_NS);
-            }
+            String pid = msg.getPid();
+            IndexingActionType actionType = msg.getActionType();
+            List<String> children = msg.getChildren();
+            Map<String, String> params = msg.getParams();
+            String author = msg.getUserid();
 
             SolrUpdateRequest updateRequest;
             if (children == null) {
@@ -106,10 +97,23 @@ public class SolrUpdateProcessor implements Processor {
             if (needsUpdateOfChildrenPathInfo(targetObj, actionType)) {
                 previousTitle = titleRetrievalService.retrieveCachedTitle(targetPid);
             }
-            log.info("Performing action {} on object {}", action, pid);
-            indexingAction.performAction(updateRequest);
+            log.info("Performing action {} on object {}", actionType, pid);
+            try {
+                indexingAction.performAction(updateRequest);
+            } catch (RecoverableIndexingException e) {
+                if (updateRequest instanceof ChildSetRequest) {
+                    retryFailedChildrenOnly(in, msg, (ChildSetRequest) updateRequest, actionType);
+                }
+                throw e;
+            }
 
-            triggerFollowupActions(targetObj, actionType, previousTitle);
+            if (updateRequest instanceof ChildSetRequest
+                    && ((ChildSetRequest) updateRequest).getIndexedChildren() != null) {
+                // The action indexed each child rather than the target, so follow up on the children instead
+                triggerChildFollowupActions(((ChildSetRequest) updateRequest).getIndexedChildren(), actionType);
+            } else {
+                triggerFollowupActions(targetObj, actionType, previousTitle);
+            }
         }
     }
 
@@ -144,28 +148,55 @@ public class SolrUpdateProcessor implements Processor {
         }
     }
 
-    private boolean needsUpdateOfChildrenPathInfo(RepositoryObject targetObj, IndexingActionType actionType) {
-        return NEED_UPDATE_CHILDREN_PATH_INFO.contains(actionType) &&
-                (targetObj instanceof AdminUnit || targetObj instanceof CollectionObject);
+    /**
+     * Perform follow up actions for children which were indexed before the request failed, and replace the
+     * body of the message with only the failed children, so that redeliveries do not index the rest again
+     */
+    private void retryFailedChildrenOnly(Message in, IndexingMessage msg, ChildSetRequest childSetRequest,
+            IndexingActionType actionType) throws IOException {
+        List<PID> failedChildren = childSetRequest.getFailedChildren();
+        if (failedChildren == null || failedChildren.isEmpty()) {
+            return;
+        }
+        if (childSetRequest.getIndexedChildren() != null) {
+            triggerChildFollowupActions(childSetRequest.getIndexedChildren(), actionType);
+        }
+        log.warn("Failed to index {} of {} children in set for {}, retrying only the failed children",
+                failedChildren.size(), childSetRequest.getChildren().size(), msg.getPid());
+        msg.setChildren(failedChildren.stream().map(PID::getQualifiedId).collect(Collectors.toList()));
+        MessageUtil.setIndexingMessage(in, msg);
     }
 
-    private List<String> extractChildren(Element body) {
-        Element childrenEl = body.getChild("children", CDR_MESSAGE_NS);
-        if (childrenEl == null) {
-            return null;
+    private void triggerChildFollowupActions(List<PID> children, IndexingActionType actionType) {
+        if (!NEED_UPDATE_PARENT_WORK.contains(actionType)) {
+            return;
+        }
+        // Request each work once, regardless of how many of its files were in the set
+        Set<PID> workPids = new LinkedHashSet<>();
+        for (PID childPid : children) {
+            RepositoryObject childObj;
+            try {
+                childObj = repoObjLoader.getRepositoryObject(childPid);
+            } catch (NotFoundException e) {
+                log.debug("Child {} no longer exists, skipping update of its parent", childPid.getId());
+                continue;
+            }
+            if (childObj instanceof FileObject) {
+                var parent = childObj.getParent();
+                if (parent instanceof WorkObject) {
+                    workPids.add(parent.getPid());
+                }
+            }
+        }
+        for (PID workPid : workPids) {
+            log.debug("Requesting indexing of work {} containing indexed files", workPid.getId());
+            updateWorkSender.sendMessage(workPid.getQualifiedId());
         }
-        return childrenEl.getChildren("pid", CDR_MESSAGE_NS).stream()
-                .map(c -> c.getTextTrim())
-                .collect(Collectors.toList());
     }
 
-    private Map<String, String> extractParams(Element body) {
-        Element paramsEl = body.getChild("params", CDR_MESSAGE_NS);
-        if (paramsEl == null) {
-            return null;
-        }
-        return paramsEl.getChildren("param", CDR_MESSAGE_NS).stream()
-                .collect(toMap(p -> p.getAttributeValue("name"), p -> p.getTextTrim()));
+    private boolean needsUpdateOfChildrenPathInfo(RepositoryObject targetObj, IndexingActionType actionType) {
+        return NEED_UPDATE_CHILDREN_PATH_INFO.contains(actionType) &&
+                (targetObj instanceof AdminUnit || targetObj instanceof CollectionObject);
     }
 
     /**
@@ -0,0 +1,114 @@
+package edu.unc.lib.boxc.services.camel.triplesReindexing;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.apache.camel.Processor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scans an N-Triples body for ldp:contains relations, replacing the body with the list of URIs of
+ * the contained resources. The body is read as a stream, one line at a time, without splitting it into
+ * separate messages or fully tokenizing each triple.
+ *
+ * @author bbpennel
+ */
+public class ContainedResourcesProcessor implements Processor {
+    private static final Logger log = LoggerFactory.getLogger(ContainedResourcesProcessor.class);
+
+    private static final String LDP_CONTAINS = "<http://www.w3.org/ns/ldp#contains>";
+
+    @Override
+    public void process(Exchange exchange) throws Exception {
+        final Message in = exchange.getIn();
+        InputStream body = in.getBody(InputStream.class);
+        if (body == null) {
+            in.setBody(Collections.emptyList());
+            return;
+        }
+
+        List<String> contained;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, UTF_8))) {
+            contained = findContained(reader);
+        }
+        log.debug("Found {} contained resources", contained.size());
+        in.setBody(contained);
+    }
+
+    /**
+     * @param reader reader of N-Triples content
+     * @return URIs of all resources which are the object of an ldp:contains triple
+     * @throws IOException
+     */
+    public static List<String> findContained(BufferedReader reader) throws IOException {
+        List<String> contained = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String uri = getContainedUri(line);
+            if (uri != null) {
+                contained.add(uri);
+            }
+        }
+        return contained;
+    }
+
+    /**
+     * Minimal parsing of a triple according to https://www.w3.org/TR/n-triples/#n-triples-grammar,
+     * only extracting the object if the predicate is ldp:contains and the object is an IRI
+     *
+     * @param line a single N-Triples statement
+     * @return URI of the contained resource, or null if the statement is not an ldp:contains relation
+     */
+    protected static String getContainedUri(String line) {
+        // Cheap check to skip the majority of statements before locating terms
+        if (line.indexOf(LDP_CONTAINS) == -1) {
+            return null;
+        }
+        int pos = skipWhitespace(line, 0);
+        if (pos >= line.length()) {
+            return null;
+        }
+        // Find the end of the subject, which is either an IRI or a blank node
+        if (line.charAt(pos) == '<') {
+            pos = line.indexOf('>', pos);
+            if (pos == -1) {
+                return null;
+            }
+            pos++;
+        } else {
+            while (pos < line.length() && !Character.isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
+        }
+        pos = skipWhitespace(line, pos);
+        if (!line.startsWith(LDP_CONTAINS, pos)) {
+            return null;
+        }
+        pos = skipWhitespace(line, pos + LDP_CONTAINS.length());
+        if (pos >= line.length() || line.charAt(pos) != '<') {
+            return null;
+        }
+        int objectEnd = line.indexOf('>', pos);
+        if (objectEnd == -1) {
+            return null;
+        }
+        return line.substring(pos + 1, objectEnd);
+    }
+
+    private static int skipWhitespace(String line, int pos) {
+        while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
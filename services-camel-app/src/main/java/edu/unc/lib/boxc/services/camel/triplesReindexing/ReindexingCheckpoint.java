@@ -0,0 +1,181 @@
+package edu.unc.lib.boxc.services.camel.triplesReindexing;
+
+import static edu.unc.lib.boxc.services.camel.util.CdrFcrepoHeaders.CdrReindexRequestId;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.fcrepo.camel.FcrepoHeaders.FCREPO_URI;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.apache.camel.Body;
+import org.apache.camel.ExchangeProperty;
+import org.apache.camel.Header;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks the progress of resources currently being traversed during a triplestore reindex, so that a
+ * traversal which is retried or redelivered after a restart does not queue the same contained resources
+ * again. Contained resources are queued in sorted order, and the last one queued is recorded as a cursor
+ * for the resource being traversed, scoped to the reindex request it belongs to. The cursor is removed once
+ * the traversal of the resource completes, so only resources which are in progress are retained, and the
+ * checkpoint is empty once a reindex finishes.
+ *
+ * If a checkpoint file is configured, cursors are persisted to it and loaded on startup. Queued resources are
+ * persisted periodically, after a number of them have been queued or an interval has passed, as well as when a
+ * traversal completes and on shutdown. Resources queued since the last persist may be queued again after an
+ * unexpected shutdown.
+ *
+ * @author bbpennel
+ */
+public class ReindexingCheckpoint {
+    private static final Logger log = LoggerFactory.getLogger(ReindexingCheckpoint.class);
+
+    // Exchange property containing the uri of the resource whose contained resources are being queued
+    public static final String PARENT_URI_PROPERTY = "CdrReindexParentUri";
+    private static final String SEPARATOR = "\t";
+
+    private String checkpointPath;
+    private Path path;
+    private final Map<String, String> cursors = new ConcurrentHashMap<>();
+    private int persistInterval = 100;
+    private long persistIntervalMillis = 5000;
+    private final AtomicInteger unpersistedCount = new AtomicInteger();
+    private volatile long lastPersisted = System.currentTimeMillis();
+
+    public void init() throws IOException {
+        if (StringUtils.isBlank(checkpointPath)) {
+            log.info("Triplestore reindexing checkpoint will not be persisted");
+            return;
+        }
+        path = Paths.get(checkpointPath);
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int index = line.lastIndexOf(SEPARATOR);
+                    if (index != -1) {
+                        cursors.put(line.substring(0, index), line.substring(index + 1));
+                    }
+                }
+            }
+            log.info("Loaded {} in progress traversals from reindexing checkpoint {}", cursors.size(), path);
+        } else if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+    }
+
+    /**
+     * Sort the resources contained by the resource being traversed, and remove any which were already
+     * queued by a previous attempt to traverse it
+     *
+     * @param requestId id of the reindex request, may be null
+     * @param uri uri of the resource being traversed
+     * @param contained uris of the contained resources
+     * @return sorted uris of the contained resources which have not been queued
+     */
+    public List<String> removeQueued(@Header(CdrReindexRequestId) String requestId,
+            @Header(FCREPO_URI) String uri, @Body List<String> contained) {
+        List<String> sorted = new ArrayList<>(contained);
+        Collections.sort(sorted);
+        String cursor = cursors.get(getKey(requestId, uri));
+        if (cursor == null) {
+            return sorted;
+        }
+        log.debug("Resuming traversal of {} after {}", uri, cursor);
+        return sorted.stream().filter(child -> child.compareTo(cursor) > 0).collect(Collectors.toList());
+    }
+
+    /**
+     * Record that a contained resource has been queued for traversal
+     *
+     * @param requestId id of the reindex request, may be null
+     * @param parentUri uri of the resource being traversed
+     * @param childUri uri of the contained resource which was queued
+     */
+    public void markQueued(@Header(CdrReindexRequestId) String requestId,
+            @ExchangeProperty(PARENT_URI_PROPERTY) String parentUri, @Header(FCREPO_URI) String childUri) {
+        cursors.put(getKey(requestId, parentUri), childUri);
+        if (unpersistedCount.incrementAndGet() >= persistInterval
+                || System.currentTimeMillis() - lastPersisted >= persistIntervalMillis) {
+            persist();
+        }
+    }
+
+    /**
+     * Record that the traversal of a resource has finished, clearing its cursor
+     *
+     * @param requestId id of the reindex request, may be null
+     * @param uri uri of the resource which was traversed
+     */
+    public void complete(@Header(CdrReindexRequestId) String requestId, @Header(FCREPO_URI) String uri) {
+        if (cursors.remove(getKey(requestId, uri)) != null) {
+            persist();
+        }
+    }
+
+    /**
+     * Persist any progress which has not yet been recorded, on shutdown
+     */
+    public void destroy() {
+        persist();
+    }
+
+    private String getKey(String requestId, String uri) {
+        return StringUtils.defaultString(requestId) + SEPARATOR + uri;
+    }
+
+    private synchronized void persist() {
+        if (path == null) {
+            return;
+        }
+        unpersistedCount.set(0);
+        lastPersisted = System.currentTimeMillis();
+        Path tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmpPath, UTF_8)) {
+                for (Map.Entry<String, String> entry : cursors.entrySet()) {
+                    writer.write(entry.getKey() + SEPARATOR + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            // Replace the checkpoint in a single step so it survives an unexpected shutdown
+            Files.move(tmpPath, path, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to record reindexing checkpoint " + path, e);
+        }
+    }
+
+    public void setCheckpointPath(String checkpointPath) {
+        this.checkpointPath = checkpointPath;
+    }
+
+    /**
+     * @param persistInterval number of queued resources after which the checkpoint is persisted
+     */
+    public void setPersistInterval(int persistInterval) {
+        this.persistInterval = persistInterval;
+    }
+
+    /**
+     * @param persistIntervalMillis time after which queued resources are persisted, in milliseconds
+     */
+    public void setPersistIntervalMillis(long persistIntervalMillis) {
+        this.persistIntervalMillis = persistIntervalMillis;
+    }
+}
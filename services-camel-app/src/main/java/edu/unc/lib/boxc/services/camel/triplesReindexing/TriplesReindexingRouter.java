@@ -1,5 +1,6 @@
 package edu.unc.lib.boxc.services.camel.triplesReindexing;
 
+import static edu.unc.lib.boxc.services.camel.util.CdrFcrepoHeaders.CdrReindexRequestId;
 import static org.apache.camel.LoggingLevel.INFO;
 import static org.fcrepo.camel.FcrepoHeaders.FCREPO_URI;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -18,11 +19,15 @@ import org.slf4j.Logger;
 public class TriplesReindexingRouter extends RouteBuilder {
     private static final Logger log = getLogger(TriplesReindexingRouter.class);
 
-    private static final String LDP_CONTAINS = "<http://www.w3.org/ns/ldp#contains>";
-
     @BeanInject(value = "indexingMessageProcessor")
     private IndexingMessageProcessor indexingMessageProcessor;
 
+    @BeanInject(value = "containedResourcesProcessor")
+    private ContainedResourcesProcessor containedResourcesProcessor;
+
+    @BeanInject(value = "reindexingCheckpoint")
+    private ReindexingCheckpoint reindexingCheckpoint;
+
     @Override
     public void configure() throws Exception {
         onException(Exception.class)
@@ -37,36 +42,36 @@ public class TriplesReindexingRouter extends RouteBuilder {
             .startupOrder(2)
             .bean(indexingMessageProcessor)
             .log(INFO, log, "Received triple reindexing update message: ${headers[CamelFcrepoUri]}")
+            // Progress of the traversal is tracked per reindex request
+            .setHeader(CdrReindexRequestId, simple("${exchangeId}"))
             .inOnly("{{reindexing.stream}}?disableTimeToLive=true");
 
         // Route which recursively steps through fedora objects and submits them for indexing
-        from("{{reindexing.stream}}?asyncConsumer=true")
+        from("{{reindexing.stream}}?asyncConsumer=true"
+                + "&concurrentConsumers={{triplestore.reindex.concurrentConsumers:1}}")
             .routeId("FcrepoReindexingTraverse")
             .startupOrder(1)
+            .onCompletion().onFailureOnly()
+                // Discard the progress of traversals which will not be attempted again
+                .bean(reindexingCheckpoint, "complete")
+            .end()
             .log(INFO, log, "Reindexing ${headers[CamelFcrepoUri]}")
             .inOnly("{{triplestore.reindex.stream}}")
             .to("fcrepo:{{fcrepo.baseUrl}}?preferInclude=PreferContainment" +
                     "&preferOmit=ServerManaged&accept=application/n-triples")
-            // split the n-triples stream on line breaks so that each triple is split into a separate message
-            .split(body().tokenize("\\n")).streaming()
-                .removeHeader(FCREPO_URI)
+            // Replace the n-triples body with the list of contained resources
+            .bean(containedResourcesProcessor)
+            // Skip contained resources which were queued by a previous attempt to traverse this resource
+            .bean(reindexingCheckpoint, "removeQueued")
+            .setProperty(ReindexingCheckpoint.PARENT_URI_PROPERTY, header(FCREPO_URI))
+            .split(body()).streaming()
                 .removeHeader("JMSCorrelationID")
-                .process(exchange -> {
-                    // This is a simple n-triples parser, spliting nodes on whitespace according to
-                    // https://www.w3.org/TR/n-triples/#n-triples-grammar
-                    // If the body is not null and the predicate is ldp:contains and the object is a URI,
-                    // then set the CamelFcrepoUri header (if that header is not set, the processing stops
-                    // at the filter() line below.
-                    final String body = exchange.getIn().getBody(String.class);
-                    if (body != null) {
-                        final String parts[] = body.split("\\s+");
-                        if (parts.length > 2 && parts[1].equals(LDP_CONTAINS) && parts[2].startsWith("<")) {
-                            exchange.getIn().setHeader(FCREPO_URI, parts[2].substring(1, parts[2].length() - 1));
-                        }
-                        exchange.getIn().setBody(null);
-                    }
-                })
-            .filter(header(FCREPO_URI).isNotNull())
-            .inOnly("{{reindexing.stream}}?disableTimeToLive=true");
+                .setHeader(FCREPO_URI, body())
+                .setBody(constant(null))
+                .inOnly("{{reindexing.stream}}?disableTimeToLive=true")
+                .bean(reindexingCheckpoint, "markQueued")
+            .end()
+            // Children have all been queued, so progress for this resource no longer needs to be tracked
+            .bean(reindexingCheckpoint, "complete");
     }
 }
@@ -1,5 +1,6 @@
 package edu.unc.lib.boxc.services.camel.util;
 
+import edu.unc.lib.boxc.auth.fcrepo.services.InheritedAclFactory;
 import edu.unc.lib.boxc.auth.fcrepo.services.ObjectAclFactory;
 import edu.unc.lib.boxc.fcrepo.FcrepoJmsConstants;
 import edu.unc.lib.boxc.indexing.solr.utils.MemberOrderService;
@@ -28,6 +29,7 @@ public class CacheInvalidatingProcessor implements Processor {
     private static final Logger log = getLogger(CacheInvalidatingProcessor.class);
     private RepositoryObjectLoader repoObjLoader;
     private ObjectAclFactory objectAclFactory;
+    private InheritedAclFactory inheritedAclFactory;
     private ContentPathFactory contentPathFactory;
     private TitleRetrievalService titleRetrievalService;
     private MemberOrderService memberOrderService;
@@ -63,6 +65,9 @@ public class CacheInvalidatingProcessor implements Processor {
         log.debug("Invalidating caches for {}", pid);
         repoObjLoader.invalidate(pid);
         objectAclFactory.invalidate(pid);
+        if (inheritedAclFactory != null) {
+            inheritedAclFactory.invalidate(pid);
+        }
         contentPathFactory.invalidate(pid);
         memberOrderService.invalidate(pid);
         if (pid.getComponentPath() == null || pid.getComponentPath().contains(DatastreamType.MD_DESCRIPTIVE.getId())) {
@@ -78,6 +83,13 @@ public class CacheInvalidatingProcessor implements Processor {
         this.objectAclFactory = objectAclFactory;
     }
 
+    /**
+     * @param inheritedAclFactory optional, factory whose cached effective acls should be invalidated
+     */
+    public void setInheritedAclFactory(InheritedAclFactory inheritedAclFactory) {
+        this.inheritedAclFactory = inheritedAclFactory;
+    }
+
     public void setContentPathFactory(ContentPathFactory contentPathFactory) {
         this.contentPathFactory = contentPathFactory;
     }
@@ -32,4 +32,7 @@ public abstract class CdrFcrepoHeaders {
     public static final String CdrSolrUpdateAction = "CdrSolrUpdateAction";
 
     public static final String CdrSolrIndexingPriority = "CdrSolrIndexingPriority";
+
+    // Identifier of the triplestore reindexing request which a traversal message belongs to
+    public static final String CdrReindexRequestId = "CdrReindexRequestId";
 }
@@ -4,12 +4,20 @@ import static edu.unc.lib.boxc.common.xml.SecureXMLFactory.createSAXBuilder;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.camel.Message;
 import org.fusesource.hawtbuf.ByteArrayInputStream;
 import org.jdom2.Document;
 import org.jdom2.JDOMException;
 
+import edu.unc.lib.boxc.model.api.ids.PID;
+import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
+import edu.unc.lib.boxc.operations.jms.MessageSender;
+import edu.unc.lib.boxc.operations.jms.indexing.IndexingMessage;
+import edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper;
+
 /**
  * Utilities for working with event messages
  *
@@ -45,4 +53,50 @@ public class MessageUtil {
 
         return null;
     }
+
+    /**
+     * Returns the body of the given indexing message, which may either be in the JSON indexing format
+     * as indicated by the message format header, or in Atom XML.
+     *
+     * @param msg
+     * @return the indexing message, or null if the message has no body
+     * @throws JDOMException
+     * @throws IOException
+     */
+    public static IndexingMessage getIndexingMessage(Message msg) throws JDOMException, IOException {
+        String format = msg.getHeader(MessageSender.MESSAGE_FORMAT_PROPERTY, String.class);
+        if (format == null) {
+            Document doc = getDocumentBody(msg);
+            return doc == null ? null : IndexingMessageHelper.fromDocument(doc);
+        }
+        if (IndexingMessageHelper.JSON_FORMAT_V1.equals(format)) {
+            String body = msg.getBody(String.class);
+            return body == null ? null : IndexingMessageHelper.fromJson(body);
+        }
+        throw new IllegalArgumentException("Unsupported indexing message format " + format);
+    }
+
+    /**
+     * Replaces the body of the given message with the indexing message, using the same format as the
+     * message's current body.
+     *
+     * @param msg
+     * @param indexingMsg
+     * @throws IOException
+     */
+    public static void setIndexingMessage(Message msg, IndexingMessage indexingMsg) throws IOException {
+        String format = msg.getHeader(MessageSender.MESSAGE_FORMAT_PROPERTY, String.class);
+        if (format == null) {
+            List<PID> children = indexingMsg.getChildren() == null ? null : indexingMsg.getChildren().stream()
+                    .map(PIDs::get)
+                    .collect(Collectors.toList());
+            msg.setBody(IndexingMessageHelper.makeIndexingOperationBody(indexingMsg.getUserid(),
+                    PIDs.get(indexingMsg.getPid()), children, indexingMsg.getActionType(),
+                    indexingMsg.getParams(), indexingMsg.getPriority()));
+        } else if (IndexingMessageHelper.JSON_FORMAT_V1.equals(format)) {
+            msg.setBody(IndexingMessageHelper.toJson(indexingMsg));
+        } else {
+            throw new IllegalArgumentException("Unsupported indexing message format " + format);
+        }
+    }
 }
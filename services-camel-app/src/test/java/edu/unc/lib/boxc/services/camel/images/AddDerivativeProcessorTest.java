@@ -13,17 +13,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import static edu.unc.lib.boxc.services.camel.util.CdrFcrepoHeaders.CdrBinaryMimeType;
 import static org.fcrepo.camel.FcrepoHeaders.FCREPO_URI;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -186,4 +193,80 @@ public class AddDerivativeProcessorTest {
         processor.cleanupTempFile(exchange);
         assertFalse(Files.exists(generatedDerivPath));
     }
+
+    @Test
+    public void createEnhancementTracksGeneratedTest() throws Exception {
+        Set<String> generated = new HashSet<>();
+        when(exchange.getProperty(AddDerivativeProcessor.GENERATED_DERIVATIVES, Set.class)).thenReturn(generated);
+
+        processor.process(exchange);
+
+        assertTrue(Files.exists(destinationPath));
+        assertTrue(generated.contains(destinationPath.toString()));
+    }
+
+    @Test
+    public void useDerivativeAsImageSourceGeneratedTest() throws Exception {
+        writeImage(destinationPath, 1024, 768);
+        mockGenerated(destinationPath);
+
+        processor.useDerivativeAsImageSource(exchange, 64);
+
+        verify(message).setHeader(CdrFcrepoHeaders.CdrImagePath, destinationPath.toAbsolutePath().toString());
+    }
+
+    @Test
+    public void useDerivativeAsImageSourceNotGeneratedTest() throws Exception {
+        // Derivative left over from a previous run
+        writeImage(destinationPath, 1024, 768);
+        mockGenerated();
+
+        processor.useDerivativeAsImageSource(exchange, 64);
+
+        verify(message, never()).setHeader(eq(CdrFcrepoHeaders.CdrImagePath), any());
+    }
+
+    @Test
+    public void useDerivativeAsImageSourceTooSmallTest() throws Exception {
+        writeImage(destinationPath, 40, 30);
+        mockGenerated(destinationPath);
+
+        processor.useDerivativeAsImageSource(exchange, 64);
+
+        verify(message, never()).setHeader(eq(CdrFcrepoHeaders.CdrImagePath), any());
+    }
+
+    @Test
+    public void useDerivativeAsImageSourceNotImageTest() throws Exception {
+        Files.createDirectories(destinationPath.getParent());
+        Files.write(destinationPath, Arrays.asList("not an image"));
+        mockGenerated(destinationPath);
+
+        processor.useDerivativeAsImageSource(exchange, 64);
+
+        verify(message, never()).setHeader(eq(CdrFcrepoHeaders.CdrImagePath), any());
+    }
+
+    @Test
+    public void useDerivativeAsImageSourceNotExistsTest() throws Exception {
+        mockGenerated();
+
+        processor.useDerivativeAsImageSource(exchange, 64);
+
+        verify(message, never()).setHeader(eq(CdrFcrepoHeaders.CdrImagePath), any());
+    }
+
+    private void mockGenerated(Path... paths) {
+        Set<String> generated = new HashSet<>();
+        for (Path path : paths) {
+            generated.add(path.toString());
+        }
+        when(exchange.getProperty(AddDerivativeProcessor.GENERATED_DERIVATIVES, Set.class)).thenReturn(generated);
+    }
+
+    private void writeImage(Path path, int width, int height) throws Exception {
+        Files.createDirectories(path.getParent());
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(image, "png", path.toFile());
+    }
 }
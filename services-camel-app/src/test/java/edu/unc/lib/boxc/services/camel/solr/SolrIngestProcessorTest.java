@@ -2,14 +2,21 @@ package edu.unc.lib.boxc.services.camel.solr;
 
 import static edu.unc.lib.boxc.fcrepo.FcrepoJmsConstants.RESOURCE_TYPE;
 import static org.fcrepo.camel.FcrepoHeaders.FCREPO_URI;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
+import edu.unc.lib.boxc.model.api.exceptions.NotFoundException;
 import edu.unc.lib.boxc.model.api.objects.FileObject;
 import edu.unc.lib.boxc.model.api.objects.WorkObject;
 import edu.unc.lib.boxc.model.api.rdf.Fcrepo4Repository;
@@ -18,9 +25,9 @@ import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.operations.jms.MessageSender;
 import org.apache.camel.Exchange;
 import org.apache.camel.Message;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
-import org.junit.jupiter.api.AfterEach;
 import org.mockito.Mock;
 
 import edu.unc.lib.boxc.indexing.solr.exception.IndexingException;
@@ -30,10 +37,17 @@ import edu.unc.lib.boxc.indexing.solr.indexing.DocumentIndexingPipeline;
 import edu.unc.lib.boxc.indexing.solr.indexing.SolrUpdateDriver;
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObjectLoader;
+import edu.unc.lib.boxc.model.api.services.ContentPathFactory;
 import edu.unc.lib.boxc.model.fcrepo.test.TestHelper;
 import edu.unc.lib.boxc.search.solr.models.IndexDocumentBean;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  *
@@ -64,6 +78,9 @@ public class SolrIngestProcessorTest {
     private RepositoryObjectLoader repoObjLoader;
     @Mock
     private MessageSender messageSender;
+    @Mock
+    private ContentPathFactory contentPathFactory;
+    private ExecutorService executorService;
 
     @Mock
     private Exchange exchange;
@@ -76,6 +93,7 @@ public class SolrIngestProcessorTest {
         closeable = openMocks(this);
         processor = new SolrIngestProcessor(dipFactory, pipeline, solrUpdateDriver, repoObjLoader);
         processor.setUpdateWorkSender(messageSender);
+        executorService = Executors.newFixedThreadPool(2);
 
         when(exchange.getIn()).thenReturn(message);
         when(message.getHeader(eq(FCREPO_URI)))
@@ -85,9 +103,12 @@ public class SolrIngestProcessorTest {
         when(dipFactory.createDip(any(PID.class))).thenReturn(dip);
     }
 
-    @AfterEach
-    void closeService() throws Exception {
+    @After
+    public void closeService() throws Exception {
         closeable.close();
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
     }
 
     @Test
@@ -127,4 +148,96 @@ public class SolrIngestProcessorTest {
         verify(pipeline).process(eq(dip));
         verify(solrUpdateDriver).addDocument(eq(docBean));
     }
+
+    @Test
+    public void testPrepareBinaryForBatch() throws Exception {
+        PID filePid = PIDs.get(TEST_URI);
+        PID binaryPid = DatastreamPids.getOriginalFilePid(filePid);
+        when(message.getHeader(eq(RESOURCE_TYPE))).thenReturn(Fcrepo4Repository.Binary.getURI());
+        when(message.getHeader(eq(FCREPO_URI))).thenReturn(binaryPid.getRepositoryPath());
+
+        var targetFile = mock(FileObject.class);
+        var parentWork = mock(WorkObject.class);
+        var workPid = PIDs.get(UUID.randomUUID().toString());
+        when(targetFile.getParent()).thenReturn(parentWork);
+        when(parentWork.getPid()).thenReturn(workPid);
+        when(repoObjLoader.getFileObject(filePid)).thenReturn(targetFile);
+
+        processor.prepareForBatch(exchange);
+
+        verify(message).setBody(filePid.getId());
+        verify(messageSender).sendMessage(workPid.getQualifiedId());
+        verify(pipeline, never()).process(any(DocumentIndexingPackage.class));
+    }
+
+    @Test
+    public void testProcessBatch() throws Exception {
+        PID pid1 = PIDs.get(UUID.randomUUID().toString());
+        PID pid2 = PIDs.get(UUID.randomUUID().toString());
+        processor.setContentPathFactory(contentPathFactory);
+        processor.setExecutorService(executorService);
+        // Duplicate requests for the same object are only indexed once
+        when(message.getBody()).thenReturn(new LinkedHashSet<>(asList(pid1.getId(), pid2.getId(), pid1.getId())));
+
+        processor.processBatch(exchange);
+
+        verify(contentPathFactory).preloadAncestors(pidsInOrder(asList(pid1, pid2)));
+        verify(dipFactory).createDip(pid1);
+        verify(dipFactory).createDip(pid2);
+        verify(pipeline, times(2)).process(eq(dip));
+        verify(solrUpdateDriver).addDocuments(asList(docBean, docBean));
+        verify(solrUpdateDriver, never()).addDocument(any(IndexDocumentBean.class));
+    }
+
+    @Test(expected = IndexingException.class)
+    public void testProcessBatchFailed() throws Exception {
+        processor.setExecutorService(executorService);
+        doThrow(new IndexingException("Fail")).when(pipeline).process(any(DocumentIndexingPackage.class));
+        String id1 = UUID.randomUUID().toString();
+        String id2 = UUID.randomUUID().toString();
+        when(message.getBody()).thenReturn(asList(id1, id2));
+
+        try {
+            processor.processBatch(exchange);
+        } finally {
+            verify(solrUpdateDriver, never()).addDocuments(anyCollectionOf(IndexDocumentBean.class));
+            verify(message).setBody(asList(id1, id2));
+        }
+    }
+
+    @Test
+    public void testProcessBatchPartiallyFailed() throws Exception {
+        processor.setExecutorService(executorService);
+        PID pid1 = PIDs.get(UUID.randomUUID().toString());
+        PID pid2 = PIDs.get(UUID.randomUUID().toString());
+        PID pid3 = PIDs.get(UUID.randomUUID().toString());
+        when(dipFactory.createDip(pid2)).thenThrow(new NotFoundException("Gone"));
+        when(message.getBody()).thenReturn(asList(pid1.getId(), pid2.getId(), pid3.getId()));
+
+        try {
+            processor.processBatch(exchange);
+            fail("Expected batch to report the failed object");
+        } catch (NotFoundException e) {
+            // expected
+        }
+
+        // Objects which succeeded are still indexed, and only the failed object is retried
+        verify(solrUpdateDriver).addDocuments(asList(docBean, docBean));
+        verify(message).setBody(asList(pid2.getId()));
+    }
+
+    @Test
+    public void testProcessBatchSingleId() throws Exception {
+        PID pid = PIDs.get(UUID.randomUUID().toString());
+        when(message.getBody()).thenReturn(pid.getId());
+
+        processor.processBatch(exchange);
+
+        verify(pipeline).process(eq(dip));
+        verify(solrUpdateDriver).addDocuments(asList(docBean));
+    }
+
+    private static Collection<PID> pidsInOrder(List<PID> expected) {
+        return argThat(pids -> new ArrayList<>(pids).equals(expected));
+    }
 }
@@ -4,9 +4,12 @@ import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.ATOM_NS;
 import static edu.unc.lib.boxc.model.api.xml.JDOMNamespaceUtil.CDR_MESSAGE_NS;
 import static edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType.ADD;
 import static edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType.DELETE;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -14,10 +17,12 @@ import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import edu.unc.lib.boxc.model.api.objects.FileObject;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObjectLoader;
@@ -38,9 +43,12 @@ import org.mockito.Mock;
 import edu.unc.lib.boxc.indexing.solr.ChildSetRequest;
 import edu.unc.lib.boxc.indexing.solr.SolrUpdateRequest;
 import edu.unc.lib.boxc.indexing.solr.action.IndexingAction;
+import edu.unc.lib.boxc.indexing.solr.exception.RecoverableIndexingException;
 import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 import edu.unc.lib.boxc.operations.jms.indexing.IndexingActionType;
+import edu.unc.lib.boxc.operations.jms.indexing.IndexingMessage;
+import edu.unc.lib.boxc.operations.jms.indexing.IndexingMessageHelper;
 
 /**
  *
@@ -121,6 +129,24 @@ public class SolrUpdateProcessorTest {
         assertTrue(childSetRequest.getChildren().containsAll(childrenPaths));
     }
 
+    @Test
+    public void testJsonMessageWithChildren() throws Exception {
+        List<PID> children = Arrays.asList(ProcessorTestHelper.makePid(), ProcessorTestHelper.makePid());
+        IndexingMessage indexingMsg = IndexingMessageHelper.makeIndexingMessage("user", targetPid, children,
+                ADD, null, null);
+        when(msg.getHeader(MessageSender.MESSAGE_FORMAT_PROPERTY, String.class))
+                .thenReturn(IndexingMessageHelper.JSON_FORMAT_V1);
+        when(msg.getBody(String.class)).thenReturn(IndexingMessageHelper.toJson(indexingMsg));
+
+        processor.process(exchange);
+
+        verify(mockAddAction).performAction(childSetCaptor.capture());
+        ChildSetRequest childSetRequest = childSetCaptor.getValue();
+        assertEquals(targetPid, childSetRequest.getPid());
+        assertEquals("user", childSetRequest.getUserID());
+        assertEquals(children, childSetRequest.getChildren());
+    }
+
     @Test
     public void testInvalidIndexingAction() throws Exception {
         // This action is not mapped
@@ -166,6 +192,101 @@ public class SolrUpdateProcessorTest {
         verify(mockUpdateAccessAction).performAction(any(SolrUpdateRequest.class));
     }
 
+    @Test
+    public void testChildSetUpdatesWorksOfIndexedFiles() throws Exception {
+        populateEntry(ADD);
+        List<PID> children = addChildren(3);
+        var workPid = PIDs.get(UUID.randomUUID().toString());
+        var parentWork = mock(WorkObject.class);
+        when(parentWork.getPid()).thenReturn(workPid);
+        for (PID child : children) {
+            var childFile = mock(FileObject.class);
+            when(childFile.getPid()).thenReturn(child);
+            when(childFile.getParent()).thenReturn(parentWork);
+            when(repositoryObjectLoader.getRepositoryObject(child)).thenReturn(childFile);
+        }
+        // Only the first two children were indexed
+        doAnswer(invocation -> {
+            ChildSetRequest request = invocation.getArgument(0);
+            request.setIndexedChildren(children.subList(0, 2));
+            return null;
+        }).when(mockAddAction).performAction(any(ChildSetRequest.class));
+
+        processor.process(exchange);
+
+        // Work is only requested once for all of its indexed files
+        verify(messageSender).sendMessage(workPid.getQualifiedId());
+        verify(repositoryObjectLoader, never()).getRepositoryObject(children.get(2));
+    }
+
+    @Test
+    public void testChildSetRecoverableFailureRetriesFailedChildren() throws Exception {
+        populateEntry(ADD);
+        List<PID> children = addChildren(3);
+        var workPid = PIDs.get(UUID.randomUUID().toString());
+        var parentWork = mock(WorkObject.class);
+        when(parentWork.getPid()).thenReturn(workPid);
+        for (PID child : children) {
+            var childFile = mock(FileObject.class);
+            when(childFile.getParent()).thenReturn(parentWork);
+            when(repositoryObjectLoader.getRepositoryObject(child)).thenReturn(childFile);
+        }
+        // First two children were indexed before the last failed
+        doAnswer(invocation -> {
+            ChildSetRequest request = invocation.getArgument(0);
+            request.setIndexedChildren(children.subList(0, 2));
+            request.setFailedChildren(children.subList(2, 3));
+            throw new RecoverableIndexingException("Try again");
+        }).when(mockAddAction).performAction(any(ChildSetRequest.class));
+
+        try {
+            processor.process(exchange);
+            fail("Expected the failure to be rethrown");
+        } catch (RecoverableIndexingException e) {
+            // expected
+        }
+
+        // Children indexed before the failure are followed up on
+        verify(messageSender).sendMessage(workPid.getQualifiedId());
+        // Redelivered message only contains the failed child
+        ArgumentCaptor<Document> bodyCaptor = ArgumentCaptor.forClass(Document.class);
+        verify(msg).setBody(bodyCaptor.capture());
+        IndexingMessage retryMsg = IndexingMessageHelper.fromDocument(bodyCaptor.getValue());
+        assertEquals(targetPid, PIDs.get(retryMsg.getPid()));
+        assertEquals(ADD, retryMsg.getActionType());
+        assertEquals(Arrays.asList(children.get(2)),
+                retryMsg.getChildren().stream().map(PIDs::get).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testJsonChildSetRecoverableFailureRetriesFailedChildren() throws Exception {
+        List<PID> children = Arrays.asList(ProcessorTestHelper.makePid(), ProcessorTestHelper.makePid());
+        IndexingMessage indexingMsg = IndexingMessageHelper.makeIndexingMessage("user", targetPid, children,
+                ADD, null, null);
+        when(msg.getHeader(MessageSender.MESSAGE_FORMAT_PROPERTY, String.class))
+                .thenReturn(IndexingMessageHelper.JSON_FORMAT_V1);
+        when(msg.getBody(String.class)).thenReturn(IndexingMessageHelper.toJson(indexingMsg));
+        doAnswer(invocation -> {
+            ChildSetRequest request = invocation.getArgument(0);
+            request.setIndexedChildren(children.subList(1, 2));
+            request.setFailedChildren(children.subList(0, 1));
+            throw new RecoverableIndexingException("Try again");
+        }).when(mockAddAction).performAction(any(ChildSetRequest.class));
+
+        try {
+            processor.process(exchange);
+            fail("Expected the failure to be rethrown");
+        } catch (RecoverableIndexingException e) {
+            // expected
+        }
+
+        ArgumentCaptor<String> bodyCaptor = ArgumentCaptor.forClass(String.class);
+        verify(msg).setBody(bodyCaptor.capture());
+        IndexingMessage retryMsg = IndexingMessageHelper.fromJson(bodyCaptor.getValue());
+        assertEquals("user", retryMsg.getUserid());
+        assertEquals(Arrays.asList(children.get(0).getQualifiedId()), retryMsg.getChildren());
+    }
+
     private Element populateEntry(IndexingActionType type) {
         Element entry = new Element("entry", ATOM_NS);
         bodyDoc.addContent(entry);
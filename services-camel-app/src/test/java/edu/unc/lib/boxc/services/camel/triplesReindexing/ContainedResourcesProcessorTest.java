@@ -0,0 +1,87 @@
+package edu.unc.lib.boxc.services.camel.triplesReindexing;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+/**
+ * @author bbpennel
+ */
+public class ContainedResourcesProcessorTest {
+    private static final String BASE = "http://example.com/rest/content/";
+    private static final String CONTAINS = "<http://www.w3.org/ns/ldp#contains>";
+
+    private AutoCloseable closeable;
+
+    @Mock
+    private Exchange exchange;
+    @Mock
+    private Message message;
+
+    private ContainedResourcesProcessor processor;
+
+    @BeforeEach
+    public void init() {
+        closeable = openMocks(this);
+        when(exchange.getIn()).thenReturn(message);
+        processor = new ContainedResourcesProcessor();
+    }
+
+    @AfterEach
+    void closeService() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void processFindsContainedTest() throws Exception {
+        // Literal containing the ldp:contains predicate should not be mistaken for a containment relation
+        String body = "<" + BASE + "parent> <http://purl.org/dc/terms/title> \"" + CONTAINS
+                + " <" + BASE + "x>\" .\n"
+                + "<" + BASE + "parent> " + CONTAINS + " <" + BASE + "child1> .\n"
+                + "<" + BASE + "parent> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type>"
+                + " <http://www.w3.org/ns/ldp#Container> .\n"
+                + "<" + BASE + "parent>\t" + CONTAINS + "\t<" + BASE + "child2> .\n";
+        when(message.getBody(InputStream.class)).thenReturn(new ByteArrayInputStream(body.getBytes(UTF_8)));
+
+        processor.process(exchange);
+
+        verify(message).setBody(Arrays.asList(BASE + "child1", BASE + "child2"));
+    }
+
+    @Test
+    public void processNoBodyTest() throws Exception {
+        processor.process(exchange);
+
+        verify(message).setBody(Collections.emptyList());
+    }
+
+    @Test
+    public void getContainedUriTest() {
+        assertEquals(BASE + "child", ContainedResourcesProcessor.getContainedUri(
+                "<" + BASE + "parent> " + CONTAINS + " <" + BASE + "child> ."));
+        assertEquals(BASE + "child", ContainedResourcesProcessor.getContainedUri(
+                "_:b0 " + CONTAINS + " <" + BASE + "child> ."));
+        // Literal objects are not contained resources
+        assertNull(ContainedResourcesProcessor.getContainedUri(
+                "<" + BASE + "parent> " + CONTAINS + " \"child\" ."));
+        // ldp:contains as the object of another predicate
+        assertNull(ContainedResourcesProcessor.getContainedUri(
+                "<" + BASE + "parent> <http://example.com/pred> " + CONTAINS + " ."));
+        assertNull(ContainedResourcesProcessor.getContainedUri(""));
+    }
+}
@@ -0,0 +1,91 @@
+package edu.unc.lib.boxc.services.camel.triplesReindexing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author bbpennel
+ */
+public class ReindexingCheckpointTest {
+    private static final String BASE = "http://example.com/rest/content/";
+    private static final String REQUEST_ID = "request1";
+    private static final List<String> CHILDREN = Arrays.asList(BASE + "child3", BASE + "child1", BASE + "child2");
+
+    @TempDir
+    public Path tmpFolder;
+
+    @Test
+    public void resumeTest() throws Exception {
+        String checkpointPath = tmpFolder.resolve("checkpoint/progress.txt").toString();
+        ReindexingCheckpoint checkpoint = new ReindexingCheckpoint();
+        checkpoint.setCheckpointPath(checkpointPath);
+        checkpoint.init();
+
+        List<String> toQueue = checkpoint.removeQueued(REQUEST_ID, BASE + "parent", CHILDREN);
+        assertEquals(Arrays.asList(BASE + "child1", BASE + "child2", BASE + "child3"), toQueue);
+        checkpoint.markQueued(REQUEST_ID, BASE + "parent", BASE + "child1");
+        checkpoint.destroy();
+
+        // Progress is retained after restarting
+        ReindexingCheckpoint resumed = new ReindexingCheckpoint();
+        resumed.setCheckpointPath(checkpointPath);
+        resumed.init();
+        assertEquals(Arrays.asList(BASE + "child2", BASE + "child3"),
+                resumed.removeQueued(REQUEST_ID, BASE + "parent", CHILDREN));
+        resumed.markQueued(REQUEST_ID, BASE + "parent", BASE + "child2");
+        resumed.markQueued(REQUEST_ID, BASE + "parent", BASE + "child3");
+        resumed.complete(REQUEST_ID, BASE + "parent");
+
+        // Nothing is retained once traversals have completed
+        assertTrue(Files.readAllLines(Path.of(checkpointPath)).isEmpty());
+        assertEquals(3, resumed.removeQueued(REQUEST_ID, BASE + "parent", CHILDREN).size());
+    }
+
+    @Test
+    public void persistPeriodicallyTest() throws Exception {
+        Path checkpointPath = tmpFolder.resolve("progress.txt");
+        ReindexingCheckpoint checkpoint = new ReindexingCheckpoint();
+        checkpoint.setCheckpointPath(checkpointPath.toString());
+        checkpoint.setPersistInterval(2);
+        checkpoint.setPersistIntervalMillis(Long.MAX_VALUE);
+        checkpoint.init();
+
+        checkpoint.markQueued(REQUEST_ID, BASE + "parent", BASE + "child1");
+        // Not persisted until the interval of queued resources is reached
+        assertFalse(Files.exists(checkpointPath));
+
+        checkpoint.markQueued(REQUEST_ID, BASE + "parent", BASE + "child2");
+        assertEquals(Arrays.asList(REQUEST_ID + "\t" + BASE + "parent\t" + BASE + "child2"),
+                Files.readAllLines(checkpointPath));
+
+        checkpoint.markQueued(REQUEST_ID, BASE + "parent", BASE + "child3");
+        assertEquals(Arrays.asList(REQUEST_ID + "\t" + BASE + "parent\t" + BASE + "child2"),
+                Files.readAllLines(checkpointPath));
+
+        // Remaining progress is persisted on shutdown
+        checkpoint.destroy();
+        assertEquals(Arrays.asList(REQUEST_ID + "\t" + BASE + "parent\t" + BASE + "child3"),
+                Files.readAllLines(checkpointPath));
+    }
+
+    @Test
+    public void scopedToRequestTest() throws Exception {
+        ReindexingCheckpoint checkpoint = new ReindexingCheckpoint();
+        checkpoint.init();
+
+        checkpoint.markQueued(REQUEST_ID, BASE + "parent", BASE + "child2");
+
+        assertEquals(Arrays.asList(BASE + "child3"), checkpoint.removeQueued(REQUEST_ID, BASE + "parent", CHILDREN));
+        // Progress from another reindex request does not apply
+        assertEquals(3, checkpoint.removeQueued("request2", BASE + "parent", CHILDREN).size());
+    }
+}
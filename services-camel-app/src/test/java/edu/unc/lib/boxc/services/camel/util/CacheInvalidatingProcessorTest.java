@@ -1,5 +1,6 @@
 package edu.unc.lib.boxc.services.camel.util;
 
+import edu.unc.lib.boxc.auth.fcrepo.services.InheritedAclFactory;
 import edu.unc.lib.boxc.auth.fcrepo.services.ObjectAclFactory;
 import edu.unc.lib.boxc.fcrepo.FcrepoJmsConstants;
 import edu.unc.lib.boxc.indexing.solr.utils.MemberOrderService;
@@ -40,6 +41,8 @@ public class CacheInvalidatingProcessorTest {
     @Mock
     private ObjectAclFactory objectAclFactory;
     @Mock
+    private InheritedAclFactory inheritedAclFactory;
+    @Mock
     private ContentPathFactory contentPathFactory;
     @Mock
     private TitleRetrievalService titleRetrievalService;
@@ -55,6 +58,7 @@ public class CacheInvalidatingProcessorTest {
         processor = new CacheInvalidatingProcessor();
         processor.setRepositoryObjectLoader(repoObjLoader);
         processor.setObjectAclFactory(objectAclFactory);
+        processor.setInheritedAclFactory(inheritedAclFactory);
         processor.setContentPathFactory(contentPathFactory);
         processor.setTitleRetrievalService(titleRetrievalService);
         processor.setMemberOrderService(memberOrderService);
@@ -75,6 +79,7 @@ public class CacheInvalidatingProcessorTest {
         PID pid = PIDs.get(FEDORA_BASE + objPath);
         verify(repoObjLoader).invalidate(pid);
         verify(objectAclFactory).invalidate(pid);
+        verify(inheritedAclFactory).invalidate(pid);
         verify(contentPathFactory).invalidate(pid);
         verify(memberOrderService).invalidate(pid);
     }
@@ -88,6 +93,7 @@ public class CacheInvalidatingProcessorTest {
 
         verify(repoObjLoader, never()).invalidate(any(PID.class));
         verify(objectAclFactory, never()).invalidate(any(PID.class));
+        verify(inheritedAclFactory, never()).invalidate(any(PID.class));
         verify(contentPathFactory, never()).invalidate(any(PID.class));
         verify(memberOrderService, never()).invalidate(any(PID.class));
     }
@@ -101,6 +107,7 @@ public class CacheInvalidatingProcessorTest {
 
         verify(repoObjLoader, never()).invalidate(any(PID.class));
         verify(objectAclFactory, never()).invalidate(any(PID.class));
+        verify(inheritedAclFactory, never()).invalidate(any(PID.class));
         verify(contentPathFactory, never()).invalidate(any(PID.class));
         verify(memberOrderService, never()).invalidate(any(PID.class));
     }
@@ -90,8 +90,8 @@ public class FedoraContentController {
         }
 
         try {
-            fedoraContentService.streamData(pid, datastream, principals, asAttachment, response);
-            recordDownloadEvent(pid, datastream, principals, request);
+            fedoraContentService.streamData(pid, datastream, principals, asAttachment, request, response);
+            recordDownloadEvent(pid, datastream, principals, request, response);
         } catch (IOException e) {
             handleIOException(pid, datastream, e);
         }
@@ -113,10 +113,14 @@ public class FedoraContentController {
     }
 
     private void recordDownloadEvent(PID pid, String datastream, AccessGroupSet principals,
-                                     HttpServletRequest request) {
+                                     HttpServletRequest request, HttpServletResponse response) {
         if (!(StringUtils.isBlank(datastream) || ORIGINAL_FILE.getId().equals(datastream))) {
             return;
         }
+        // Partial and not modified responses are not counted as downloads
+        if (response.getStatus() != HttpServletResponse.SC_OK) {
+            return;
+        }
         analyticsTracker.trackEvent(request, "download", pid, principals);
     }
 
@@ -4,18 +4,19 @@ import static edu.unc.lib.boxc.auth.api.services.DatastreamPermissionUtil.getPer
 import static edu.unc.lib.boxc.model.api.DatastreamType.getByIdentifier;
 import static edu.unc.lib.boxc.model.fcrepo.services.DerivativeService.listDerivativeTypes;
 import static edu.unc.lib.boxc.web.common.services.FedoraContentService.CONTENT_DISPOSITION;
-import static org.apache.http.HttpHeaders.CONTENT_LENGTH;
-import static org.apache.http.HttpHeaders.CONTENT_TYPE;
 
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.io.IOUtils;
-
 import edu.unc.lib.boxc.auth.api.models.AccessGroupSet;
 import edu.unc.lib.boxc.auth.api.services.AccessControlService;
 import edu.unc.lib.boxc.model.api.DatastreamType;
@@ -23,6 +24,7 @@ import edu.unc.lib.boxc.model.api.ids.PID;
 import edu.unc.lib.boxc.model.fcrepo.services.DerivativeService;
 import edu.unc.lib.boxc.model.fcrepo.services.DerivativeService.Derivative;
 import edu.unc.lib.boxc.web.common.exceptions.ResourceNotFoundException;
+import edu.unc.lib.boxc.web.common.utils.RangeRequestUtil;
 
 /**
  * Streams content for derivative files of repository objects.
@@ -32,8 +34,6 @@ import edu.unc.lib.boxc.web.common.exceptions.ResourceNotFoundException;
  */
 public class DerivativeContentService {
 
-    private static final int BUFFER_SIZE = 8192;
-
     private DerivativeService derivativeService;
 
     private AccessControlService accessControlService;
@@ -51,13 +51,14 @@ public class DerivativeContentService {
      * @param principals principals of requesting client
      * @param asAttachment if true, then content-disposition header will specify
      *            as "attachment" instead of "inline"
+     * @param request request being served, used to evaluate conditional and range headers
      * @param response response content and headers will be added to.
      * @throws IOException if unable to stream content to the response.
      * @throws ResourceNotFoundException if an invalid derivative type is
      *             requested.
      */
     public void streamData(PID pid, String dsName, AccessGroupSet principals, boolean asAttachment,
-            HttpServletResponse response) throws IOException, ResourceNotFoundException {
+            HttpServletRequest request, HttpServletResponse response) throws IOException, ResourceNotFoundException {
 
         DatastreamType derivType = getByIdentifier(dsName);
         if (derivType == null || !listDerivativeTypes().contains(derivType)) {
@@ -74,8 +75,6 @@ public class DerivativeContentService {
         }
 
         File derivFile = deriv.getFile();
-        response.setHeader(CONTENT_LENGTH, Long.toString(derivFile.length()));
-        response.setHeader(CONTENT_TYPE, derivType.getMimetype());
         String filename = derivFile.getName();
         if (asAttachment) {
             response.setHeader(CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
@@ -83,8 +82,33 @@ public class DerivativeContentService {
             response.setHeader(CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
         }
 
-        OutputStream outStream = response.getOutputStream();
-        IOUtils.copy(new FileInputStream(derivFile), outStream, BUFFER_SIZE);
+        long fileSize = derivFile.length();
+        long lastModified = derivFile.lastModified();
+        // Derivatives are regenerated in place, so their modification time and size identify the version
+        String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(fileSize) + "\"";
+
+        RangeRequestUtil.writeContent(request, response, fileSize, derivType.getMimetype(), etag, lastModified,
+                (out, start, length) -> transferFile(derivFile, out, start, length));
+    }
+
+    /**
+     * Transfer a section of a file directly from its channel to the output stream, allowing the
+     * transfer to bypass copying through heap buffers where supported.
+     */
+    private void transferFile(File file, OutputStream out, long start, long length) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel outChannel = Channels.newChannel(out);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = fileChannel.transferTo(position, remaining, outChannel);
+                if (transferred <= 0) {
+                    throw new EOFException("Reached end of " + file + " before transferring requested range");
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
     }
 
     /**
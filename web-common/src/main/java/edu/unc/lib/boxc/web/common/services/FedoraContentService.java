@@ -7,12 +7,12 @@ import static org.apache.http.HttpHeaders.CONTENT_TYPE;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.Date;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.RDFFormat;
@@ -32,6 +32,7 @@ import edu.unc.lib.boxc.model.api.objects.FileObject;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObject;
 import edu.unc.lib.boxc.model.api.objects.RepositoryObjectLoader;
 import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
+import edu.unc.lib.boxc.web.common.utils.RangeRequestUtil;
 
 /**
  * Streams binary content from repository objects.
@@ -41,8 +42,6 @@ import edu.unc.lib.boxc.model.fcrepo.ids.PIDs;
 public class FedoraContentService {
     private static final Logger LOG = LoggerFactory.getLogger(FedoraContentService.class);
 
-    private static final int BUFFER_SIZE = 4096;
-
     public static final String CONTENT_DISPOSITION = "Content-Disposition";
 
     private AccessControlService accessControlService;
@@ -59,11 +58,12 @@ public class FedoraContentService {
      * @param principals principals of requesting client
      * @param asAttachment if true, then content-disposition header will specify
      *            as "attachment" instead of "inline"
+     * @param request request being served, used to evaluate conditional and range headers
      * @param response response content and headers will be added to.
      * @throws IOException if unable to stream content to the response.
      */
     public void streamData(PID pid, String dsName, AccessGroupSet principals, boolean asAttachment,
-            HttpServletResponse response) throws IOException {
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
         // Default datastream is DATA_FILE
         String datastream = dsName == null ? ORIGINAL_FILE.getId() : dsName;
 
@@ -92,8 +92,6 @@ public class FedoraContentService {
         }
 
         // Set binary detail response headers
-        response.setHeader(CONTENT_LENGTH, Long.toString(binObj.getFilesize()));
-        response.setHeader(CONTENT_TYPE, binObj.getMimetype());
         String binaryName = binObj.getFilename();
         String filename = binaryName == null ? pid.getId() : binaryName;
         if (asAttachment) {
@@ -102,11 +100,32 @@ public class FedoraContentService {
             response.setHeader(CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
         }
 
-        // Stream binary content to http response
-        try (InputStream binStream = binObj.getBinaryStream()) {
-            OutputStream outStream = response.getOutputStream();
-            IOUtils.copy(binStream, outStream, BUFFER_SIZE);
+        // Stream the requested portions of the binary content to http response, only retrieving
+        // the span of the binary covering the requested ranges from fedora
+        long filesize = binObj.getFilesize();
+        RangeRequestUtil.writeContent(request, response, filesize, binObj.getMimetype(),
+                getEtag(binObj), getLastModified(binObj), (start, end) -> {
+                    if (start == 0 && end == filesize - 1) {
+                        return binObj.getBinaryStream();
+                    }
+                    return binObj.getBinaryStream(start, end);
+                });
+    }
+
+    /**
+     * The sha1 digest of a binary changes whenever its content does, so it serves as a strong etag
+     */
+    private String getEtag(BinaryObject binObj) {
+        String sha1 = binObj.getSha1Checksum();
+        if (sha1 == null) {
+            return null;
         }
+        return "\"" + StringUtils.substringAfterLast(sha1, ":") + "\"";
+    }
+
+    private long getLastModified(BinaryObject binObj) {
+        Date lastModified = binObj.getLastModified();
+        return lastModified == null ? -1 : lastModified.getTime();
     }
 
     public void streamEventLog(PID pid, AccessGroupSet principals, boolean asAttachment,
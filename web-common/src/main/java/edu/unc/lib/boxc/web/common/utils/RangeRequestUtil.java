@@ -0,0 +1,405 @@
+package edu.unc.lib.boxc.web.common.utils;
+
+import static org.apache.http.HttpHeaders.ACCEPT_RANGES;
+import static org.apache.http.HttpHeaders.CONTENT_LENGTH;
+import static org.apache.http.HttpHeaders.CONTENT_RANGE;
+import static org.apache.http.HttpHeaders.CONTENT_TYPE;
+import static org.apache.http.HttpHeaders.ETAG;
+import static org.apache.http.HttpHeaders.IF_MODIFIED_SINCE;
+import static org.apache.http.HttpHeaders.IF_NONE_MATCH;
+import static org.apache.http.HttpHeaders.IF_RANGE;
+import static org.apache.http.HttpHeaders.LAST_MODIFIED;
+import static org.apache.http.HttpHeaders.RANGE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Utilities for serving content with support for conditional requests and byte ranges
+ *
+ * @author bbpennel
+ */
+public class RangeRequestUtil {
+    private static final String BYTES_UNIT = "bytes";
+    private static final String BYTES_PREFIX = BYTES_UNIT + "=";
+    private static final String WEAK_PREFIX = "W/";
+    private static final String CRLF = "\r\n";
+    // Cap on the number of ranges honored in a single request, to avoid abuse via many tiny ranges
+    private static final int MAX_RANGES = 20;
+
+    private RangeRequestUtil() {
+    }
+
+    /**
+     * Writes a portion of the content being served
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        /**
+         * @param out stream to write to
+         * @param start offset of the first byte to write
+         * @param length number of bytes to write
+         * @throws IOException
+         */
+        void write(OutputStream out, long start, long length) throws IOException;
+
+        /**
+         * Called once before any content is written, with the span covering all of the portions of content
+         * which will be written. Portions are written in ascending order within this span.
+         *
+         * @param start offset of the first byte which will be written
+         * @param end offset of the last byte which will be written, inclusive
+         * @throws IOException
+         */
+        default void begin(long start, long end) throws IOException {
+        }
+    }
+
+    /**
+     * Opens a stream of a range of the content being served
+     */
+    @FunctionalInterface
+    public interface StreamSource {
+        /**
+         * @param start offset of the first byte in the stream
+         * @param end offset of the last byte in the stream, inclusive
+         * @return stream of the requested range of content
+         * @throws IOException
+         */
+        InputStream open(long start, long end) throws IOException;
+    }
+
+    /**
+     * A single byte range, with inclusive start and end offsets
+     */
+    public static class ByteRange {
+        private final long start;
+        private final long end;
+
+        public ByteRange(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public long getLength() {
+            return end - start + 1;
+        }
+
+        private String toContentRange(long totalLength) {
+            return BYTES_UNIT + " " + start + "-" + end + "/" + totalLength;
+        }
+    }
+
+    /**
+     * Write content to the response, taking into account conditional request headers and any byte ranges
+     * requested. Responds with 304 if the client already has the current content, 416 if none of the requested
+     * ranges can be satisfied, 206 for ranged requests, otherwise the full content is written.
+     *
+     * @param request
+     * @param response
+     * @param contentLength total length of the content in bytes
+     * @param contentType mimetype of the content
+     * @param etag entity tag for the current version of the content, quoted. May be null.
+     * @param lastModified last modified timestamp of the content in milliseconds, or -1 if unknown
+     * @param writer writer which produces the content
+     * @throws IOException
+     */
+    public static void writeContent(HttpServletRequest request, HttpServletResponse response, long contentLength,
+            String contentType, String etag, long lastModified, ContentWriter writer) throws IOException {
+        response.setHeader(ACCEPT_RANGES, BYTES_UNIT);
+        if (etag != null) {
+            response.setHeader(ETAG, etag);
+        }
+        if (lastModified >= 0) {
+            response.setDateHeader(LAST_MODIFIED, lastModified);
+        }
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<ByteRange> ranges = getRequestedRanges(request, contentLength, etag, lastModified);
+        if (ranges == null) {
+            response.setHeader(CONTENT_TYPE, contentType);
+            response.setHeader(CONTENT_LENGTH, Long.toString(contentLength));
+            if (contentLength > 0) {
+                writer.begin(0, contentLength - 1);
+                writer.write(response.getOutputStream(), 0, contentLength);
+            }
+            return;
+        }
+
+        if (ranges.isEmpty()) {
+            response.setHeader(CONTENT_RANGE, BYTES_UNIT + " */" + contentLength);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        writer.begin(ranges.get(0).getStart(), ranges.get(ranges.size() - 1).getEnd());
+        if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            response.setHeader(CONTENT_TYPE, contentType);
+            response.setHeader(CONTENT_RANGE, range.toContentRange(contentLength));
+            response.setHeader(CONTENT_LENGTH, Long.toString(range.getLength()));
+            writer.write(response.getOutputStream(), range.getStart(), range.getLength());
+            return;
+        }
+
+        writeMultipartRanges(response, ranges, contentLength, contentType, writer);
+    }
+
+    /**
+     * Write content to the response as in {@link #writeContent(HttpServletRequest, HttpServletResponse, long,
+     * String, String, long, ContentWriter)}, where the content is read from a single stream opened from the source.
+     * The stream only covers the span from the first to the last requested byte, and each requested range
+     * is read from it in order.
+     *
+     * @param request
+     * @param response
+     * @param contentLength total length of the content in bytes
+     * @param contentType mimetype of the content
+     * @param etag entity tag for the current version of the content, quoted. May be null.
+     * @param lastModified last modified timestamp of the content in milliseconds, or -1 if unknown
+     * @param source source of the content
+     * @throws IOException
+     */
+    public static void writeContent(HttpServletRequest request, HttpServletResponse response, long contentLength,
+            String contentType, String etag, long lastModified, StreamSource source) throws IOException {
+        try (SequentialStreamWriter writer = new SequentialStreamWriter(source)) {
+            writeContent(request, response, contentLength, contentType, etag, lastModified, writer);
+        }
+    }
+
+    private static void writeMultipartRanges(HttpServletResponse response, List<ByteRange> ranges,
+            long contentLength, String contentType, ContentWriter writer) throws IOException {
+        String boundary = UUID.randomUUID().toString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long totalLength = 0;
+        for (ByteRange range : ranges) {
+            byte[] partHeader = (CRLF + "--" + boundary + CRLF
+                    + CONTENT_TYPE + ": " + contentType + CRLF
+                    + CONTENT_RANGE + ": " + range.toContentRange(contentLength) + CRLF + CRLF)
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            totalLength += partHeader.length + range.getLength();
+        }
+        byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        totalLength += closing.length;
+
+        response.setHeader(CONTENT_TYPE, "multipart/byteranges; boundary=" + boundary);
+        response.setHeader(CONTENT_LENGTH, Long.toString(totalLength));
+
+        OutputStream out = response.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            out.write(partHeaders.get(i));
+            writer.write(out, range.getStart(), range.getLength());
+        }
+        out.write(closing);
+    }
+
+    /**
+     * Determine if the client's cached copy of the content is still current, based on the If-None-Match
+     * and If-Modified-Since headers. If-None-Match takes precedence when present.
+     *
+     * @param request
+     * @param etag quoted entity tag of the content, may be null
+     * @param lastModified last modified timestamp of the content in milliseconds, or -1 if unknown
+     * @return true if a 304 response should be returned
+     */
+    public static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return etag != null && etagListMatches(ifNoneMatch, etag);
+        }
+        if (lastModified < 0) {
+            return false;
+        }
+        long ifModifiedSince = getDateHeader(request, IF_MODIFIED_SINCE);
+        // Http dates only have second precision
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * Parse the byte ranges requested by the client
+     *
+     * @param request
+     * @param contentLength total length of the content in bytes
+     * @param etag quoted entity tag of the content, may be null
+     * @param lastModified last modified timestamp of the content in milliseconds, or -1 if unknown
+     * @return null if the full content should be returned, an empty list if none of the requested ranges
+     *      are satisfiable, otherwise the list of ranges to return, sorted with overlapping ranges combined
+     */
+    public static List<ByteRange> getRequestedRanges(HttpServletRequest request, long contentLength,
+            String etag, long lastModified) {
+        String rangeHeader = request.getHeader(RANGE);
+        if (rangeHeader == null || !rangeHeader.startsWith(BYTES_PREFIX)) {
+            return null;
+        }
+        // Only honor the range if the client's copy matches the current version
+        String ifRange = request.getHeader(IF_RANGE);
+        if (ifRange != null && !ifRangeMatches(request, ifRange, etag, lastModified)) {
+            return null;
+        }
+
+        String[] specs = rangeHeader.substring(BYTES_PREFIX.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<ByteRange> ranges = new ArrayList<>(specs.length);
+        for (String spec : specs) {
+            spec = spec.trim();
+            int dashIndex = spec.indexOf('-');
+            if (dashIndex == -1) {
+                return null;
+            }
+            String startVal = spec.substring(0, dashIndex).trim();
+            String endVal = spec.substring(dashIndex + 1).trim();
+            long start;
+            long end;
+            try {
+                if (startVal.isEmpty()) {
+                    // Suffix range, requesting the last N bytes
+                    long suffixLength = Long.parseLong(endVal);
+                    if (suffixLength <= 0) {
+                        continue;
+                    }
+                    start = Math.max(0, contentLength - suffixLength);
+                    end = contentLength - 1;
+                } else {
+                    start = Long.parseLong(startVal);
+                    long requestedEnd = endVal.isEmpty() ? Long.MAX_VALUE : Long.parseLong(endVal);
+                    if (requestedEnd < start) {
+                        return null;
+                    }
+                    end = Math.min(requestedEnd, contentLength - 1);
+                }
+            } catch (NumberFormatException e) {
+                // Syntactically invalid range headers are ignored
+                return null;
+            }
+            if (start >= contentLength) {
+                continue;
+            }
+            ranges.add(new ByteRange(start, end));
+        }
+        return coalesceRanges(ranges);
+    }
+
+    /**
+     * @return the ranges sorted by start offset, with overlapping or adjacent ranges merged together
+     */
+    private static List<ByteRange> coalesceRanges(List<ByteRange> ranges) {
+        if (ranges.size() < 2) {
+            return ranges;
+        }
+        ranges.sort(Comparator.comparingLong(ByteRange::getStart));
+        List<ByteRange> result = new ArrayList<>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (ByteRange range : ranges.subList(1, ranges.size())) {
+            if (range.getStart() <= current.getEnd() + 1) {
+                current = new ByteRange(current.getStart(), Math.max(current.getEnd(), range.getEnd()));
+            } else {
+                result.add(current);
+                current = range;
+            }
+        }
+        result.add(current);
+        return result;
+    }
+
+    /**
+     * Writes portions of content from a single stream, which is opened when writing begins
+     */
+    private static class SequentialStreamWriter implements ContentWriter, Closeable {
+        private static final int BUFFER_SIZE = 4096;
+        private final StreamSource source;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private InputStream stream;
+        private long position;
+
+        private SequentialStreamWriter(StreamSource source) {
+            this.source = source;
+        }
+
+        @Override
+        public void begin(long start, long end) throws IOException {
+            stream = source.open(start, end);
+            position = start;
+        }
+
+        @Override
+        public void write(OutputStream out, long start, long length) throws IOException {
+            if (stream == null || start < position) {
+                throw new IllegalStateException("Content must be written in ascending order after beginning");
+            }
+            IOUtils.skipFully(stream, start - position);
+            IOUtils.copyLarge(stream, out, 0, length, buffer);
+            position = start + length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String ifRange, String etag,
+            long lastModified) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith(WEAK_PREFIX)) {
+            // Strong comparison is required for If-Range
+            return etag != null && !ifRange.startsWith(WEAK_PREFIX) && ifRange.equals(etag);
+        }
+        long ifRangeDate = getDateHeader(request, IF_RANGE);
+        return ifRangeDate >= 0 && lastModified >= 0 && lastModified / 1000 == ifRangeDate / 1000;
+    }
+
+    private static boolean etagListMatches(String headerValue, String etag) {
+        String compareTag = stripWeak(etag);
+        for (String candidate : headerValue.split(",")) {
+            candidate = candidate.trim();
+            if ("*".equals(candidate) || stripWeak(candidate).equals(compareTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return StringUtils.removeStart(etag, WEAK_PREFIX);
+    }
+
+    private static long getDateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            // Unparseable dates are treated as though the header were absent
+            return -1;
+        }
+    }
+}
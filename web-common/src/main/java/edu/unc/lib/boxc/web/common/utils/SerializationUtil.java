@@ -57,6 +57,9 @@ public class SerializationUtil {
         if (response.getRootNode() != null) {
             result.put("root", structureStep(response.getRootNode(), groups));
         }
+        if (response.isPartial()) {
+            result.put("partial", true);
+        }
         return objectToJSON(result);
     }
 
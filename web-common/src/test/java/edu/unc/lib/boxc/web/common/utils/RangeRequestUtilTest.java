@@ -0,0 +1,218 @@
+package edu.unc.lib.boxc.web.common.utils;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.apache.http.HttpHeaders.ACCEPT_RANGES;
+import static org.apache.http.HttpHeaders.CONTENT_RANGE;
+import static org.apache.http.HttpHeaders.ETAG;
+import static org.apache.http.HttpHeaders.IF_MODIFIED_SINCE;
+import static org.apache.http.HttpHeaders.IF_NONE_MATCH;
+import static org.apache.http.HttpHeaders.IF_RANGE;
+import static org.apache.http.HttpHeaders.RANGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import edu.unc.lib.boxc.web.common.utils.RangeRequestUtil.ContentWriter;
+
+/**
+ * @author bbpennel
+ */
+public class RangeRequestUtilTest {
+    private static final String CONTENT = "0123456789abcdefghij";
+    private static final byte[] CONTENT_BYTES = CONTENT.getBytes(US_ASCII);
+    private static final String ETAG_VALUE = "\"abc123\"";
+    private static final long LAST_MODIFIED = 1600000000000L;
+    private static final String MIMETYPE = "text/plain";
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private ContentWriter writer;
+
+    @BeforeEach
+    public void setup() {
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+        writer = (out, start, length) -> out.write(CONTENT_BYTES, (int) start, (int) length);
+    }
+
+    @Test
+    public void fullContentTest() throws Exception {
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(CONTENT_BYTES.length, response.getContentLength());
+        assertEquals("bytes", response.getHeader(ACCEPT_RANGES));
+        assertEquals(ETAG_VALUE, response.getHeader(ETAG));
+    }
+
+    @Test
+    public void singleRangeTest() throws Exception {
+        request.addHeader(RANGE, "bytes=2-5");
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/20", response.getHeader(CONTENT_RANGE));
+        assertEquals(4, response.getContentLength());
+    }
+
+    @Test
+    public void openEndedRangeTest() throws Exception {
+        request.addHeader(RANGE, "bytes=15-");
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("fghij", response.getContentAsString());
+        assertEquals("bytes 15-19/20", response.getHeader(CONTENT_RANGE));
+    }
+
+    @Test
+    public void suffixRangeTest() throws Exception {
+        request.addHeader(RANGE, "bytes=-3");
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("hij", response.getContentAsString());
+        assertEquals("bytes 17-19/20", response.getHeader(CONTENT_RANGE));
+    }
+
+    @Test
+    public void multipleRangesTest() throws Exception {
+        request.addHeader(RANGE, "bytes=0-1, 10-12");
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        String body = response.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-1/20\r\n\r\n01\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 10-12/20\r\n\r\nabc\r\n"));
+        assertEquals(body.length(), response.getContentLength());
+    }
+
+    @Test
+    public void overlappingRangesCoalescedTest() throws Exception {
+        request.addHeader(RANGE, "bytes=10-12, 0-3, 2-5, 6-7");
+
+        writeContent();
+
+        // Overlapping and adjacent ranges are combined and returned in order
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        String body = response.getContentAsString();
+        assertTrue(body.indexOf("Content-Range: bytes 0-7/20\r\n\r\n01234567\r\n")
+                < body.indexOf("Content-Range: bytes 10-12/20\r\n\r\nabc\r\n"));
+        assertFalse(body.contains("bytes 2-5/20"));
+    }
+
+    @Test
+    public void multipleRangesFromSingleStreamTest() throws Exception {
+        request.addHeader(RANGE, "bytes=15-16, 3-4");
+        List<String> opened = new ArrayList<>();
+
+        RangeRequestUtil.writeContent(request, response, CONTENT_BYTES.length, MIMETYPE,
+                ETAG_VALUE, LAST_MODIFIED, (start, end) -> {
+                    opened.add(start + "-" + end);
+                    return new ByteArrayInputStream(CONTENT_BYTES, (int) start, (int) (end - start + 1));
+                });
+
+        // Only the span covering the requested ranges is retrieved, in a single stream
+        assertEquals(Arrays.asList("3-16"), opened);
+        String body = response.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 3-4/20\r\n\r\n34\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 15-16/20\r\n\r\nfg\r\n"));
+    }
+
+    @Test
+    public void unsatisfiableRangeTest() throws Exception {
+        request.addHeader(RANGE, "bytes=50-60");
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(CONTENT_RANGE));
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    public void invalidRangeIgnoredTest() throws Exception {
+        request.addHeader(RANGE, "bytes=8-2");
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    public void ifRangeMismatchReturnsFullContentTest() throws Exception {
+        request.addHeader(RANGE, "bytes=2-5");
+        request.addHeader(IF_RANGE, "\"oldtag\"");
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    public void ifNoneMatchTest() throws Exception {
+        request.addHeader(IF_NONE_MATCH, "\"other\", " + ETAG_VALUE);
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    public void ifNoneMatchChangedTest() throws Exception {
+        request.addHeader(IF_NONE_MATCH, "\"other\"");
+        // If-None-Match takes precedence over If-Modified-Since
+        request.addHeader(IF_MODIFIED_SINCE, LAST_MODIFIED);
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    public void ifModifiedSinceNotModifiedTest() throws Exception {
+        request.addHeader(IF_MODIFIED_SINCE, LAST_MODIFIED + 5000);
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+    }
+
+    @Test
+    public void ifModifiedSinceModifiedTest() throws Exception {
+        request.addHeader(IF_MODIFIED_SINCE, LAST_MODIFIED - 5000);
+
+        writeContent();
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    private void writeContent() throws Exception {
+        RangeRequestUtil.writeContent(request, response, CONTENT_BYTES.length, MIMETYPE,
+                ETAG_VALUE, LAST_MODIFIED, writer);
+    }
+}
@@ -6,6 +6,7 @@ import static java.util.Collections.singletonList;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -134,6 +135,26 @@ public class SerializationUtilTest extends Assertions {
         Map<String, Object> childObj = (Map<String, Object>) childrenList.get(0);
         Map<String, Object> childEntry = (Map<String, Object>) childObj.get("entry");
         assertEquals("7c73296f-54ae-438e-b8d5-1890eba41676", childEntry.get("id"));
+        assertFalse(jsonMap.containsKey("partial"));
+    }
+
+    @Test
+    public void testPartialStructureToJSON() throws Exception {
+        ContentObjectSolrRecord rootMd = new ContentObjectSolrRecord();
+        rootMd.setId("48aeb594-6d95-45e9-bb20-dd631ecc93e9");
+        rootMd.setAncestorPath(singletonList("1,48aeb594-6d95-45e9-bb20-dd631ecc93e9"));
+
+        HierarchicalBrowseResultResponse response = new HierarchicalBrowseResultResponse();
+        response.setResultList(new ArrayList<>(singletonList(rootMd)));
+        response.setSelectedContainer(rootMd);
+        response.generateResultTree();
+        response.setPartial(true);
+
+        String json = SerializationUtil.structureToJSON(response, null);
+        Map<String, Object> jsonMap = getResultMap(json);
+
+        assertEquals(true, jsonMap.get("partial"));
+        assertNotNull(jsonMap.get("root"));
     }
 
     @Test
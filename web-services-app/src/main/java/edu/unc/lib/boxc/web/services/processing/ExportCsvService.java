@@ -16,9 +16,11 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -40,7 +42,6 @@ import edu.unc.lib.boxc.search.api.models.ContentObjectRecord;
 import edu.unc.lib.boxc.search.api.models.Datastream;
 import edu.unc.lib.boxc.search.api.requests.SearchRequest;
 import edu.unc.lib.boxc.search.api.requests.SearchState;
-import edu.unc.lib.boxc.search.solr.responses.SearchResultResponse;
 import edu.unc.lib.boxc.search.solr.services.ChildrenCountService;
 import edu.unc.lib.boxc.web.common.services.SolrQueryLayerService;
 
@@ -107,7 +108,6 @@ public class ExportCsvService {
 
         SearchState searchState = new SearchState();
         searchState.setResultFields(SEARCH_FIELDS);
-        searchState.setSortType("export");
         searchState.setRowsPerPage(pageSize);
 
         ContentObjectRecord container = queryLayer.addSelectedContainer(pid, searchState, false,
@@ -123,22 +123,17 @@ public class ExportCsvService {
         // Open the CSV
         Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
         try (CSVPrinter printer = getPrinter(writer)) {
-            int pageStart = 0;
-            long totalResults = -1;
-            do {
-                searchState.setStartRow(pageStart);
-
-                SearchResultResponse resultResponse = queryLayer.getSearchResults(searchRequest);
-
-                List<ContentObjectRecord> objects = resultResponse.getResultList();
-                // Insert the parent container if on the first page of results
-                if (pageStart == 0) {
-                    objects.add(0, container);
-                    totalResults = resultResponse.getResultCount();
-                } else {
-                    log.debug("Streaming results {}-{} of {} in multi-page result for {}",
-                            pageStart, pageStart + pageSize, totalResults, pid.getId());
-                }
+            // Output the parent container first, followed by pages of its children as they are retrieved
+            List<ContentObjectRecord> containerList = new ArrayList<>();
+            containerList.add(container);
+            childrenCountService.addChildrenCounts(containerList, searchRequest.getAccessGroups());
+            printObject(printer, container);
+
+            Iterator<List<ContentObjectRecord>> pageIt = queryLayer.getSearchResultPages(searchRequest);
+            int pageNumber = 0;
+            while (pageIt.hasNext()) {
+                List<ContentObjectRecord> objects = pageIt.next();
+                log.debug("Streaming page {} of results for {}", ++pageNumber, pid.getId());
 
                 childrenCountService.addChildrenCounts(objects, searchRequest.getAccessGroups());
 
@@ -146,9 +141,7 @@ public class ExportCsvService {
                 for (ContentObjectRecord object : objects) {
                     printObject(printer, object);
                 }
-
-                pageStart += pageSize;
-            } while (pageStart < totalResults);
+            }
         } catch (IOException e) {
             throw new RepositoryException("Failed to stream CSV results for " + pid, e);
         }
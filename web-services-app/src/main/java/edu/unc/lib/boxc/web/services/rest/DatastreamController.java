@@ -86,13 +86,13 @@ public class DatastreamController {
 
         try {
             if (isDerivative(datastream)) {
-                derivativeContentService.streamData(pid, datastream, principals, false, response);
+                derivativeContentService.streamData(pid, datastream, principals, false, request, response);
             } else if (DatastreamType.MD_EVENTS.getId().equals(datastream)) {
                 fedoraContentService.streamEventLog(pid, principals, download, response);
             } else {
-                fedoraContentService.streamData(pid, datastream, principals, download, response);
+                fedoraContentService.streamData(pid, datastream, principals, download, request, response);
                 if (datastream == null || DatastreamType.ORIGINAL_FILE.getId().equals(datastream)) {
-                    recordDownloadEvent(pid, datastream, principals, request);
+                    recordDownloadEvent(pid, datastream, principals, request, response);
                 }
             }
         } catch (IOException e) {
@@ -101,10 +101,14 @@ public class DatastreamController {
     }
 
     private void recordDownloadEvent(PID pid, String datastream, AccessGroupSet principals,
-            HttpServletRequest request) {
+            HttpServletRequest request, HttpServletResponse response) {
         if (!(StringUtils.isBlank(datastream) || ORIGINAL_FILE.getId().equals(datastream))) {
             return;
         }
+        // Partial and not modified responses are not counted as downloads
+        if (response.getStatus() != HttpServletResponse.SC_OK) {
+            return;
+        }
         analyticsTracker.trackEvent(request, "download", pid, principals);
     }
 
@@ -139,7 +143,7 @@ public class DatastreamController {
             }
         }
 
-        derivativeContentService.streamData(pid, thumbName, principals, false, response);
+        derivativeContentService.streamData(pid, thumbName, principals, false, request, response);
     }
 
     @ResponseStatus(value = HttpStatus.NOT_FOUND)